@@ -0,0 +1,92 @@
+package com.lothbrok.fintrack.analytics.columnar;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+
+/**
+ * Group-by latency of {@link ColumnarSnapshot} for one user's history. The memory footprint is not a timing and is
+ * left to {@link ColumnarSnapshot#estimatedBytes()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnarSnapshotBenchmark {
+
+    private static final String[] CATEGORIES = { "Food", "Rent", "Transport", "Utilities", "Salary", "Health",
+            "Leisure", "Travel", "Education", "Gifts", "Shopping", "Insurance" };
+
+    @Param({ "10000", "100000", "1000000" })
+    public int rows;
+
+    private ColumnarSnapshot snapshot;
+    private int[] dailyBounds;
+    private int[] monthlyBounds;
+    private UUID wallet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        wallet = new UUID(7, 7);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        LocalDate end = start.plusYears(5);
+        int span = (int) (end.toEpochDay() - start.toEpochDay());
+        snapshot = new ColumnarSnapshot(rows);
+        for (int i = 0; i < rows; i++) {
+            String category = CATEGORIES[Math.min(CATEGORIES.length - 1, (int) (-Math.log(random.nextDouble()) * 3))];
+            snapshot.append(new UUID(random.nextLong(), random.nextLong()),
+                    (int) start.toEpochDay() + random.nextInt(span),
+                    100 + random.nextInt(50_000),
+                    category,
+                    "Salary".equals(category) ? TransactionType.INCOME : TransactionType.EXPENSE,
+                    random.nextInt(10) == 0 ? wallet : null);
+        }
+        dailyBounds = new int[span + 1];
+        for (int i = 0; i <= span; i++) {
+            dailyBounds[i] = (int) start.toEpochDay() + i;
+        }
+        monthlyBounds = new int[61];
+        for (int i = 0; i <= 60; i++) {
+            monthlyBounds[i] = (int) start.plusMonths(i).toEpochDay();
+        }
+    }
+
+    @Benchmark
+    public Map<String, long[][]> dailyFiveYearsAllCategories() {
+        return snapshot.groupByCategoryAndBucket(dailyBounds, ColumnarSnapshot.TYPE_DELETED, null, null,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Map<String, long[][]> monthlyExpensesForTwoCategories() {
+        return snapshot.groupByCategoryAndBucket(monthlyBounds, ColumnarSnapshot.TYPE_EXPENSE, null,
+                List.of("Food", "Rent"), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Map<String, long[][]> monthlyWalletOnly() {
+        return snapshot.groupByCategoryAndBucket(monthlyBounds, ColumnarSnapshot.TYPE_DELETED, wallet, null,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+}
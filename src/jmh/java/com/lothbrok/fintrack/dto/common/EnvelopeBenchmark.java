@@ -0,0 +1,65 @@
+package com.lothbrok.fintrack.dto.common;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of building the response envelope, which stamps {@code Instant.now()} and unwraps {@code Optional}s per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvelopeBenchmark {
+
+    private final List<String> payload = List.of("a", "b", "c");
+    private final ErrorDetail error = new ErrorDetail("TXN_NOT_FOUND", "Transaction does not exist", null);
+
+    @Benchmark
+    public ResponseMeta metaWithoutPagination() {
+        return ResponseMeta.withoutPagination("txn-52f3");
+    }
+
+    @Benchmark
+    public ResponseMeta metaWithNullsDefaulted() {
+        return new ResponseMeta(null, null, null);
+    }
+
+    @Benchmark
+    public PaginationMeta paginationMeta() {
+        return new PaginationMeta(0, 20, 48, 3);
+    }
+
+    @Benchmark
+    public ApiResponse<List<String>> successEnvelope() {
+        return ApiResponse.success(payload, ResponseMeta.withoutPagination("txn-52f3"));
+    }
+
+    @Benchmark
+    public ApiResponse<List<String>> pagedSuccessEnvelope() {
+        return ApiResponse.success(payload,
+                ResponseMeta.withoutPagination("txn-52f3").withPagination(new PaginationMeta(0, 20, 48, 3)));
+    }
+
+    @Benchmark
+    public ApiResponse<List<String>> successEnvelopeWithDefaultMeta() {
+        return ApiResponse.success(payload, (ResponseMeta) null);
+    }
+
+    @Benchmark
+    public ApiResponse<Void> failureEnvelope() {
+        return ApiResponse.failure(error, ResponseMeta.withoutPagination("txn-52f3"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.lothbrok.fintrack.dto.mapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.lothbrok.fintrack.dto.budget.BudgetResponse;
+import com.lothbrok.fintrack.dto.sharedwallet.SharedWalletResponse;
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionSummaryResponse;
+import com.lothbrok.fintrack.entity.Budget;
+import com.lothbrok.fintrack.entity.SharedWallet;
+import com.lothbrok.fintrack.entity.SharedWalletMember;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private User user;
+    private CreateTransactionRequest createRequest;
+    private Transaction transaction;
+    private Budget budget;
+    private BigDecimal income;
+    private BigDecimal expense;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFullName("Alice Example");
+        createRequest = new CreateTransactionRequest("Groceries", new BigDecimal("82.45"), null, "Food",
+                TransactionType.EXPENSE, LocalDate.of(2025, 10, 19), null, null, null);
+        transaction = TransactionMapper.toEntity(createRequest, user, null);
+        transaction.setId(UUID.randomUUID());
+
+        budget = new Budget();
+        budget.setId(UUID.randomUUID());
+        budget.setUser(user);
+        budget.setMonth("2025-10");
+        budget.setCategory("Food");
+        budget.setAmount(new BigDecimal("400.00"));
+        budget.setUsedAmount(new BigDecimal("310.75"));
+
+        income = new BigDecimal("8200.00");
+        expense = new BigDecimal("5420.50");
+    }
+
+    @Benchmark
+    public Transaction transactionToEntity() {
+        return TransactionMapper.toEntity(createRequest, user, null);
+    }
+
+    @Benchmark
+    public TransactionResponse transactionToResponse() {
+        return TransactionMapper.toResponse(transaction);
+    }
+
+    @Benchmark
+    public TransactionSummaryResponse transactionToSummary() {
+        return TransactionMapper.toSummary(income, expense);
+    }
+
+    @Benchmark
+    public BudgetResponse budgetToResponse() {
+        return BudgetMapper.toResponse(budget);
+    }
+
+    @Benchmark
+    public SharedWalletResponse sharedWalletToResponse(WalletState state) {
+        return SharedWalletMapper.toResponse(state.wallet);
+    }
+
+    /** Only the shared-wallet benchmark depends on the member count, so only it runs once per value. */
+    @State(Scope.Thread)
+    public static class WalletState {
+
+        @Param({ "10", "1000" })
+        public int walletMembers;
+
+        private SharedWallet wallet;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            User owner = new User();
+            owner.setId(UUID.randomUUID());
+            owner.setFullName("Alice Example");
+            wallet = new SharedWallet();
+            wallet.setId(UUID.randomUUID());
+            wallet.setName("Household");
+            wallet.setOwner(owner);
+            Set<SharedWalletMember> members = new HashSet<>();
+            for (int i = 0; i < walletMembers; i++) {
+                User member = new User();
+                member.setId(UUID.randomUUID());
+                member.setFullName("Member " + i);
+                SharedWalletMember membership = new SharedWalletMember();
+                membership.setId(UUID.randomUUID());
+                membership.setWallet(wallet);
+                membership.setMember(member);
+                membership.setShareRatio(new BigDecimal("0.2500"));
+                membership.setRunningBalance(BigDecimal.valueOf(i * 137L, 2));
+                members.add(membership);
+            }
+            wallet.setMembers(members);
+        }
+    }
+}
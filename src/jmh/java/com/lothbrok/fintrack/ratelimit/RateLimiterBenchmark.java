@@ -0,0 +1,63 @@
+package com.lothbrok.fintrack.ratelimit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of one rate limit check with eight threads checking at once, either all against one key (every check a
+ * contended compare-and-set on the same bucket) or spread over a million keys held at the same time. The refill
+ * rate is high enough that checks are allowed, which is the path that writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    @Param({ "1", "1000000" })
+    public int keys;
+
+    private RateLimiter limiter;
+    private RateLimiter.Limit limit;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy(List.of("/api/v1/public/**"),
+                RateLimitProperties.KeySource.API_KEY, TokenBucket.MAX_TOKENS, 1e9);
+        limiter = new RateLimiter(new RateLimitProperties(true, 2_000_000, null, Map.of("public", policy), null, null),
+                null, null, new SimpleMeterRegistry());
+        limit = limiter.limit("public");
+        names = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            names[i] = "key-" + i;
+            limiter.tryAcquire(limit, names[i]);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return limiter.tryAcquire(limit, names[ThreadLocalRandom.current().nextInt(keys)]);
+    }
+}
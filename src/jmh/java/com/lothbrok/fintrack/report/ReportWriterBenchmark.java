@@ -0,0 +1,110 @@
+package com.lothbrok.fintrack.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.repository.projection.ReportRow;
+
+/**
+ * Single-shot throughput of the streaming report writers; run with {@code -prof gc} to see allocation per report.
+ * A yearly history for a heavy user is in the tens of thousands of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class ReportWriterBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int rows;
+
+    @Param({ "XLSX", "PDF" })
+    public String format;
+
+    @Benchmark
+    public long writeReport() throws IOException {
+        CountingStream out = new CountingStream();
+        try (ReportWriter writer = "PDF".equals(format) ? new PdfReportWriter(200) : new XlsxReportWriter(100)) {
+            writer.begin(out, "Benchmark");
+            LocalDate day = LocalDate.of(2024, 1, 1);
+            for (int i = 0; i < rows; i++) {
+                writer.write(new Row(day.plusDays(i % 366), "Transaction " + i, i % 7 == 0 ? "Salary" : "Food",
+                        i % 7 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+                        BigDecimal.valueOf(1000 + i % 9000, 2)));
+            }
+            writer.finish();
+        }
+        return out.count;
+    }
+
+    private record Row(LocalDate eventDate, String title, String category, TransactionType type, BigDecimal amount)
+            implements ReportRow {
+
+        @Override
+        public LocalDate getEventDate() {
+            return eventDate;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String getCategory() {
+            return category;
+        }
+
+        @Override
+        public TransactionType getType() {
+            return type;
+        }
+
+        @Override
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        @Override
+        public String getCurrency() {
+            return "USD";
+        }
+
+        @Override
+        public String getNote() {
+            return null;
+        }
+    }
+
+    private static final class CountingStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
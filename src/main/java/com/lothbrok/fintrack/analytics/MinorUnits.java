@@ -0,0 +1,24 @@
+package com.lothbrok.fintrack.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class MinorUnits {
+
+    /** Scale of every monetary column ({@code NUMERIC(14,2)}). */
+    public static final int SCALE = 2;
+
+    private MinorUnits() {
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+}
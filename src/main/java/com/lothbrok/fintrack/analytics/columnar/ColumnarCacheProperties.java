@@ -0,0 +1,13 @@
+package com.lothbrok.fintrack.analytics.columnar;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "fintrack.analytics.columnar")
+public record ColumnarCacheProperties(boolean enabled, long maxBytes) {
+
+    public ColumnarCacheProperties {
+        if (maxBytes <= 0) {
+            maxBytes = 64L * 1024 * 1024;
+        }
+    }
+}
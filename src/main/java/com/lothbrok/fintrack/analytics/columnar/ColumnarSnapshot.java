@@ -0,0 +1,388 @@
+package com.lothbrok.fintrack.analytics.columnar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+
+/**
+ * Column-oriented copy of one user's transaction history. Each row is spread over parallel primitive arrays so
+ * filters and group-bys are tight loops over contiguous memory. Categories and wallets are dictionary-encoded.
+ * Deleted rows are tombstoned in place ({@link #TYPE_DELETED}) and compacted when they pass a quarter of the rows.
+ * Rows are found by id through an open-addressing index of row numbers, kept at most half full, so updates and
+ * deletes do not scan the columns.
+ */
+public final class ColumnarSnapshot {
+
+    public static final byte TYPE_INCOME = 0;
+    public static final byte TYPE_EXPENSE = 1;
+    public static final byte TYPE_DELETED = -1;
+
+    public static final int NO_WALLET = -1;
+
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int MAX_LOOKUP_DAYS = 1 << 20;
+
+    private static final int BYTES_PER_ROW = Integer.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES
+            + Integer.BYTES + 2 * Long.BYTES;
+    private static final int BYTES_PER_DICTIONARY_ENTRY = 96;
+    private static final int EMPTY_SLOT = 0;
+    private static final int REMOVED_SLOT = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private int deleted;
+    private int[] epochDay;
+    private long[] amountMinor;
+    private int[] categoryId;
+    private byte[] type;
+    private int[] walletId;
+    private long[] idMsb;
+    private long[] idLsb;
+    /** Row + 1 per slot; {@link #EMPTY_SLOT} ends a probe, {@link #REMOVED_SLOT} does not. */
+    private int[] index;
+    private int indexUsed;
+
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private final List<UUID> wallets = new ArrayList<>();
+    private final Map<UUID, Integer> walletIds = new HashMap<>();
+
+    public ColumnarSnapshot(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        epochDay = new int[capacity];
+        amountMinor = new long[capacity];
+        categoryId = new int[capacity];
+        type = new byte[capacity];
+        walletId = new int[capacity];
+        idMsb = new long[capacity];
+        idLsb = new long[capacity];
+        index = new int[indexLength(capacity)];
+    }
+
+    public void append(UUID id, int day, long amount, String category, TransactionType transactionType, UUID wallet) {
+        lock.writeLock().lock();
+        try {
+            appendUnlocked(id, day, amount, category, transactionType, wallet);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            return removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the row for {@code id}; the row is appended if it was not present.
+     */
+    public void replace(UUID id, int day, long amount, String category, TransactionType transactionType, UUID wallet) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            appendUnlocked(id, day, amount, category, transactionType, wallet);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int liveRows() {
+        lock.readLock().lock();
+        try {
+            return size - deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) epochDay.length * BYTES_PER_ROW + (long) index.length * Integer.BYTES
+                    + (long) (categories.size() + wallets.size()) * BYTES_PER_DICTIONARY_ENTRY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sums amounts per (category, type, bucket). {@code bucketBounds} holds ascending epoch days where bucket
+     * {@code i} covers {@code [bucketBounds[i], bucketBounds[i + 1])}; rows outside the bounds are skipped.
+     *
+     * @param typeFilter    {@link #TYPE_INCOME}, {@link #TYPE_EXPENSE} or {@link #TYPE_DELETED} for both
+     * @param walletFilter  wallet to restrict to, or null for all rows
+     * @param categoryNames categories to keep, or null for all
+     * @return per-category {@code [income, expense]} arrays indexed by bucket
+     */
+    public Map<String, long[][]> groupByCategoryAndBucket(int[] bucketBounds,
+            byte typeFilter,
+            UUID walletFilter,
+            List<String> categoryNames,
+            long minAmount,
+            long maxAmount) {
+        lock.readLock().lock();
+        try {
+            int walletCode = NO_WALLET;
+            if (walletFilter != null) {
+                Integer code = walletIds.get(walletFilter);
+                if (code == null) {
+                    return Map.of();
+                }
+                walletCode = code;
+            }
+            boolean[] allowedCategories = new boolean[categories.size()];
+            if (categoryNames == null) {
+                Arrays.fill(allowedCategories, true);
+            } else {
+                for (String name : categoryNames) {
+                    Integer code = categoryIds.get(name);
+                    if (code != null) {
+                        allowedCategories[code] = true;
+                    }
+                }
+            }
+            Scan scan = new Scan(bucketBounds, typeFilter, walletFilter != null, walletCode, allowedCategories,
+                    minAmount, maxAmount);
+            long[] totals;
+            if (size < PARALLEL_THRESHOLD) {
+                totals = scan.run(0, size);
+            } else {
+                int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4,
+                        size / (PARALLEL_THRESHOLD / 4)));
+                int chunkSize = (size + chunks - 1) / chunks;
+                totals = IntStream.range(0, chunks)
+                        .parallel()
+                        .mapToObj(chunk -> scan.run(chunk * chunkSize, Math.min(size, (chunk + 1) * chunkSize)))
+                        .reduce(ColumnarSnapshot::addInto)
+                        .orElseGet(() -> new long[0]);
+            }
+            return unpack(totals, bucketBounds.length - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, long[][]> unpack(long[] totals, int bucketCount) {
+        Map<String, long[][]> result = new HashMap<>();
+        int stride = 2 * bucketCount;
+        for (int category = 0; category < categories.size(); category++) {
+            int base = category * stride;
+            boolean any = false;
+            for (int i = base; i < base + stride; i++) {
+                if (totals[i] != 0) {
+                    any = true;
+                    break;
+                }
+            }
+            if (any) {
+                long[] income = Arrays.copyOfRange(totals, base, base + bucketCount);
+                long[] expense = Arrays.copyOfRange(totals, base + bucketCount, base + stride);
+                result.put(categories.get(category), new long[][] { income, expense });
+            }
+        }
+        return result;
+    }
+
+    private static long[] addInto(long[] left, long[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    private final class Scan {
+
+        private final int[] bounds;
+        private final byte typeFilter;
+        private final boolean filterWallet;
+        private final int walletCode;
+        private final boolean[] allowedCategories;
+        private final long minAmount;
+        private final long maxAmount;
+        private final int[] dayToBucket;
+
+        Scan(int[] bounds, byte typeFilter, boolean filterWallet, int walletCode, boolean[] allowedCategories,
+                long minAmount, long maxAmount) {
+            this.bounds = bounds;
+            this.typeFilter = typeFilter;
+            this.filterWallet = filterWallet;
+            this.walletCode = walletCode;
+            this.allowedCategories = allowedCategories;
+            this.minAmount = minAmount;
+            this.maxAmount = maxAmount;
+            int first = bounds[0];
+            int span = bounds[bounds.length - 1] - first;
+            if (span <= MAX_LOOKUP_DAYS) {
+                dayToBucket = new int[Math.max(0, span)];
+                for (int bucket = 0; bucket < bounds.length - 1; bucket++) {
+                    Arrays.fill(dayToBucket, bounds[bucket] - first, bounds[bucket + 1] - first, bucket);
+                }
+            } else {
+                dayToBucket = null;
+            }
+        }
+
+        long[] run(int start, int end) {
+            int bucketCount = bounds.length - 1;
+            int stride = 2 * bucketCount;
+            long[] totals = new long[allowedCategories.length * stride];
+            int first = bounds[0];
+            int last = bounds[bucketCount];
+            for (int row = start; row < end; row++) {
+                byte rowType = type[row];
+                if (rowType == TYPE_DELETED || (typeFilter != TYPE_DELETED && rowType != typeFilter)) {
+                    continue;
+                }
+                int day = epochDay[row];
+                if (day < first || day >= last) {
+                    continue;
+                }
+                int category = categoryId[row];
+                if (!allowedCategories[category] || (filterWallet && walletId[row] != walletCode)) {
+                    continue;
+                }
+                long amount = amountMinor[row];
+                if (amount < minAmount || amount > maxAmount) {
+                    continue;
+                }
+                int bucket = bucketOf(day);
+                totals[category * stride + rowType * bucketCount + bucket] += amount;
+            }
+            return totals;
+        }
+
+        private int bucketOf(int day) {
+            if (dayToBucket != null) {
+                return dayToBucket[day - bounds[0]];
+            }
+            int index = Arrays.binarySearch(bounds, day);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+
+    private void appendUnlocked(UUID id, int day, long amount, String category, TransactionType transactionType,
+            UUID wallet) {
+        if (size == epochDay.length) {
+            grow(size * 2);
+        }
+        epochDay[size] = day;
+        amountMinor[size] = amount;
+        categoryId[size] = categoryIds.computeIfAbsent(category, key -> {
+            categories.add(key);
+            return categories.size() - 1;
+        });
+        type[size] = transactionType == TransactionType.INCOME ? TYPE_INCOME : TYPE_EXPENSE;
+        walletId[size] = wallet == null ? NO_WALLET : walletIds.computeIfAbsent(wallet, key -> {
+            wallets.add(key);
+            return wallets.size() - 1;
+        });
+        idMsb[size] = id.getMostSignificantBits();
+        idLsb[size] = id.getLeastSignificantBits();
+        indexRow(size);
+        size++;
+    }
+
+    private boolean removeUnlocked(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int mask = index.length - 1;
+        for (int slot = slot(msb, lsb, mask); index[slot] != EMPTY_SLOT; slot = (slot + 1) & mask) {
+            int row = index[slot] - 1;
+            if (row >= 0 && idLsb[row] == lsb && idMsb[row] == msb) {
+                index[slot] = REMOVED_SLOT;
+                type[row] = TYPE_DELETED;
+                deleted++;
+                if (deleted > size / 4) {
+                    compact();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void indexRow(int row) {
+        if ((indexUsed + 1) * 2 > index.length) {
+            reindex(indexLength(size + 1));
+        }
+        int mask = index.length - 1;
+        int slot = slot(idMsb[row], idLsb[row], mask);
+        while (index[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        if (index[slot] == EMPTY_SLOT) {
+            indexUsed++;
+        }
+        index[slot] = row + 1;
+    }
+
+    /** Rebuilds the index from the live rows, dropping removed slots. */
+    private void reindex(int length) {
+        index = new int[length];
+        indexUsed = 0;
+        int mask = length - 1;
+        for (int row = 0; row < size; row++) {
+            if (type[row] == TYPE_DELETED) {
+                continue;
+            }
+            int slot = slot(idMsb[row], idLsb[row], mask);
+            while (index[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = row + 1;
+            indexUsed++;
+        }
+    }
+
+    private static int slot(long msb, long lsb, int mask) {
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /** A power of two at least four times {@code rows}, so the index starts at most a quarter full. */
+    private static int indexLength(int rows) {
+        return Integer.highestOneBit(Math.min(Math.max(16, rows), 1 << 28) * 4 - 1) << 1;
+    }
+
+    private void compact() {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (type[read] == TYPE_DELETED) {
+                continue;
+            }
+            epochDay[write] = epochDay[read];
+            amountMinor[write] = amountMinor[read];
+            categoryId[write] = categoryId[read];
+            type[write] = type[read];
+            walletId[write] = walletId[read];
+            idMsb[write] = idMsb[read];
+            idLsb[write] = idLsb[read];
+            write++;
+        }
+        size = write;
+        deleted = 0;
+        reindex(index.length);
+    }
+
+    private void grow(int capacity) {
+        epochDay = Arrays.copyOf(epochDay, capacity);
+        amountMinor = Arrays.copyOf(amountMinor, capacity);
+        categoryId = Arrays.copyOf(categoryId, capacity);
+        type = Arrays.copyOf(type, capacity);
+        walletId = Arrays.copyOf(walletId, capacity);
+        idMsb = Arrays.copyOf(idMsb, capacity);
+        idLsb = Arrays.copyOf(idLsb, capacity);
+    }
+}
@@ -0,0 +1,184 @@
+package com.lothbrok.fintrack.analytics.columnar;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.lothbrok.fintrack.analytics.MinorUnits;
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.cache.InvalidationListener;
+import com.lothbrok.fintrack.event.TransactionBatchChangedEvent;
+import com.lothbrok.fintrack.event.TransactionChangedEvent;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.repository.projection.TransactionColumnsRow;
+
+/**
+ * Per-user {@link ColumnarSnapshot}s, built lazily from one streaming query and evicted least-recently-used once the
+ * estimated footprint of all snapshots exceeds {@code fintrack.analytics.columnar.max-bytes}. Committed
+ * {@link TransactionChangedEvent}s, alone or in a batch, are applied to snapshots that are already resident;
+ * snapshots of users whose transactions changed on another node are dropped and rebuilt on the next read.
+ */
+@Component
+public class ColumnarSnapshotCache implements InvalidationListener {
+
+    private static final String TRANSACTION = "Transaction";
+
+    private final TransactionRepository transactionRepository;
+    private final ColumnarCacheProperties properties;
+
+    private final LinkedHashMap<UUID, ColumnarSnapshot> snapshots = new LinkedHashMap<>(64, 0.75f, true);
+    /**
+     * One flag per load in progress, set when the user's transactions change while it streams. The sets are only
+     * touched inside the map's atomic compute methods.
+     */
+    private final Map<UUID, Set<AtomicBoolean>> building = new ConcurrentHashMap<>();
+    private long residentBytes;
+
+    public ColumnarSnapshotCache(TransactionRepository transactionRepository, ColumnarCacheProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public Optional<ColumnarSnapshot> peek(UUID userId) {
+        synchronized (snapshots) {
+            return Optional.ofNullable(snapshots.get(userId));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ColumnarSnapshot getOrLoad(UUID userId) {
+        ColumnarSnapshot cached = peek(userId).orElse(null);
+        if (cached != null) {
+            return cached;
+        }
+        AtomicBoolean changed = new AtomicBoolean();
+        building.compute(userId, (key, loads) -> {
+            Set<AtomicBoolean> registered = loads != null ? loads : new HashSet<>();
+            registered.add(changed);
+            return registered;
+        });
+        try {
+            ColumnarSnapshot snapshot = load(userId);
+            // Still registered: a change committing from here on either marks this load before the check below,
+            // or finds the snapshot resident and is applied to it.
+            synchronized (snapshots) {
+                if (!changed.get()) {
+                    ColumnarSnapshot raced = snapshots.get(userId);
+                    if (raced != null) {
+                        return raced;
+                    }
+                    snapshots.put(userId, snapshot);
+                    residentBytes += snapshot.estimatedBytes();
+                    evictOverBudget(userId);
+                    return snapshot;
+                }
+            }
+        } finally {
+            building.computeIfPresent(userId, (key, loads) -> {
+                loads.remove(changed);
+                return loads.isEmpty() ? null : loads;
+            });
+        }
+        // A write committed while the snapshot was streaming; serve a fresh copy but do not keep it.
+        return load(userId);
+    }
+
+    public void evict(UUID userId) {
+        synchronized (snapshots) {
+            ColumnarSnapshot removed = snapshots.remove(userId);
+            if (removed != null) {
+                residentBytes -= removed.estimatedBytes();
+            }
+        }
+    }
+
+    public long residentBytes() {
+        synchronized (snapshots) {
+            return residentBytes;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        UUID userId = event.userId();
+        markBuilding(userId);
+        synchronized (snapshots) {
+            ColumnarSnapshot snapshot = snapshots.get(userId);
+            if (snapshot == null) {
+                return;
+            }
+            long bytesBefore = snapshot.estimatedBytes();
+            TransactionSnapshot after = event.after();
+            // The snapshot may have been loaded after this commit, so applying the change must be idempotent.
+            switch (event.kind()) {
+                case CREATED, UPDATED -> snapshot.replace(after.id(), (int) after.eventDate().toEpochDay(),
+                        MinorUnits.toMinor(after.amount()), after.category(), after.type(), after.walletId());
+                case DELETED -> snapshot.remove(event.transactionId());
+            }
+            residentBytes += snapshot.estimatedBytes() - bytesBefore;
+            evictOverBudget(userId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionsChanged(TransactionBatchChangedEvent event) {
+        event.changes().forEach(this::onTransactionChanged);
+    }
+
+    @Override
+    public void onInvalidations(List<Invalidation> invalidations) {
+        for (Invalidation invalidation : invalidations) {
+            if (TRANSACTION.equals(invalidation.entityType())) {
+                markBuilding(invalidation.userId());
+                evict(invalidation.userId());
+            }
+        }
+    }
+
+    private void markBuilding(UUID userId) {
+        building.computeIfPresent(userId, (key, loads) -> {
+            loads.forEach(load -> load.set(true));
+            return loads;
+        });
+    }
+
+    private ColumnarSnapshot load(UUID userId) {
+        long rows = transactionRepository.countByUserId(userId);
+        ColumnarSnapshot snapshot = new ColumnarSnapshot((int) Math.min(Integer.MAX_VALUE - 8, rows + 16));
+        try (Stream<TransactionColumnsRow> stream = transactionRepository.streamColumnsByUserId(userId)) {
+            stream.forEach(row -> snapshot.append(row.getId(), (int) row.getEventDate().toEpochDay(),
+                    MinorUnits.toMinor(row.getAmount()), row.getCategory(), row.getType(), row.getWalletId()));
+        }
+        return snapshot;
+    }
+
+    private void evictOverBudget(UUID keep) {
+        Iterator<Map.Entry<UUID, ColumnarSnapshot>> eldest = snapshots.entrySet().iterator();
+        while (residentBytes > properties.maxBytes() && eldest.hasNext()) {
+            Map.Entry<UUID, ColumnarSnapshot> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            residentBytes -= entry.getValue().estimatedBytes();
+            eldest.remove();
+        }
+    }
+}
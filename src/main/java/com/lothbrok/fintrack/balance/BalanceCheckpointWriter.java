@@ -0,0 +1,185 @@
+package com.lothbrok.fintrack.balance;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.lothbrok.fintrack.entity.BalanceCheckpoint;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionBatchChangedEvent;
+import com.lothbrok.fintrack.event.TransactionChangedEvent;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
+
+/**
+ * Keeps {@link BalanceCheckpoint}s in step with every transaction insert, update and delete. A change of
+ * {@code delta} in month {@code M} adds {@code delta} to {@code M}'s net change and to the opening balance of every
+ * later checkpoint of the same user and wallet in one range update, so back-dated edits cost the same as current
+ * ones. Transactions themselves are never re-read: checkpoints only ever move by the deltas carried in the events.
+ * <p>
+ * Runs synchronously inside the writing transaction (checkpoints commit or roll back with the row) over plain JDBC,
+ * because the events are raised while Hibernate is flushing. The owning user / wallet row is locked first so
+ * concurrent writers cannot both create the same month or miss each other's new rows.
+ */
+@Component
+public class BalanceCheckpointWriter {
+
+    /** Adds the delta to the month's net change and to the opening balance of every later month. */
+    private static final String SHIFT_SQL = """
+            update balance_checkpoints
+            set net_change = net_change + case when month_start = ? then cast(? as numeric(16, 2)) else 0 end,
+                opening_balance = opening_balance + case when month_start > ? then cast(? as numeric(16, 2)) else 0 end,
+                updated_at = ?
+            where %s = ? and month_start >= ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceCheckpointWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    enum Scope {
+        USER("users", "user_id"),
+        WALLET("shared_wallets", "wallet_id");
+
+        private final String ownerTable;
+        private final String column;
+
+        Scope(String ownerTable, String column) {
+            this.ownerTable = ownerTable;
+            this.column = column;
+        }
+    }
+
+    private record Key(Scope scope, UUID ownerId, LocalDate monthStart) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int byScope = scope.compareTo(other.scope);
+            if (byScope != 0) {
+                return byScope;
+            }
+            int byOwner = ownerId.compareTo(other.ownerId);
+            return byOwner != 0 ? byOwner : monthStart.compareTo(other.monthStart);
+        }
+    }
+
+    private record Checkpoint(LocalDate monthStart, BigDecimal openingBalance, BigDecimal netChange) {
+
+        BigDecimal closingBalance() {
+            return openingBalance.add(netChange);
+        }
+    }
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        // Sorted so that owners are always locked in the same order.
+        Map<Key, BigDecimal> deltas = new TreeMap<>();
+        collect(deltas, event);
+        apply(deltas);
+    }
+
+    /** Nets the deltas of the whole batch first, so each touched month is written once. */
+    @EventListener
+    public void onTransactionsChanged(TransactionBatchChangedEvent event) {
+        Map<Key, BigDecimal> deltas = new TreeMap<>();
+        for (TransactionChangedEvent change : event.changes()) {
+            collect(deltas, change);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Takes rows deleted over plain JDBC, which raise no event, out of the checkpoints their snapshots name; a
+     * snapshot without a user only moves its wallet's.
+     */
+    public void onDeleted(List<TransactionSnapshot> deleted) {
+        Map<Key, BigDecimal> deltas = new TreeMap<>();
+        for (TransactionSnapshot snapshot : deleted) {
+            collect(deltas, snapshot, true);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Signed effect of a transaction on its owners' balances: income adds, expenses subtract.
+     */
+    public static BigDecimal signedAmount(TransactionType type, BigDecimal amount) {
+        return type == TransactionType.INCOME ? amount : amount.negate();
+    }
+
+    private static void collect(Map<Key, BigDecimal> deltas, TransactionChangedEvent event) {
+        if (event.before() != null) {
+            collect(deltas, event.before(), true);
+        }
+        if (event.after() != null) {
+            collect(deltas, event.after(), false);
+        }
+    }
+
+    private void apply(Map<Key, BigDecimal> deltas) {
+        Key locked = null;
+        for (Map.Entry<Key, BigDecimal> entry : deltas.entrySet()) {
+            Key key = entry.getKey();
+            if (entry.getValue().signum() == 0) {
+                continue;
+            }
+            if (locked == null || locked.scope() != key.scope() || !locked.ownerId().equals(key.ownerId())) {
+                lockOwner(key.scope(), key.ownerId());
+                locked = key;
+            }
+            apply(key, entry.getValue());
+        }
+    }
+
+    private static void collect(Map<Key, BigDecimal> deltas, TransactionSnapshot snapshot, boolean reverse) {
+        if (snapshot.amount() == null || snapshot.eventDate() == null || snapshot.type() == null) {
+            return;
+        }
+        BigDecimal delta = signedAmount(snapshot.type(), snapshot.amount());
+        if (reverse) {
+            delta = delta.negate();
+        }
+        LocalDate monthStart = snapshot.eventDate().withDayOfMonth(1);
+        if (snapshot.userId() != null) {
+            deltas.merge(new Key(Scope.USER, snapshot.userId(), monthStart), delta, BigDecimal::add);
+        }
+        if (snapshot.walletId() != null) {
+            deltas.merge(new Key(Scope.WALLET, snapshot.walletId(), monthStart), delta, BigDecimal::add);
+        }
+    }
+
+    private void lockOwner(Scope scope, UUID ownerId) {
+        jdbcTemplate.queryForList("select id from " + scope.ownerTable + " where id = ? for update", ownerId);
+    }
+
+    private void apply(Key key, BigDecimal delta) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Date monthStart = Date.valueOf(key.monthStart());
+        List<Checkpoint> previous = jdbcTemplate.query(
+                "select month_start, opening_balance, net_change from balance_checkpoints "
+                        + "where " + key.scope().column + " = ? and month_start <= ? "
+                        + "order by month_start desc fetch first 1 rows only",
+                (rs, rowNum) -> new Checkpoint(rs.getObject(1, LocalDate.class), rs.getBigDecimal(2),
+                        rs.getBigDecimal(3)),
+                key.ownerId(), monthStart);
+        if (previous.isEmpty() || !previous.get(0).monthStart().equals(key.monthStart())) {
+            BigDecimal opening = previous.isEmpty() ? BigDecimal.ZERO : previous.get(0).closingBalance();
+            jdbcTemplate.update("insert into balance_checkpoints (id, " + key.scope().column + ", month_start, "
+                    + "opening_balance, net_change, created_at, updated_at) values (?, ?, ?, ?, 0, ?, ?)",
+                    UUID.randomUUID(), key.ownerId(), monthStart, opening, now, now);
+        }
+        jdbcTemplate.update(String.format(SHIFT_SQL, key.scope().column),
+                monthStart, delta, monthStart, delta, now, key.ownerId(), monthStart);
+    }
+}
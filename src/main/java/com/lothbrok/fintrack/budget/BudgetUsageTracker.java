@@ -0,0 +1,175 @@
+package com.lothbrok.fintrack.budget;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lothbrok.fintrack.entity.Budget;
+import com.lothbrok.fintrack.entity.Notification;
+import com.lothbrok.fintrack.entity.enums.NotificationType;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionChangedEvent;
+import com.lothbrok.fintrack.event.TransactionEventConsumer;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
+import com.lothbrok.fintrack.repository.BudgetRepository;
+import com.lothbrok.fintrack.repository.NotificationRepository;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.repository.projection.MonthlyCategoryTotalRow;
+
+/**
+ * Keeps {@link Budget#getUsedAmount()} equal to the user's expenses in the budget's month, and category when the
+ * budget has one, and raises a {@link NotificationType#BUDGET_LIMIT} notification when a write takes a budget past
+ * its alert threshold or past its amount. Runs on the {@link com.lothbrok.fintrack.event.TransactionEventBus} after
+ * the write committed, in a transaction of its own: the before and after snapshots of every changed transaction in
+ * a batch are grouped by user, all budgets those touch are re-totalled with one grouped query per user however many
+ * rows changed, and users without a budget for the touched months cost a single indexed read.
+ * <p>
+ * Budgets are re-totalled from the stored transactions rather than adjusted by the deltas, so a batch that is
+ * delivered twice leaves them unchanged; the budgets are updated by dirty checking when the transaction commits.
+ */
+@Component
+public class BudgetUsageTracker implements TransactionEventConsumer {
+
+    private static final int BELOW_THRESHOLD = 0;
+    private static final int OVER_THRESHOLD = 1;
+    private static final int OVER_BUDGET = 2;
+
+    private final BudgetRepository budgetRepository;
+    private final TransactionRepository transactionRepository;
+    private final NotificationRepository notificationRepository;
+    private final ObjectMapper objectMapper;
+
+    public BudgetUsageTracker(BudgetRepository budgetRepository,
+            TransactionRepository transactionRepository,
+            NotificationRepository notificationRepository,
+            ObjectMapper objectMapper) {
+        this.budgetRepository = budgetRepository;
+        this.transactionRepository = transactionRepository;
+        this.notificationRepository = notificationRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    private record MonthCategory(String month, String category) {
+    }
+
+    @Override
+    public String name() {
+        return "budgets";
+    }
+
+    @Override
+    public void accept(List<TransactionChangedEvent> events) {
+        Map<UUID, List<TransactionSnapshot>> byUser = new LinkedHashMap<>();
+        for (TransactionChangedEvent event : events) {
+            List<TransactionSnapshot> changed = byUser.computeIfAbsent(event.userId(), id -> new ArrayList<>());
+            changed.add(event.before());
+            changed.add(event.after());
+        }
+        byUser.forEach(this::refresh);
+    }
+
+    public void refresh(UUID userId, Collection<TransactionSnapshot> changed) {
+        Set<MonthCategory> touched = new HashSet<>();
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (TransactionSnapshot snapshot : changed) {
+            if (snapshot == null || snapshot.type() != TransactionType.EXPENSE || snapshot.eventDate() == null) {
+                continue;
+            }
+            YearMonth month = YearMonth.from(snapshot.eventDate());
+            months.add(month);
+            touched.add(new MonthCategory(month.toString(), snapshot.category()));
+        }
+        if (months.isEmpty()) {
+            return;
+        }
+        List<Budget> budgets = new ArrayList<>();
+        for (Budget budget : budgetRepository.findByUserIdAndMonthIn(userId,
+                months.stream().map(YearMonth::toString).toList())) {
+            if (budget.getCategory() == null
+                    || touched.contains(new MonthCategory(budget.getMonth(), budget.getCategory()))) {
+                budgets.add(budget);
+            }
+        }
+        if (budgets.isEmpty()) {
+            return;
+        }
+        Map<MonthCategory, BigDecimal> totals = new HashMap<>();
+        for (MonthlyCategoryTotalRow row : transactionRepository.sumExpensesByMonthAndCategory(userId,
+                months.first().atDay(1), months.last().atEndOfMonth())) {
+            String month = YearMonth.of(row.getExpenseYear(), row.getExpenseMonth()).toString();
+            totals.merge(new MonthCategory(month, row.getCategory()), row.getTotal(), BigDecimal::add);
+            totals.merge(new MonthCategory(month, null), row.getTotal(), BigDecimal::add);
+        }
+        List<Notification> notifications = new ArrayList<>();
+        for (Budget budget : budgets) {
+            BigDecimal used = totals.getOrDefault(new MonthCategory(budget.getMonth(), budget.getCategory()),
+                    BigDecimal.ZERO);
+            int before = level(budget, budget.getUsedAmount());
+            int after = level(budget, used);
+            budget.setUsedAmount(used);
+            if (after > before) {
+                notifications.add(limitNotification(budget, after));
+            }
+        }
+        if (!notifications.isEmpty()) {
+            notificationRepository.saveAll(notifications);
+        }
+    }
+
+    private static int level(Budget budget, BigDecimal used) {
+        if (used == null || budget.getAmount().signum() <= 0) {
+            return BELOW_THRESHOLD;
+        }
+        if (used.compareTo(budget.getAmount()) >= 0) {
+            return OVER_BUDGET;
+        }
+        return used.compareTo(budget.getAmount().multiply(budget.getAlertThreshold())) >= 0
+                ? OVER_THRESHOLD
+                : BELOW_THRESHOLD;
+    }
+
+    private Notification limitNotification(Budget budget, int level) {
+        String name = budget.getCategory() != null ? budget.getCategory() : "overall";
+        BigDecimal used = budget.getUsedAmount();
+        int percent = used.multiply(BigDecimal.valueOf(100))
+                .divide(budget.getAmount(), 0, RoundingMode.FLOOR)
+                .intValue();
+        Notification notification = new Notification();
+        notification.setUser(budget.getUser());
+        notification.setType(NotificationType.BUDGET_LIMIT);
+        if (level == OVER_BUDGET) {
+            notification.setTitle("Over budget on " + name);
+            notification.setMessage("You have spent " + used + " of your " + budget.getAmount() + " " + name
+                    + " budget for " + budget.getMonth() + ".");
+        } else {
+            notification.setTitle("Approaching your " + name + " budget");
+            notification.setMessage("You have used " + percent + "% of your " + budget.getAmount() + " " + name
+                    + " budget for " + budget.getMonth() + ".");
+        }
+        try {
+            notification.setMetadata(objectMapper.writeValueAsString(objectMapper.createObjectNode()
+                    .put("budgetId", budget.getId().toString())
+                    .put("month", budget.getMonth())
+                    .put("category", budget.getCategory())
+                    .put("usedAmount", used)
+                    .put("amount", budget.getAmount())));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode budget metadata", e);
+        }
+        return notification;
+    }
+}
@@ -0,0 +1,11 @@
+package com.lothbrok.fintrack.cache;
+
+import java.util.UUID;
+
+/**
+ * Data of {@code entityType} owned by {@code userId} changed, up to the user's change-journal head {@code version}.
+ * Caches key their entries by user, so one invalidation covers every row of that type the user owns; a later
+ * version supersedes an earlier one.
+ */
+public record Invalidation(String entityType, UUID userId, long version) {
+}
@@ -0,0 +1,275 @@
+package com.lothbrok.fintrack.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.lothbrok.fintrack.metrics.MetricsProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Tells the other nodes sharing the database which users' cached data changed, so in-process caches do not serve
+ * stale entries for long. Commits on this node {@link #publish} an {@link Invalidation} per entity type and user;
+ * these are coalesced to the latest version per key for {@code flushInterval} and then sent by one thread as
+ * compact binary messages over the {@link InvalidationTransport}. The same thread receives the other nodes'
+ * messages, coalesces them again and hands them to every {@link InvalidationListener}.
+ * <p>
+ * A message is a one-byte format version, the sending node's id, the send time in epoch microseconds and the
+ * invalidations as (type, user, version), split over several messages when they exceed the transport's limit.
+ */
+@Component
+public class InvalidationBus implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    static final String PREFIX = "fintrack.invalidation.";
+    private static final byte FORMAT = 1;
+    private static final int HEADER_BYTES = 1 + 16 + 8 + 2;
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final InvalidationTransport transport;
+    private final List<InvalidationListener> listeners;
+    private final InvalidationProperties properties;
+    private final UUID nodeId = UUID.randomUUID();
+    private final Map<Key, Long> pending = new ConcurrentHashMap<>();
+    private final Counter sent;
+    private final Counter messages;
+    private final Counter received;
+    private final DistributionSummary messageBytes;
+    private final Timer propagation;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public InvalidationBus(InvalidationTransport transport,
+            List<InvalidationListener> listeners,
+            InvalidationProperties properties,
+            MetricsProperties metricsProperties,
+            MeterRegistry registry) {
+        this.transport = transport;
+        this.listeners = listeners;
+        this.properties = properties;
+        this.sent = Counter.builder(PREFIX + "sent")
+                .description("Invalidations sent to other nodes, after coalescing")
+                .register(registry);
+        this.messages = Counter.builder(PREFIX + "messages")
+                .description("Messages sent to other nodes")
+                .register(registry);
+        this.received = Counter.builder(PREFIX + "received")
+                .description("Invalidations from other nodes handed to the local caches")
+                .register(registry);
+        this.messageBytes = DistributionSummary.builder(PREFIX + "message.bytes")
+                .description("Encoded size of sent messages")
+                .baseUnit("bytes")
+                .register(registry);
+        this.propagation = Timer.builder(PREFIX + "propagation")
+                .description("Time from another node sending a message to this node applying it")
+                .publishPercentiles(metricsProperties.percentileArray())
+                .register(registry);
+    }
+
+    record Key(String entityType, UUID userId) {
+    }
+
+    /** Queues an invalidation for the other nodes; cheap enough to call from an after-commit hook. */
+    public void publish(String entityType, UUID userId, long version) {
+        if (!running) {
+            return;
+        }
+        pending.merge(new Key(entityType, userId), version, Math::max);
+    }
+
+    public UUID nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled() || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "cache-invalidation");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    /** Sends what is still pending and disconnects. */
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                try {
+                    flush();
+                    deliver(transport.receive(properties.flushInterval()));
+                } catch (RuntimeException e) {
+                    log.warn("Cache invalidation round failed", e);
+                    LockSupport.parkNanos(this, RETRY_NANOS);
+                }
+            }
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not send the last cache invalidations", e);
+        } finally {
+            transport.close();
+        }
+    }
+
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Key, Long> batch = new LinkedHashMap<>();
+        for (Key key : pending.keySet()) {
+            Long version = pending.remove(key);
+            if (version != null) {
+                batch.put(key, version);
+            }
+        }
+        for (byte[] message : encode(nodeId, Instant.now(), batch, transport.maxMessageBytes())) {
+            transport.send(message);
+            messages.increment();
+            messageBytes.record(message.length);
+        }
+        sent.increment(batch.size());
+    }
+
+    private void deliver(List<byte[]> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Map<Key, Long> latest = new LinkedHashMap<>();
+        for (byte[] message : messages) {
+            Message decoded;
+            try {
+                decoded = decode(message);
+            } catch (RuntimeException e) {
+                log.warn("Ignoring malformed cache invalidation message of {} bytes", message.length, e);
+                continue;
+            }
+            if (decoded.nodeId().equals(nodeId)) {
+                continue;
+            }
+            propagation.record(Math.max(0, ChronoUnit.MICROS.between(decoded.sentAt(), Instant.now())),
+                    TimeUnit.MICROSECONDS);
+            for (Invalidation invalidation : decoded.invalidations()) {
+                latest.merge(new Key(invalidation.entityType(), invalidation.userId()), invalidation.version(),
+                        Math::max);
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+        List<Invalidation> invalidations = new ArrayList<>(latest.size());
+        latest.forEach((key, version) -> invalidations.add(new Invalidation(key.entityType(), key.userId(), version)));
+        received.increment(invalidations.size());
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidations(invalidations);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    record Message(UUID nodeId, Instant sentAt, List<Invalidation> invalidations) {
+    }
+
+    static List<byte[]> encode(UUID nodeId, Instant sentAt, Map<Key, Long> invalidations, int maxBytes) {
+        List<byte[]> encoded = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(maxBytes);
+        int count = 0;
+        for (Map.Entry<Key, Long> entry : invalidations.entrySet()) {
+            byte[] type = entry.getKey().entityType().getBytes(StandardCharsets.UTF_8);
+            if (type.length > 255) {
+                throw new IllegalArgumentException("Entity type too long: " + entry.getKey().entityType());
+            }
+            int size = 1 + type.length + 16 + 8;
+            if (count == 0 || buffer.remaining() < size || count == Short.MAX_VALUE) {
+                if (count > 0) {
+                    encoded.add(finish(buffer, count));
+                }
+                buffer.clear();
+                buffer.put(FORMAT);
+                buffer.putLong(nodeId.getMostSignificantBits()).putLong(nodeId.getLeastSignificantBits());
+                buffer.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, sentAt));
+                buffer.putShort((short) 0);
+                count = 0;
+            }
+            UUID userId = entry.getKey().userId();
+            buffer.put((byte) type.length).put(type);
+            buffer.putLong(userId.getMostSignificantBits()).putLong(userId.getLeastSignificantBits());
+            buffer.putLong(entry.getValue());
+            count++;
+        }
+        if (count > 0) {
+            encoded.add(finish(buffer, count));
+        }
+        return encoded;
+    }
+
+    private static byte[] finish(ByteBuffer buffer, int count) {
+        buffer.putShort(HEADER_BYTES - 2, (short) count);
+        byte[] message = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(message);
+        return message;
+    }
+
+    static Message decode(byte[] message) {
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+        if (buffer.get() != FORMAT) {
+            throw new IllegalArgumentException("Unknown invalidation message format");
+        }
+        UUID nodeId = new UUID(buffer.getLong(), buffer.getLong());
+        Instant sentAt = Instant.EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS);
+        int count = buffer.getShort();
+        List<Invalidation> invalidations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] type = new byte[buffer.get() & 0xFF];
+            buffer.get(type);
+            UUID userId = new UUID(buffer.getLong(), buffer.getLong());
+            invalidations.add(new Invalidation(new String(type, StandardCharsets.UTF_8), userId, buffer.getLong()));
+        }
+        return new Message(nodeId, sentAt, invalidations);
+    }
+}
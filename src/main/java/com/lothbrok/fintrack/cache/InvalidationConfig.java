@@ -0,0 +1,27 @@
+package com.lothbrok.fintrack.cache;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class InvalidationConfig {
+
+    @Bean
+    InvalidationTransport invalidationTransport(InvalidationProperties properties, JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties) {
+        InvalidationProperties.Transport transport = properties.transport();
+        if (transport == InvalidationProperties.Transport.AUTO) {
+            boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+            transport = postgres ? InvalidationProperties.Transport.NOTIFY : InvalidationProperties.Transport.TABLE;
+        }
+        if (transport == InvalidationProperties.Transport.NOTIFY) {
+            return new NotifyInvalidationTransport(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        }
+        return new TableInvalidationTransport(jdbcTemplate, properties);
+    }
+}
@@ -0,0 +1,14 @@
+package com.lothbrok.fintrack.cache;
+
+import java.util.List;
+
+/**
+ * An in-process cache that must drop or refresh entries changed on other nodes. Beans implementing this are called
+ * by the {@link InvalidationBus} on its own thread, with the invalidations of one received message coalesced to the
+ * latest version per entity type and user. Changes made on this node are not delivered; the regular after-commit
+ * hooks already see them.
+ */
+public interface InvalidationListener {
+
+    void onInvalidations(List<Invalidation> invalidations);
+}
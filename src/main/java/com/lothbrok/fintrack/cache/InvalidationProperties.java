@@ -0,0 +1,35 @@
+package com.lothbrok.fintrack.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled       broadcasts this node's committed changes and applies other nodes' to the local caches
+ * @param transport     {@code notify} uses PostgreSQL LISTEN/NOTIFY, {@code table} polls the
+ *                      {@code cache_invalidations} table, {@code auto} picks {@code notify} on PostgreSQL
+ * @param flushInterval how long invalidations are collected and coalesced before they are sent
+ * @param pollInterval  how often the {@code table} transport looks for new messages
+ * @param retention     how long the {@code table} transport keeps messages for nodes that poll late
+ */
+@ConfigurationProperties(prefix = "fintrack.invalidation")
+public record InvalidationProperties(@DefaultValue("true") boolean enabled,
+        Transport transport,
+        Duration flushInterval,
+        Duration pollInterval,
+        Duration retention) {
+
+    public enum Transport {
+        AUTO,
+        NOTIFY,
+        TABLE
+    }
+
+    public InvalidationProperties {
+        transport = transport == null ? Transport.AUTO : transport;
+        flushInterval = flushInterval == null ? Duration.ofMillis(10) : flushInterval;
+        pollInterval = pollInterval == null ? Duration.ofMillis(100) : pollInterval;
+        retention = retention == null ? Duration.ofMinutes(1) : retention;
+    }
+}
@@ -0,0 +1,22 @@
+package com.lothbrok.fintrack.cache;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Moves encoded invalidation messages between the nodes sharing a database. Only ever used from the
+ * {@link InvalidationBus} thread. Delivery is best effort: messages sent while a node is disconnected may be lost,
+ * which is why caches still bound how long they trust an entry.
+ */
+public interface InvalidationTransport {
+
+    /** Largest message {@link #send} accepts, in bytes. */
+    int maxMessageBytes();
+
+    void send(byte[] message);
+
+    /** Messages from every node, this one included, waiting at most {@code timeout} for the first. */
+    List<byte[]> receive(Duration timeout);
+
+    void close();
+}
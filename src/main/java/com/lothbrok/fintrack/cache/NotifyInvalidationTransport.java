@@ -0,0 +1,116 @@
+package com.lothbrok.fintrack.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * PostgreSQL LISTEN/NOTIFY on the {@value #CHANNEL} channel. Uses a connection of its own rather than one from the
+ * pool, since a listening connection is held for the lifetime of the node. Payloads are base64 text, which keeps
+ * them under PostgreSQL's 8000-byte limit. If the connection drops, messages sent until it is re-established on the
+ * next call are missed.
+ */
+public class NotifyInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(NotifyInvalidationTransport.class);
+
+    static final String CHANNEL = "fintrack_invalidations";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private Connection connection;
+    private PGConnection notifications;
+
+    public NotifyInvalidationTransport(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public int maxMessageBytes() {
+        // Base64 of 5700 bytes is 7600 characters.
+        return 5700;
+    }
+
+    @Override
+    public void send(byte[] message) {
+        try (PreparedStatement notify = connect().prepareStatement("select pg_notify(?, ?)")) {
+            notify.setString(1, CHANNEL);
+            notify.setString(2, Base64.getEncoder().encodeToString(message));
+            notify.execute();
+        } catch (SQLException e) {
+            disconnect();
+            throw new IllegalStateException("Could not send cache invalidations", e);
+        }
+    }
+
+    @Override
+    public List<byte[]> receive(Duration timeout) {
+        try {
+            connect();
+            // A zero timeout would block until a notification arrives.
+            PGNotification[] received = notifications.getNotifications((int) Math.max(1, timeout.toMillis()));
+            if (received == null) {
+                return List.of();
+            }
+            List<byte[]> messages = new ArrayList<>(received.length);
+            for (PGNotification notification : received) {
+                if (CHANNEL.equals(notification.getName())) {
+                    messages.add(Base64.getDecoder().decode(notification.getParameter()));
+                }
+            }
+            return messages;
+        } catch (SQLException e) {
+            disconnect();
+            throw new IllegalStateException("Could not receive cache invalidations", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        disconnect();
+    }
+
+    private Connection connect() throws SQLException {
+        if (connection != null) {
+            return connection;
+        }
+        Connection opened = DriverManager.getConnection(url, username, password);
+        try (Statement listen = opened.createStatement()) {
+            opened.setAutoCommit(true);
+            listen.execute("listen " + CHANNEL);
+            notifications = opened.unwrap(PGConnection.class);
+        } catch (SQLException e) {
+            opened.close();
+            throw e;
+        }
+        connection = opened;
+        return opened;
+    }
+
+    private void disconnect() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Closing the invalidation connection failed", e);
+        }
+        connection = null;
+        notifications = null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.lothbrok.fintrack.cache;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.lothbrok.fintrack.entity.CacheInvalidationMessage;
+
+/**
+ * Polls the {@link CacheInvalidationMessage cache_invalidations} table, for databases without LISTEN/NOTIFY. Each
+ * node reads the rows past the highest id it has seen every {@code pollInterval}. Ids are handed out when a row is
+ * inserted but become visible when it commits, so a row can show up after a higher one: ids skipped over are looked
+ * for again on later polls until {@link #GAP_TIMEOUT} has passed. Rows older than {@code retention} are deleted.
+ */
+public class TableInvalidationTransport implements InvalidationTransport {
+
+    static final Duration GAP_TIMEOUT = Duration.ofSeconds(5);
+    private static final int MAX_GAPS = 1000;
+    private static final String INSERT_SQL = "insert into cache_invalidations (payload, created_at) values (?, ?)";
+    private static final String NEW_SQL = "select id, payload from cache_invalidations where id > ? order by id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long pollNanos;
+    private final Duration retention;
+    /** Ids below {@code lastId} not seen yet, with the time after which they are given up on. */
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long lastId = -1;
+    private long nextPoll;
+    private long nextCleanUp;
+
+    public TableInvalidationTransport(JdbcTemplate jdbcTemplate, InvalidationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pollNanos = properties.pollInterval().toNanos();
+        this.retention = properties.retention();
+    }
+
+    @Override
+    public int maxMessageBytes() {
+        return 8192;
+    }
+
+    @Override
+    public void send(byte[] message) {
+        jdbcTemplate.update(INSERT_SQL, message, Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public List<byte[]> receive(Duration timeout) {
+        long now = System.nanoTime();
+        if (lastId < 0) {
+            // Messages sent before this node started are of no use to it.
+            Long max = jdbcTemplate.queryForObject("select max(id) from cache_invalidations", Long.class);
+            lastId = max != null ? max : 0;
+            nextPoll = now;
+            nextCleanUp = now;
+        }
+        long wait = nextPoll - now;
+        if (wait > 0) {
+            LockSupport.parkNanos(this, Math.min(wait, timeout.toNanos()));
+            return List.of();
+        }
+        nextPoll = now + pollNanos;
+        if (now - nextCleanUp >= 0) {
+            jdbcTemplate.update("delete from cache_invalidations where created_at < ?",
+                    Timestamp.from(Instant.now().minus(retention)));
+            nextCleanUp = now + retention.toNanos() / 2;
+        }
+        List<byte[]> messages = new ArrayList<>();
+        jdbcTemplate.query(sql(now), rs -> {
+            long id = rs.getLong(1);
+            if (gaps.remove(id) == null) {
+                for (long missing = lastId + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now + GAP_TIMEOUT.toNanos());
+                }
+                lastId = Math.max(lastId, id);
+            }
+            messages.add(rs.getBytes(2));
+        }, lastId);
+        return messages;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private String sql(long now) {
+        Iterator<Map.Entry<Long, Long>> expired = gaps.entrySet().iterator();
+        while (expired.hasNext()) {
+            if (now - expired.next().getValue() >= 0) {
+                expired.remove();
+            }
+        }
+        if (gaps.isEmpty()) {
+            return NEW_SQL;
+        }
+        StringJoiner ids = new StringJoiner(", ", "select id, payload from cache_invalidations where id > ? or id in (",
+                ") order by id");
+        gaps.keySet().forEach(id -> ids.add(Long.toString(id)));
+        return ids.toString();
+    }
+}
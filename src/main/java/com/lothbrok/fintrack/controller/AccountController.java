@@ -0,0 +1,42 @@
+package com.lothbrok.fintrack.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.dto.user.AccountPurgeResponse;
+import com.lothbrok.fintrack.service.AccountPurgeService;
+
+@RestController
+@RequestMapping("/api/v1/users/me")
+public class AccountController {
+
+    private final AccountPurgeService accountPurgeService;
+
+    public AccountController(AccountPurgeService accountPurgeService) {
+        this.accountPurgeService = accountPurgeService;
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ApiResponse<AccountPurgeResponse> deleteAccount(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId) {
+        return ApiResponse.success(accountPurgeService.requestPurge(userId), ResponseMeta.withoutPagination(requestId));
+    }
+
+    @GetMapping("/deletions/{id}")
+    public ApiResponse<AccountPurgeResponse> getDeletion(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @PathVariable UUID id) {
+        return ApiResponse.success(accountPurgeService.getPurge(userId, id), ResponseMeta.withoutPagination(requestId));
+    }
+}
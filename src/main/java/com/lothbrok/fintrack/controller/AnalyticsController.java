@@ -0,0 +1,50 @@
+package com.lothbrok.fintrack.controller;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lothbrok.fintrack.dto.analytics.TimeBucket;
+import com.lothbrok.fintrack.dto.analytics.TimeSeriesResponse;
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.service.AnalyticsService;
+import com.lothbrok.fintrack.web.ConditionalGet;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @ConditionalGet
+    @GetMapping("/trends")
+    public ApiResponse<TimeSeriesResponse> trends(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") TimeBucket bucket,
+            @RequestParam(required = false) Set<String> category,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) UUID walletId) {
+        TransactionFilter filter = new TransactionFilter(from, to, category, type, minAmount, maxAmount, walletId);
+        TimeSeriesResponse series = analyticsService.getTimeSeries(userId, filter, bucket);
+        return ApiResponse.success(series, ResponseMeta.withoutPagination(requestId));
+    }
+}
@@ -0,0 +1,15 @@
+package com.lothbrok.fintrack.controller;
+
+public final class ApiHeaders {
+
+    /** Caller identity until JWT authentication is wired in. */
+    public static final String USER_ID = "X-User-Id";
+
+    public static final String REQUEST_ID = "X-Request-Id";
+
+    /** Identifies the caller of the public API for rate limiting. */
+    public static final String API_KEY = "X-Api-Key";
+
+    private ApiHeaders() {
+    }
+}
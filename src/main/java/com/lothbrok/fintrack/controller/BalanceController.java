@@ -0,0 +1,53 @@
+package com.lothbrok.fintrack.controller;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lothbrok.fintrack.dto.balance.BalanceResponse;
+import com.lothbrok.fintrack.dto.balance.MonthlyBalanceResponse;
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.service.BalanceService;
+import com.lothbrok.fintrack.web.ConditionalGet;
+
+@RestController
+@RequestMapping("/api/v1/balances")
+public class BalanceController {
+
+    private final BalanceService balanceService;
+
+    public BalanceController(BalanceService balanceService) {
+        this.balanceService = balanceService;
+    }
+
+    @ConditionalGet(unlessParams = "walletId", dateDependent = true)
+    @GetMapping
+    public ApiResponse<BalanceResponse> balance(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) UUID walletId) {
+        LocalDate resolved = date != null ? date : LocalDate.now();
+        return ApiResponse.success(balanceService.getBalance(userId, resolved, walletId),
+                ResponseMeta.withoutPagination(requestId));
+    }
+
+    @ConditionalGet(unlessParams = "walletId")
+    @GetMapping("/monthly")
+    public ApiResponse<List<MonthlyBalanceResponse>> monthly(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to,
+            @RequestParam(required = false) UUID walletId) {
+        return ApiResponse.success(balanceService.getMonthlyBalances(userId, from, to, walletId),
+                ResponseMeta.withoutPagination(requestId));
+    }
+}
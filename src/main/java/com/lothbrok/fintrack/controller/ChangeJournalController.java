@@ -0,0 +1,63 @@
+package com.lothbrok.fintrack.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.service.ChangeJournalService;
+
+@RestController
+@RequestMapping("/api/v1/journal")
+public class ChangeJournalController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ChangeJournalService changeJournalService;
+    private final ObjectMapper objectMapper;
+
+    public ChangeJournalController(ChangeJournalService changeJournalService, ObjectMapper objectMapper) {
+        this.changeJournalService = changeJournalService;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Streams the caller's journal entries after sequence number {@code after}, one JSON object per line. */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> changes(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestParam(defaultValue = "0") long after) {
+        StreamingResponseBody body = (OutputStream out) -> changeJournalService.streamChanges(userId, after, entry -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(entry));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @GetMapping("/transactions/{id}")
+    public ApiResponse<TransactionResponse> transactionAsOf(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @PathVariable UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) {
+        return ApiResponse.success(changeJournalService.getTransactionAsOf(userId, id, asOf),
+                ResponseMeta.withoutPagination(requestId));
+    }
+}
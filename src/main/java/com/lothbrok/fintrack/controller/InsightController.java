@@ -0,0 +1,37 @@
+package com.lothbrok.fintrack.controller;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.dto.insight.BudgetSuggestionResponse;
+import com.lothbrok.fintrack.service.InsightService;
+import com.lothbrok.fintrack.web.ConditionalGet;
+
+@RestController
+@RequestMapping("/api/v1/insights")
+public class InsightController {
+
+    private final InsightService insightService;
+
+    public InsightController(InsightService insightService) {
+        this.insightService = insightService;
+    }
+
+    @ConditionalGet(dateDependent = true)
+    @GetMapping("/budget-suggestions")
+    public ApiResponse<List<BudgetSuggestionResponse>> budgetSuggestions(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestParam(required = false) YearMonth month) {
+        return ApiResponse.success(insightService.getBudgetSuggestions(userId, month),
+                ResponseMeta.withoutPagination(requestId));
+    }
+}
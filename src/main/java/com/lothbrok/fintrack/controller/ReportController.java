@@ -0,0 +1,78 @@
+package com.lothbrok.fintrack.controller;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.dto.report.CreateReportRequest;
+import com.lothbrok.fintrack.dto.report.ReportJobResponse;
+import com.lothbrok.fintrack.service.ReportService;
+import com.lothbrok.fintrack.web.ConditionalGet;
+
+@RestController
+@RequestMapping("/api/v1/reports")
+public class ReportController {
+
+    private static final MediaType XLSX = MediaType
+            .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ReportService reportService;
+
+    public ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ApiResponse<ReportJobResponse> requestReport(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestBody CreateReportRequest request) {
+        return ApiResponse.success(reportService.requestReport(userId, request),
+                ResponseMeta.withoutPagination(requestId));
+    }
+
+    @ConditionalGet
+    @GetMapping
+    public ApiResponse<List<ReportJobResponse>> recentReports(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId) {
+        return ApiResponse.success(reportService.getRecentReports(userId), ResponseMeta.withoutPagination(requestId));
+    }
+
+    @ConditionalGet
+    @GetMapping("/{id}")
+    public ApiResponse<ReportJobResponse> getReport(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @PathVariable UUID id) {
+        return ApiResponse.success(reportService.getReport(userId, id), ResponseMeta.withoutPagination(requestId));
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> download(@RequestHeader(ApiHeaders.USER_ID) UUID userId, @PathVariable UUID id) {
+        Path file = reportService.resolveReportFile(userId, id);
+        String fileName = file.getFileName().toString();
+        MediaType contentType = fileName.endsWith(".pdf") ? MediaType.APPLICATION_PDF : XLSX;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,33 @@
+package com.lothbrok.fintrack.controller;
+
+import java.util.UUID;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.dto.sync.SyncResponse;
+import com.lothbrok.fintrack.service.SyncService;
+
+@RestController
+@RequestMapping("/api/v1/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    @GetMapping
+    public ApiResponse<SyncResponse> sync(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestParam(required = false) String token,
+            @RequestParam(required = false) Integer limit) {
+        return ApiResponse.success(syncService.sync(userId, token, limit), ResponseMeta.withoutPagination(requestId));
+    }
+}
@@ -0,0 +1,85 @@
+package com.lothbrok.fintrack.controller;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionBatchRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionOperationResult;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.dto.transaction.UpdateTransactionRequest;
+import com.lothbrok.fintrack.ingest.TransactionIngestBuffer;
+import com.lothbrok.fintrack.service.TransactionService;
+
+@RestController
+@RequestMapping("/api/v1/transactions")
+public class TransactionController {
+
+    private final TransactionService transactionService;
+    private final TransactionIngestBuffer ingestBuffer;
+
+    public TransactionController(TransactionService transactionService, TransactionIngestBuffer ingestBuffer) {
+        this.transactionService = transactionService;
+        this.ingestBuffer = ingestBuffer;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ApiResponse<TransactionResponse> create(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestBody CreateTransactionRequest request) {
+        return ApiResponse.success(transactionService.createTransaction(userId, request),
+                ResponseMeta.withoutPagination(requestId));
+    }
+
+    @PutMapping("/{id}")
+    public ApiResponse<TransactionResponse> update(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @PathVariable UUID id,
+            @RequestBody UpdateTransactionRequest request) {
+        return ApiResponse.success(transactionService.updateTransaction(userId, id, request),
+                ResponseMeta.withoutPagination(requestId));
+    }
+
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> delete(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @PathVariable UUID id) {
+        transactionService.deleteTransaction(userId, id);
+        return ApiResponse.success(null, ResponseMeta.withoutPagination(requestId));
+    }
+
+    @PostMapping("/batch")
+    public ApiResponse<List<TransactionOperationResult>> batch(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestBody TransactionBatchRequest request) {
+        return ApiResponse.success(transactionService.applyBatch(userId, request.operations()),
+                ResponseMeta.withoutPagination(requestId));
+    }
+
+    /**
+     * Creates a transaction through the group-commit buffer; the response is sent once the create has committed.
+     */
+    @PostMapping("/ingest")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<ApiResponse<TransactionResponse>> ingest(@RequestHeader(ApiHeaders.USER_ID) UUID userId,
+            @RequestHeader(value = ApiHeaders.REQUEST_ID, required = false) String requestId,
+            @RequestBody CreateTransactionRequest request) {
+        return ingestBuffer.submit(userId, request)
+                .thenApply(created -> ApiResponse.success(created, ResponseMeta.withoutPagination(requestId)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.lothbrok.fintrack.datasource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Measures replication lag without relying on database-specific replication views: every
+ * {@code lag-check-interval} it stamps the {@code replica_heartbeats} row on the primary with the current time and
+ * reads the row back from the replica. The age of the stamp the replica holds is the lag, overestimated by at most
+ * one interval. Every node writes the stamp, so clock skew between nodes adds to the measurement. A replica that
+ * cannot be read counts as infinitely far behind.
+ */
+class ReplicaLagMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String UPDATE_SQL = "update replica_heartbeats set beat_at = ? where id = 1";
+    private static final String INSERT_SQL = "insert into replica_heartbeats (id, beat_at) values (1, ?)";
+    private static final String READ_SQL = "select beat_at from replica_heartbeats where id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReplicaRouter router;
+    private final long intervalNanos;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private boolean reachable = true;
+
+    ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, ReplicaRouter router, Duration interval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.router = router;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "replica-lag");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            check();
+            LockSupport.parkNanos(this, intervalNanos);
+        }
+    }
+
+    synchronized void check() {
+        try {
+            Timestamp now = Timestamp.from(Instant.now());
+            if (primary.update(UPDATE_SQL, now) == 0) {
+                primary.update(INSERT_SQL, now);
+            }
+        } catch (DuplicateKeyException e) {
+            // Another node inserted the row first.
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replication heartbeat", e);
+        }
+        try {
+            Timestamp beat = replica.queryForObject(READ_SQL, Timestamp.class);
+            router.lag(beat == null ? null : Duration.between(beat.toInstant(), Instant.now()));
+            if (!reachable) {
+                log.info("Read replica is reachable again");
+                reachable = true;
+            }
+        } catch (DataAccessException e) {
+            router.lag(null);
+            if (reachable) {
+                log.warn("Could not read the replication heartbeat; reading from the primary", e);
+                reachable = false;
+            }
+        }
+        router.expireChanges();
+    }
+}
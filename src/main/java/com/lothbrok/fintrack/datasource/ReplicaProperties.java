@@ -0,0 +1,39 @@
+package com.lothbrok.fintrack.datasource;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param url              JDBC url of the read replica; without one every transaction runs on the primary
+ * @param username         replica user
+ * @param password         replica password
+ * @param maximumPoolSize  connections kept to the replica
+ * @param maxLag           replication lag beyond which read-only transactions fall back to the primary
+ * @param lagCheckInterval how often the lag is measured through the {@code replica_heartbeats} row
+ * @param stickiness       how long a user's reads stay on the primary after their data changed; at least
+ *                         {@code maxLag}, so a replica that is allowed to serve reads has caught up with the change
+ */
+@ConfigurationProperties(prefix = "fintrack.datasource.replica")
+public record ReplicaProperties(String url,
+        String username,
+        String password,
+        int maximumPoolSize,
+        Duration maxLag,
+        Duration lagCheckInterval,
+        Duration stickiness) {
+
+    public ReplicaProperties {
+        maximumPoolSize = maximumPoolSize > 0 ? maximumPoolSize : 10;
+        maxLag = maxLag == null ? Duration.ofSeconds(1) : maxLag;
+        lagCheckInterval = lagCheckInterval == null ? Duration.ofMillis(500) : lagCheckInterval;
+        stickiness = stickiness == null ? Duration.ofSeconds(5) : stickiness;
+        if (stickiness.compareTo(maxLag) < 0) {
+            throw new IllegalArgumentException("fintrack.datasource.replica.stickiness must be at least max-lag");
+        }
+    }
+
+    public boolean enabled() {
+        return url != null && !url.isBlank();
+    }
+}
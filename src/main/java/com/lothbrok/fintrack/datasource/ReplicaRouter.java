@@ -0,0 +1,143 @@
+package com.lothbrok.fintrack.datasource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.cache.InvalidationListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Decides, when a connection is first used, whether it comes from the primary or the read replica. Read-only
+ * transactions, which include Spring Data's {@code find*} and {@code count*} methods called outside a transaction,
+ * go to the replica unless
+ * <ul>
+ * <li>the last measured replication lag exceeds {@code max-lag}, or has not been measured yet, or</li>
+ * <li>the current user's data changed within {@code stickiness}, on this node or, learned through the
+ * {@link com.lothbrok.fintrack.cache.InvalidationBus}, on another, so users read their own writes.</li>
+ * </ul>
+ * The current user is set per HTTP request by {@link ReplicaRoutingFilter}; work on other threads has no user and
+ * only the lag check applies to it. Decisions are counted in {@code fintrack.datasource.route} (tags
+ * {@code target}, {@code reason}).
+ */
+@Component
+public class ReplicaRouter implements InvalidationListener {
+
+    static final String PREFIX = "fintrack.datasource.";
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    /** Restores the previous user when closed. */
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private final boolean enabled;
+    private final long maxLagNanos;
+    private final long stickyNanos;
+    private final Map<UUID, Long> recentChanges = new ConcurrentHashMap<>();
+    private final ThreadLocal<UUID> currentUser = new ThreadLocal<>();
+    private final Counter writes;
+    private final Counter reads;
+    private final Counter lagging;
+    private final Counter recentlyChanged;
+
+    /** Last measured lag, or {@link Long#MAX_VALUE} while it is unknown. */
+    private volatile long lagNanos = Long.MAX_VALUE;
+
+    public ReplicaRouter(ReplicaProperties properties, MeterRegistry registry) {
+        this.enabled = properties.enabled();
+        this.maxLagNanos = properties.maxLag().toNanos();
+        this.stickyNanos = properties.stickiness().toNanos();
+        this.writes = route(registry, Target.PRIMARY, "write");
+        this.lagging = route(registry, Target.PRIMARY, "lag");
+        this.recentlyChanged = route(registry, Target.PRIMARY, "recent-change");
+        this.reads = route(registry, Target.REPLICA, "read");
+        TimeGauge.builder(PREFIX + "replica.lag", this, TimeUnit.NANOSECONDS,
+                        router -> router.lagNanos == Long.MAX_VALUE ? Double.NaN : router.lagNanos)
+                .description("Replication lag last measured through the heartbeat row")
+                .register(registry);
+    }
+
+    private static Counter route(MeterRegistry registry, Target target, String reason) {
+        return Counter.builder(PREFIX + "route")
+                .description("Connections handed out, by database and the reason it was chosen")
+                .tags("target", target.name().toLowerCase(), "reason", reason)
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Routes the calling thread's read-only transactions as {@code userId}'s until the scope is closed. */
+    public Scope forUser(UUID userId) {
+        UUID previous = currentUser.get();
+        currentUser.set(userId);
+        return () -> {
+            if (previous == null) {
+                currentUser.remove();
+            } else {
+                currentUser.set(previous);
+            }
+        };
+    }
+
+    /** Keeps {@code userId}'s reads on the primary for the next {@code stickiness}. */
+    public void changed(UUID userId) {
+        if (enabled) {
+            recentChanges.put(userId, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onInvalidations(List<Invalidation> invalidations) {
+        invalidations.forEach(invalidation -> changed(invalidation.userId()));
+    }
+
+    Target route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return Target.PRIMARY;
+        }
+        if (lagNanos > maxLagNanos) {
+            lagging.increment();
+            return Target.PRIMARY;
+        }
+        UUID userId = currentUser.get();
+        if (userId != null) {
+            Long changedAt = recentChanges.get(userId);
+            if (changedAt != null && System.nanoTime() - changedAt < stickyNanos) {
+                recentlyChanged.increment();
+                return Target.PRIMARY;
+            }
+        }
+        reads.increment();
+        return Target.REPLICA;
+    }
+
+    /** Records the measured lag; {@code null} when it could not be measured. */
+    void lag(Duration lag) {
+        lagNanos = lag == null ? Long.MAX_VALUE : Math.max(0, lag.toNanos());
+    }
+
+    void expireChanges() {
+        long now = System.nanoTime();
+        recentChanges.values().removeIf(changedAt -> now - changedAt >= stickyNanos);
+    }
+}
@@ -0,0 +1,38 @@
+package com.lothbrok.fintrack.datasource;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.lothbrok.fintrack.web.UserIdHeader;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/** Tells the {@link ReplicaRouter} whose request the thread is serving, for read-your-writes routing. */
+@Component
+public class ReplicaRoutingFilter extends OncePerRequestFilter {
+
+    private final ReplicaRouter router;
+
+    public ReplicaRoutingFilter(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        UUID userId = router.isEnabled() ? UserIdHeader.read(request) : null;
+        if (userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (ReplicaRouter.Scope scope = router.forUser(userId)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
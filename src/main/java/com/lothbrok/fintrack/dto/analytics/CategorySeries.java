@@ -0,0 +1,7 @@
+package com.lothbrok.fintrack.dto.analytics;
+
+/**
+ * Dense per-category series; {@code income[i]} and {@code expense[i]} are minor-unit totals for bucket {@code i}.
+ */
+public record CategorySeries(String category, long[] income, long[] expense) {
+}
@@ -0,0 +1,56 @@
+package com.lothbrok.fintrack.dto.analytics;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+public enum TimeBucket {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month");
+
+    private final String sqlUnit;
+
+    TimeBucket(String sqlUnit) {
+        this.sqlUnit = sqlUnit;
+    }
+
+    public String sqlUnit() {
+        return sqlUnit;
+    }
+
+    /**
+     * Start of the bucket containing {@code date}, matching PostgreSQL {@code date_trunc} (ISO weeks start on Monday).
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate next(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+        };
+    }
+
+    /**
+     * Zero-based offset of {@code bucketStart} from {@code firstBucket}; both must already be truncated.
+     */
+    public int indexOf(LocalDate firstBucket, LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> (int) ChronoUnit.DAYS.between(firstBucket, bucketStart);
+            case WEEK -> (int) ChronoUnit.WEEKS.between(firstBucket, bucketStart);
+            case MONTH -> (int) ChronoUnit.MONTHS.between(firstBucket, bucketStart);
+        };
+    }
+
+    public int count(LocalDate from, LocalDate to) {
+        return indexOf(truncate(from), truncate(to)) + 1;
+    }
+}
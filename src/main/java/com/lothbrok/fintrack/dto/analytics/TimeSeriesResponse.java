@@ -0,0 +1,12 @@
+package com.lothbrok.fintrack.dto.analytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record TimeSeriesResponse(TimeBucket bucket,
+        LocalDate from,
+        LocalDate to,
+        int scale,
+        LocalDate[] bucketStarts,
+        List<CategorySeries> series) {
+}
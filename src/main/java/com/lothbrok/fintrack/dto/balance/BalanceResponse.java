@@ -0,0 +1,13 @@
+package com.lothbrok.fintrack.dto.balance;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Balance at the end of {@code date}; {@code walletId} is null for the user's own balance.
+ */
+public record BalanceResponse(LocalDate date,
+        UUID walletId,
+        BigDecimal balance) {
+}
@@ -0,0 +1,9 @@
+package com.lothbrok.fintrack.dto.balance;
+
+import java.math.BigDecimal;
+
+public record MonthlyBalanceResponse(String month,
+        BigDecimal openingBalance,
+        BigDecimal netChange,
+        BigDecimal closingBalance) {
+}
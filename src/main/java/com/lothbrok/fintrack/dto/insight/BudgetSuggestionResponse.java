@@ -0,0 +1,11 @@
+package com.lothbrok.fintrack.dto.insight;
+
+import java.math.BigDecimal;
+
+public record BudgetSuggestionResponse(String month,
+        String category,
+        BigDecimal suggestedAmount,
+        BigDecimal expectedLow,
+        BigDecimal expectedHigh,
+        int monthsObserved) {
+}
@@ -0,0 +1,19 @@
+package com.lothbrok.fintrack.dto.journal;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+
+/**
+ * One journal entry. {@code changes} maps property names to the values written: all non-null columns for an
+ * insert, the changed columns for an update, nothing for a delete. Associations appear as the referenced id.
+ */
+public record ChangeEntryResponse(long seq,
+        String entityType,
+        UUID entityId,
+        ChangeOperation operation,
+        Instant changedAt,
+        Map<String, Object> changes) {
+}
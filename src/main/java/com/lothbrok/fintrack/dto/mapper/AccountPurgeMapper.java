@@ -0,0 +1,30 @@
+package com.lothbrok.fintrack.dto.mapper;
+
+import java.time.Duration;
+
+import com.lothbrok.fintrack.dto.user.AccountPurgeResponse;
+import com.lothbrok.fintrack.entity.AccountPurgeJob;
+
+public final class AccountPurgeMapper {
+
+    private AccountPurgeMapper() {
+    }
+
+    public static AccountPurgeResponse toResponse(AccountPurgeJob job) {
+        if (job == null) {
+            return null;
+        }
+        Long durationMillis = job.getStartedAt() != null && job.getFinishedAt() != null
+                ? Duration.between(job.getStartedAt(), job.getFinishedAt()).toMillis()
+                : null;
+        return new AccountPurgeResponse(
+                job.getId(),
+                job.getStatus(),
+                job.getStep(),
+                job.getRowsDeleted(),
+                durationMillis,
+                job.getErrorMessage(),
+                job.getCreatedAt(),
+                job.getFinishedAt());
+    }
+}
@@ -0,0 +1,36 @@
+package com.lothbrok.fintrack.dto.mapper;
+
+import java.time.Duration;
+
+import com.lothbrok.fintrack.dto.report.ReportJobResponse;
+import com.lothbrok.fintrack.entity.ReportJob;
+import com.lothbrok.fintrack.entity.enums.ReportStatus;
+
+public final class ReportJobMapper {
+
+    private ReportJobMapper() {
+    }
+
+    public static ReportJobResponse toResponse(ReportJob job, String downloadUrl) {
+        if (job == null) {
+            return null;
+        }
+        Long durationMillis = job.getStartedAt() != null && job.getFinishedAt() != null
+                ? Duration.between(job.getStartedAt(), job.getFinishedAt()).toMillis()
+                : null;
+        return new ReportJobResponse(
+                job.getId(),
+                job.getFormat(),
+                job.getStatus(),
+                job.getFromDate(),
+                job.getToDate(),
+                job.getStatus() == ReportStatus.COMPLETED ? downloadUrl : null,
+                job.getRowCount(),
+                job.getFileSize(),
+                job.getAllocatedBytes(),
+                durationMillis,
+                job.getErrorMessage(),
+                job.getCreatedAt(),
+                job.getFinishedAt());
+    }
+}
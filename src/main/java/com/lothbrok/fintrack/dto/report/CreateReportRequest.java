@@ -0,0 +1,8 @@
+package com.lothbrok.fintrack.dto.report;
+
+import java.time.LocalDate;
+
+import com.lothbrok.fintrack.entity.enums.ReportFormat;
+
+public record CreateReportRequest(ReportFormat format, LocalDate from, LocalDate to) {
+}
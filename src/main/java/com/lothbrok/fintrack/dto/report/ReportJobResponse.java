@@ -0,0 +1,23 @@
+package com.lothbrok.fintrack.dto.report;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.ReportFormat;
+import com.lothbrok.fintrack.entity.enums.ReportStatus;
+
+public record ReportJobResponse(UUID id,
+        ReportFormat format,
+        ReportStatus status,
+        LocalDate from,
+        LocalDate to,
+        String downloadUrl,
+        long rowCount,
+        long fileSize,
+        long allocatedBytes,
+        Long durationMillis,
+        String errorMessage,
+        Instant createdAt,
+        Instant finishedAt) {
+}
@@ -0,0 +1,24 @@
+package com.lothbrok.fintrack.dto.sync;
+
+import java.util.List;
+
+import com.lothbrok.fintrack.dto.budget.BudgetResponse;
+import com.lothbrok.fintrack.dto.notification.NotificationResponse;
+import com.lothbrok.fintrack.dto.recurring.RecurringJobResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+
+/**
+ * One page of changes. Records carry their current state; {@code deleted} lists records removed since the
+ * previous token. Clients store {@code token} and call again while {@code hasMore} is set. {@code reset} means the
+ * client had no usable token: it should reload its lists through the regular endpoints and sync from
+ * {@code token} afterwards.
+ */
+public record SyncResponse(String token,
+        boolean hasMore,
+        boolean reset,
+        List<TransactionResponse> transactions,
+        List<BudgetResponse> budgets,
+        List<NotificationResponse> notifications,
+        List<RecurringJobResponse> recurringJobs,
+        List<SyncTombstone> deleted) {
+}
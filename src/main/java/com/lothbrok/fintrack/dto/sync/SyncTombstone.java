@@ -0,0 +1,6 @@
+package com.lothbrok.fintrack.dto.sync;
+
+import java.util.UUID;
+
+public record SyncTombstone(String entityType, UUID id) {
+}
@@ -0,0 +1,9 @@
+package com.lothbrok.fintrack.dto.transaction;
+
+import java.util.UUID;
+
+/**
+ * A create queued for a group commit, together with the user it is created for.
+ */
+public record IngestTransactionRequest(UUID userId, CreateTransactionRequest transaction) {
+}
@@ -0,0 +1,6 @@
+package com.lothbrok.fintrack.dto.transaction;
+
+import java.util.List;
+
+public record TransactionBatchRequest(List<TransactionOperation> operations) {
+}
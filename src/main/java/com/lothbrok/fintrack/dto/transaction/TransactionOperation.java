@@ -0,0 +1,19 @@
+package com.lothbrok.fintrack.dto.transaction;
+
+import java.util.UUID;
+
+/**
+ * One step of a transaction batch: {@code create} for {@link Type#CREATE}, {@code id} and {@code update} for
+ * {@link Type#UPDATE}, and {@code id} alone for {@link Type#DELETE}.
+ */
+public record TransactionOperation(Type type,
+        UUID id,
+        CreateTransactionRequest create,
+        UpdateTransactionRequest update) {
+
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
@@ -0,0 +1,13 @@
+package com.lothbrok.fintrack.dto.transaction;
+
+import java.util.UUID;
+
+/**
+ * Outcome of the operation at {@code index} of a batch. {@code transaction} is the stored state after the batch,
+ * or null for a delete.
+ */
+public record TransactionOperationResult(int index,
+        TransactionOperation.Type type,
+        UUID id,
+        TransactionResponse transaction) {
+}
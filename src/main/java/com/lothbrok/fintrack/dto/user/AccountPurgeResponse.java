@@ -0,0 +1,16 @@
+package com.lothbrok.fintrack.dto.user;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.AccountPurgeStatus;
+
+public record AccountPurgeResponse(UUID id,
+        AccountPurgeStatus status,
+        String step,
+        long rowsDeleted,
+        Long durationMillis,
+        String errorMessage,
+        Instant createdAt,
+        Instant finishedAt) {
+}
@@ -0,0 +1,115 @@
+package com.lothbrok.fintrack.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.AccountPurgeStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * A request to delete a user's account and everything in it, run in the background by {@code AccountPurger}. Not
+ * journalled and not tied to {@code users} by a foreign key, so the job and its progress outlive the account.
+ */
+@Entity
+@Table(name = "account_purge_jobs", indexes = {
+        @Index(name = "idx_account_purge_user", columnList = "user_id"),
+        @Index(name = "idx_account_purge_pending", columnList = "status")
+})
+public class AccountPurgeJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AccountPurgeStatus status = AccountPurgeStatus.QUEUED;
+
+    @Column(length = 40)
+    private String step;
+
+    @Column(name = "rows_deleted", nullable = false)
+    private long rowsDeleted;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "error_message", length = 1024)
+    private String errorMessage;
+
+    public AccountPurgeJob() {
+    }
+
+    @PrePersist
+    void onCreate() {
+        createdAt = Instant.now();
+        updatedAt = createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public AccountPurgeStatus getStatus() {
+        return status;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public long getRowsDeleted() {
+        return rowsDeleted;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,109 @@
+package com.lothbrok.fintrack.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.base.AuditableEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Running balance of one user or one shared wallet at the start of a calendar month, plus the net change within
+ * that month. Exactly one of {@code user} and {@code sharedWallet} is set. Rows only exist for months that saw
+ * transactions, so months without a row carry the previous row's closing balance. Maintained by
+ * {@code BalanceCheckpointWriter}; never written through JPA.
+ */
+@Entity
+@Table(name = "balance_checkpoints", indexes = {
+        @Index(name = "idx_balance_checkpoint_user", columnList = "user_id,month_start", unique = true),
+        @Index(name = "idx_balance_checkpoint_wallet", columnList = "wallet_id,month_start", unique = true)
+})
+public class BalanceCheckpoint extends AuditableEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id")
+    private SharedWallet sharedWallet;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(name = "opening_balance", nullable = false, precision = 16, scale = 2)
+    private BigDecimal openingBalance = BigDecimal.ZERO;
+
+    @Column(name = "net_change", nullable = false, precision = 16, scale = 2)
+    private BigDecimal netChange = BigDecimal.ZERO;
+
+    public BalanceCheckpoint() {
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public SharedWallet getSharedWallet() {
+        return sharedWallet;
+    }
+
+    public void setSharedWallet(SharedWallet sharedWallet) {
+        this.sharedWallet = sharedWallet;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+
+    public BigDecimal getNetChange() {
+        return netChange;
+    }
+
+    public void setNetChange(BigDecimal netChange) {
+        this.netChange = netChange;
+    }
+
+    public BigDecimal getClosingBalance() {
+        return openingBalance.add(netChange);
+    }
+}
@@ -0,0 +1,89 @@
+package com.lothbrok.fintrack.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One insert, update or delete of an {@code AuditableEntity}, in the journal stream of the user who owns the entity.
+ * {@code seq} increases by one per entry within that stream, in commit order. {@code payload} holds the written
+ * columns in {@code JournalCodec} format: every non-null column for inserts, only the changed ones for updates and
+ * nothing for deletes. Appended by {@code ChangeJournalListener}; never written through JPA and never updated.
+ */
+@Entity
+@Table(name = "change_journal", indexes = {
+        @Index(name = "idx_change_journal_user_seq", columnList = "user_id,seq", unique = true),
+        @Index(name = "idx_change_journal_entity", columnList = "entity_id,seq")
+})
+public class ChangeJournalEntry {
+
+    @Id
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Column(name = "entity_type", nullable = false, length = 40)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false, columnDefinition = "uuid")
+    private UUID entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ChangeOperation operation;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    @Column(nullable = false, length = 65535)
+    private byte[] payload;
+
+    public ChangeJournalEntry() {
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public UUID getEntityId() {
+        return entityId;
+    }
+
+    public ChangeOperation getOperation() {
+        return operation;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+}
@@ -0,0 +1,35 @@
+package com.lothbrok.fintrack.entity;
+
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Last journal sequence number handed out per user. {@code ChangeJournalListener} bumps it at commit time; the row
+ * lock it takes keeps each user's sequence gap-free and in commit order.
+ */
+@Entity
+@Table(name = "change_journal_heads")
+public class ChangeJournalHead {
+
+    @Id
+    @Column(name = "user_id", columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    public ChangeJournalHead() {
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+}
@@ -20,7 +20,7 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "notifications", indexes = {
-        @Index(name = "idx_notification_user_read", columnList = "user_id,is_read")
+        @Index(name = "idx_notification_user_created", columnList = "user_id,created_at")
 })
 public class Notification extends AuditableEntity {
 
@@ -0,0 +1,69 @@
+package com.lothbrok.fintrack.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Tokens one node took from a rate limit key's bucket, for the other nodes to drain from theirs. Written and read
+ * over JDBC by {@code RateLimiter} and deleted once older than the sync retention.
+ */
+@Entity
+@Table(name = "rate_limit_usage", indexes = {
+        @Index(name = "idx_rate_limit_usage_created_at", columnList = "created_at")
+})
+public class RateLimitUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false)
+    private UUID nodeId;
+
+    @Column(nullable = false, length = 64)
+    private String policy;
+
+    @Column(name = "limit_key", nullable = false)
+    private String limitKey;
+
+    @Column(nullable = false)
+    private long tokens;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public RateLimitUsage() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getNodeId() {
+        return nodeId;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public String getLimitKey() {
+        return limitKey;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -21,7 +21,9 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "recurring_jobs", indexes = {
-        @Index(name = "idx_recurring_next_run", columnList = "next_run_at")
+        @Index(name = "idx_recurring_next_run", columnList = "next_run_at"),
+        @Index(name = "idx_recurring_user", columnList = "user_id"),
+        @Index(name = "idx_recurring_template", columnList = "template_transaction_id")
 })
 public class RecurringJob extends AuditableEntity {
 
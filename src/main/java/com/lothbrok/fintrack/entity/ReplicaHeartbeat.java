@@ -0,0 +1,34 @@
+package com.lothbrok.fintrack.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The single row nodes stamp on the primary and read back from the read replica to measure replication lag.
+ * Written and read over JDBC by {@code ReplicaLagMonitor}.
+ */
+@Entity
+@Table(name = "replica_heartbeats")
+public class ReplicaHeartbeat {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "beat_at", nullable = false)
+    private Instant beatAt;
+
+    public ReplicaHeartbeat() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Instant getBeatAt() {
+        return beatAt;
+    }
+}
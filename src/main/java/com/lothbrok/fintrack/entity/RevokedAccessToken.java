@@ -0,0 +1,54 @@
+package com.lothbrok.fintrack.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * An access token revoked before it expired, by its token id. Written and polled over JDBC by
+ * {@code TokenRevocations}, which keeps the live ones in memory on every node; deleted once the token has expired.
+ */
+@Entity
+@Table(name = "revoked_access_tokens", indexes = {
+        @Index(name = "idx_revoked_access_token_revoked", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_access_token_expires", columnList = "expires_at")
+})
+public class RevokedAccessToken {
+
+    @Id
+    @Column(name = "token_id", columnDefinition = "uuid")
+    private UUID tokenId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    public RevokedAccessToken() {
+    }
+
+    public UUID getTokenId() {
+        return tokenId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.lothbrok.fintrack.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A user whose shard is not the one the hash ring assigns: users that were moved, and everyone sharing a wallet.
+ * {@code moving} blocks the user's writes while {@code ShardMover} copies their rows. Lives on the first shard and is
+ * written and read over JDBC by {@code ShardDirectory}.
+ */
+@Entity
+@Table(name = "shard_placements")
+public class ShardPlacement {
+
+    @Id
+    @Column(name = "user_id", columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(nullable = false)
+    private boolean moving;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public ShardPlacement() {
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public boolean isMoving() {
+        return moving;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
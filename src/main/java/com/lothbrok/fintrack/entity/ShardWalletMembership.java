@@ -0,0 +1,57 @@
+package com.lothbrok.fintrack.entity;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Directory copy of a shared wallet membership, kept on the first shard so the users that have to live on one shard
+ * are found without asking every shard. Written and read over JDBC by {@code ShardDirectory}.
+ */
+@Entity
+@Table(name = "shard_wallet_members", indexes = {
+        @Index(name = "idx_shard_wallet_members_member", columnList = "member_id"),
+        @Index(name = "idx_shard_wallet_members_owner", columnList = "owner_id")
+})
+@IdClass(ShardWalletMembership.Key.class)
+public class ShardWalletMembership {
+
+    public record Key(UUID walletId, UUID memberId) implements Serializable {
+
+        public Key() {
+            this(null, null);
+        }
+    }
+
+    @Id
+    @Column(name = "wallet_id", columnDefinition = "uuid")
+    private UUID walletId;
+
+    @Id
+    @Column(name = "member_id", columnDefinition = "uuid")
+    private UUID memberId;
+
+    @Column(name = "owner_id", columnDefinition = "uuid", nullable = false)
+    private UUID ownerId;
+
+    public ShardWalletMembership() {
+    }
+
+    public UUID getWalletId() {
+        return walletId;
+    }
+
+    public UUID getMemberId() {
+        return memberId;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+}
@@ -18,7 +18,8 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "shared_wallet_members", indexes = {
-        @Index(name = "idx_wallet_member", columnList = "wallet_id,member_id", unique = true)
+        @Index(name = "idx_wallet_member", columnList = "wallet_id,member_id", unique = true),
+        @Index(name = "idx_wallet_member_member", columnList = "member_id")
 })
 public class SharedWalletMember extends AuditableEntity {
 
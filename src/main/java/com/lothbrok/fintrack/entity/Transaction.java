@@ -6,9 +6,12 @@ import java.util.UUID;
 
 import com.lothbrok.fintrack.entity.base.AuditableEntity;
 import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.entity.listener.TransactionChangeListener;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -19,11 +22,14 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "transactions", indexes = {
-        @Index(name = "idx_transaction_user_date", columnList = "user_id,event_date")
+        @Index(name = "idx_transaction_user_date", columnList = "user_id,event_date"),
+        @Index(name = "idx_transaction_wallet_date", columnList = "wallet_id,event_date")
 })
+@EntityListeners(TransactionChangeListener.class)
 public class Transaction extends AuditableEntity {
 
     @Id
@@ -64,6 +70,9 @@ public class Transaction extends AuditableEntity {
     @Column(name = "attachment_url", length = 255)
     private String attachmentUrl;
 
+    @Transient
+    private TransactionSnapshot loadedSnapshot;
+
     public Transaction() {
     }
 
@@ -154,4 +163,12 @@ public class Transaction extends AuditableEntity {
     public void setAttachmentUrl(String attachmentUrl) {
         this.attachmentUrl = attachmentUrl;
     }
+
+    public TransactionSnapshot getLoadedSnapshot() {
+        return loadedSnapshot;
+    }
+
+    public void setLoadedSnapshot(TransactionSnapshot loadedSnapshot) {
+        this.loadedSnapshot = loadedSnapshot;
+    }
 }
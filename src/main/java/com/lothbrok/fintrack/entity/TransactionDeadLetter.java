@@ -0,0 +1,98 @@
+package com.lothbrok.fintrack.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A committed transaction change one event bus consumer kept failing on, waiting to be retried after
+ * {@code availableAt}. Written and read over JDBC by {@code TransactionOutbox}; states are encoded as in
+ * {@link TransactionOutboxEntry}.
+ */
+@Entity
+@Table(name = "transaction_dead_letters", indexes = {
+        @Index(name = "idx_dead_letter_consumer_available", columnList = "consumer, available_at")
+})
+public class TransactionDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String consumer;
+
+    @Column(name = "transaction_id", nullable = false, columnDefinition = "uuid")
+    private UUID transactionId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "before_state", length = 1024)
+    private byte[] beforeState;
+
+    @Column(name = "after_state", length = 1024)
+    private byte[] afterState;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    public TransactionDeadLetter() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getConsumer() {
+        return consumer;
+    }
+
+    public UUID getTransactionId() {
+        return transactionId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public byte[] getBeforeState() {
+        return beforeState;
+    }
+
+    public byte[] getAfterState() {
+        return afterState;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getAvailableAt() {
+        return availableAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
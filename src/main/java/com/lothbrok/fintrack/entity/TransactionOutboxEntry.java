@@ -0,0 +1,81 @@
+package com.lothbrok.fintrack.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A committed transaction change waiting for the after-commit consumers of the event bus. Written and read over
+ * JDBC by {@code TransactionOutbox}; states are {@code JournalCodec}-encoded snapshots, null before an insert and
+ * after a delete.
+ */
+@Entity
+@Table(name = "transaction_outbox")
+public class TransactionOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false, columnDefinition = "uuid")
+    private UUID transactionId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "before_state", length = 1024)
+    private byte[] beforeState;
+
+    @Column(name = "after_state", length = 1024)
+    private byte[] afterState;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "claimed_by", columnDefinition = "uuid")
+    private UUID claimedBy;
+
+    @Column(name = "claimed_at")
+    private Instant claimedAt;
+
+    public TransactionOutboxEntry() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getTransactionId() {
+        return transactionId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public byte[] getBeforeState() {
+        return beforeState;
+    }
+
+    public byte[] getAfterState() {
+        return afterState;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public UUID getClaimedBy() {
+        return claimedBy;
+    }
+
+    public Instant getClaimedAt() {
+        return claimedAt;
+    }
+}
@@ -1,10 +1,15 @@
 package com.lothbrok.fintrack.entity;
 
 import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.lothbrok.fintrack.entity.base.AuditableEntity;
+import com.lothbrok.fintrack.entity.base.JournalIgnore;
 import com.lothbrok.fintrack.entity.enums.UserRole;
 
 import jakarta.persistence.CascadeType;
@@ -22,7 +27,8 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "users", indexes = {
-        @Index(name = "uk_user_email", columnList = "email", unique = true)
+        @Index(name = "uk_user_email", columnList = "email", unique = true),
+        @Index(name = "uk_user_normalized_email", columnList = "normalized_email", unique = true)
 })
 public class User extends AuditableEntity {
 
@@ -34,6 +40,12 @@ public class User extends AuditableEntity {
     @Column(nullable = false, unique = true, length = 255)
     private String email;
 
+    /** {@link #normalizeEmail} of {@code email}, so case-insensitive lookups are plain index seeks. */
+    @JournalIgnore
+    @Column(name = "normalized_email", nullable = false, length = 255)
+    private String normalizedEmail;
+
+    @JournalIgnore
     @Column(name = "password_hash", nullable = false, length = 255)
     private String passwordHash;
 
@@ -47,9 +59,19 @@ public class User extends AuditableEntity {
     @Column(name = "avatar_url", length = 255)
     private String avatarUrl;
 
+    @JournalIgnore
     @Column(name = "two_factor_secret", length = 32)
     private String twoFactorSecret;
 
+    /**
+     * Advanced whenever the password, role or two-factor secret changes, which invalidates the user's tokens. Storing
+     * a new hash of the same password does not count.
+     */
+    @JournalIgnore
+    @ColumnDefault("0")
+    @Column(name = "credential_version", nullable = false)
+    private long credentialVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = false, fetch = FetchType.LAZY)
     private Set<Transaction> transactions = new HashSet<>();
 
@@ -68,6 +90,10 @@ public class User extends AuditableEntity {
     public User() {
     }
 
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public UUID getId() {
         return id;
     }
@@ -82,16 +108,31 @@ public class User extends AuditableEntity {
 
     public void setEmail(String email) {
         this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
     }
 
     public String getPasswordHash() {
         return passwordHash;
     }
 
+    /**
+     * Stores a hash without touching the credential version: for new accounts, and for a password rehashed at
+     * another cost on login. A new password goes through {@link #changePassword}.
+     */
     public void setPasswordHash(String passwordHash) {
         this.passwordHash = passwordHash;
     }
 
+    /** Replaces the password, so tokens issued for the old one stop working. */
+    public void changePassword(String passwordHash) {
+        credentialsChanged(this.passwordHash, passwordHash);
+        this.passwordHash = passwordHash;
+    }
+
     public String getFullName() {
         return fullName;
     }
@@ -105,6 +146,7 @@ public class User extends AuditableEntity {
     }
 
     public void setRole(UserRole role) {
+        credentialsChanged(this.role, role);
         this.role = role;
     }
 
@@ -121,9 +163,20 @@ public class User extends AuditableEntity {
     }
 
     public void setTwoFactorSecret(String twoFactorSecret) {
+        credentialsChanged(this.twoFactorSecret, twoFactorSecret);
         this.twoFactorSecret = twoFactorSecret;
     }
 
+    public long getCredentialVersion() {
+        return credentialVersion;
+    }
+
+    private void credentialsChanged(Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            credentialVersion++;
+        }
+    }
+
     public Set<Transaction> getTransactions() {
         return transactions;
     }
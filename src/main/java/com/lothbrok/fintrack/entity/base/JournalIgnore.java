@@ -0,0 +1,18 @@
+package com.lothbrok.fintrack.entity.base;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps a column of an {@link AuditableEntity} out of the change journal, which users can read back through the
+ * journal API. For secrets and for columns derived from other journaled ones. A change to such a column is still
+ * journaled, without its value.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface JournalIgnore {
+}
@@ -0,0 +1,8 @@
+package com.lothbrok.fintrack.entity.enums;
+
+public enum AccountPurgeStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
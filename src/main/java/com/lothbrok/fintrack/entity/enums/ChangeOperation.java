@@ -0,0 +1,7 @@
+package com.lothbrok.fintrack.entity.enums;
+
+public enum ChangeOperation {
+    INSERT,
+    UPDATE,
+    DELETE
+}
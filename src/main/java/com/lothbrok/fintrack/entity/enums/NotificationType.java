@@ -4,5 +4,7 @@ public enum NotificationType {
     BUDGET_LIMIT,
     RECURRING_REMINDER,
     SECURITY,
+    SPENDING_INSIGHT,
+    REPORT_READY,
     SYSTEM
 }
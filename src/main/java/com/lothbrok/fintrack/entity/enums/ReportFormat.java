@@ -0,0 +1,6 @@
+package com.lothbrok.fintrack.entity.enums;
+
+public enum ReportFormat {
+    XLSX,
+    PDF
+}
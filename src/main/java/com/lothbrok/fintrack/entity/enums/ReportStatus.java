@@ -0,0 +1,8 @@
+package com.lothbrok.fintrack.entity.enums;
+
+public enum ReportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
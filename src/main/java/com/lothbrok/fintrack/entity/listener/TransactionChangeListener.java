@@ -0,0 +1,95 @@
+package com.lothbrok.fintrack.entity.listener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionChangeBatch;
+import com.lothbrok.fintrack.event.TransactionChangedEvent;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Turns JPA lifecycle callbacks on {@link Transaction} into {@link TransactionChangedEvent}s. The loaded state is
+ * remembered on the entity so updates and deletes can carry the previous values; an entity updated without having
+ * been loaded in this JVM (reattached, or deserialized and then reattached) has the stored row read before it is
+ * written instead. While a {@link TransactionChangeBatch} is open the events go to the batch instead of being
+ * published.
+ */
+@Component
+public class TransactionChangeListener {
+
+    private static final String STORED_SQL = """
+            select user_id, wallet_id, amount, currency, category, type, event_date from transactions where id = ?
+            """;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionChangeListener(ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate) {
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostLoad
+    void onLoad(Transaction entity) {
+        entity.setLoadedSnapshot(TransactionSnapshot.of(entity));
+    }
+
+    @PostPersist
+    void onPersist(Transaction entity) {
+        TransactionSnapshot after = TransactionSnapshot.of(entity);
+        entity.setLoadedSnapshot(after);
+        publish(new TransactionChangedEvent(null, after));
+    }
+
+    /** Runs during the flush, before its statements, so the row read is the one this update replaces. */
+    @PreUpdate
+    void beforeUpdate(Transaction entity) {
+        if (entity.getLoadedSnapshot() == null) {
+            entity.setLoadedSnapshot(stored(entity.getId()));
+        }
+    }
+
+    @PostUpdate
+    void onUpdate(Transaction entity) {
+        TransactionSnapshot after = TransactionSnapshot.of(entity);
+        TransactionSnapshot before = entity.getLoadedSnapshot();
+        entity.setLoadedSnapshot(after);
+        publish(new TransactionChangedEvent(before != null ? before : after, after));
+    }
+
+    @PostRemove
+    void onRemove(Transaction entity) {
+        TransactionSnapshot before = entity.getLoadedSnapshot();
+        entity.setLoadedSnapshot(null);
+        publish(new TransactionChangedEvent(before != null ? before : TransactionSnapshot.of(entity), null));
+    }
+
+    private TransactionSnapshot stored(UUID id) {
+        List<TransactionSnapshot> rows = jdbcTemplate.query(STORED_SQL, (rs, rowNum) -> new TransactionSnapshot(id,
+                rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getBigDecimal(3), rs.getString(4),
+                rs.getString(5), TransactionType.valueOf(rs.getString(6)), rs.getObject(7, LocalDate.class)), id);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void publish(TransactionChangedEvent event) {
+        TransactionChangeBatch batch = TransactionChangeBatch.current();
+        if (batch != null) {
+            batch.add(event);
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
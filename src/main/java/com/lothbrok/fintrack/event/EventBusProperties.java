@@ -0,0 +1,38 @@
+package com.lothbrok.fintrack.event;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled         runs the relay and the after-commit consumers; when off, outbox entries wait in the table
+ * @param ringSize        committed events held in memory between the relay and the slowest consumer; rounded up to
+ *                        a power of two
+ * @param maxBatch        events handed to a consumer in one call
+ * @param pollInterval    how often the relay looks for entries committed by other instances or left behind; local
+ *                        commits wake it straight away
+ * @param claimLease      how long an instance's claim on an entry holds before another instance may deliver it;
+ *                        renewed while the entry waits in memory
+ * @param maxAttempts     deliveries of a failing batch before its events are kept as dead letters of the consumer
+ * @param deadLetterRetry how often consumers look for due dead letters, and the delay before an event's first retry;
+ *                        the delay doubles with every retry that fails
+ */
+@ConfigurationProperties(prefix = "fintrack.events")
+public record EventBusProperties(@DefaultValue("true") boolean enabled,
+        int ringSize,
+        int maxBatch,
+        Duration pollInterval,
+        Duration claimLease,
+        int maxAttempts,
+        Duration deadLetterRetry) {
+
+    public EventBusProperties {
+        ringSize = Integer.highestOneBit(Math.max(ringSize > 0 ? ringSize : 1024, 2) * 2 - 1);
+        maxBatch = maxBatch > 0 ? maxBatch : 256;
+        pollInterval = pollInterval == null ? Duration.ofMillis(200) : pollInterval;
+        claimLease = claimLease == null ? Duration.ofMinutes(5) : claimLease;
+        maxAttempts = maxAttempts > 0 ? maxAttempts : 3;
+        deadLetterRetry = deadLetterRetry == null ? Duration.ofSeconds(30) : deadLetterRetry;
+    }
+}
@@ -0,0 +1,14 @@
+package com.lothbrok.fintrack.event;
+
+import java.util.List;
+
+/**
+ * Published once for a {@link TransactionChangeBatch}, inside the writing transaction, in place of the individual
+ * {@link TransactionChangedEvent}s it collected. {@code changes} are in the order the rows were flushed.
+ */
+public record TransactionBatchChangedEvent(List<TransactionChangedEvent> changes) {
+
+    public TransactionBatchChangedEvent {
+        changes = changes == null ? List.of() : List.copyOf(changes);
+    }
+}
@@ -0,0 +1,46 @@
+package com.lothbrok.fintrack.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the {@link TransactionChangedEvent}s raised on the current thread while it is open, instead of letting
+ * each one be published on its own. The caller flushes, closes the batch and publishes a single
+ * {@link TransactionBatchChangedEvent}, so listeners do their work once per batch rather than once per row.
+ */
+public final class TransactionChangeBatch implements AutoCloseable {
+
+    private static final ThreadLocal<TransactionChangeBatch> CURRENT = new ThreadLocal<>();
+
+    private final List<TransactionChangedEvent> changes = new ArrayList<>();
+
+    private TransactionChangeBatch() {
+    }
+
+    public static TransactionChangeBatch open() {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("A transaction change batch is already open on this thread");
+        }
+        TransactionChangeBatch batch = new TransactionChangeBatch();
+        CURRENT.set(batch);
+        return batch;
+    }
+
+    /** The batch open on this thread, or null. */
+    public static TransactionChangeBatch current() {
+        return CURRENT.get();
+    }
+
+    public void add(TransactionChangedEvent event) {
+        changes.add(event);
+    }
+
+    public List<TransactionChangedEvent> changes() {
+        return List.copyOf(changes);
+    }
+
+    @Override
+    public void close() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,37 @@
+package com.lothbrok.fintrack.event;
+
+import java.util.UUID;
+
+/**
+ * Published inside the writing transaction whenever a {@code Transaction} row is inserted, updated or deleted.
+ * {@code before} is null for inserts and {@code after} is null for deletes.
+ */
+public record TransactionChangedEvent(TransactionSnapshot before, TransactionSnapshot after) {
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public TransactionChangedEvent {
+        if (before == null && after == null) {
+            throw new IllegalArgumentException("before and after must not both be null");
+        }
+    }
+
+    public Kind kind() {
+        if (before == null) {
+            return Kind.CREATED;
+        }
+        return after == null ? Kind.DELETED : Kind.UPDATED;
+    }
+
+    public UUID transactionId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    public UUID userId() {
+        return after != null ? after.userId() : before.userId();
+    }
+}
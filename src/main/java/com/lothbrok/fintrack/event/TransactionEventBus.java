@@ -0,0 +1,443 @@
+package com.lothbrok.fintrack.event;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Delivers committed {@link TransactionChangedEvent}s to the {@link TransactionEventConsumer}s, off the request
+ * path. Side effects that must commit with the write listen to the events directly instead (balance checkpoints,
+ * the {@link TransactionOutbox} itself).
+ * <p>
+ * A relay thread claims committed outbox entries and appends them to a ring buffer; every consumer has a thread
+ * and a cursor of its own and takes everything between its cursor and the head in batches of up to
+ * {@code maxBatch}, so a slow consumer falls behind without holding up the others. The relay never overwrites a slot
+ * the slowest consumer has not passed; entries that do not fit stay in the outbox until there is room. Once every
+ * cursor has passed an entry it is deleted from the outbox. Commits on this instance wake the relay; it also polls
+ * every {@code pollInterval} for entries committed elsewhere. While entries wait in the ring their claims are renewed,
+ * so no other instance takes them over however long the consumers take.
+ * <p>
+ * A batch that still throws after {@code maxAttempts} deliveries is kept as dead letters of that consumer before the
+ * cursor moves on. Each consumer retries its due dead letters one event at a time every {@code deadLetterRetry},
+ * doubling the delay of an event after every failure, and deletes them once they go through.
+ * <p>
+ * With sharding each shard has an outbox of its own. The relay claims from every shard into the one ring, and
+ * consumers handle each run of entries from one shard in a transaction on that shard.
+ */
+@Component
+public class TransactionEventBus implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionEventBus.class);
+
+    static final String PREFIX = "fintrack.events.";
+
+    private final TransactionOutbox outbox;
+    private final ShardRouter shardRouter;
+    private final EventBusProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final UUID instanceId = UUID.randomUUID();
+    private final TransactionOutbox.Entry[] ring;
+    private final int mask;
+    /** Sequence of the newest slot written; slots are only written by the relay. */
+    private final AtomicLong head = new AtomicLong(-1);
+    private final List<Cursor> cursors = new ArrayList<>();
+    private final Counter relayed;
+
+    /** Sequence up to which outbox entries have been deleted; only written by the relay. */
+    private volatile long deleted = -1;
+    /** Shard the relay claims from first; only used by the relay. */
+    private int firstShard;
+    /** When the relay last renewed its claims; only used by the relay. */
+    private Instant renewed = Instant.now();
+    private volatile boolean running;
+    private volatile Thread relay;
+    private ExecutorService threads;
+
+    public TransactionEventBus(TransactionOutbox outbox,
+            ShardRouter shardRouter,
+            List<TransactionEventConsumer> consumers,
+            EventBusProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry) {
+        this.outbox = outbox;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ring = new TransactionOutbox.Entry[properties.ringSize()];
+        this.mask = ring.length - 1;
+        for (TransactionEventConsumer consumer : consumers) {
+            Cursor cursor = new Cursor(consumer, registry);
+            Gauge.builder(PREFIX + "consumer.lag", cursor, c -> head.get() - c.sequence.get())
+                    .description("Committed events the consumer has not processed yet")
+                    .tag("consumer", consumer.name())
+                    .register(registry);
+            cursors.add(cursor);
+        }
+        this.relayed = Counter.builder(PREFIX + "relayed")
+                .description("Outbox entries claimed and handed to consumers")
+                .register(registry);
+    }
+
+    private final class Cursor implements Runnable {
+
+        private final TransactionEventConsumer consumer;
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private final Timer delay;
+        private final Counter failures;
+        private volatile Thread thread;
+        /** When the cursor next looks for due dead letters; only used by the cursor's thread. */
+        private long deadLettersDue = System.nanoTime();
+
+        Cursor(TransactionEventConsumer consumer, MeterRegistry registry) {
+            this.consumer = consumer;
+            this.delay = Timer.builder(PREFIX + "consumer.delay")
+                    .description("Time from commit to the consumer finishing with the event")
+                    .tag("consumer", consumer.name())
+                    .register(registry);
+            this.failures = Counter.builder(PREFIX + "consumer.failures")
+                    .description("Batches that threw")
+                    .tag("consumer", consumer.name())
+                    .register(registry);
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            long pollNanos = properties.pollInterval().toNanos();
+            while (running) {
+                if (System.nanoTime() - deadLettersDue >= 0) {
+                    retryDeadLetters();
+                    deadLettersDue = System.nanoTime() + properties.deadLetterRetry().toNanos();
+                }
+                long next = sequence.get() + 1;
+                long available = head.get();
+                if (available < next) {
+                    LockSupport.parkNanos(this, pollNanos);
+                    continue;
+                }
+                long last = Math.min(available, next + properties.maxBatch() - 1);
+                List<TransactionOutbox.Entry> entries = new ArrayList<>((int) (last - next + 1));
+                for (long seq = next; seq <= last; seq++) {
+                    entries.add(ring[(int) seq & mask]);
+                }
+                if (!deliver(entries)) {
+                    return;
+                }
+                Instant now = Instant.now();
+                for (TransactionOutbox.Entry entry : entries) {
+                    delay.record(Duration.between(entry.createdAt(), now));
+                }
+                sequence.set(last);
+                LockSupport.unpark(relay);
+            }
+        }
+
+        /** False when the bus stopped before the batch got through; it is then left for the next instance. */
+        private boolean deliver(List<TransactionOutbox.Entry> entries) {
+            int start = 0;
+            while (start < entries.size()) {
+                int shard = entries.get(start).shard();
+                int end = start;
+                while (end < entries.size() && entries.get(end).shard() == shard) {
+                    end++;
+                }
+                if (!deliver(shard, entries.subList(start, end))) {
+                    return false;
+                }
+                start = end;
+            }
+            return true;
+        }
+
+        private boolean deliver(int shard, List<TransactionOutbox.Entry> entries) {
+            List<TransactionChangedEvent> events = entries.stream().map(TransactionOutbox.Entry::event).toList();
+            for (int attempt = 1;; attempt++) {
+                try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                    transactionTemplate.executeWithoutResult(status -> consumer.accept(events));
+                    return true;
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    if (attempt >= properties.maxAttempts()) {
+                        log.error("Event consumer {} failed on {} events {} times; keeping them as dead letters",
+                                consumer.name(), events.size(), attempt, e);
+                        return deadLetter(shard, entries, attempt, e);
+                    }
+                    log.warn("Event consumer {} failed on {} events, attempt {}", consumer.name(), events.size(),
+                            attempt, e);
+                    LockSupport.parkNanos(this, properties.pollInterval().toNanos() * attempt);
+                    if (!running) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        /** Retries until the dead letters are written; false when the bus stopped first. */
+        private boolean deadLetter(int shard, List<TransactionOutbox.Entry> entries, int attempts,
+                RuntimeException failure) {
+            Instant availableAt = Instant.now().plus(properties.deadLetterRetry());
+            while (running) {
+                try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                    transactionTemplate.executeWithoutResult(status ->
+                            outbox.deadLetter(consumer.name(), entries, attempts, availableAt, describe(failure)));
+                    return true;
+                } catch (RuntimeException e) {
+                    log.warn("Could not keep {} events as dead letters of {}", entries.size(), consumer.name(), e);
+                    LockSupport.parkNanos(this, properties.pollInterval().toNanos());
+                }
+            }
+            return false;
+        }
+
+        private void retryDeadLetters() {
+            for (int shard = 0; shard < shardRouter.shardCount() && running; shard++) {
+                try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                    Instant now = Instant.now();
+                    for (TransactionOutbox.DeadLetter letter : outbox.claimDeadLetters(consumer.name(),
+                            properties.maxBatch(), now, now.plus(properties.claimLease()))) {
+                        retry(letter);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Retrying dead letters of {} failed", consumer.name(), e);
+                }
+            }
+        }
+
+        /** Delivers a claimed dead letter on the current shard, or pushes it back by a growing delay. */
+        private void retry(TransactionOutbox.DeadLetter letter) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    consumer.accept(List.of(letter.event()));
+                    outbox.deleteDeadLetter(letter.id());
+                });
+                delay.record(Duration.between(letter.createdAt(), Instant.now()));
+            } catch (RuntimeException e) {
+                failures.increment();
+                int attempts = letter.attempts() + 1;
+                int doublings = Math.min(Math.max(attempts - properties.maxAttempts(), 0), 6);
+                Duration backoff = properties.deadLetterRetry().multipliedBy(1L << doublings);
+                log.warn("Event consumer {} failed on dead letter {}, attempt {}; retrying in {}", consumer.name(),
+                        letter.id(), attempts, backoff, e);
+                outbox.retryDeadLetter(letter.id(), attempts, Instant.now().plus(backoff), describe(e));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommitted(TransactionChangedEvent event) {
+        wakeRelay();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommitted(TransactionBatchChangedEvent event) {
+        wakeRelay();
+    }
+
+    /**
+     * Waits until the outbox is empty and every consumer has caught up, which includes entries committed through
+     * other instances sharing the table. Returns false if that did not happen within {@code timeout}.
+     */
+    public boolean awaitIdle(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            wakeRelay();
+            if (caughtUp() && pending() == 0 && caughtUp()) {
+                return true;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled() || running) {
+            return;
+        }
+        running = true;
+        AtomicInteger counter = new AtomicInteger();
+        threads = Executors.newFixedThreadPool(cursors.size() + 1, runnable -> {
+            Thread thread = new Thread(runnable, "transaction-events-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threads.execute(this::relayLoop);
+        cursors.forEach(threads::execute);
+    }
+
+    /** Stops delivery and hands undelivered claims back to the outbox for the next instance. */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeRelay();
+        cursors.forEach(cursor -> LockSupport.unpark(cursor.thread));
+        threads.shutdown();
+        try {
+            threads.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            deleteDelivered();
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                    outbox.release(instanceId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not release outbox claims of {}; they are delivered again once their lease runs out",
+                    instanceId, e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void relayLoop() {
+        relay = Thread.currentThread();
+        long pollNanos = properties.pollInterval().toNanos();
+        while (running) {
+            try {
+                deleteDelivered();
+                renewClaims();
+                relayOnce();
+            } catch (RuntimeException e) {
+                log.warn("Relaying outbox entries failed", e);
+            }
+            LockSupport.parkNanos(this, pollNanos);
+        }
+    }
+
+    private void relayOnce() {
+        long published = head.get();
+        // Slots are reused only once their entries are gone from the outbox.
+        int free = ring.length - (int) (published - deleted);
+        if (free <= 0) {
+            return;
+        }
+        Instant leaseStart = Instant.now().minus(properties.claimLease());
+        List<TransactionOutbox.Entry> claimed = new ArrayList<>();
+        int shards = shardRouter.shardCount();
+        // Start from a different shard each round, so one busy shard cannot keep the ring full by itself.
+        firstShard = (firstShard + 1) % shards;
+        for (int i = 0; i < shards && claimed.size() < free; i++) {
+            int shard = (firstShard + i) % shards;
+            try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                claimed.addAll(outbox.claim(instanceId, free - claimed.size(), leaseStart, shard));
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        for (TransactionOutbox.Entry entry : claimed) {
+            ring[(int) ++published & mask] = entry;
+        }
+        head.set(published);
+        relayed.increment(claimed.size());
+        cursors.forEach(cursor -> LockSupport.unpark(cursor.thread));
+    }
+
+    /** Renews the claims on entries still in the ring every third of a lease. */
+    private void renewClaims() {
+        Instant now = Instant.now();
+        if (head.get() == deleted
+                || Duration.between(renewed, now).compareTo(properties.claimLease().dividedBy(3)) < 0) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                outbox.renew(instanceId, now);
+            }
+        }
+        renewed = now;
+    }
+
+    private void deleteDelivered() {
+        long done = slowest();
+        if (done <= deleted) {
+            return;
+        }
+        Map<Integer, List<Long>> ids = new HashMap<>();
+        for (long seq = deleted + 1; seq <= done; seq++) {
+            TransactionOutbox.Entry entry = ring[(int) seq & mask];
+            ids.computeIfAbsent(entry.shard(), shard -> new ArrayList<>()).add(entry.id());
+        }
+        ids.forEach((shard, shardIds) -> {
+            try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                outbox.delete(shardIds);
+            }
+        });
+        for (long seq = deleted + 1; seq <= done; seq++) {
+            ring[(int) seq & mask] = null;
+        }
+        deleted = done;
+    }
+
+    /** Sequence every consumer has passed; the head itself when there are no consumers. */
+    private long slowest() {
+        long slowest = head.get();
+        for (Cursor cursor : cursors) {
+            slowest = Math.min(slowest, cursor.sequence.get());
+        }
+        return slowest;
+    }
+
+    private long pending() {
+        long pending = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                pending += outbox.pending();
+            }
+        }
+        return pending;
+    }
+
+    private boolean caughtUp() {
+        return slowest() == head.get() && deleted == head.get();
+    }
+
+    private static String describe(Throwable failure) {
+        String description = String.valueOf(failure);
+        return description.length() > 1024 ? description.substring(0, 1024) : description;
+    }
+
+    private void wakeRelay() {
+        Thread thread = relay;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.lothbrok.fintrack.event;
+
+import java.util.List;
+
+/**
+ * An after-commit side effect of transaction writes. Beans implementing this are subscribed to the
+ * {@link TransactionEventBus}, which calls {@link #accept} on a thread of the consumer's own with batches of
+ * committed events in outbox order, each batch inside a new database transaction.
+ * <p>
+ * Delivery is at least once: a batch that throws is delivered again, and entries of an instance that stopped
+ * mid-batch are delivered again by the next one, so consumers should tolerate seeing an event twice.
+ */
+public interface TransactionEventConsumer {
+
+    /** Short name used in metrics and logs. */
+    String name();
+
+    void accept(List<TransactionChangedEvent> events);
+}
@@ -0,0 +1,242 @@
+package com.lothbrok.fintrack.event;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.lothbrok.fintrack.entity.TransactionDeadLetter;
+import com.lothbrok.fintrack.entity.TransactionOutboxEntry;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.journal.JournalCodec;
+
+/**
+ * Writes every {@link TransactionChangedEvent} to the {@link TransactionOutboxEntry outbox} inside the writing
+ * transaction, so an event exists exactly when its change committed, and hands committed entries to the
+ * {@link TransactionEventBus}. Plain JDBC, because the events are raised while Hibernate is flushing.
+ * <p>
+ * Entries are claimed before they are delivered: a claim names the bus instance and expires after a lease, so
+ * several application instances can share the table and entries claimed by an instance that died are picked up
+ * again once the lease runs out. The bus renews its claims while their entries wait in memory.
+ * <p>
+ * Events a consumer keeps failing on are copied to {@link TransactionDeadLetter dead letters} of that consumer,
+ * which are claimed one at a time by pushing {@code available_at} forward and deleted once delivered.
+ */
+@Component
+public class TransactionOutbox {
+
+    private static final String INSERT_SQL = """
+            insert into transaction_outbox (transaction_id, user_id, before_state, after_state, created_at)
+            values (?, ?, ?, ?, ?)
+            """;
+    private static final String CANDIDATES_SQL = """
+            select id, before_state, after_state, created_at from transaction_outbox
+            where claimed_by is null or claimed_at < ?
+            order by id
+            fetch first %d rows only
+            """;
+    private static final String CLAIM_SQL = """
+            update transaction_outbox set claimed_by = ?, claimed_at = ?
+            where id = ? and (claimed_by is null or claimed_at < ?)
+            """;
+    private static final String DEAD_LETTER_SQL = """
+            insert into transaction_dead_letters (consumer, transaction_id, user_id, before_state, after_state,
+                                                  created_at, attempts, available_at, last_error)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String DUE_DEAD_LETTERS_SQL = """
+            select id, attempts, before_state, after_state, created_at from transaction_dead_letters
+            where consumer = ? and available_at <= ?
+            order by id
+            fetch first %d rows only
+            """;
+    private static final String RETRY_DEAD_LETTER_SQL = """
+            update transaction_dead_letters set attempts = ?, available_at = ?, last_error = ?
+            where id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** A claimed entry; {@code shard} is the shard its row is on. */
+    public record Entry(long id, int shard, TransactionChangedEvent event, Instant createdAt) {
+    }
+
+    /** A claimed dead letter; {@code attempts} counts the deliveries that failed so far. */
+    record DeadLetter(long id, int attempts, TransactionChangedEvent event, Instant createdAt) {
+    }
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        append(List.of(event));
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionBatchChangedEvent event) {
+        append(event.changes());
+    }
+
+    private void append(List<TransactionChangedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setObject(1, event.transactionId());
+            ps.setObject(2, event.userId());
+            ps.setBytes(3, encode(event.before()));
+            ps.setBytes(4, encode(event.after()));
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    /**
+     * Claims up to {@code limit} of the oldest unclaimed entries, or entries whose claim is older than
+     * {@code leaseStart}, for {@code owner}, and returns the ones this call won, oldest first. Reads whichever shard
+     * the calling thread is routed to, which is passed as {@code shard} to tag the entries with.
+     */
+    List<Entry> claim(UUID owner, int limit, Instant leaseStart, int shard) {
+        Timestamp expired = Timestamp.from(leaseStart);
+        List<Entry> candidates = jdbcTemplate.query(String.format(CANDIDATES_SQL, limit),
+                (rs, rowNum) -> new Entry(rs.getLong(1), shard,
+                        new TransactionChangedEvent(decode(rs.getBytes(2)), decode(rs.getBytes(3))),
+                        rs.getTimestamp(4).toInstant()),
+                expired);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        int[][] counts = jdbcTemplate.batchUpdate(CLAIM_SQL, candidates, candidates.size(), (ps, entry) -> {
+            ps.setObject(1, owner);
+            ps.setTimestamp(2, now);
+            ps.setLong(3, entry.id());
+            ps.setTimestamp(4, expired);
+        });
+        List<Entry> claimed = new ArrayList<>(candidates.size());
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Another instance got there first when nothing was updated.
+                if (count != 0) {
+                    claimed.add(candidates.get(index));
+                }
+                index++;
+            }
+        }
+        return claimed;
+    }
+
+    void delete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("delete from transaction_outbox where id = ?", ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    /** Moves the claims of {@code owner} to {@code now}, so they outlive another lease. */
+    void renew(UUID owner, Instant now) {
+        jdbcTemplate.update("update transaction_outbox set claimed_at = ? where claimed_by = ?",
+                Timestamp.from(now), owner);
+    }
+
+    /** Keeps the events of {@code entries} for {@code consumer}, to be retried from {@code availableAt}. */
+    void deadLetter(String consumer, List<Entry> entries, int attempts, Instant availableAt, String error) {
+        jdbcTemplate.batchUpdate(DEAD_LETTER_SQL, entries, entries.size(), (ps, entry) -> {
+            TransactionChangedEvent event = entry.event();
+            ps.setString(1, consumer);
+            ps.setObject(2, event.transactionId());
+            ps.setObject(3, event.userId());
+            ps.setBytes(4, encode(event.before()));
+            ps.setBytes(5, encode(event.after()));
+            ps.setTimestamp(6, Timestamp.from(entry.createdAt()));
+            ps.setInt(7, attempts);
+            ps.setTimestamp(8, Timestamp.from(availableAt));
+            ps.setString(9, error);
+        });
+    }
+
+    /**
+     * Claims up to {@code limit} of {@code consumer}'s dead letters that are due at {@code now}, until
+     * {@code leaseEnd}, and returns the ones this call won, oldest first.
+     */
+    List<DeadLetter> claimDeadLetters(String consumer, int limit, Instant now, Instant leaseEnd) {
+        Timestamp due = Timestamp.from(now);
+        List<DeadLetter> claimed = new ArrayList<>();
+        for (DeadLetter candidate : jdbcTemplate.query(String.format(DUE_DEAD_LETTERS_SQL, limit),
+                (rs, rowNum) -> new DeadLetter(rs.getLong(1), rs.getInt(2),
+                        new TransactionChangedEvent(decode(rs.getBytes(3)), decode(rs.getBytes(4))),
+                        rs.getTimestamp(5).toInstant()),
+                consumer, due)) {
+            if (jdbcTemplate.update("update transaction_dead_letters set available_at = ? where id = ? "
+                    + "and available_at <= ?", Timestamp.from(leaseEnd), candidate.id(), due) != 0) {
+                claimed.add(candidate);
+            }
+        }
+        return claimed;
+    }
+
+    void deleteDeadLetter(long id) {
+        jdbcTemplate.update("delete from transaction_dead_letters where id = ?", id);
+    }
+
+    void retryDeadLetter(long id, int attempts, Instant availableAt, String error) {
+        jdbcTemplate.update(RETRY_DEAD_LETTER_SQL, attempts, Timestamp.from(availableAt), error, id);
+    }
+
+    /** Hands entries claimed by {@code owner} back, so the next bus to look delivers them. */
+    void release(UUID owner) {
+        jdbcTemplate.update("update transaction_outbox set claimed_by = null, claimed_at = null where claimed_by = ?",
+                owner);
+    }
+
+    long pending() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from transaction_outbox", Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static byte[] encode(TransactionSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("id", snapshot.id());
+        columns.put("userId", snapshot.userId());
+        columns.put("walletId", snapshot.walletId());
+        columns.put("amount", snapshot.amount());
+        columns.put("currency", snapshot.currency());
+        columns.put("category", snapshot.category());
+        columns.put("type", snapshot.type());
+        columns.put("eventDate", snapshot.eventDate());
+        return JournalCodec.encode(columns);
+    }
+
+    private static TransactionSnapshot decode(byte[] state) {
+        if (state == null) {
+            return null;
+        }
+        Map<String, Object> columns = JournalCodec.decode(state);
+        Object type = columns.get("type");
+        return new TransactionSnapshot(
+                (UUID) columns.get("id"),
+                (UUID) columns.get("userId"),
+                (UUID) columns.get("walletId"),
+                (BigDecimal) columns.get("amount"),
+                (String) columns.get("currency"),
+                (String) columns.get("category"),
+                type != null ? TransactionType.valueOf(type.toString()) : null,
+                (LocalDate) columns.get("eventDate"));
+    }
+}
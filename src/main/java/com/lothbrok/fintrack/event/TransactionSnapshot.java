@@ -0,0 +1,30 @@
+package com.lothbrok.fintrack.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+
+public record TransactionSnapshot(UUID id,
+        UUID userId,
+        UUID walletId,
+        BigDecimal amount,
+        String currency,
+        String category,
+        TransactionType type,
+        LocalDate eventDate) {
+
+    public static TransactionSnapshot of(Transaction entity) {
+        return new TransactionSnapshot(
+                entity.getId(),
+                entity.getUser() != null ? entity.getUser().getId() : null,
+                entity.getSharedWallet() != null ? entity.getSharedWallet().getId() : null,
+                entity.getAmount(),
+                entity.getCurrency(),
+                entity.getCategory(),
+                entity.getType(),
+                entity.getEventDate());
+    }
+}
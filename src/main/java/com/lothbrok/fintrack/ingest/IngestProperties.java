@@ -0,0 +1,30 @@
+package com.lothbrok.fintrack.ingest;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param enabled           accepts creates on the ingestion endpoint and starts the group-commit flusher
+ * @param stripes           independent queues creates are spread over by user, so producers rarely contend
+ * @param stripeCapacity    creates one stripe holds before producers are pushed back
+ * @param maxBatchRows      creates written by one group commit; reaching it triggers a commit straight away
+ * @param maxDelay          longest a create waits for others to share its commit
+ * @param offerTimeout      how long a producer waits for room in a full stripe before the create is rejected
+ */
+@ConfigurationProperties(prefix = "fintrack.ingest")
+public record IngestProperties(boolean enabled,
+        int stripes,
+        int stripeCapacity,
+        int maxBatchRows,
+        Duration maxDelay,
+        Duration offerTimeout) {
+
+    public IngestProperties {
+        stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        stripeCapacity = stripeCapacity > 0 ? stripeCapacity : 1024;
+        maxBatchRows = maxBatchRows > 0 ? maxBatchRows : 500;
+        maxDelay = maxDelay == null ? Duration.ofMillis(5) : maxDelay;
+        offerTimeout = offerTimeout == null ? Duration.ofMillis(50) : offerTimeout;
+    }
+}
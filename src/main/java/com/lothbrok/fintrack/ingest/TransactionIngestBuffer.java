@@ -0,0 +1,278 @@
+package com.lothbrok.fintrack.ingest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.IngestTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.metrics.MetricsProperties;
+import com.lothbrok.fintrack.service.TransactionService;
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Group commit for high-rate transaction creates. Producers put creates on one of several bounded queues, picked
+ * by user so a user's creates keep their order, and get a future back. A single flusher thread drains up to
+ * {@code maxBatchRows} creates across all queues, either as soon as that many are waiting or every
+ * {@code maxDelay}, and writes them in one database transaction through
+ * {@link TransactionService#createTransactions}. Futures complete only after that transaction has committed, so a
+ * completed create is as durable as one made through the regular endpoint.
+ * <p>
+ * A full queue blocks the producer for up to {@code offerTimeout} and then rejects the create with 429. If a group
+ * commit fails, its creates are retried one at a time, so an invalid create fails only its own future. With
+ * sharding a drained group is committed as one transaction per shard.
+ */
+@Component
+public class TransactionIngestBuffer implements SmartLifecycle {
+
+    static final String PREFIX = "fintrack.ingest.";
+    static final long RETRY_AFTER_SECONDS = 1;
+
+    private final TransactionService transactionService;
+    private final ShardRouter shardRouter;
+    private final IngestProperties properties;
+    private final List<ArrayBlockingQueue<PendingCreate>> stripes;
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final DistributionSummary batchSize;
+    private final Timer commitLatency;
+    private final Counter rejected;
+    private final Counter fallbacks;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private volatile Thread flusher;
+    /** Stripe the next drain starts at; only touched by the flusher. */
+    private int nextStripe;
+
+    public TransactionIngestBuffer(TransactionService transactionService, ShardRouter shardRouter,
+            IngestProperties properties, MetricsProperties metricsProperties, MeterRegistry registry) {
+        this.transactionService = transactionService;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.stripes = new ArrayList<>(properties.stripes());
+        for (int i = 0; i < properties.stripes(); i++) {
+            stripes.add(new ArrayBlockingQueue<>(properties.stripeCapacity()));
+        }
+        this.batchSize = DistributionSummary.builder(PREFIX + "batch.size")
+                .description("Creates written per group commit")
+                .publishPercentiles(metricsProperties.percentileArray())
+                .register(registry);
+        this.commitLatency = Timer.builder(PREFIX + "commit.latency")
+                .description("Time to write and commit one group")
+                .publishPercentiles(metricsProperties.percentileArray())
+                .register(registry);
+        this.rejected = Counter.builder(PREFIX + "rejected")
+                .description("Creates rejected because the buffer was full")
+                .register(registry);
+        this.fallbacks = Counter.builder(PREFIX + "fallbacks")
+                .description("Group commits that failed and were retried one create at a time")
+                .register(registry);
+        Gauge.builder(PREFIX + "buffered", buffered, AtomicInteger::get)
+                .description("Creates waiting for a group commit")
+                .register(registry);
+    }
+
+    record PendingCreate(UUID userId, CreateTransactionRequest request, CompletableFuture<TransactionResponse> result) {
+    }
+
+    /**
+     * Queues a create for the next group commit. The future completes with the stored transaction once it has
+     * committed, or exceptionally if the create is invalid.
+     *
+     * @throws ResponseStatusException 503 if ingestion is disabled or shutting down, 429 with {@code Retry-After} if
+     *                                  the buffer stays full
+     */
+    public CompletableFuture<TransactionResponse> submit(UUID userId, CreateTransactionRequest request) {
+        if (!properties.enabled() || stopped) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Transaction ingestion is not available");
+        }
+        if (userId == null || request == null) {
+            throw new IllegalArgumentException("userId and request are required");
+        }
+        PendingCreate pending = new PendingCreate(userId, request, new CompletableFuture<>());
+        ArrayBlockingQueue<PendingCreate> stripe = stripes.get(Math.floorMod(userId.hashCode(), stripes.size()));
+        boolean accepted;
+        try {
+            accepted = stripe.offer(pending, properties.offerTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw bufferFull();
+        }
+        if (buffered.incrementAndGet() >= properties.maxBatchRows()) {
+            Thread current = flusher;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+        return pending.result();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled() || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::flushLoop, "transaction-ingest-flusher");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+    }
+
+    /** Stops accepting creates and returns once everything already buffered has been committed. */
+    @Override
+    public void stop() {
+        stopped = true;
+        running = false;
+        Thread thread = flusher;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+        // Producers that raced with stop must not wait forever.
+        List<PendingCreate> left = new ArrayList<>();
+        for (ArrayBlockingQueue<PendingCreate> stripe : stripes) {
+            stripe.drainTo(left);
+        }
+        for (PendingCreate pending : left) {
+            pending.result().completeExceptionally(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Transaction ingestion stopped"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** A full buffer drains within a few group commits, so a retry after a second usually gets in. */
+    private static ResponseStatusException bufferFull() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(RETRY_AFTER_SECONDS));
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Ingestion buffer is full, try again later") {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private void flushLoop() {
+        long maxDelay = properties.maxDelay().toNanos();
+        while (running) {
+            if (buffered.get() < properties.maxBatchRows()) {
+                LockSupport.parkNanos(this, maxDelay);
+            }
+            flushOnce();
+        }
+        while (flushOnce() > 0) {
+            // Drain what was buffered before stop.
+        }
+    }
+
+    /** Commits one group of buffered creates and returns its size. */
+    int flushOnce() {
+        List<PendingCreate> batch = drain(properties.maxBatchRows());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        buffered.addAndGet(-batch.size());
+        if (!shardRouter.isEnabled()) {
+            commit(batch);
+            return batch.size();
+        }
+        Map<Integer, List<PendingCreate>> byShard = new LinkedHashMap<>();
+        for (PendingCreate pending : batch) {
+            byShard.computeIfAbsent(shardRouter.shardOf(pending.userId()), shard -> new ArrayList<>()).add(pending);
+        }
+        for (List<PendingCreate> group : byShard.values()) {
+            Set<UUID> users = new LinkedHashSet<>();
+            group.forEach(pending -> users.add(pending.userId()));
+            try (ShardRouter.Scope scope = shardRouter.forUsers(users)) {
+                commit(group);
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Takes an even share from every stripe first, starting at a different stripe each time, then fills up from
+     * whichever stripes still have creates, so one busy stripe cannot starve the others.
+     */
+    private List<PendingCreate> drain(int max) {
+        List<PendingCreate> batch = new ArrayList<>(Math.min(max, Math.max(buffered.get(), 16)));
+        int share = Math.max(1, max / stripes.size());
+        for (int pass = 0; pass < 2 && batch.size() < max; pass++) {
+            for (int i = 0; i < stripes.size() && batch.size() < max; i++) {
+                int limit = max - batch.size();
+                stripes.get((nextStripe + i) % stripes.size()).drainTo(batch, pass == 0 ? Math.min(share, limit) : limit);
+            }
+        }
+        nextStripe = (nextStripe + 1) % stripes.size();
+        return batch;
+    }
+
+    private void commit(List<PendingCreate> batch) {
+        batchSize.record(batch.size());
+        List<IngestTransactionRequest> requests = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch) {
+            requests.add(new IngestTransactionRequest(pending.userId(), pending.request()));
+        }
+        long start = System.nanoTime();
+        List<TransactionResponse> created;
+        try {
+            created = transactionService.createTransactions(requests);
+        } catch (RuntimeException e) {
+            commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            fallbacks.increment();
+            commitOneByOne(batch);
+            return;
+        }
+        commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(created.get(i));
+        }
+    }
+
+    private void commitOneByOne(List<PendingCreate> batch) {
+        for (PendingCreate pending : batch) {
+            try (ShardRouter.Scope scope = shardRouter.forUser(pending.userId())) {
+                pending.result().complete(transactionService.createTransaction(pending.userId(), pending.request()));
+            } catch (RuntimeException e) {
+                pending.result().completeExceptionally(e);
+            }
+        }
+    }
+}
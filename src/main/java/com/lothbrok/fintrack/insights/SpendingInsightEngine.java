@@ -0,0 +1,215 @@
+package com.lothbrok.fintrack.insights;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lothbrok.fintrack.analytics.MinorUnits;
+import com.lothbrok.fintrack.entity.Notification;
+import com.lothbrok.fintrack.entity.SpendingInsightState;
+import com.lothbrok.fintrack.entity.enums.NotificationType;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionChangedEvent;
+import com.lothbrok.fintrack.event.TransactionEventConsumer;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
+import com.lothbrok.fintrack.repository.NotificationRepository;
+import com.lothbrok.fintrack.repository.SpendingInsightStateRepository;
+import com.lothbrok.fintrack.repository.UserRepository;
+
+/**
+ * Feeds every newly created expense into the (user, category) {@link SpendingModel} and raises a
+ * {@link NotificationType#SPENDING_INSIGHT} notification when the model flags it. Edited and deleted expenses
+ * correct the running total of the model's open month; they do not revise months already closed or the amount
+ * sketch, which only learns from new expenses. The encoded state is rewritten in place, so a steady-state update
+ * costs one indexed read and one row update.
+ * <p>
+ * Runs on the {@link com.lothbrok.fintrack.event.TransactionEventBus} after the write committed, in a transaction
+ * of its own. Several instances can deliver batches for the same pair at once, so the state row is versioned: a
+ * batch that loses the race on an update, or on the first insert of a pair, is rolled back and replayed against
+ * the state the winner committed. An expense delivered twice after a crash is counted twice, which only nudges the
+ * model.
+ */
+@Component
+public class SpendingInsightEngine implements TransactionEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(SpendingInsightEngine.class);
+
+    private static final ThreadLocal<SpendingModel> MODELS = ThreadLocal.withInitial(SpendingModel::new);
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final SpendingInsightStateRepository stateRepository;
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public SpendingInsightEngine(SpendingInsightStateRepository stateRepository,
+            NotificationRepository notificationRepository,
+            UserRepository userRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.stateRepository = stateRepository;
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public static int epochMonth(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    @Override
+    public String name() {
+        return "insights";
+    }
+
+    /**
+     * Applies a batch's expense changes in order, reading and rewriting each (user, category) state once and
+     * saving the resulting notifications together.
+     */
+    @Override
+    public void accept(List<TransactionChangedEvent> events) {
+        Map<CategoryKey, List<Change>> changes = changes(events);
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(changes));
+                return;
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Spending model changed concurrently, replaying {} events, attempt {}", events.size(),
+                        attempt + 1, e);
+            }
+        }
+    }
+
+    /** Expense changes grouped by (user, category), in delivery order. */
+    private static Map<CategoryKey, List<Change>> changes(List<TransactionChangedEvent> events) {
+        Map<CategoryKey, List<Change>> changes = new LinkedHashMap<>();
+        for (TransactionChangedEvent event : events) {
+            TransactionSnapshot before = isExpense(event.before()) ? event.before() : null;
+            TransactionSnapshot after = isExpense(event.after()) ? event.after() : null;
+            if (event.kind() == TransactionChangedEvent.Kind.CREATED) {
+                if (after != null) {
+                    add(changes, after, MinorUnits.toMinor(after.amount()), true);
+                }
+                continue;
+            }
+            if (before != null && after != null && Objects.equals(before.category(), after.category())
+                    && epochMonth(before.eventDate()) == epochMonth(after.eventDate())) {
+                long delta = MinorUnits.toMinor(after.amount()) - MinorUnits.toMinor(before.amount());
+                if (delta != 0) {
+                    add(changes, after, delta, false);
+                }
+                continue;
+            }
+            if (before != null) {
+                add(changes, before, -MinorUnits.toMinor(before.amount()), false);
+            }
+            if (after != null) {
+                add(changes, after, MinorUnits.toMinor(after.amount()), false);
+            }
+        }
+        return changes;
+    }
+
+    private static boolean isExpense(TransactionSnapshot snapshot) {
+        return snapshot != null && snapshot.type() == TransactionType.EXPENSE && snapshot.eventDate() != null;
+    }
+
+    private static void add(Map<CategoryKey, List<Change>> changes, TransactionSnapshot expense, long deltaMinor,
+            boolean created) {
+        changes.computeIfAbsent(new CategoryKey(expense.userId(), expense.category()), key -> new ArrayList<>())
+                .add(new Change(expense, deltaMinor, created));
+    }
+
+    private void apply(Map<CategoryKey, List<Change>> changes) {
+        SpendingModel model = MODELS.get();
+        List<Notification> notifications = new ArrayList<>();
+        for (Map.Entry<CategoryKey, List<Change>> entry : changes.entrySet()) {
+            CategoryKey key = entry.getKey();
+            SpendingInsightState state = stateRepository.findByUserIdAndCategory(key.userId(), key.category())
+                    .orElseGet(() -> newState(key.userId(), key.category()));
+            model.decode(state.getState());
+            for (Change change : entry.getValue()) {
+                int month = epochMonth(change.expense().eventDate());
+                int flags = change.created()
+                        ? model.observe(month, change.deltaMinor())
+                        : model.adjust(month, change.deltaMinor());
+                if (flags != 0) {
+                    notifications.add(insightNotification(change.expense(), model, month, flags));
+                }
+            }
+            model.encode(state.getState());
+            stateRepository.save(state);
+        }
+        if (!notifications.isEmpty()) {
+            notificationRepository.saveAll(notifications);
+        }
+    }
+
+    private record CategoryKey(UUID userId, String category) {
+    }
+
+    /** {@code deltaMinor} is the amount of a new expense, or the signed correction of an edit or delete. */
+    private record Change(TransactionSnapshot expense, long deltaMinor, boolean created) {
+    }
+
+    private SpendingInsightState newState(UUID userId, String category) {
+        SpendingInsightState state = new SpendingInsightState();
+        state.setUser(userRepository.getReferenceById(userId));
+        state.setCategory(category);
+        state.setState(new byte[SpendingModel.ENCODED_BYTES]);
+        return state;
+    }
+
+    private Notification insightNotification(TransactionSnapshot expense, SpendingModel model, int month, int flags) {
+        BigDecimal expected = MinorUnits.fromMinor(Math.round(model.forecast(month)));
+        BigDecimal monthTotal = MinorUnits.fromMinor(model.currentTotal());
+        Notification notification = new Notification();
+        notification.setUser(userRepository.getReferenceById(expense.userId()));
+        notification.setType(NotificationType.SPENDING_INSIGHT);
+        if ((flags & SpendingModel.FLAG_UNUSUAL_MONTH) != 0) {
+            notification.setTitle("Unusual spending on " + expense.category());
+            notification.setMessage("You have spent " + monthTotal + " on " + expense.category()
+                    + " this month, well above the usual " + expected + ".");
+        } else {
+            notification.setTitle("Unusually large " + expense.category() + " expense");
+            notification.setMessage("An expense of " + expense.amount() + " is much larger than your recent "
+                    + expense.category() + " expenses.");
+        }
+        try {
+            notification.setMetadata(objectMapper.writeValueAsString(objectMapper.createObjectNode()
+                    .put("transactionId", expense.id().toString())
+                    .put("category", expense.category())
+                    .put("flags", flags)
+                    .put("monthTotal", monthTotal)
+                    .put("expectedMonthly", expected)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode insight metadata", e);
+        }
+        return notification;
+    }
+}
@@ -0,0 +1,223 @@
+package com.lothbrok.fintrack.insights;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Constant-size spending model for one (user, category) pair. Monthly totals feed an exponentially weighted mean and
+ * variance of the deseasonalised spend, twelve multiplicative month-of-year factors and a ring of the last
+ * {@link #RING_SIZE} individual expense amounts used as a quantile sketch.
+ * <p>
+ * Instances are mutable and not thread-safe. {@link #observe} never allocates and the codec works on caller-owned
+ * arrays, so one instance per thread can serve every pair.
+ */
+public final class SpendingModel {
+
+    public static final int FLAG_UNUSUAL_AMOUNT = 1;
+    public static final int FLAG_UNUSUAL_MONTH = 1 << 1;
+
+    static final int RING_SIZE = 32;
+    static final int ENCODED_BYTES = 4 + 8 + 4 + 8 + 8 + 12 * 4 + 4 + 4 + RING_SIZE * 8;
+
+    private static final byte VERSION = 1;
+    private static final double ALPHA = 0.3;
+    private static final double SEASONAL_ALPHA = 0.2;
+    private static final int MIN_AMOUNT_SAMPLES = 16;
+    private static final int MIN_MONTHS = 3;
+    private static final double AMOUNT_QUANTILE = 0.9;
+    private static final double AMOUNT_MULTIPLIER = 2.0;
+    private static final double MONTH_SIGMAS = 3.0;
+    private static final int MAX_GAP_MONTHS = 12;
+
+    private int currentMonth = -1;
+    private long currentTotal;
+    private int months;
+    private double mean;
+    private double variance;
+    private final float[] seasonal = new float[12];
+    private final long[] recent = new long[RING_SIZE];
+    private int recentPos;
+    private int recentCount;
+
+    public SpendingModel() {
+        reset();
+    }
+
+    public void reset() {
+        currentMonth = -1;
+        currentTotal = 0;
+        months = 0;
+        mean = 0;
+        variance = 0;
+        Arrays.fill(seasonal, 1f);
+        Arrays.fill(recent, 0L);
+        recentPos = 0;
+        recentCount = 0;
+    }
+
+    /**
+     * Folds one expense into the model.
+     *
+     * @param epochMonth  {@code year * 12 + (month - 1)} of the expense date
+     * @param amountMinor expense amount in minor units
+     * @return bit set of {@link #FLAG_UNUSUAL_AMOUNT} and {@link #FLAG_UNUSUAL_MONTH}
+     */
+    public int observe(int epochMonth, long amountMinor) {
+        int flags = 0;
+        if (recentCount >= MIN_AMOUNT_SAMPLES
+                && amountMinor > AMOUNT_MULTIPLIER * recentQuantile(AMOUNT_QUANTILE)) {
+            flags |= FLAG_UNUSUAL_AMOUNT;
+        }
+        recent[recentPos] = amountMinor;
+        recentPos = (recentPos + 1) % RING_SIZE;
+        recentCount = Math.min(RING_SIZE, recentCount + 1);
+        // Back-dated expenses only inform the amount sketch; closed months are not reopened.
+        return advanceTo(epochMonth) ? flags | addToMonth(epochMonth, amountMinor) : flags;
+    }
+
+    /**
+     * Corrects the running total of the open month by {@code deltaMinor} after an expense was edited or deleted.
+     * The amount sketch and months already closed are left as they are, and a positive delta for a later month
+     * opens it as {@link #observe} would.
+     *
+     * @param epochMonth {@code year * 12 + (month - 1)} of the expense date
+     * @param deltaMinor signed change of the month's spend in minor units
+     * @return {@link #FLAG_UNUSUAL_MONTH} when the correction takes the month over its upper bound, else 0
+     */
+    public int adjust(int epochMonth, long deltaMinor) {
+        boolean open = deltaMinor < 0 ? epochMonth == currentMonth : advanceTo(epochMonth);
+        return open ? addToMonth(epochMonth, deltaMinor) : 0;
+    }
+
+    public double forecast(int epochMonth) {
+        return mean * seasonal[Math.floorMod(epochMonth, 12)];
+    }
+
+    public double forecastStdDev(int epochMonth) {
+        return Math.sqrt(variance) * seasonal[Math.floorMod(epochMonth, 12)];
+    }
+
+    public double upperBound(int epochMonth) {
+        return forecast(epochMonth) + MONTH_SIGMAS * forecastStdDev(epochMonth);
+    }
+
+    public int months() {
+        return months;
+    }
+
+    public long currentTotal() {
+        return currentTotal;
+    }
+
+    public void encode(byte[] target) {
+        ByteBuffer buffer = ByteBuffer.wrap(target);
+        buffer.put(VERSION).put((byte) 0).put((byte) 0).put((byte) 0);
+        buffer.putLong(currentTotal);
+        buffer.putInt(currentMonth);
+        buffer.putDouble(mean);
+        buffer.putDouble(variance);
+        for (float factor : seasonal) {
+            buffer.putFloat(factor);
+        }
+        buffer.putInt(months);
+        buffer.putShort((short) recentPos).putShort((short) recentCount);
+        for (long amount : recent) {
+            buffer.putLong(amount);
+        }
+    }
+
+    public void decode(byte[] source) {
+        if (source == null || source.length < ENCODED_BYTES || source[0] != VERSION) {
+            reset();
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(source);
+        buffer.position(4);
+        currentTotal = buffer.getLong();
+        currentMonth = buffer.getInt();
+        mean = buffer.getDouble();
+        variance = buffer.getDouble();
+        for (int i = 0; i < seasonal.length; i++) {
+            seasonal[i] = buffer.getFloat();
+        }
+        months = buffer.getInt();
+        recentPos = buffer.getShort();
+        recentCount = buffer.getShort();
+        for (int i = 0; i < recent.length; i++) {
+            recent[i] = buffer.getLong();
+        }
+    }
+
+    /** Closes the months before {@code epochMonth}; false when it is a month already closed. */
+    private boolean advanceTo(int epochMonth) {
+        if (currentMonth < 0) {
+            currentMonth = epochMonth;
+        } else if (epochMonth > currentMonth) {
+            closeMonth(currentMonth, currentTotal);
+            int gap = Math.min(MAX_GAP_MONTHS, epochMonth - currentMonth - 1);
+            for (int i = 1; i <= gap; i++) {
+                closeMonth(currentMonth + i, 0);
+            }
+            currentMonth = epochMonth;
+            currentTotal = 0;
+        }
+        return epochMonth == currentMonth;
+    }
+
+    private int addToMonth(int epochMonth, long deltaMinor) {
+        long previousTotal = currentTotal;
+        currentTotal = Math.max(0, currentTotal + deltaMinor);
+        if (months >= MIN_MONTHS) {
+            double ceiling = upperBound(epochMonth);
+            if (currentTotal > ceiling && previousTotal <= ceiling) {
+                return FLAG_UNUSUAL_MONTH;
+            }
+        }
+        return 0;
+    }
+
+    private void closeMonth(int epochMonth, long total) {
+        int slot = Math.floorMod(epochMonth, 12);
+        if (months > 0 && mean > 0) {
+            double ratio = total / mean;
+            seasonal[slot] = (float) ((1 - SEASONAL_ALPHA) * seasonal[slot] + SEASONAL_ALPHA * ratio);
+            seasonal[slot] = Math.max(0.05f, seasonal[slot]);
+        }
+        double value = total / (double) seasonal[slot];
+        if (months == 0) {
+            mean = value;
+            variance = 0;
+        } else {
+            double diff = value - mean;
+            double increment = ALPHA * diff;
+            mean += increment;
+            variance = (1 - ALPHA) * (variance + diff * increment);
+        }
+        months++;
+    }
+
+    /**
+     * Smallest recent amount with at least {@code quantile} of the samples at or below it. Quadratic in
+     * {@link #RING_SIZE} but allocation-free.
+     */
+    private long recentQuantile(double quantile) {
+        int needed = (int) Math.ceil(quantile * recentCount);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < recentCount; i++) {
+            long candidate = recent[i];
+            if (candidate >= best) {
+                continue;
+            }
+            int atOrBelow = 0;
+            for (int j = 0; j < recentCount; j++) {
+                if (recent[j] <= candidate) {
+                    atOrBelow++;
+                }
+            }
+            if (atOrBelow >= needed) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+}
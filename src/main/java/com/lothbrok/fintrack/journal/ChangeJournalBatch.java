@@ -0,0 +1,132 @@
+package com.lothbrok.fintrack.journal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+
+/**
+ * Journal entries captured in one session transaction. Right before commit, after the final flush, each user's
+ * head row is bumped by the number of entries for that user, which locks it until commit, and all entries go out
+ * as one JDBC batch. Heads are locked in user id order so concurrent commits cannot deadlock on them.
+ */
+final class ChangeJournalBatch implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+    private static final String BUMP_SQL = "update change_journal_heads set last_seq = last_seq + ? where user_id = ?";
+    private static final String HEAD_SQL = "select last_seq from change_journal_heads where user_id = ?";
+    private static final String CREATE_SQL = "insert into change_journal_heads (user_id, last_seq) values (?, ?)";
+    private static final String INSERT_SQL = """
+            insert into change_journal (id, user_id, seq, entity_type, entity_id, operation, changed_at, payload)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final ChangeJournalListener listener;
+    private final List<PendingChange> changes = new ArrayList<>();
+    private final Map<UUID, Long> heads = new TreeMap<>();
+    private final Map<UUID, Set<String>> entityTypes = new TreeMap<>();
+
+    ChangeJournalBatch(ChangeJournalListener listener) {
+        this.listener = listener;
+    }
+
+    void add(PendingChange change) {
+        changes.add(change);
+    }
+
+    @Override
+    public void doBeforeTransactionCompletion(SessionImplementor session) {
+        if (!changes.isEmpty()) {
+            session.doWork(this::write);
+        }
+    }
+
+    @Override
+    public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+        listener.completed(session, success ? heads : Map.of(), entityTypes);
+    }
+
+    /** Writes the captured entries over {@code connection}, in its current transaction. */
+    void write(Connection connection) throws SQLException {
+        Map<UUID, List<PendingChange>> byUser = new TreeMap<>();
+        for (PendingChange change : changes) {
+            byUser.computeIfAbsent(change.userId(), key -> new ArrayList<>()).add(change);
+        }
+        write(connection, byUser);
+        changes.clear();
+    }
+
+    /** For batches written outside a session: reports the outcome of the transaction {@link #write} ran in. */
+    void completed(boolean success) {
+        listener.completed(success ? heads : Map.of(), entityTypes);
+    }
+
+    private void write(Connection connection, Map<UUID, List<PendingChange>> byUser) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            for (Map.Entry<UUID, List<PendingChange>> entry : byUser.entrySet()) {
+                List<PendingChange> userChanges = entry.getValue();
+                long head = reserve(connection, entry.getKey(), userChanges.size());
+                heads.put(entry.getKey(), head);
+                long seq = head - userChanges.size();
+                Set<String> types = entityTypes.computeIfAbsent(entry.getKey(), key -> new LinkedHashSet<>());
+                for (PendingChange change : userChanges) {
+                    types.add(change.entityType());
+                    insert.setObject(1, UUID.randomUUID());
+                    insert.setObject(2, change.userId());
+                    insert.setLong(3, ++seq);
+                    insert.setString(4, change.entityType());
+                    insert.setObject(5, change.entityId());
+                    insert.setString(6, change.operation().name());
+                    insert.setObject(7, OffsetDateTime.ofInstant(change.changedAt(), ZoneOffset.UTC));
+                    insert.setBytes(8, change.payload());
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /** Advances the user's head by {@code count} and returns the new last sequence number. */
+    private static long reserve(Connection connection, UUID userId, int count) throws SQLException {
+        try (PreparedStatement bump = connection.prepareStatement(BUMP_SQL)) {
+            bump.setLong(1, count);
+            bump.setObject(2, userId);
+            if (bump.executeUpdate() == 0) {
+                // Only a user's first entry lands here, in the transaction that creates the user.
+                try (PreparedStatement create = connection.prepareStatement(CREATE_SQL)) {
+                    create.setObject(1, userId);
+                    create.setLong(2, count);
+                    create.executeUpdate();
+                }
+                return count;
+            }
+        }
+        try (PreparedStatement head = connection.prepareStatement(HEAD_SQL)) {
+            head.setObject(1, userId);
+            try (ResultSet rs = head.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    record PendingChange(UUID userId, String entityType, UUID entityId, ChangeOperation operation,
+            Instant changedAt, byte[] payload) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.lothbrok.fintrack.journal;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@Configuration
+public class ChangeJournalConfig {
+
+    @Bean
+    SmartInitializingSingleton changeJournalRegistration(ChangeJournalListener listener,
+            EntityManagerFactory entityManagerFactory) {
+        return () -> listener.register(entityManagerFactory);
+    }
+}
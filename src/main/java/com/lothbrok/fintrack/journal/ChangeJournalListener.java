@@ -0,0 +1,250 @@
+package com.lothbrok.fintrack.journal;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.Hibernate;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.hibernate.type.Type;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import com.lothbrok.fintrack.cache.InvalidationBus;
+import com.lothbrok.fintrack.datasource.ReplicaRouter;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.base.AuditableEntity;
+import com.lothbrok.fintrack.entity.base.JournalIgnore;
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+import com.lothbrok.fintrack.security.PrincipalCache;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Records every insert, update and delete of an {@link AuditableEntity} in the change journal. Hibernate's post
+ * events fire for each row it writes, including cascades and orphan removal, which JPA callbacks on individual
+ * entities would miss. Entries are buffered per session and written by {@link ChangeJournalBatch} just before the
+ * database transaction commits, so a rollback leaves no trace and a failed journal write fails the commit.
+ *
+ * <p>An entry goes to the stream of the user the entity belongs to: the user itself, else its {@code user},
+ * {@code owner} or {@code member} association, in that order. Columns marked {@link JournalIgnore} are left out.
+ */
+@Component
+public class ChangeJournalListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    private static final List<String> OWNER_PROPERTIES = List.of("user", "owner", "member");
+
+    private final DataVersions dataVersions;
+    private final InvalidationBus invalidationBus;
+    private final ReplicaRouter replicaRouter;
+    private final PrincipalCache principalCache;
+    private final Map<SharedSessionContractImplementor, ChangeJournalBatch> batches = new ConcurrentHashMap<>();
+    /** Per entity, which of the persister's properties are {@link JournalIgnore}d. */
+    private final Map<String, boolean[]> ignored = new ConcurrentHashMap<>();
+
+    public ChangeJournalListener(DataVersions dataVersions, InvalidationBus invalidationBus,
+            ReplicaRouter replicaRouter, PrincipalCache principalCache) {
+        this.dataVersions = dataVersions;
+        this.invalidationBus = invalidationBus;
+        this.replicaRouter = replicaRouter;
+        this.principalCache = principalCache;
+    }
+
+    public void register(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof AuditableEntity) || !(event.getId() instanceof UUID entityId)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Map<String, Object> columns = columns(persister, event.getState(), null, ignored(persister),
+                event.getSession());
+        record(event.getSession(), event.getEntity(), entityId, persister, event.getState(), ChangeOperation.INSERT,
+                columns);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof AuditableEntity) || !(event.getId() instanceof UUID entityId)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        int[] changed = event.getDirtyProperties() != null
+                ? event.getDirtyProperties()
+                : changedProperties(persister, event.getOldState(), event.getState());
+        boolean[] ignoredProperties = ignored(persister);
+        Map<String, Object> columns = columns(persister, event.getState(), changed, ignoredProperties,
+                event.getSession());
+        if (columns.isEmpty() && !anyIgnored(changed, ignoredProperties)) {
+            // Only collections changed; their rows are journaled by their own entities.
+            return;
+        }
+        record(event.getSession(), event.getEntity(), entityId, persister, event.getState(), ChangeOperation.UPDATE,
+                columns);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getEntity() instanceof AuditableEntity) || !(event.getId() instanceof UUID entityId)) {
+            return;
+        }
+        record(event.getSession(), event.getEntity(), entityId, event.getPersister(), event.getDeletedState(),
+                ChangeOperation.DELETE, Map.of());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * {@code heads} holds the new journal head per user when the transaction committed, and is empty otherwise;
+     * {@code entityTypes} the types journalled per user. Other nodes learn about the commit through the
+     * {@link InvalidationBus}; the users' reads stay on the primary until the replica has caught up, and changed
+     * users' principals are re-read.
+     */
+    void completed(SharedSessionContractImplementor session, Map<UUID, Long> heads,
+            Map<UUID, Set<String>> entityTypes) {
+        batches.remove(session);
+        completed(heads, entityTypes);
+    }
+
+    void completed(Map<UUID, Long> heads, Map<UUID, Set<String>> entityTypes) {
+        heads.forEach((userId, head) -> {
+            dataVersions.advance(userId, head);
+            replicaRouter.changed(userId);
+            for (String entityType : entityTypes.getOrDefault(userId, Set.of())) {
+                if (entityType.equals(User.class.getSimpleName())) {
+                    principalCache.evict(userId);
+                }
+                invalidationBus.publish(entityType, userId, head);
+            }
+        });
+    }
+
+    private void record(EventSource session, Object entity, UUID entityId, EntityPersister persister,
+            Object[] state, ChangeOperation operation, Map<String, Object> columns) {
+        UUID userId = owner(entity, entityId, persister, state, session);
+        if (userId == null) {
+            return;
+        }
+        ChangeJournalBatch batch = batches.computeIfAbsent(session, key -> {
+            ChangeJournalBatch created = new ChangeJournalBatch(this);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) created);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) created);
+            return created;
+        });
+        batch.add(new ChangeJournalBatch.PendingChange(userId, Hibernate.getClass(entity).getSimpleName(), entityId,
+                operation, Instant.now(), JournalCodec.encode(columns)));
+    }
+
+    private static UUID owner(Object entity, UUID entityId, EntityPersister persister, Object[] state,
+            SharedSessionContractImplementor session) {
+        if (entity instanceof User) {
+            return entityId;
+        }
+        String[] names = persister.getPropertyNames();
+        for (String property : OWNER_PROPERTIES) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(property) && state[i] != null) {
+                    return (UUID) identifier(state[i], session);
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean[] ignored(EntityPersister persister) {
+        return ignored.computeIfAbsent(persister.getEntityName(), name -> {
+            String[] names = persister.getPropertyNames();
+            boolean[] flags = new boolean[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Field field = ReflectionUtils.findField(persister.getMappedClass(), names[i]);
+                flags[i] = field != null && field.isAnnotationPresent(JournalIgnore.class);
+            }
+            return flags;
+        });
+    }
+
+    private static boolean anyIgnored(int[] indexes, boolean[] ignored) {
+        for (int i : indexes) {
+            if (ignored[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Column values keyed by property name; {@code indexes == null} means every non-null column (an insert). */
+    private static Map<String, Object> columns(EntityPersister persister, Object[] state, int[] indexes,
+            boolean[] ignored, SharedSessionContractImplementor session) {
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        Map<String, Object> columns = new LinkedHashMap<>();
+        int count = indexes != null ? indexes.length : names.length;
+        for (int n = 0; n < count; n++) {
+            int i = indexes != null ? indexes[n] : n;
+            if (types[i].isCollectionType() || ignored[i]) {
+                continue;
+            }
+            Object value = state[i];
+            if (value != null && types[i].isEntityType()) {
+                value = identifier(value, session);
+            }
+            if (value != null || indexes != null) {
+                columns.put(names[i], value);
+            }
+        }
+        return columns;
+    }
+
+    private static int[] changedProperties(EntityPersister persister, Object[] oldState, Object[] state) {
+        Type[] types = persister.getPropertyTypes();
+        int[] changed = new int[types.length];
+        int count = 0;
+        for (int i = 0; i < types.length; i++) {
+            if (oldState == null || !types[i].isEqual(oldState[i], state[i])) {
+                changed[count++] = i;
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    private static Object identifier(Object entity, SharedSessionContractImplementor session) {
+        LazyInitializer lazy = HibernateProxy.extractLazyInitializer(entity);
+        if (lazy != null) {
+            return lazy.getIdentifier();
+        }
+        return session.getEntityPersister(null, entity).getIdentifier(entity, session);
+    }
+}
@@ -0,0 +1,58 @@
+package com.lothbrok.fintrack.journal;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+
+/**
+ * Journals rows written over plain JDBC, which {@link ChangeJournalListener} never sees. Entries are written right
+ * away in the caller's transaction; as with session writes, data versions advance and other nodes hear of the change
+ * once it commits.
+ */
+@Component
+public class ChangeJournalWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeJournalListener listener;
+
+    public ChangeJournalWriter(JdbcTemplate jdbcTemplate, ChangeJournalListener listener) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listener = listener;
+    }
+
+    /** Journals the deletion of {@code entityIds} into {@code userId}'s stream. */
+    public void deleted(UUID userId, String entityType, Collection<UUID> entityIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Journal entries have to be written in a transaction");
+        }
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        ChangeJournalBatch batch = new ChangeJournalBatch(listener);
+        Instant now = Instant.now();
+        byte[] payload = JournalCodec.encode(Map.of());
+        for (UUID entityId : entityIds) {
+            batch.add(new ChangeJournalBatch.PendingChange(userId, entityType, entityId, ChangeOperation.DELETE, now,
+                    payload));
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            batch.write(connection);
+            return null;
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                batch.completed(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
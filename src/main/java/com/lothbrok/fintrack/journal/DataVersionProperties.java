@@ -0,0 +1,23 @@
+package com.lothbrok.fintrack.journal;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param conditionalGet answers {@code If-None-Match} on {@code @ConditionalGet} endpoints from the data version
+ * @param maxAge         how long a cached version is trusted before it is re-read from the database; bounds how
+ *                       long writes committed by other instances can go unnoticed if their invalidation is lost
+ * @param maxEntries     cached versions kept before the cache is dropped and refilled on demand
+ */
+@ConfigurationProperties(prefix = "fintrack.data-versions")
+public record DataVersionProperties(@DefaultValue("true") boolean conditionalGet,
+        Duration maxAge,
+        int maxEntries) {
+
+    public DataVersionProperties {
+        maxAge = maxAge == null ? Duration.ofSeconds(2) : maxAge;
+        maxEntries = maxEntries > 0 ? maxEntries : 100_000;
+    }
+}
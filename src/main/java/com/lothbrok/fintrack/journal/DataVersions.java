@@ -0,0 +1,69 @@
+package com.lothbrok.fintrack.journal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.cache.InvalidationListener;
+
+/**
+ * Per-user data version: the user's change-journal head, which every committed write to one of the user's entities
+ * advances. Versions are cached in memory. Commits on this instance advance the cache directly, and commits on
+ * other instances through the {@link com.lothbrok.fintrack.cache.InvalidationBus}. Cached entries older than
+ * {@code fintrack.data-versions.max-age} are re-read from {@code change_journal_heads}, which bounds how long a
+ * lost invalidation can go unnoticed.
+ */
+@Component
+public class DataVersions implements InvalidationListener {
+
+    private static final String HEAD_SQL = "select last_seq from change_journal_heads where user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxAgeNanos;
+    private final int maxEntries;
+    private final Map<UUID, Cached> versions = new ConcurrentHashMap<>();
+
+    public DataVersions(JdbcTemplate jdbcTemplate, DataVersionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxAgeNanos = properties.maxAge().toNanos();
+        this.maxEntries = properties.maxEntries();
+    }
+
+    public long current(UUID userId) {
+        long now = System.nanoTime();
+        Cached cached = versions.get(userId);
+        if (cached != null && now - cached.readAt() < maxAgeNanos) {
+            return cached.version();
+        }
+        List<Long> stored = jdbcTemplate.queryForList(HEAD_SQL, Long.class, userId);
+        return remember(userId, stored.isEmpty() ? 0 : stored.get(0), now);
+    }
+
+    /** Called after commit with the user's new journal head. */
+    void advance(UUID userId, long version) {
+        remember(userId, version, System.nanoTime());
+    }
+
+    @Override
+    public void onInvalidations(List<Invalidation> invalidations) {
+        for (Invalidation invalidation : invalidations) {
+            advance(invalidation.userId(), invalidation.version());
+        }
+    }
+
+    private long remember(UUID userId, long version, long now) {
+        if (versions.size() >= maxEntries) {
+            versions.clear();
+        }
+        return versions.merge(userId, new Cached(version, now),
+                (old, fresh) -> new Cached(Math.max(old.version(), fresh.version()), fresh.readAt())).version();
+    }
+
+    private record Cached(long version, long readAt) {
+    }
+}
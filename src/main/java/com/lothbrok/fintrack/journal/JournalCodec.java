@@ -0,0 +1,193 @@
+package com.lothbrok.fintrack.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary format of journal payloads: a version byte, the column count, then per column its property name and a
+ * tagged value. Integers are zig-zag varints, so dates, small amounts and timestamps take a few bytes each. Names
+ * are written out rather than numbered so old entries still decode after columns are added or reordered.
+ *
+ * <p>Enums are stored by name and decode as strings; integral numbers decode as {@link Long}.
+ */
+public final class JournalCodec {
+
+    static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte LONG = 3;
+    private static final byte STRING = 4;
+    private static final byte DECIMAL = 5;
+    private static final byte BIG_DECIMAL = 6;
+    private static final byte DATE = 7;
+    private static final byte INSTANT = 8;
+    private static final byte UUID_VALUE = 9;
+    private static final byte BYTES = 10;
+    private static final byte DOUBLE = 11;
+
+    private JournalCodec() {
+    }
+
+    public static byte[] encode(Map<String, ?> columns) {
+        Writer out = new Writer();
+        out.write(VERSION);
+        out.varint(columns.size());
+        for (Map.Entry<String, ?> column : columns.entrySet()) {
+            out.bytes(column.getKey().getBytes(StandardCharsets.UTF_8));
+            writeValue(out, column.getValue());
+        }
+        return out.toByteArray();
+    }
+
+    public static Map<String, Object> decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported journal payload version " + version);
+        }
+        int count = (int) readVarint(in);
+        Map<String, Object> columns = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String name = new String(readBytes(in), StandardCharsets.UTF_8);
+            columns.put(name, readValue(in));
+        }
+        return columns;
+    }
+
+    private static void writeValue(Writer out, Object value) {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof Boolean bool) {
+            out.write(bool ? TRUE : FALSE);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            out.write(LONG);
+            out.zigzag(((Number) value).longValue());
+        } else if (value instanceof String string) {
+            out.write(STRING);
+            out.bytes(string.getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Enum<?> constant) {
+            out.write(STRING);
+            out.bytes(constant.name().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof BigDecimal decimal) {
+            BigInteger unscaled = decimal.unscaledValue();
+            out.write(unscaled.bitLength() < Long.SIZE ? DECIMAL : BIG_DECIMAL);
+            out.zigzag(decimal.scale());
+            if (unscaled.bitLength() < Long.SIZE) {
+                out.zigzag(unscaled.longValue());
+            } else {
+                out.bytes(unscaled.toByteArray());
+            }
+        } else if (value instanceof LocalDate date) {
+            out.write(DATE);
+            out.zigzag(date.toEpochDay());
+        } else if (value instanceof Instant instant) {
+            out.write(INSTANT);
+            out.zigzag(instant.getEpochSecond());
+            out.varint(instant.getNano());
+        } else if (value instanceof UUID uuid) {
+            out.write(UUID_VALUE);
+            out.fixed64(uuid.getMostSignificantBits());
+            out.fixed64(uuid.getLeastSignificantBits());
+        } else if (value instanceof byte[] bytes) {
+            out.write(BYTES);
+            out.bytes(bytes);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.write(DOUBLE);
+            out.fixed64(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else {
+            throw new IllegalArgumentException("Unsupported journal value type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        return switch (tag) {
+            case NULL -> null;
+            case FALSE -> Boolean.FALSE;
+            case TRUE -> Boolean.TRUE;
+            case LONG -> readZigzag(in);
+            case STRING -> new String(readBytes(in), StandardCharsets.UTF_8);
+            case DECIMAL -> {
+                int scale = (int) readZigzag(in);
+                yield BigDecimal.valueOf(readZigzag(in), scale);
+            }
+            case BIG_DECIMAL -> {
+                int scale = (int) readZigzag(in);
+                yield new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case DATE -> LocalDate.ofEpochDay(readZigzag(in));
+            case INSTANT -> {
+                long seconds = readZigzag(in);
+                yield Instant.ofEpochSecond(seconds, readVarint(in));
+            }
+            case UUID_VALUE -> new UUID(in.getLong(), in.getLong());
+            case BYTES -> readBytes(in);
+            case DOUBLE -> Double.longBitsToDouble(in.getLong());
+            default -> throw new IllegalStateException("Unknown journal value tag " + tag);
+        };
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarint(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static long readZigzag(ByteBuffer in) {
+        long raw = readVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in journal payload");
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(64);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7fL) != 0) {
+                write((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void fixed64(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void bytes(byte[] bytes) {
+            varint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.lothbrok.fintrack.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monotonic per-thread counters of Hibernate work plus the most recent SQL strings. Callers take a reading before
+ * and after a unit of work and diff them, so nested scopes (a request around several repository calls) need no
+ * bookkeeping. Counters are only written by the owning thread.
+ */
+public final class HibernateActivity {
+
+    static final int STATEMENT_RING = 32;
+
+    private static final ThreadLocal<HibernateActivity> CURRENT = ThreadLocal.withInitial(HibernateActivity::new);
+
+    private long statements;
+    private long entityLoads;
+    private long collectionFetches;
+    private long flushes;
+    private final String[] recentStatements = new String[STATEMENT_RING];
+
+    private HibernateActivity() {
+    }
+
+    public static HibernateActivity current() {
+        return CURRENT.get();
+    }
+
+    void statementPrepared(String sql) {
+        recentStatements[(int) (statements % STATEMENT_RING)] = sql;
+        statements++;
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void collectionFetched() {
+        collectionFetches++;
+    }
+
+    void flushed() {
+        flushes++;
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long entityLoads() {
+        return entityLoads;
+    }
+
+    public long collectionFetches() {
+        return collectionFetches;
+    }
+
+    public long flushes() {
+        return flushes;
+    }
+
+    /**
+     * SQL prepared since the {@link #statements()} reading {@code from}, oldest first. Only the last
+     * {@value #STATEMENT_RING} statements are retained.
+     */
+    public List<String> statementsSince(long from) {
+        long start = Math.max(from, statements - STATEMENT_RING);
+        List<String> result = new ArrayList<>((int) Math.max(0, statements - start));
+        for (long i = start; i < statements; i++) {
+            result.add(recentStatements[(int) (i % STATEMENT_RING)]);
+        }
+        return result;
+    }
+}
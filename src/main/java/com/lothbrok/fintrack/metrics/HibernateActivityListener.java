@@ -0,0 +1,84 @@
+package com.lothbrok.fintrack.metrics;
+
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Feeds {@link HibernateActivity} for the calling thread. The statement inspector is installed through
+ * {@link HibernatePropertiesCustomizer}, which also turns on Hibernate statistics when
+ * {@link MetricsProperties#hibernateStatistics()} asks for them; the event listeners are appended once the session
+ * factory exists.
+ */
+@Component
+public class HibernateActivityListener implements StatementInspector, HibernatePropertiesCustomizer,
+        PostLoadEventListener, InitializeCollectionEventListener, FlushEventListener, AutoFlushEventListener {
+
+    private final MetricsProperties properties;
+
+    public HibernateActivityListener(MetricsProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        if (properties.hibernateStatistics()) {
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        }
+    }
+
+    public void register(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+        registry.appendListeners(EventType.FLUSH, this);
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        HibernateActivity.current().statementPrepared(sql);
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        HibernateActivity.current().entityLoaded();
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        HibernateActivity.current().collectionFetched();
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        HibernateActivity.current().flushed();
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        if (event.isFlushRequired()) {
+            HibernateActivity.current().flushed();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.lothbrok.fintrack.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records the Hibernate work done on the request thread per HTTP request: SQL statements, entity loads, collection
+ * fetches and flushes, tagged with the matched URI pattern. Work handed to other threads is not attributed. The
+ * summaries for a route are registered on its first request and reused after that.
+ */
+@Component
+public class HibernateRequestMetricsFilter extends OncePerRequestFilter {
+
+    static final String PREFIX = "fintrack.hibernate.request.";
+
+    private record Route(String uri, String method) {
+    }
+
+    private record Meters(DistributionSummary statements,
+            DistributionSummary entityLoads,
+            DistributionSummary collectionFetches,
+            DistributionSummary flushes) {
+    }
+
+    private final MeterRegistry registry;
+    private final double[] percentiles;
+    private final Map<Route, Meters> meters = new ConcurrentHashMap<>();
+
+    public HibernateRequestMetricsFilter(MeterRegistry registry, MetricsProperties properties) {
+        this.registry = registry;
+        this.percentiles = properties.percentileArray();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HibernateActivity activity = HibernateActivity.current();
+        long statements = activity.statements();
+        long entityLoads = activity.entityLoads();
+        long collectionFetches = activity.collectionFetches();
+        long flushes = activity.flushes();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Route route = new Route(pattern == null ? "UNKNOWN" : pattern.toString(), request.getMethod());
+            Meters routeMeters = meters.computeIfAbsent(route, this::createMeters);
+            routeMeters.statements().record(activity.statements() - statements);
+            routeMeters.entityLoads().record(activity.entityLoads() - entityLoads);
+            routeMeters.collectionFetches().record(activity.collectionFetches() - collectionFetches);
+            routeMeters.flushes().record(activity.flushes() - flushes);
+        }
+    }
+
+    private Meters createMeters(Route route) {
+        return new Meters(summary("statements", route),
+                summary("entity.loads", route),
+                summary("collection.fetches", route),
+                summary("flushes", route));
+    }
+
+    private DistributionSummary summary(String name, Route route) {
+        return DistributionSummary.builder(PREFIX + name)
+                .tags("uri", route.uri(), "method", route.method())
+                .publishPercentiles(percentiles)
+                .register(registry);
+    }
+}
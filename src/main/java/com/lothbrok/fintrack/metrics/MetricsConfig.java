@@ -0,0 +1,26 @@
+package com.lothbrok.fintrack.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry,
+            ObjectProvider<SlowQueryLog> slowQueryLog,
+            ObjectProvider<MetricsProperties> properties) {
+        return new RepositoryMetricsPostProcessor(registry, slowQueryLog, properties);
+    }
+
+    @Bean
+    SmartInitializingSingleton hibernateActivityRegistration(HibernateActivityListener listener,
+            EntityManagerFactory entityManagerFactory) {
+        return () -> listener.register(entityManagerFactory);
+    }
+}
@@ -0,0 +1,30 @@
+package com.lothbrok.fintrack.metrics;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param slowQueryThreshold  repository calls at or above this duration are logged with their SQL
+ * @param slowQueryCapacity   slow calls kept for the {@code slowqueries} actuator endpoint
+ * @param percentiles         client-side percentiles published for repository timers and per-request summaries
+ * @param hibernateStatistics collect Hibernate's session factory statistics and export them as {@code hibernate.*};
+ *                            off by default, since every session then updates shared counters
+ */
+@ConfigurationProperties(prefix = "fintrack.metrics")
+public record MetricsProperties(Duration slowQueryThreshold,
+        int slowQueryCapacity,
+        List<Double> percentiles,
+        boolean hibernateStatistics) {
+
+    public MetricsProperties {
+        slowQueryThreshold = slowQueryThreshold == null ? Duration.ofMillis(250) : slowQueryThreshold;
+        slowQueryCapacity = slowQueryCapacity > 0 ? slowQueryCapacity : 100;
+        percentiles = percentiles == null || percentiles.isEmpty() ? List.of(0.5, 0.95, 0.99) : List.copyOf(percentiles);
+    }
+
+    public double[] percentileArray() {
+        return percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
@@ -0,0 +1,116 @@
+package com.lothbrok.fintrack.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call on one repository proxy, records how many rows came back and hands calls over the slow-query
+ * threshold to {@link SlowQueryLog} together with the SQL they prepared. Stream results are timed up to the point
+ * the stream is returned, not while it is consumed.
+ */
+final class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    static final String INVOCATIONS = "fintrack.repository.invocations";
+    static final String RESULT_SIZE = "fintrack.repository.result.size";
+
+    private record Meters(Timer success, Timer error, DistributionSummary resultSize) {
+    }
+
+    private final String repository;
+    private final Supplier<MeterRegistry> registry;
+    private final Supplier<SlowQueryLog> slowQueryLog;
+    private final Supplier<MetricsProperties> properties;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    RepositoryMetricsInterceptor(String repository,
+            Supplier<MeterRegistry> registry,
+            Supplier<SlowQueryLog> slowQueryLog,
+            Supplier<MetricsProperties> properties) {
+        this.repository = repository;
+        this.registry = registry;
+        this.slowQueryLog = slowQueryLog;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        HibernateActivity activity = HibernateActivity.current();
+        long statementsBefore = activity.statements();
+        long start = System.nanoTime();
+        boolean failed = true;
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Meters methodMeters = meters.computeIfAbsent(method, this::createMeters);
+            (failed ? methodMeters.error() : methodMeters.success()).record(elapsed, TimeUnit.NANOSECONDS);
+            long size = failed ? -1 : resultSize(result);
+            if (size >= 0) {
+                methodMeters.resultSize().record(size);
+            }
+            if (elapsed >= properties.get().slowQueryThreshold().toNanos()) {
+                slowQueryLog.get().record(repository, method.getName(), elapsed,
+                        activity.statementsSince(statementsBefore));
+            }
+        }
+    }
+
+    private Meters createMeters(Method method) {
+        MeterRegistry meterRegistry = registry.get();
+        double[] percentiles = properties.get().percentileArray();
+        return new Meters(timer(meterRegistry, method, "success", percentiles),
+                timer(meterRegistry, method, "error", percentiles),
+                DistributionSummary.builder(RESULT_SIZE)
+                        .description("Rows returned by repository calls")
+                        .tags("repository", repository, "method", method.getName())
+                        .publishPercentiles(percentiles)
+                        .register(meterRegistry));
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, Method method, String outcome, double[] percentiles) {
+        return Timer.builder(INVOCATIONS)
+                .description("Repository call latency")
+                .tags("repository", repository, "method", method.getName(), "outcome", outcome)
+                .publishPercentiles(percentiles)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Row count for collection-like results, or -1 when the result has no meaningful size (counts, flags, streams).
+     */
+    static long resultSize(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.lothbrok.fintrack.metrics;
+
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Adds {@link RepositoryMetricsInterceptor} as the outermost advice of every Spring Data repository declared in
+ * {@code com.lothbrok.fintrack.repository}, so timings include the repository transaction. Collaborators are
+ * resolved lazily because post-processors are created before the rest of the context.
+ */
+class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final String REPOSITORY_PACKAGE = "com.lothbrok.fintrack.repository";
+
+    private final SingletonSupplier<MeterRegistry> registry;
+    private final SingletonSupplier<SlowQueryLog> slowQueryLog;
+    private final SingletonSupplier<MetricsProperties> properties;
+
+    RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry,
+            ObjectProvider<SlowQueryLog> slowQueryLog,
+            ObjectProvider<MetricsProperties> properties) {
+        this.registry = SingletonSupplier.of(registry::getObject);
+        this.slowQueryLog = SingletonSupplier.of(slowQueryLog::getObject);
+        this.properties = SingletonSupplier.of(properties::getObject);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> {
+                        Class<?> repositoryInterface = repositoryInformation.getRepositoryInterface();
+                        if (!repositoryInterface.getPackageName().startsWith(REPOSITORY_PACKAGE)) {
+                            return;
+                        }
+                        int position = proxyFactory.indexOf(ExposeInvocationInterceptor.ADVISOR) + 1;
+                        proxyFactory.addAdvice(position, new RepositoryMetricsInterceptor(
+                                repositoryInterface.getSimpleName(), registry, slowQueryLog, properties));
+                    }));
+        }
+        return bean;
+    }
+}
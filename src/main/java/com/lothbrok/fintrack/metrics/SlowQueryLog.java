@@ -0,0 +1,48 @@
+package com.lothbrok.fintrack.metrics;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory log of repository calls that crossed {@link MetricsProperties#slowQueryThreshold()}, newest
+ * first. Every entry is also written to the {@code com.lothbrok.fintrack.metrics.SlowQueryLog} logger at WARN.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    public record Entry(Instant at, String repository, String method, long durationMillis, List<String> statements) {
+    }
+
+    private final int capacity;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+
+    public SlowQueryLog(MetricsProperties properties) {
+        this.capacity = properties.slowQueryCapacity();
+    }
+
+    public void record(String repository, String method, long durationNanos, List<String> statements) {
+        Entry entry = new Entry(Instant.now(), repository, method, durationNanos / 1_000_000, List.copyOf(statements));
+        log.warn("Slow repository call {}.{} took {} ms: {}", repository, method, entry.durationMillis(), statements);
+        synchronized (entries) {
+            entries.addFirst(entry);
+            if (entries.size() > capacity) {
+                entries.removeLast();
+            }
+        }
+    }
+
+    public List<Entry> recent() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+}
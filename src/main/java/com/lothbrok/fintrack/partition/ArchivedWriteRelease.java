@@ -0,0 +1,59 @@
+package com.lothbrok.fintrack.partition;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Lets writes through to some users' rows in archived {@code transactions} partitions, and to rows in wallets they
+ * own, until closed (migration {@code V15}). For jobs that have to delete or copy a whole account: purges and shard
+ * moves. The release is committed before {@link #open} returns, so it covers every transaction the job runs on that
+ * database; the caller must not be inside a transaction of its own. A release left behind by a crash only keeps the
+ * users' archived rows writable until the job is run again.
+ * <p>
+ * Does nothing on databases without the release table, i.e. anything but PostgreSQL built by the migrations.
+ */
+public final class ArchivedWriteRelease implements AutoCloseable {
+
+    private static final String INSERT_SQL = """
+            insert into archived_write_releases (user_id, created_at) values (?, ?)
+            on conflict (user_id) do nothing
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<UUID> users;
+
+    private ArchivedWriteRelease(JdbcTemplate jdbcTemplate, List<UUID> users) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.users = users;
+    }
+
+    public static ArchivedWriteRelease open(JdbcTemplate jdbcTemplate, Collection<UUID> users) {
+        if (!supported(jdbcTemplate)) {
+            return new ArchivedWriteRelease(jdbcTemplate, List.of());
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<UUID> released = List.copyOf(users);
+        jdbcTemplate.batchUpdate(INSERT_SQL, released.stream().map(userId -> new Object[] {userId, now}).toList());
+        return new ArchivedWriteRelease(jdbcTemplate, released);
+    }
+
+    @Override
+    public void close() {
+        for (UUID userId : users) {
+            jdbcTemplate.update("delete from archived_write_releases where user_id = ?", userId);
+        }
+    }
+
+    private static boolean supported(JdbcTemplate jdbcTemplate) {
+        Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        return Boolean.TRUE.equals(postgres) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select to_regclass('archived_write_releases') is not null", Boolean.class));
+    }
+}
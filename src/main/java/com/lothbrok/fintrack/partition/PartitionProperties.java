@@ -0,0 +1,26 @@
+package com.lothbrok.fintrack.partition;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param enabled           runs partition maintenance at startup and on {@code cron}; only has an effect on PostgreSQL
+ * @param monthsAhead       monthly {@code transactions} partitions kept ready after the current month
+ * @param retentionMonths   whole months before the current one that stay hot; older partitions are archived
+ * @param archiveTablespace tablespace archived partitions move to (e.g. on cheaper, compressed storage); when unset
+ *                          they stay in place and are only made read-only and frozen
+ * @param cron              schedule of the maintenance run
+ */
+@ConfigurationProperties(prefix = "fintrack.partitions")
+public record PartitionProperties(boolean enabled,
+        int monthsAhead,
+        int retentionMonths,
+        String archiveTablespace,
+        String cron) {
+
+    public PartitionProperties {
+        monthsAhead = monthsAhead > 0 ? monthsAhead : 3;
+        retentionMonths = retentionMonths > 0 ? retentionMonths : 24;
+        archiveTablespace = archiveTablespace == null || archiveTablespace.isBlank() ? null : archiveTablespace;
+        cron = cron == null || cron.isBlank() ? "0 30 3 * * *" : cron;
+    }
+}
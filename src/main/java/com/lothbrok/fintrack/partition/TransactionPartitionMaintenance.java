@@ -0,0 +1,130 @@
+package com.lothbrok.fintrack.partition;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+/**
+ * Keeps the monthly {@code transactions} partitions (migration {@code V3}) ahead of time and moves partitions that
+ * fall out of {@link PartitionProperties#retentionMonths()} to the archive store. All DDL runs in the
+ * {@code fintrack_*_transaction_partition*} database functions so it can also be run by hand; this class only
+ * schedules it and vacuums freshly archived partitions, which cannot happen inside a function.
+ * <p>
+ * Archived partitions stay attached to {@code transactions}: repository queries read them like any other month,
+ * while the date predicates of recent-history queries keep the planner from touching them. Does nothing unless the
+ * database is PostgreSQL with a partitioned {@code transactions} table. Scheduled runs go over every shard; the
+ * public methods work on the shard the calling thread is routed to.
+ */
+@Component
+public class TransactionPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionMaintenance.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final PartitionProperties properties;
+    private volatile Boolean partitioned;
+
+    public TransactionPartitionMaintenance(JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+            PartitionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (properties.enabled() && isPartitioned()) {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                    ensurePartitions();
+                }
+            }
+        }
+    }
+
+    @Scheduled(cron = "${fintrack.partitions.cron:0 30 3 * * *}")
+    public void maintain() {
+        if (!properties.enabled() || !isPartitioned()) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                ensurePartitions();
+                archiveExpired(LocalDate.now());
+            }
+        }
+    }
+
+    /**
+     * Creates the partitions for the coming {@link PartitionProperties#monthsAhead()} months and for past months that
+     * have rows waiting in the default partition.
+     */
+    public List<String> ensurePartitions() {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        List<String> created = jdbcTemplate.queryForList(
+                "select fintrack_ensure_transaction_partitions(?)", String.class, properties.monthsAhead());
+        if (!created.isEmpty()) {
+            log.info("Created transaction partitions {}", created);
+        }
+        return created;
+    }
+
+    /**
+     * Archives every partition that ends before {@link #archiveCutoff(LocalDate, int)} and vacuums it; rows are frozen
+     * so autovacuum never has to visit the partition again. A plain {@code VACUUM} does not block reads or writes on
+     * other partitions, unlike {@code VACUUM FULL}, whose exclusive lock on the partition would also queue every
+     * query on {@code transactions} that cannot prune it, for as long as the rewrite takes.
+     */
+    public List<String> archiveExpired(LocalDate today) {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        LocalDate cutoff = archiveCutoff(today, properties.retentionMonths());
+        List<String> archived = jdbcTemplate.queryForList(
+                "select fintrack_archive_transaction_partitions(?, ?)", String.class,
+                cutoff, properties.archiveTablespace());
+        for (String partition : archived) {
+            jdbcTemplate.execute("vacuum (freeze, analyze) \"" + partition + "\"");
+        }
+        if (!archived.isEmpty()) {
+            log.info("Archived transaction partitions before {}: {}", cutoff, archived);
+        }
+        return archived;
+    }
+
+    /**
+     * First day of the oldest month that stays hot: the current month plus {@code retentionMonths} whole months
+     * before it.
+     */
+    static LocalDate archiveCutoff(LocalDate today, int retentionMonths) {
+        return today.withDayOfMonth(1).minusMonths(retentionMonths);
+    }
+
+    private boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            if (result) {
+                result = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass('transactions'))",
+                        Boolean.class));
+            }
+            partitioned = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package com.lothbrok.fintrack.purge;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AccountPurgeExecutorConfig {
+
+    public static final String PURGE_EXECUTOR = "accountPurgeExecutor";
+
+    /**
+     * Small fixed pool with a bounded queue, so purges never take more than a few connections from request work.
+     */
+    @Bean(name = PURGE_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor accountPurgeExecutor(AccountPurgeProperties properties) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                properties.workerThreads(),
+                properties.workerThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "account-purge-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
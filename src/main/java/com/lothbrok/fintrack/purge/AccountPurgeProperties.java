@@ -0,0 +1,24 @@
+package com.lothbrok.fintrack.purge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param chunkRows     rows deleted per statement and transaction; bounds lock time and undo size, not memory
+ * @param workerThreads concurrent purges
+ * @param queueCapacity queued purges beyond which new requests are rejected
+ * @param maxPasses     times the steps are repeated when writes that raced the purge keep the account row from
+ *                      being deleted
+ */
+@ConfigurationProperties(prefix = "fintrack.purge")
+public record AccountPurgeProperties(int chunkRows,
+        int workerThreads,
+        int queueCapacity,
+        int maxPasses) {
+
+    public AccountPurgeProperties {
+        chunkRows = chunkRows > 0 ? chunkRows : 1000;
+        workerThreads = workerThreads > 0 ? workerThreads : 1;
+        queueCapacity = queueCapacity > 0 ? queueCapacity : 20;
+        maxPasses = maxPasses > 0 ? maxPasses : 3;
+    }
+}
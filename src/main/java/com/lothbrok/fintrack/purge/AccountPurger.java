@@ -0,0 +1,311 @@
+package com.lothbrok.fintrack.purge;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.balance.BalanceCheckpointWriter;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
+import com.lothbrok.fintrack.journal.ChangeJournalWriter;
+import com.lothbrok.fintrack.partition.ArchivedWriteRelease;
+import com.lothbrok.fintrack.report.ReportProperties;
+import com.lothbrok.fintrack.security.PrincipalCache;
+import com.lothbrok.fintrack.security.RefreshTokenStore;
+import com.lothbrok.fintrack.shard.ShardDirectory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Deletes a user's account on a worker thread with set-based statements instead of loading the {@code User} and
+ * its cascaded collections. Each {@link Step} deletes {@code chunkRows} rows per statement and transaction,
+ * children before parents: recurring jobs before their template transactions, wallets the user owns after their
+ * members and checkpoints. Other members' transactions in those wallets are kept and detached from the wallet.
+ * Memory use does not depend on the account's size; the job row records the current step and the rows deleted so
+ * far, committed with each chunk.
+ * <p>
+ * The user's own transactions in wallets other users own go first, in a step of their own: their deletion is taken
+ * out of those wallets' checkpoints and journaled to the wallet owners, whose balances would otherwise keep counting
+ * them. Rows in archived partitions are deleted like the others, under an {@link ArchivedWriteRelease} for the user.
+ * <p>
+ * Every step is idempotent, so a purge interrupted by a restart is simply run again. Writes that race the purge can
+ * leave rows behind that keep the account row from being deleted; the steps are then repeated, up to
+ * {@code maxPasses} times.
+ */
+@Component
+public class AccountPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountPurger.class);
+
+    static final String PREFIX = "fintrack.purge.";
+    private static final String OWNED_WALLETS = "select id from shared_wallets where owner_id = ?";
+
+    /**
+     * One table's rows of the user; {@code condition} selects them with {@code ?} for the user id, and {@code update}
+     * turns the chunk statement into a {@code set} instead of a delete.
+     */
+    record Step(String name, String table, String condition, String update) {
+
+        static Step delete(String table, String condition) {
+            return new Step(table, table, condition, null);
+        }
+
+        String sql(int chunkRows) {
+            String chunk = "select id from " + table + " where " + condition + " fetch first " + chunkRows
+                    + " rows only";
+            return update == null
+                    ? "delete from " + table + " where id in (" + chunk + ")"
+                    : "update " + table + " set " + update + " where id in (" + chunk + ")";
+        }
+
+        Object[] arguments(UUID userId) {
+            Object[] arguments = new Object[condition.split("\\?", -1).length - 1];
+            Arrays.fill(arguments, userId);
+            return arguments;
+        }
+    }
+
+    static final List<Step> STEPS = List.of(
+            Step.delete("recurring_jobs", "user_id = ?"),
+            Step.delete("notifications", "user_id = ?"),
+            Step.delete("budgets", "user_id = ?"),
+            Step.delete("spending_insight_states", "user_id = ?"),
+            Step.delete("report_jobs", "user_id = ?"),
+            Step.delete("balance_checkpoints", "user_id = ? or wallet_id in (" + OWNED_WALLETS + ")"),
+            Step.delete("transactions", "user_id = ?"),
+            new Step("wallet_transactions", "transactions", "wallet_id in (" + OWNED_WALLETS + ")",
+                    "wallet_id = null"),
+            Step.delete("shared_wallet_members", "member_id = ? or wallet_id in (" + OWNED_WALLETS + ")"),
+            Step.delete("shared_wallets", "owner_id = ?"),
+            Step.delete("change_journal", "user_id = ?"),
+            Step.delete("transaction_outbox", "user_id = ?"),
+            Step.delete("transaction_dead_letters", "user_id = ?"));
+
+    static final String JOINED_WALLET_STEP = "joined_wallet_transactions";
+
+    /** A chunk of the user's rows in wallets they do not own, locked until they are deleted. */
+    private static final String JOINED_WALLET_ROWS_SQL = """
+            select id, wallet_id, amount, currency, category, type, event_date from transactions
+            where user_id = ? and wallet_id in (select id from shared_wallets where owner_id <> ?)
+            fetch first %d rows only for update
+            """;
+
+    private static final String START_SQL = """
+            update account_purge_jobs set status = 'RUNNING', started_at = coalesce(started_at, ?), updated_at = ?
+            where id = ? and status in ('QUEUED', 'RUNNING')
+            """;
+    private static final String PROGRESS_SQL = """
+            update account_purge_jobs set step = ?, rows_deleted = rows_deleted + ?, updated_at = ? where id = ?
+            """;
+    private static final String FINISH_SQL = """
+            update account_purge_jobs set status = ?, error_message = ?, finished_at = ?, updated_at = ? where id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountPurgeProperties properties;
+    private final ReportProperties reportProperties;
+    private final ObjectProvider<ShardDirectory> shardDirectory;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenStore refreshTokens;
+    private final BalanceCheckpointWriter checkpointWriter;
+    private final ChangeJournalWriter journalWriter;
+    private final Counter rows;
+    private final Counter failures;
+    private final Timer duration;
+
+    public AccountPurger(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            AccountPurgeProperties properties,
+            ReportProperties reportProperties,
+            ObjectProvider<ShardDirectory> shardDirectory,
+            PrincipalCache principalCache,
+            RefreshTokenStore refreshTokens,
+            BalanceCheckpointWriter checkpointWriter,
+            ChangeJournalWriter journalWriter,
+            MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.reportProperties = reportProperties;
+        this.shardDirectory = shardDirectory;
+        this.principalCache = principalCache;
+        this.refreshTokens = refreshTokens;
+        this.checkpointWriter = checkpointWriter;
+        this.journalWriter = journalWriter;
+        this.rows = Counter.builder(PREFIX + "rows")
+                .description("Rows deleted or detached by account purges")
+                .register(registry);
+        this.failures = Counter.builder(PREFIX + "failures")
+                .description("Account purges that failed")
+                .register(registry);
+        this.duration = Timer.builder(PREFIX + "duration")
+                .description("Time to purge one account")
+                .register(registry);
+    }
+
+    /** Runs the purge job {@code jobId} of {@code userId}; does nothing if it already finished. */
+    public void run(UUID jobId, UUID userId) {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (jdbcTemplate.update(START_SQL, now, now, jobId) == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            long deleted = purge(jobId, userId);
+            deleteReportFiles(userId);
+            finish(jobId, "COMPLETED", null);
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("Purged account {}: {} rows in {} ms", userId, deleted,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Purge {} of account {} failed", jobId, userId, e);
+            fail(jobId, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    public void fail(UUID jobId, String message) {
+        finish(jobId, "FAILED", message.length() > 1024 ? message.substring(0, 1024) : message);
+    }
+
+    private long purge(UUID jobId, UUID userId) {
+        long deleted;
+        try (ArchivedWriteRelease release = ArchivedWriteRelease.open(jdbcTemplate, List.of(userId))) {
+            deleted = purgeRows(jobId, userId);
+        }
+        ShardDirectory directory = shardDirectory.getIfAvailable();
+        if (directory != null) {
+            directory.forget(userId);
+        }
+        refreshTokens.forget(userId);
+        // The users row went without the change journal seeing it.
+        principalCache.evict(userId);
+        return deleted;
+    }
+
+    private long purgeRows(UUID jobId, UUID userId) {
+        long deleted = 0;
+        for (int pass = 1;; pass++) {
+            deleted += deleteJoinedWalletRows(jobId, userId);
+            for (Step step : STEPS) {
+                deleted += runStep(jobId, userId, step);
+            }
+            try {
+                Integer removed = transactionTemplate.execute(status -> {
+                    int heads = jdbcTemplate.update("delete from change_journal_heads where user_id = ?", userId);
+                    int users = jdbcTemplate.update("delete from users where id = ?", userId);
+                    progress(jobId, "users", heads + users);
+                    return heads + users;
+                });
+                deleted += removed != null ? removed : 0;
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (pass >= properties.maxPasses()) {
+                    throw new IllegalStateException("Account kept changing during the purge", e);
+                }
+                log.debug("Rows written during purge {} keep account {} in place; pass {}", jobId, userId, pass + 1);
+            }
+        }
+        return deleted;
+    }
+
+    private long runStep(UUID jobId, UUID userId, Step step) {
+        String sql = step.sql(properties.chunkRows());
+        Object[] arguments = step.arguments(userId);
+        long total = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                int changed = jdbcTemplate.update(sql, arguments);
+                progress(jobId, step.name(), changed);
+                return changed;
+            });
+            if (count == null || count == 0) {
+                return total;
+            }
+            total += count;
+        }
+    }
+
+    private long deleteJoinedWalletRows(UUID jobId, UUID userId) {
+        String sql = String.format(JOINED_WALLET_ROWS_SQL, properties.chunkRows());
+        long total = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<TransactionSnapshot> chunk = jdbcTemplate.query(sql, (rs, rowNum) -> new TransactionSnapshot(
+                        rs.getObject(1, UUID.class), null, rs.getObject(2, UUID.class), rs.getBigDecimal(3),
+                        rs.getString(4), rs.getString(5), TransactionType.valueOf(rs.getString(6)),
+                        rs.getObject(7, LocalDate.class)), userId, userId);
+                if (chunk.isEmpty()) {
+                    return 0;
+                }
+                jdbcTemplate.batchUpdate("delete from transactions where id = ?",
+                        chunk.stream().map(row -> new Object[] {row.id()}).toList());
+                // No user: only the wallets' checkpoints move, the user's own are deleted with the account.
+                checkpointWriter.onDeleted(chunk);
+                Map<UUID, List<UUID>> byOwner = new TreeMap<>();
+                for (TransactionSnapshot row : chunk) {
+                    UUID ownerId = jdbcTemplate.queryForObject("select owner_id from shared_wallets where id = ?",
+                            UUID.class, row.walletId());
+                    byOwner.computeIfAbsent(ownerId, key -> new ArrayList<>()).add(row.id());
+                }
+                byOwner.forEach((ownerId, ids) ->
+                        journalWriter.deleted(ownerId, Transaction.class.getSimpleName(), ids));
+                progress(jobId, JOINED_WALLET_STEP, chunk.size());
+                return chunk.size();
+            });
+            if (count == null || count == 0) {
+                return total;
+            }
+            total += count;
+        }
+    }
+
+    private void progress(UUID jobId, String step, int changed) {
+        jdbcTemplate.update(PROGRESS_SQL, step, changed, Timestamp.from(Instant.now()), jobId);
+        rows.increment(changed);
+    }
+
+    private void finish(UUID jobId, String status, String message) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update(FINISH_SQL, status, message, now, now, jobId);
+    }
+
+    private void deleteReportFiles(UUID userId) {
+        Path directory = Path.of(reportProperties.storageDir(), userId.toString());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete report files of purged account {} in {}", userId, directory, e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.lothbrok.fintrack.ratelimit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lothbrok.fintrack.controller.ApiHeaders;
+import com.lothbrok.fintrack.dto.common.ApiResponse;
+import com.lothbrok.fintrack.dto.common.ErrorDetail;
+import com.lothbrok.fintrack.dto.common.ResponseMeta;
+import com.lothbrok.fintrack.security.PrincipalCache;
+import com.lothbrok.fintrack.web.UserIdHeader;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Applies the {@link RateLimiter} policy matching the handler's path pattern. Every limited response carries
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset} (seconds until the bucket is full
+ * again); a request over the limit is answered with 429, {@code Retry-After} and a failed {@link ApiResponse} without
+ * reaching the handler. The dispatch that completes an asynchronous request is not counted again.
+ * <p>
+ * A caller is only keyed by what it can be held to: an API key among the issued ones, or the id of an existing
+ * user. Anything else, including a header that changes on every request, shares the bucket of the caller's address,
+ * so rotating it neither escapes the limit nor fills the limiter with keys.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    static final String LIMIT = "RateLimit-Limit";
+    static final String REMAINING = "RateLimit-Remaining";
+    static final String RESET = "RateLimit-Reset";
+
+    private static final int MAX_API_KEY_LENGTH = 256;
+
+    private final RateLimiter limiter;
+    private final PrincipalCache principals;
+    private final Set<String> apiKeys;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitInterceptor(RateLimiter limiter, PrincipalCache principals, RateLimitProperties properties,
+            ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.principals = principals;
+        this.apiKeys = properties.apiKeys();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!(handler instanceof HandlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        RateLimiter.Limit limit = pattern == null ? null : limiter.limitFor(pattern.toString());
+        if (limit == null) {
+            return true;
+        }
+        long result = limiter.tryAcquire(limit, key(limit, request));
+        long remaining = Math.max(0, result);
+        response.setHeader(LIMIT, Long.toString(limit.capacity()));
+        response.setHeader(REMAINING, Long.toString(remaining));
+        response.setHeader(RESET, Long.toString(limit.secondsUntilFull(remaining)));
+        if (result >= 0) {
+            return true;
+        }
+        long retryAfter = (-result + 999) / 1000;
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.failure(
+                new ErrorDetail("RATE_LIMITED", "Too many requests; retry after " + retryAfter + "s", null),
+                ResponseMeta.withoutPagination(request.getHeader(ApiHeaders.REQUEST_ID))));
+        return false;
+    }
+
+    /** The caller's verified key, or its address. */
+    String key(RateLimiter.Limit limit, HttpServletRequest request) {
+        String key = switch (limit.keySource()) {
+            case API_KEY -> apiKey(request.getHeader(ApiHeaders.API_KEY));
+            case USER -> user(UserIdHeader.read(request));
+            case ADDRESS -> null;
+        };
+        return key != null ? key : request.getRemoteAddr();
+    }
+
+    private String apiKey(String header) {
+        if (header == null || header.isBlank() || header.length() > MAX_API_KEY_LENGTH || apiKeys.isEmpty()) {
+            return null;
+        }
+        String digest = sha256(header.trim());
+        return apiKeys.contains(digest) ? "key:" + digest : null;
+    }
+
+    private String user(UUID userId) {
+        if (userId == null) {
+            return null;
+        }
+        return principals.resolve(userId).isPresent() ? "user:" + userId : null;
+    }
+
+    static String sha256(String apiKey) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(apiKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.lothbrok.fintrack.ratelimit;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled       applies the policies to requests
+ * @param maxKeys       buckets held across all policies; beyond it, buckets are evicted to make room
+ * @param sweepInterval how often buckets that have refilled completely, and so hold nothing worth keeping, are
+ *                      dropped
+ * @param policies      per-route policies by name; a request is limited by the first whose paths match
+ * @param apiKeys       hex SHA-256 digests of the API keys issued; only these key a request by API key
+ * @param sync          sharing of consumption between nodes
+ */
+@ConfigurationProperties(prefix = "fintrack.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+        int maxKeys,
+        Duration sweepInterval,
+        Map<String, Policy> policies,
+        Set<String> apiKeys,
+        Sync sync) {
+
+    public RateLimitProperties {
+        maxKeys = maxKeys > 0 ? maxKeys : 2_000_000;
+        sweepInterval = sweepInterval == null ? Duration.ofSeconds(30) : sweepInterval;
+        policies = policies == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(policies));
+        apiKeys = apiKeys == null ? Set.of() : apiKeys.stream()
+                .map(digest -> digest.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        sync = sync == null ? new Sync(false, null, 0, null) : sync;
+    }
+
+    /** Whose requests share a bucket. */
+    public enum KeySource {
+        /** The {@code X-Api-Key} header; requests without an issued key are keyed by address. */
+        API_KEY,
+        /** The caller's user id; requests without the id of an existing user are keyed by address. */
+        USER,
+        ADDRESS
+    }
+
+    /**
+     * @param paths           request path patterns the policy applies to, matched against the handler's mapping
+     * @param key             whose requests share a bucket
+     * @param capacity        requests a caller may make in a burst
+     * @param refillPerSecond sustained requests per second
+     */
+    public record Policy(List<String> paths, KeySource key, long capacity, double refillPerSecond) {
+
+        public Policy {
+            paths = paths == null ? List.of() : List.copyOf(paths);
+            key = key == null ? KeySource.USER : key;
+            if (capacity <= 0 || capacity > TokenBucket.MAX_TOKENS) {
+                throw new IllegalArgumentException("capacity must be between 1 and " + TokenBucket.MAX_TOKENS);
+            }
+            if (refillPerSecond <= 0) {
+                throw new IllegalArgumentException("refill-per-second must be positive");
+            }
+        }
+    }
+
+    /**
+     * @param enabled   shares consumption between nodes through the {@code rate_limit_usage} table
+     * @param interval  how often each node writes its consumption and reads the others'
+     * @param quantum   tokens a key has to consume on a node before that node reports them; smaller remainders
+     *                  are not shared
+     * @param retention how long reported consumption is kept for nodes to read
+     */
+    public record Sync(boolean enabled, Duration interval, long quantum, Duration retention) {
+
+        public Sync {
+            interval = interval == null ? Duration.ofSeconds(1) : interval;
+            quantum = quantum > 0 ? quantum : 10;
+            retention = retention == null ? Duration.ofMinutes(1) : retention;
+        }
+    }
+}
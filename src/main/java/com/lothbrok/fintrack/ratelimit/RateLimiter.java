@@ -0,0 +1,340 @@
+package com.lothbrok.fintrack.ratelimit;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Token buckets per policy and caller, held in one {@link ConcurrentHashMap} per policy. Taking a token is a lookup
+ * and a compare-and-set on the caller's {@link TokenBucket}; denied requests do not write at all.
+ * <p>
+ * The buckets are bounded by {@code maxKeys}. A bucket that has refilled completely limits nothing, so such buckets
+ * are dropped every {@code sweepInterval} and whenever the bound is reached; if that does not free enough, arbitrary
+ * buckets go as well, which at worst gives their callers a fresh burst.
+ * <p>
+ * With {@code sync} enabled, each node reports the tokens taken per key in steps of at least {@code quantum} to the
+ * {@code rate_limit_usage} table on the first shard, and drains the other nodes' reports from the buckets it holds.
+ * Limits across nodes are then exact up to a quantum per node and key, plus a sync interval of lag.
+ */
+@Component
+public class RateLimiter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    static final String PREFIX = "fintrack.ratelimit.";
+    private static final String INSERT_SQL =
+            "insert into rate_limit_usage (node_id, policy, limit_key, tokens, created_at) values (?, ?, ?, ?, ?)";
+    private static final String NEW_SQL =
+            "select id, node_id, policy, limit_key, tokens from rate_limit_usage where id > ? order by id";
+
+    private final RateLimitProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final Map<String, Limit> limits;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final Map<String, Limit> byPattern = new ConcurrentHashMap<>();
+    private final Limit unlimited;
+    private final long origin = System.nanoTime();
+    private final AtomicInteger keys = new AtomicInteger();
+    private final ReentrantLock evicting = new ReentrantLock();
+    private final ConcurrentLinkedQueue<Unsynced> unsynced = new ConcurrentLinkedQueue<>();
+    private final UUID nodeId = UUID.randomUUID();
+    private final Counter evicted;
+
+    private long lastId = -1;
+    private long nextSweep;
+    private long nextCleanUp;
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public RateLimiter(RateLimitProperties properties,
+            JdbcTemplate jdbcTemplate,
+            ShardRouter shardRouter,
+            MeterRegistry registry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        Map<String, Limit> configured = new LinkedHashMap<>();
+        properties.policies().forEach((name, policy) -> configured.put(name, new Limit(name, policy, registry)));
+        this.limits = Collections.unmodifiableMap(configured);
+        this.unlimited = new Limit("", null, registry);
+        this.evicted = Counter.builder(PREFIX + "evicted")
+                .description("Buckets dropped to stay within the key limit before they had refilled")
+                .register(registry);
+        Gauge.builder(PREFIX + "keys", keys, AtomicInteger::get)
+                .description("Buckets held across all policies")
+                .register(registry);
+    }
+
+    /** One policy's settings and buckets. */
+    public static final class Limit {
+
+        private final String name;
+        private final RateLimitProperties.Policy policy;
+        private final double tokensPerMilli;
+        private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final Counter allowed;
+        private final Counter limited;
+
+        Limit(String name, RateLimitProperties.Policy policy, MeterRegistry registry) {
+            this.name = name;
+            this.policy = policy;
+            this.tokensPerMilli = policy == null ? 0 : policy.refillPerSecond() / 1000;
+            this.allowed = policy == null ? null : requests(registry, name, "allowed");
+            this.limited = policy == null ? null : requests(registry, name, "limited");
+        }
+
+        private static Counter requests(MeterRegistry registry, String policy, String outcome) {
+            return Counter.builder(PREFIX + "requests")
+                    .description("Requests checked against a rate limit")
+                    .tags("policy", policy, "outcome", outcome)
+                    .register(registry);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public RateLimitProperties.KeySource keySource() {
+            return policy.key();
+        }
+
+        public long capacity() {
+            return policy.capacity();
+        }
+
+        /** Seconds until a bucket with {@code remaining} tokens is full again. */
+        public long secondsUntilFull(long remaining) {
+            return (long) Math.ceil((policy.capacity() - remaining) / policy.refillPerSecond());
+        }
+    }
+
+    private record Unsynced(Limit limit, String key, TokenBucket bucket) {
+    }
+
+    /** The policy for a handler's path pattern, or {@code null} when none applies. */
+    public Limit limitFor(String pattern) {
+        Limit limit = byPattern.computeIfAbsent(pattern, this::match);
+        return limit == unlimited ? null : limit;
+    }
+
+    private Limit match(String pattern) {
+        for (Limit limit : limits.values()) {
+            for (String path : limit.policy.paths()) {
+                if (matcher.match(path, pattern)) {
+                    return limit;
+                }
+            }
+        }
+        return unlimited;
+    }
+
+    public Limit limit(String name) {
+        Limit limit = limits.get(name);
+        if (limit == null) {
+            throw new IllegalArgumentException("Unknown rate limit policy: " + name);
+        }
+        return limit;
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket. Returns the tokens left when the request may go ahead, and otherwise
+     * minus the milliseconds until it may be retried.
+     */
+    public long tryAcquire(Limit limit, String key) {
+        if (!properties.enabled()) {
+            return limit.capacity();
+        }
+        long now = now();
+        TokenBucket bucket = limit.buckets.get(key);
+        if (bucket == null) {
+            bucket = newBucket(limit, key, now);
+        }
+        long result = bucket.tryAcquire(limit.policy.capacity(), limit.tokensPerMilli, now);
+        if (result < 0) {
+            limit.limited.increment();
+            return result;
+        }
+        limit.allowed.increment();
+        if (running && properties.sync().enabled() && bucket.countUnsynced(properties.sync().quantum())) {
+            unsynced.add(new Unsynced(limit, key, bucket));
+        }
+        return result;
+    }
+
+    private TokenBucket newBucket(Limit limit, String key, long now) {
+        TokenBucket created = new TokenBucket(limit.policy.capacity(), now);
+        TokenBucket existing = limit.buckets.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        if (keys.incrementAndGet() > properties.maxKeys()) {
+            evict();
+        }
+        return created;
+    }
+
+    int size() {
+        return keys.get();
+    }
+
+    /**
+     * Brings the buckets back under {@code maxKeys}, to nine tenths of it so the next new callers do not trigger
+     * another round straight away. Callers arriving meanwhile go over the bound rather than wait.
+     */
+    private void evict() {
+        if (!evicting.tryLock()) {
+            return;
+        }
+        try {
+            sweep();
+            int target = properties.maxKeys() / 10 * 9;
+            for (Limit limit : limits.values()) {
+                Iterator<TokenBucket> buckets = limit.buckets.values().iterator();
+                while (keys.get() > target && buckets.hasNext()) {
+                    buckets.next();
+                    buckets.remove();
+                    keys.decrementAndGet();
+                    evicted.increment();
+                }
+            }
+        } finally {
+            evicting.unlock();
+        }
+    }
+
+    /** Drops buckets that have refilled completely. */
+    void sweep() {
+        long now = now();
+        for (Limit limit : limits.values()) {
+            limit.buckets.entrySet().removeIf(entry -> {
+                boolean full = entry.getValue().isFull(limit.policy.capacity(), limit.tokensPerMilli, now);
+                if (full) {
+                    keys.decrementAndGet();
+                }
+                return full;
+            });
+        }
+    }
+
+    private long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origin);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled() || limits.isEmpty() || running) {
+            return;
+        }
+        running = true;
+        nextSweep = System.nanoTime() + properties.sweepInterval().toNanos();
+        nextCleanUp = System.nanoTime();
+        Thread thread = new Thread(this::run, "rate-limiter");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long interval = properties.sync().enabled() ? properties.sync().interval().toNanos()
+                : properties.sweepInterval().toNanos();
+        while (running) {
+            LockSupport.parkNanos(this, interval);
+            if (properties.sync().enabled()) {
+                sync();
+            }
+            if (System.nanoTime() - nextSweep >= 0) {
+                sweep();
+                nextSweep = System.nanoTime() + properties.sweepInterval().toNanos();
+            }
+        }
+    }
+
+    /** Reports the tokens taken here since the last report and drains those reported by the other nodes. */
+    synchronized void sync() {
+        List<Object[]> reports = new ArrayList<>();
+        Timestamp at = Timestamp.from(Instant.now());
+        for (Unsynced entry = unsynced.poll(); entry != null; entry = unsynced.poll()) {
+            long tokens = entry.bucket().takeUnsynced();
+            if (tokens > 0) {
+                reports.add(new Object[] {nodeId, entry.limit().name, entry.key(), tokens, at});
+            }
+        }
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            if (!reports.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, reports);
+            }
+            if (lastId < 0) {
+                // Usage reported before this node started is already in nobody's buckets here.
+                Long max = jdbcTemplate.queryForObject("select max(id) from rate_limit_usage", Long.class);
+                lastId = max != null ? max : 0;
+            }
+            long now = now();
+            jdbcTemplate.query(NEW_SQL, rs -> {
+                lastId = Math.max(lastId, rs.getLong(1));
+                if (nodeId.equals(rs.getObject(2, UUID.class))) {
+                    return;
+                }
+                Limit limit = limits.get(rs.getString(3));
+                TokenBucket bucket = limit == null ? null : limit.buckets.get(rs.getString(4));
+                if (bucket != null) {
+                    bucket.drain(rs.getLong(5), limit.policy.capacity(), limit.tokensPerMilli, now);
+                }
+            }, lastId);
+            if (System.nanoTime() - nextCleanUp >= 0) {
+                jdbcTemplate.update("delete from rate_limit_usage where created_at < ?",
+                        Timestamp.from(Instant.now().minus(properties.sync().retention())));
+                nextCleanUp = System.nanoTime() + properties.sync().retention().toNanos() / 2;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not share rate limit usage", e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.lothbrok.fintrack.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A token bucket packed into one {@code long}: the tokens left in the high {@value #TOKEN_BITS} bits and, in the low
+ * {@value #TIME_BITS}, the time in milliseconds (on the limiter's clock) up to which refills have been counted.
+ * Refills are worked out from the elapsed time whenever the bucket is read, and every change is a single
+ * compare-and-set, so concurrent requests for one key never block each other. Refills advance the time only by
+ * what the whole tokens gained took, so fractions of a token carry over.
+ */
+final class TokenBucket extends AtomicLong {
+
+    static final int TIME_BITS = 40;
+    static final int TOKEN_BITS = 64 - TIME_BITS;
+    static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    static final long MAX_TOKENS = (1L << TOKEN_BITS) - 1;
+
+    private static final AtomicLongFieldUpdater<TokenBucket> UNSYNCED =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "unsynced");
+
+    /** Tokens taken on this node and not yet reported to the others. */
+    private volatile long unsynced;
+
+    TokenBucket(long capacity, long now) {
+        super(capacity << TIME_BITS | now & TIME_MASK);
+    }
+
+    /**
+     * Takes one token. Returns the tokens left when one was available, and otherwise minus the milliseconds until
+     * the next one is.
+     */
+    long tryAcquire(long capacity, double tokensPerMilli, long now) {
+        while (true) {
+            long state = get();
+            long refilled = refill(state, capacity, tokensPerMilli, now);
+            long tokens = refilled >>> TIME_BITS;
+            if (tokens == 0) {
+                long next = (refilled & TIME_MASK) + (long) Math.ceil(1 / tokensPerMilli);
+                return -Math.max(1, next - now);
+            }
+            if (compareAndSet(state, refilled - (1L << TIME_BITS))) {
+                return tokens - 1;
+            }
+        }
+    }
+
+    /** Takes up to {@code count} tokens consumed on another node. */
+    void drain(long count, long capacity, double tokensPerMilli, long now) {
+        while (true) {
+            long state = get();
+            long refilled = refill(state, capacity, tokensPerMilli, now);
+            long tokens = Math.max(0, (refilled >>> TIME_BITS) - count);
+            if (compareAndSet(state, tokens << TIME_BITS | refilled & TIME_MASK)) {
+                return;
+            }
+        }
+    }
+
+    /** Whether the bucket has refilled completely, so dropping it loses nothing. */
+    boolean isFull(long capacity, double tokensPerMilli, long now) {
+        return refill(get(), capacity, tokensPerMilli, now) >>> TIME_BITS >= capacity;
+    }
+
+    /** Counts one token towards the next report; true when this made the unreported count reach {@code quantum}. */
+    boolean countUnsynced(long quantum) {
+        return UNSYNCED.incrementAndGet(this) == quantum;
+    }
+
+    long takeUnsynced() {
+        return UNSYNCED.getAndSet(this, 0);
+    }
+
+    private static long refill(long state, long capacity, double tokensPerMilli, long now) {
+        long tokens = state >>> TIME_BITS;
+        long at = state & TIME_MASK;
+        long elapsed = now - at;
+        if (elapsed <= 0) {
+            return state;
+        }
+        long gained = (long) (elapsed * tokensPerMilli);
+        if (tokens + gained >= capacity) {
+            return capacity << TIME_BITS | now & TIME_MASK;
+        }
+        if (gained == 0) {
+            return state;
+        }
+        return (tokens + gained) << TIME_BITS | (at + (long) (gained / tokensPerMilli)) & TIME_MASK;
+    }
+}
@@ -0,0 +1,111 @@
+package com.lothbrok.fintrack.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+
+import com.lothbrok.fintrack.repository.projection.ReportRow;
+
+/**
+ * Emits the PDF table in chunks of {@code chunkRows}; each completed chunk is added to the document, which writes
+ * finished pages straight to the output stream.
+ */
+class PdfReportWriter implements ReportWriter {
+
+    private static final String[] HEADER = { "Date", "Title", "Category", "Type", "Amount", "Currency" };
+    private static final float[] WIDTHS = { 2f, 5f, 3f, 2f, 2.5f, 1.5f };
+
+    private final int chunkRows;
+    private final Font bodyFont = FontFactory.getFont(FontFactory.HELVETICA, 8);
+    private final Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8);
+    private Document document;
+    private PdfPTable table;
+    private int rowsInChunk;
+
+    PdfReportWriter(int chunkRows) {
+        this.chunkRows = chunkRows;
+    }
+
+    @Override
+    public void begin(OutputStream out, String title) throws IOException {
+        document = new Document(PageSize.A4, 36, 36, 36, 36);
+        try {
+            PdfWriter.getInstance(document, out);
+            document.open();
+            document.add(new Paragraph(title, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12)));
+        } catch (DocumentException ex) {
+            throw new IOException("Failed to start PDF report", ex);
+        }
+        table = newTable();
+    }
+
+    @Override
+    public void write(ReportRow row) throws IOException {
+        addCell(row.getEventDate().toString(), bodyFont, Element.ALIGN_LEFT);
+        addCell(row.getTitle(), bodyFont, Element.ALIGN_LEFT);
+        addCell(row.getCategory(), bodyFont, Element.ALIGN_LEFT);
+        addCell(row.getType().name(), bodyFont, Element.ALIGN_LEFT);
+        addCell(row.getAmount().toPlainString(), bodyFont, Element.ALIGN_RIGHT);
+        addCell(row.getCurrency(), bodyFont, Element.ALIGN_LEFT);
+        if (++rowsInChunk >= chunkRows) {
+            flushChunk();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushChunk();
+        document.close();
+    }
+
+    @Override
+    public void close() {
+        if (document != null && document.isOpen()) {
+            document.close();
+        }
+    }
+
+    private void flushChunk() throws IOException {
+        if (rowsInChunk == 0) {
+            return;
+        }
+        try {
+            document.add(table);
+        } catch (DocumentException ex) {
+            throw new IOException("Failed to write PDF rows", ex);
+        }
+        table = newTable();
+        rowsInChunk = 0;
+    }
+
+    private PdfPTable newTable() {
+        PdfPTable next = new PdfPTable(WIDTHS);
+        next.setWidthPercentage(100);
+        next.setHeaderRows(1);
+        for (String heading : HEADER) {
+            addCell(next, heading, headerFont, Element.ALIGN_LEFT);
+        }
+        return next;
+    }
+
+    private void addCell(String text, Font font, int alignment) {
+        addCell(table, text, font, alignment);
+    }
+
+    private static void addCell(PdfPTable target, String text, Font font, int alignment) {
+        PdfPCell cell = new PdfPCell(new Phrase(text != null ? text : "", font));
+        cell.setHorizontalAlignment(alignment);
+        target.addCell(cell);
+    }
+}
@@ -0,0 +1,35 @@
+package com.lothbrok.fintrack.report;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReportExecutorConfig {
+
+    public static final String REPORT_EXECUTOR = "reportExecutor";
+
+    /**
+     * Fixed-size pool with a bounded queue; submissions beyond the queue are rejected instead of piling up.
+     */
+    @Bean(name = REPORT_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor reportExecutor(ReportProperties properties) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                properties.workerThreads(),
+                properties.workerThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,247 @@
+package com.lothbrok.fintrack.report;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lothbrok.fintrack.entity.Notification;
+import com.lothbrok.fintrack.entity.ReportJob;
+import com.lothbrok.fintrack.entity.enums.NotificationType;
+import com.lothbrok.fintrack.entity.enums.ReportFormat;
+import com.lothbrok.fintrack.entity.enums.ReportStatus;
+import com.lothbrok.fintrack.repository.NotificationRepository;
+import com.lothbrok.fintrack.repository.ReportJobRepository;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.repository.projection.ReportRow;
+
+/**
+ * Runs one report job on a worker thread: streams the user's transactions through a database cursor into a
+ * {@link ReportWriter}, moves the finished file into place and notifies the user. Row count, duration, file size and
+ * bytes allocated by the worker thread are recorded on the job.
+ * <p>
+ * A worker first claims the job with a conditional update: a queued job, or a running one whose claim has not been
+ * renewed for {@code fintrack.reports.lease}, as when the instance running it died. The claim is identified by the
+ * {@code started_at} it sets and renewed through {@code updated_at} while rows are written, so the same job
+ * submitted on several instances runs once; a worker whose claim was taken over stops without touching the job.
+ */
+@Component
+public class ReportGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportGenerator.class);
+
+    private static final String CLAIM_SQL = """
+            update report_jobs set status = 'RUNNING', started_at = ?, updated_at = ?
+            where id = ? and (status = 'QUEUED' or (status = 'RUNNING' and updated_at < ?))
+            """;
+    private static final String RENEW_SQL = """
+            update report_jobs set updated_at = ? where id = ? and status = 'RUNNING' and started_at = ?
+            """;
+
+    private final ReportJobRepository reportJobRepository;
+    private final TransactionRepository transactionRepository;
+    private final NotificationRepository notificationRepository;
+    private final ReportProperties properties;
+    private final TransactionTemplate writeTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    /** Renews claims from inside the read-only streaming transaction. */
+    private final TransactionTemplate renewTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ReportGenerator(ReportJobRepository reportJobRepository,
+            TransactionRepository transactionRepository,
+            NotificationRepository notificationRepository,
+            ReportProperties properties,
+            PlatformTransactionManager transactionManager,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper) {
+        this.reportJobRepository = reportJobRepository;
+        this.transactionRepository = transactionRepository;
+        this.notificationRepository = notificationRepository;
+        this.properties = properties;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.renewTemplate = new TransactionTemplate(transactionManager);
+        this.renewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public static String downloadUrl(UUID jobId) {
+        return "/api/v1/reports/" + jobId + "/download";
+    }
+
+    public void run(UUID jobId) {
+        Instant startedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        if (jdbcTemplate.update(CLAIM_SQL, Timestamp.from(startedAt), Timestamp.from(startedAt), jobId,
+                Timestamp.from(startedAt.minus(properties.lease()))) == 0) {
+            return;
+        }
+        ReportJob job = readOnlyTemplate.execute(status -> reportJobRepository.findById(jobId).orElse(null));
+        if (job == null) {
+            return;
+        }
+        Lease lease = new Lease(jobId, startedAt);
+        long allocatedBefore = threadAllocatedBytes();
+        UUID userId = job.getUser().getId();
+        String extension = job.getFormat() == ReportFormat.PDF ? ".pdf" : ".xlsx";
+        Path directory = Path.of(properties.storageDir(), userId.toString());
+        Path target = directory.resolve(jobId + extension);
+        Path partial = directory.resolve(jobId + extension + ".part");
+        try {
+            Files.createDirectories(directory);
+            long[] rows = new long[1];
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 64 * 1024);
+                    ReportWriter writer = newWriter(job.getFormat())) {
+                writer.begin(out, "Transactions " + job.getFromDate() + " to " + job.getToDate());
+                readOnlyTemplate.executeWithoutResult(status -> {
+                    try (Stream<ReportRow> stream = transactionRepository.streamReportRows(userId, job.getFromDate(),
+                            job.getToDate())) {
+                        stream.forEach(row -> {
+                            try {
+                                writer.write(row);
+                            } catch (IOException ex) {
+                                throw new UncheckedIOException(ex);
+                            }
+                            rows[0]++;
+                            lease.renewIfDue();
+                        });
+                    }
+                });
+                writer.finish();
+            }
+            lease.renew();
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(target);
+            long allocated = threadAllocatedBytes() - allocatedBefore;
+            complete(jobId, startedAt, target, rows[0], size, allocated);
+            log.info("Report {} ({}) finished: {} rows, {} bytes, {} bytes allocated", jobId, job.getFormat(), rows[0],
+                    size, allocated);
+        } catch (LeaseLostException ex) {
+            log.warn("Report {} was taken over by another worker", jobId);
+            deleteQuietly(partial);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Report {} failed", jobId, ex);
+            deleteQuietly(partial);
+            fail(jobId, ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    public void fail(UUID jobId, String message) {
+        writeTemplate.executeWithoutResult(status -> reportJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(ReportStatus.FAILED);
+            job.setFinishedAt(Instant.now());
+            job.setErrorMessage(message.length() > 1024 ? message.substring(0, 1024) : message);
+        }));
+    }
+
+    private void complete(UUID jobId, Instant startedAt, Path file, long rowCount, long fileSize,
+            long allocatedBytes) {
+        writeTemplate.executeWithoutResult(status -> reportJobRepository.findById(jobId).ifPresent(job -> {
+            if (job.getStatus() != ReportStatus.RUNNING || !startedAt.equals(job.getStartedAt())) {
+                throw new LeaseLostException();
+            }
+            job.setStatus(ReportStatus.COMPLETED);
+            job.setFinishedAt(Instant.now());
+            job.setFilePath(file.toString());
+            job.setRowCount(rowCount);
+            job.setFileSize(fileSize);
+            job.setAllocatedBytes(allocatedBytes);
+
+            Notification notification = new Notification();
+            notification.setUser(job.getUser());
+            notification.setType(NotificationType.REPORT_READY);
+            notification.setTitle("Your " + job.getFormat() + " report is ready");
+            notification.setMessage("Transactions from " + job.getFromDate() + " to " + job.getToDate() + " ("
+                    + rowCount + " rows) are ready to download.");
+            try {
+                notification.setMetadata(objectMapper.writeValueAsString(objectMapper.createObjectNode()
+                        .put("reportId", jobId.toString())
+                        .put("downloadUrl", downloadUrl(jobId))));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not encode report metadata", e);
+            }
+            notificationRepository.save(notification);
+        }));
+    }
+
+    /** This worker's claim on a job, renewed at most every fifth of the lease. */
+    private final class Lease {
+
+        private final UUID jobId;
+        private final Timestamp startedAt;
+        private final long intervalNanos = properties.lease().toNanos() / 5;
+        private long renewAt = System.nanoTime() + intervalNanos;
+
+        Lease(UUID jobId, Instant startedAt) {
+            this.jobId = jobId;
+            this.startedAt = Timestamp.from(startedAt);
+        }
+
+        void renewIfDue() {
+            if (System.nanoTime() - renewAt >= 0) {
+                renew();
+            }
+        }
+
+        void renew() {
+            Integer renewed = renewTemplate.execute(status -> jdbcTemplate.update(RENEW_SQL,
+                    Timestamp.from(Instant.now()), jobId, startedAt));
+            if (renewed == null || renewed == 0) {
+                throw new LeaseLostException();
+            }
+            renewAt = System.nanoTime() + intervalNanos;
+        }
+    }
+
+    /** The job's claim was taken over by another worker, which now owns the job. */
+    private static final class LeaseLostException extends RuntimeException {
+
+        LeaseLostException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private ReportWriter newWriter(ReportFormat format) {
+        return format == ReportFormat.PDF
+                ? new PdfReportWriter(properties.pdfChunkRows())
+                : new XlsxReportWriter(properties.rowWindow());
+    }
+
+    private static long threadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return 0L;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Leftover partial files are overwritten by the next attempt.
+        }
+    }
+}
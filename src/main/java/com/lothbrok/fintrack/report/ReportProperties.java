@@ -0,0 +1,32 @@
+package com.lothbrok.fintrack.report;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param storageDir    directory generated files are written to
+ * @param workerThreads concurrent report jobs
+ * @param queueCapacity queued jobs beyond which new requests are rejected
+ * @param rowWindow     spreadsheet rows kept in memory before flushing to disk (SXSSF window)
+ * @param pdfChunkRows  PDF table rows buffered before the chunk is written out
+ * @param lease         how long a running job may go without its worker renewing the claim before another worker
+ *                      may take it over; workers renew every fifth of it
+ */
+@ConfigurationProperties(prefix = "fintrack.reports")
+public record ReportProperties(String storageDir,
+        int workerThreads,
+        int queueCapacity,
+        int rowWindow,
+        int pdfChunkRows,
+        Duration lease) {
+
+    public ReportProperties {
+        storageDir = storageDir == null || storageDir.isBlank() ? "./uploads/reports" : storageDir;
+        workerThreads = workerThreads > 0 ? workerThreads : 2;
+        queueCapacity = queueCapacity > 0 ? queueCapacity : 50;
+        rowWindow = rowWindow > 0 ? rowWindow : 100;
+        pdfChunkRows = pdfChunkRows > 0 ? pdfChunkRows : 200;
+        lease = lease == null ? Duration.ofMinutes(5) : lease;
+    }
+}
@@ -0,0 +1,21 @@
+package com.lothbrok.fintrack.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.lothbrok.fintrack.repository.projection.ReportRow;
+
+/**
+ * Incremental report sink. Implementations must keep a bounded number of rows in memory regardless of report size.
+ */
+public interface ReportWriter extends AutoCloseable {
+
+    void begin(OutputStream out, String title) throws IOException;
+
+    void write(ReportRow row) throws IOException;
+
+    void finish() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
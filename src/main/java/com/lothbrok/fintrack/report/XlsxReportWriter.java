@@ -0,0 +1,78 @@
+package com.lothbrok.fintrack.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.lothbrok.fintrack.repository.projection.ReportRow;
+
+/**
+ * Writes rows through POI's streaming workbook; only {@code rowWindow} rows stay on the heap, older rows are flushed
+ * to a compressed temp file until {@link #finish()} assembles the workbook.
+ */
+class XlsxReportWriter implements ReportWriter {
+
+    private static final String[] HEADER = { "Date", "Title", "Category", "Type", "Amount", "Currency", "Note" };
+
+    private final int rowWindow;
+    private SXSSFWorkbook workbook;
+    private SXSSFSheet sheet;
+    private CellStyle dateStyle;
+    private CellStyle amountStyle;
+    private OutputStream out;
+    private int nextRow;
+
+    XlsxReportWriter(int rowWindow) {
+        this.rowWindow = rowWindow;
+    }
+
+    @Override
+    public void begin(OutputStream out, String title) {
+        this.out = out;
+        workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        sheet = workbook.createSheet(title);
+        CreationHelper helper = workbook.getCreationHelper();
+        dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(helper.createDataFormat().getFormat("yyyy-mm-dd"));
+        amountStyle = workbook.createCellStyle();
+        amountStyle.setDataFormat(helper.createDataFormat().getFormat("#,##0.00"));
+        SXSSFRow header = sheet.createRow(nextRow++);
+        for (int i = 0; i < HEADER.length; i++) {
+            header.createCell(i).setCellValue(HEADER[i]);
+        }
+    }
+
+    @Override
+    public void write(ReportRow row) {
+        SXSSFRow excelRow = sheet.createRow(nextRow++);
+        excelRow.createCell(0).setCellValue(row.getEventDate());
+        excelRow.getCell(0).setCellStyle(dateStyle);
+        excelRow.createCell(1).setCellValue(row.getTitle());
+        excelRow.createCell(2).setCellValue(row.getCategory());
+        excelRow.createCell(3).setCellValue(row.getType().name());
+        excelRow.createCell(4).setCellValue(row.getAmount().doubleValue());
+        excelRow.getCell(4).setCellStyle(amountStyle);
+        excelRow.createCell(5).setCellValue(row.getCurrency());
+        if (row.getNote() != null) {
+            excelRow.createCell(6).setCellValue(row.getNote());
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (workbook != null) {
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.lothbrok.fintrack.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.lothbrok.fintrack.entity.AccountPurgeJob;
+import com.lothbrok.fintrack.entity.enums.AccountPurgeStatus;
+
+public interface AccountPurgeJobRepository extends JpaRepository<AccountPurgeJob, UUID> {
+
+    Optional<AccountPurgeJob> findByIdAndUserId(UUID id, UUID userId);
+
+    Optional<AccountPurgeJob> findFirstByUserIdAndStatusIn(UUID userId, List<AccountPurgeStatus> statuses);
+
+    List<AccountPurgeJob> findByStatusIn(List<AccountPurgeStatus> statuses);
+}
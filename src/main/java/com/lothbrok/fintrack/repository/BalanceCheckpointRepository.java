@@ -0,0 +1,56 @@
+package com.lothbrok.fintrack.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.lothbrok.fintrack.entity.BalanceCheckpoint;
+
+/**
+ * Read side of the balance checkpoints; writes go through {@code BalanceCheckpointWriter}. Queries filter on the
+ * foreign key columns so they stay on {@code idx_balance_checkpoint_user} / {@code idx_balance_checkpoint_wallet}.
+ */
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, UUID> {
+
+    /** Latest checkpoint at or before {@code monthStart}. */
+    @Query("""
+            select c from BalanceCheckpoint c
+            where c.user.id = :userId and c.monthStart <= :monthStart
+            order by c.monthStart desc
+            limit 1
+            """)
+    Optional<BalanceCheckpoint> findLatestByUserId(@Param("userId") UUID userId,
+            @Param("monthStart") LocalDate monthStart);
+
+    @Query("""
+            select c from BalanceCheckpoint c
+            where c.sharedWallet.id = :walletId and c.monthStart <= :monthStart
+            order by c.monthStart desc
+            limit 1
+            """)
+    Optional<BalanceCheckpoint> findLatestBySharedWalletId(@Param("walletId") UUID walletId,
+            @Param("monthStart") LocalDate monthStart);
+
+    @Query("""
+            select c from BalanceCheckpoint c
+            where c.user.id = :userId and c.monthStart between :from and :to
+            order by c.monthStart
+            """)
+    List<BalanceCheckpoint> findByUserIdAndMonthStartBetween(@Param("userId") UUID userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("""
+            select c from BalanceCheckpoint c
+            where c.sharedWallet.id = :walletId and c.monthStart between :from and :to
+            order by c.monthStart
+            """)
+    List<BalanceCheckpoint> findBySharedWalletIdAndMonthStartBetween(@Param("walletId") UUID walletId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+}
@@ -1,5 +1,6 @@
 package com.lothbrok.fintrack.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,6 +15,8 @@ public interface BudgetRepository extends JpaRepository<Budget, UUID> {
 
     List<Budget> findByUserIdAndMonth(UUID userId, String month);
 
+    List<Budget> findByUserIdAndMonthIn(UUID userId, Collection<String> months);
+
     Optional<Budget> findByUserIdAndMonthAndCategory(UUID userId, String month, String category);
 
     boolean existsByUserIdAndMonthAndCategory(UUID userId, String month, String category);
@@ -0,0 +1,75 @@
+package com.lothbrok.fintrack.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.lothbrok.fintrack.entity.ChangeJournalEntry;
+import com.lothbrok.fintrack.repository.projection.ChangeJournalRef;
+import com.lothbrok.fintrack.repository.projection.ChangeJournalRow;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Read side of the change journal; entries are appended by {@code ChangeJournalListener}. Queries return
+ * projections, so long streams do not fill the persistence context, and walk {@code idx_change_journal_user_seq}
+ * or {@code idx_change_journal_entity}.
+ */
+public interface ChangeJournalRepository extends JpaRepository<ChangeJournalEntry, UUID> {
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select e.seq as seq, e.entityType as entityType, e.entityId as entityId, e.operation as operation,
+                   e.changedAt as changedAt, e.payload as payload
+            from ChangeJournalEntry e
+            where e.userId = :userId and e.seq > :afterSeq
+            order by e.seq
+            """)
+    Stream<ChangeJournalRow> streamByUserIdAfter(@Param("userId") UUID userId, @Param("afterSeq") long afterSeq);
+
+    /** Entries for one entity in the user's stream up to {@code asOf}, oldest first. */
+    @Query("""
+            select e.seq as seq, e.entityType as entityType, e.entityId as entityId, e.operation as operation,
+                   e.changedAt as changedAt, e.payload as payload
+            from ChangeJournalEntry e
+            where e.entityId = :entityId and e.userId = :userId and e.entityType = :entityType
+              and e.changedAt <= :asOf
+            order by e.seq
+            """)
+    List<ChangeJournalRow> findEntityHistory(@Param("userId") UUID userId,
+            @Param("entityType") String entityType,
+            @Param("entityId") UUID entityId,
+            @Param("asOf") Instant asOf);
+
+    /** Highest committed sequence number of the user, 0 before the first entry. */
+    @Query("select coalesce(max(e.seq), 0) from ChangeJournalEntry e where e.userId = :userId")
+    long findLastSeq(@Param("userId") UUID userId);
+
+    /**
+     * Entity references (no payloads) from {@code fromSeq} on, in sequence order: the entry at {@code fromSeq} of
+     * whatever type, so callers can tell whether it is still there, then later entries of the given entity types.
+     */
+    @Query("""
+            select e.seq as seq, e.entityType as entityType, e.entityId as entityId, e.operation as operation
+            from ChangeJournalEntry e
+            where e.userId = :userId and e.seq >= :fromSeq
+              and (e.seq = :fromSeq or e.entityType in :entityTypes)
+            order by e.seq
+            """)
+    List<ChangeJournalRef> findRefsFrom(@Param("userId") UUID userId,
+            @Param("fromSeq") long fromSeq,
+            @Param("entityTypes") Collection<String> entityTypes,
+            Pageable pageable);
+}
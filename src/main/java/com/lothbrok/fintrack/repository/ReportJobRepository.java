@@ -0,0 +1,19 @@
+package com.lothbrok.fintrack.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.lothbrok.fintrack.entity.ReportJob;
+import com.lothbrok.fintrack.entity.enums.ReportStatus;
+
+public interface ReportJobRepository extends JpaRepository<ReportJob, UUID> {
+
+    Optional<ReportJob> findByIdAndUserId(UUID id, UUID userId);
+
+    List<ReportJob> findTop20ByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    List<ReportJob> findByStatusIn(List<ReportStatus> statuses);
+}
@@ -4,12 +4,14 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.lothbrok.fintrack.entity.SharedWalletMember;
 
 public interface SharedWalletMemberRepository extends JpaRepository<SharedWalletMember, UUID> {
 
+    @EntityGraph(attributePaths = "member")
     List<SharedWalletMember> findByWalletId(UUID walletId);
 
     List<SharedWalletMember> findByMemberId(UUID memberId);
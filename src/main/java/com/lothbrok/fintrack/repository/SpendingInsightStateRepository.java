@@ -0,0 +1,16 @@
+package com.lothbrok.fintrack.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.lothbrok.fintrack.entity.SpendingInsightState;
+
+public interface SpendingInsightStateRepository extends JpaRepository<SpendingInsightState, UUID> {
+
+    Optional<SpendingInsightState> findByUserIdAndCategory(UUID userId, String category);
+
+    List<SpendingInsightState> findByUserId(UUID userId);
+}
@@ -1,21 +1,139 @@
 package com.lothbrok.fintrack.repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.repository.projection.MonthlyCategoryTotalRow;
+import com.lothbrok.fintrack.repository.projection.ReportRow;
+import com.lothbrok.fintrack.repository.projection.TimeSeriesRow;
+import com.lothbrok.fintrack.repository.projection.TransactionColumnsRow;
 
-public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
+import jakarta.persistence.QueryHint;
+
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction> {
 
     Page<Transaction> findByUserId(UUID userId, Pageable pageable);
 
     Page<Transaction> findByUserIdAndEventDateBetween(UUID userId, LocalDate from, LocalDate to, Pageable pageable);
 
-    Page<Transaction> findBySharedWalletId(UUID sharedWalletId, Pageable pageable);
+    /**
+     * Filters on the foreign key column; the derived query outer-joins {@code shared_wallets} and filters on the
+     * joined id, which keeps simpler planners off {@code idx_transaction_wallet_date}.
+     */
+    @Query(value = "select t from Transaction t where t.sharedWallet.id = :sharedWalletId",
+            countQuery = "select count(t) from Transaction t where t.sharedWallet.id = :sharedWalletId")
+    Page<Transaction> findBySharedWalletId(@Param("sharedWalletId") UUID sharedWalletId, Pageable pageable);
 
     long countByUserIdAndEventDateBetween(UUID userId, LocalDate from, LocalDate to);
+
+    /** Income minus expenses over the date range. */
+    @Query("""
+            select coalesce(sum(case when t.type = com.lothbrok.fintrack.entity.enums.TransactionType.INCOME
+                                     then t.amount else -t.amount end), 0)
+            from Transaction t
+            where t.user.id = :userId and t.eventDate between :from and :to
+            """)
+    BigDecimal sumNetByUserIdAndEventDateBetween(@Param("userId") UUID userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("""
+            select coalesce(sum(case when t.type = com.lothbrok.fintrack.entity.enums.TransactionType.INCOME
+                                     then t.amount else -t.amount end), 0)
+            from Transaction t
+            where t.sharedWallet.id = :walletId and t.eventDate between :from and :to
+            """)
+    BigDecimal sumNetBySharedWalletIdAndEventDateBetween(@Param("walletId") UUID walletId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /** The user's expenses per calendar month and category over the date range. */
+    @Query("""
+            select extract(year from t.eventDate) as expenseYear,
+                   extract(month from t.eventDate) as expenseMonth,
+                   t.category as category,
+                   sum(t.amount) as total
+            from Transaction t
+            where t.user.id = :userId
+              and t.type = com.lothbrok.fintrack.entity.enums.TransactionType.EXPENSE
+              and t.eventDate between :from and :to
+            group by extract(year from t.eventDate), extract(month from t.eventDate), t.category
+            """)
+    List<MonthlyCategoryTotalRow> sumExpensesByMonthAndCategory(@Param("userId") UUID userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1024"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            select cast(date_trunc(:unit, t.event_date) as date) - date '1970-01-01' as bucketEpochDay,
+                   t.category as category,
+                   t.type as type,
+                   sum(t.amount) as total
+            from transactions t
+            where t.user_id = :userId
+              and t.event_date between :from and :to
+              and (cast(:walletId as uuid) is null or t.wallet_id = cast(:walletId as uuid))
+              and (cast(:type as varchar) is null or t.type = cast(:type as varchar))
+              and (cast(:minAmount as numeric) is null or t.amount >= cast(:minAmount as numeric))
+              and (cast(:maxAmount as numeric) is null or t.amount <= cast(:maxAmount as numeric))
+              and (:allCategories = true or t.category in (:categories))
+            group by 1, 2, 3
+            order by 2, 1
+            """, nativeQuery = true)
+    Stream<TimeSeriesRow> streamTimeSeries(@Param("userId") UUID userId,
+            @Param("unit") String unit,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("walletId") UUID walletId,
+            @Param("type") String type,
+            @Param("minAmount") BigDecimal minAmount,
+            @Param("maxAmount") BigDecimal maxAmount,
+            @Param("allCategories") boolean allCategories,
+            @Param("categories") Collection<String> categories);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "4096"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t.id as id, t.eventDate as eventDate, t.amount as amount, t.category as category,
+                   t.type as type, w.id as walletId
+            from Transaction t left join t.sharedWallet w
+            where t.user.id = :userId
+            """)
+    Stream<TransactionColumnsRow> streamColumnsByUserId(@Param("userId") UUID userId);
+
+    long countByUserId(UUID userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t.eventDate as eventDate, t.title as title, t.category as category, t.type as type,
+                   t.amount as amount, t.currency as currency, t.note as note
+            from Transaction t
+            where t.user.id = :userId and t.eventDate between :from and :to
+            order by t.eventDate, t.createdAt
+            """)
+    Stream<ReportRow> streamReportRows(@Param("userId") UUID userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
 }
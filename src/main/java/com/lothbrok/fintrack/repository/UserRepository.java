@@ -9,7 +9,15 @@ import com.lothbrok.fintrack.entity.User;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
 
-    Optional<User> findByEmailIgnoreCase(String email);
+    Optional<User> findByNormalizedEmail(String normalizedEmail);
 
-    boolean existsByEmailIgnoreCase(String email);
+    boolean existsByNormalizedEmail(String normalizedEmail);
+
+    default Optional<User> findByEmailIgnoreCase(String email) {
+        return findByNormalizedEmail(User.normalizeEmail(email));
+    }
+
+    default boolean existsByEmailIgnoreCase(String email) {
+        return existsByNormalizedEmail(User.normalizeEmail(email));
+    }
 }
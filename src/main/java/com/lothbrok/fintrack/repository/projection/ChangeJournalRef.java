@@ -0,0 +1,16 @@
+package com.lothbrok.fintrack.repository.projection;
+
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+
+public interface ChangeJournalRef {
+
+    long getSeq();
+
+    String getEntityType();
+
+    UUID getEntityId();
+
+    ChangeOperation getOperation();
+}
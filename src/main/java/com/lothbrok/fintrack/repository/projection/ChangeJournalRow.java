@@ -0,0 +1,21 @@
+package com.lothbrok.fintrack.repository.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+
+public interface ChangeJournalRow {
+
+    long getSeq();
+
+    String getEntityType();
+
+    UUID getEntityId();
+
+    ChangeOperation getOperation();
+
+    Instant getChangedAt();
+
+    byte[] getPayload();
+}
@@ -0,0 +1,14 @@
+package com.lothbrok.fintrack.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface MonthlyCategoryTotalRow {
+
+    int getExpenseYear();
+
+    int getExpenseMonth();
+
+    String getCategory();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,23 @@
+package com.lothbrok.fintrack.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+
+public interface ReportRow {
+
+    LocalDate getEventDate();
+
+    String getTitle();
+
+    String getCategory();
+
+    TransactionType getType();
+
+    BigDecimal getAmount();
+
+    String getCurrency();
+
+    String getNote();
+}
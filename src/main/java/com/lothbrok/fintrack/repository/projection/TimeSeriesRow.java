@@ -0,0 +1,14 @@
+package com.lothbrok.fintrack.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface TimeSeriesRow {
+
+    int getBucketEpochDay();
+
+    String getCategory();
+
+    String getType();
+
+    BigDecimal getTotal();
+}
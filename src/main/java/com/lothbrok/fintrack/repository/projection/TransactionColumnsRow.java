@@ -0,0 +1,22 @@
+package com.lothbrok.fintrack.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+
+public interface TransactionColumnsRow {
+
+    UUID getId();
+
+    LocalDate getEventDate();
+
+    BigDecimal getAmount();
+
+    String getCategory();
+
+    TransactionType getType();
+
+    UUID getWalletId();
+}
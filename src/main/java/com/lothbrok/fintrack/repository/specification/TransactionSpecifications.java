@@ -0,0 +1,57 @@
+package com.lothbrok.fintrack.repository.specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+import com.lothbrok.fintrack.entity.Transaction;
+
+import jakarta.persistence.criteria.Predicate;
+
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * Translates a {@link TransactionFilter} into predicates on the owning user and every non-null filter field.
+     * The user and date predicates come first so they line up with {@code idx_transaction_user_date}. Dates are
+     * compared on the bare {@code event_date} column so PostgreSQL can prune the monthly partitions outside the range.
+     */
+    public static Specification<Transaction> forUser(UUID userId, TransactionFilter filter) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId must not be null");
+        }
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("user").get("id"), userId));
+            if (filter != null) {
+                if (filter.from() != null) {
+                    predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), filter.from()));
+                }
+                if (filter.to() != null) {
+                    predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), filter.to()));
+                }
+                if (filter.categories() != null && !filter.categories().isEmpty()) {
+                    predicates.add(root.get("category").in(filter.categories()));
+                }
+                if (filter.type() != null) {
+                    predicates.add(cb.equal(root.get("type"), filter.type()));
+                }
+                if (filter.minAmount() != null) {
+                    predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), filter.minAmount()));
+                }
+                if (filter.maxAmount() != null) {
+                    predicates.add(cb.lessThanOrEqualTo(root.get("amount"), filter.maxAmount()));
+                }
+                if (filter.sharedWalletId() != null) {
+                    predicates.add(cb.equal(root.get("sharedWallet").get("id"), filter.sharedWalletId()));
+                }
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
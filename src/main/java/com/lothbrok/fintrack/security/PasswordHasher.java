@@ -0,0 +1,165 @@
+package com.lothbrok.fintrack.security;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * BCrypt hashing and checking of passwords on the bounded {@link PasswordHashingExecutorConfig password hashing
+ * executor}, off the request threads. When the executor's queue is full a request fails at once with 429 rather
+ * than waiting. Callers get a future, which controllers can return as is so the request thread is released too.
+ * <p>
+ * Unless {@code fintrack.passwords.cost} fixes it, the cost is calibrated at startup: a few hashes at a low cost
+ * are timed, and the highest cost whose extrapolated time (each step doubles it) stays within
+ * {@code target-hash-time} is used for new hashes. A password that checks out against a hash of another cost comes
+ * back with a hash at the current cost, for the caller to store in its place with {@code User#setPasswordHash},
+ * which leaves the user's tokens valid.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    static final String PREFIX = "fintrack.passwords.";
+    private static final int CALIBRATION_COST = 8;
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final ThreadPoolExecutor executor;
+    private final int cost;
+    private final Counter rejected;
+    private final Timer queueWait;
+    private final Timer hashTime;
+    private final Timer verifyTime;
+
+    public PasswordHasher(
+            @Qualifier(PasswordHashingExecutorConfig.PASSWORD_HASHING_EXECUTOR) ThreadPoolExecutor executor,
+            PasswordHashingProperties properties,
+            MeterRegistry registry) {
+        this.executor = executor;
+        this.cost = properties.cost() > 0 ? properties.cost() : calibrate(properties);
+        this.rejected = Counter.builder(PREFIX + "rejected")
+                .description("Password hashing requests turned away because the queue was full")
+                .register(registry);
+        this.queueWait = Timer.builder(PREFIX + "queue.wait")
+                .description("Time a password hashing request waited for a worker")
+                .register(registry);
+        this.hashTime = Timer.builder(PREFIX + "duration")
+                .description("Time to hash or check one password")
+                .tag("operation", "hash")
+                .register(registry);
+        this.verifyTime = Timer.builder(PREFIX + "duration")
+                .description("Time to hash or check one password")
+                .tag("operation", "verify")
+                .register(registry);
+        Gauge.builder(PREFIX + "cost", this, PasswordHasher::cost)
+                .description("BCrypt cost of new password hashes")
+                .register(registry);
+        Gauge.builder(PREFIX + "queue.size", executor, pool -> pool.getQueue().size())
+                .description("Password hashing requests waiting for a worker")
+                .register(registry);
+    }
+
+    /** Result of {@link #verify}: {@code upgradedHash} is set when the password matched a hash of another cost. */
+    public record Verification(boolean matches, String upgradedHash) {
+
+        public boolean needsUpgrade() {
+            return upgradedHash != null;
+        }
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(hashTime, () -> BCrypt.hashpw(rawPassword, BCrypt.gensalt(cost)));
+    }
+
+    public CompletableFuture<Verification> verify(String rawPassword, String storedHash) {
+        return submit(verifyTime, () -> {
+            if (storedHash == null || !BCrypt.checkpw(rawPassword, storedHash)) {
+                return new Verification(false, null);
+            }
+            return new Verification(true,
+                    costOf(storedHash) == cost ? null : BCrypt.hashpw(rawPassword, BCrypt.gensalt(cost)));
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Timer duration, Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                // Both timers are recorded before the future completes, so a caller that joins it sees them.
+                T value;
+                try {
+                    value = work.get();
+                } catch (RuntimeException e) {
+                    duration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    result.completeExceptionally(e);
+                    return;
+                }
+                duration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                result.complete(value);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many password checks in progress; retry shortly", e);
+        }
+        return result;
+    }
+
+    /** The cost a BCrypt hash was made with, from its {@code $2a$NN$} prefix; -1 if it is not one. */
+    static int costOf(String hash) {
+        if (hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = hash.charAt(4);
+        char ones = hash.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    private static int calibrate(PasswordHashingProperties properties) {
+        String salt = BCrypt.gensalt(CALIBRATION_COST);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        long target = properties.targetHashTime().toNanos();
+        int cost = properties.minCost();
+        while (cost < properties.maxCost() && estimate(fastest, cost + 1) <= target) {
+            cost++;
+        }
+        log.info("BCrypt cost {} (about {} ms per hash, target {} ms)", cost,
+                TimeUnit.NANOSECONDS.toMillis(estimate(fastest, cost)), properties.targetHashTime().toMillis());
+        return cost;
+    }
+
+    private static long estimate(long nanosAtCalibrationCost, int cost) {
+        int steps = cost - CALIBRATION_COST;
+        return steps >= 0 ? nanosAtCalibrationCost << steps : nanosAtCalibrationCost >> -steps;
+    }
+}
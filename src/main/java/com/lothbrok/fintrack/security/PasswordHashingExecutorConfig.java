@@ -0,0 +1,35 @@
+package com.lothbrok.fintrack.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PasswordHashingExecutorConfig {
+
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+
+    /**
+     * Fixed pool with a bounded queue, so a burst of logins waits here instead of taking every request thread's CPU.
+     */
+    @Bean(name = PASSWORD_HASHING_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(PasswordHashingProperties properties) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                properties.workerThreads(),
+                properties.workerThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,36 @@
+package com.lothbrok.fintrack.security;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param workerThreads  passwords hashed or checked at once; the rest of the CPU stays with request threads
+ * @param queueCapacity  hashing requests waiting for a worker beyond which new ones are turned away with 429
+ * @param targetHashTime how long one hash should take; the BCrypt cost is calibrated against it at startup
+ * @param minCost        lowest BCrypt cost calibration may pick, however slow the hardware
+ * @param maxCost        highest BCrypt cost calibration may pick
+ * @param cost           fixed BCrypt cost, skipping calibration; 0 to calibrate
+ */
+@ConfigurationProperties(prefix = "fintrack.passwords")
+public record PasswordHashingProperties(int workerThreads,
+        int queueCapacity,
+        Duration targetHashTime,
+        int minCost,
+        int maxCost,
+        int cost) {
+
+    public PasswordHashingProperties {
+        workerThreads = workerThreads > 0 ? workerThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        queueCapacity = queueCapacity > 0 ? queueCapacity : 64;
+        targetHashTime = targetHashTime == null ? Duration.ofMillis(250) : targetHashTime;
+        minCost = minCost > 0 ? minCost : 10;
+        maxCost = maxCost > 0 ? maxCost : 16;
+        if (minCost < 4 || maxCost > 31 || minCost > maxCost) {
+            throw new IllegalArgumentException("BCrypt costs must satisfy 4 <= min-cost <= max-cost <= 31");
+        }
+        if (cost != 0 && (cost < 4 || cost > 31)) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.lothbrok.fintrack.security;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.cache.InvalidationListener;
+import com.lothbrok.fintrack.entity.enums.UserRole;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link UserPrincipal}s by user id, read with one single-row query by primary key and kept in memory. A principal
+ * is dropped when its user row changes: commits on this instance {@link #evict} it through the change journal, and
+ * commits on other instances through the {@link com.lothbrok.fintrack.cache.InvalidationBus}. Flows that end a
+ * session without touching the row, such as logout, call {@link #evict} themselves. Entries older than
+ * {@code fintrack.principal.max-age} are re-read regardless.
+ * <p>
+ * Ids without a user are remembered too, for {@code fintrack.principal.missing-max-age} and in a map of their own,
+ * so requests with made-up user ids cost no query each and cannot crowd out real principals. Creating the user
+ * evicts the id like any other change of its row.
+ */
+@Component
+public class PrincipalCache implements InvalidationListener {
+
+    static final String PREFIX = "fintrack.principal.";
+    private static final String USER = "User";
+    private static final String LOAD_SQL =
+            "select email, role, two_factor_secret, credential_version from users where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxAgeNanos;
+    private final long missingMaxAgeNanos;
+    private final int maxEntries;
+    private final Map<UUID, Cached> principals = new ConcurrentHashMap<>();
+    /** When each id was found to have no user. */
+    private final Map<UUID, Long> missing = new ConcurrentHashMap<>();
+    /** Bumped on every eviction, so a load that raced with one is not kept. */
+    private final AtomicLong evictions = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public PrincipalCache(JdbcTemplate jdbcTemplate, PrincipalProperties properties, MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxAgeNanos = properties.maxAge().toNanos();
+        this.missingMaxAgeNanos = properties.missingMaxAge().toNanos();
+        this.maxEntries = properties.maxEntries();
+        this.hits = Counter.builder(PREFIX + "lookups")
+                .description("Principal lookups")
+                .tag("result", "hit")
+                .register(registry);
+        this.misses = Counter.builder(PREFIX + "lookups")
+                .description("Principal lookups")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    /** The user's principal, or empty when there is no such user. */
+    public Optional<UserPrincipal> resolve(UUID userId) {
+        long now = System.nanoTime();
+        Cached cached = principals.get(userId);
+        if (cached != null && now - cached.loadedAt() < maxAgeNanos) {
+            hits.increment();
+            return cached.principal();
+        }
+        Long missingSince = missing.get(userId);
+        if (missingSince != null && now - missingSince < missingMaxAgeNanos) {
+            hits.increment();
+            return Optional.empty();
+        }
+        misses.increment();
+        return load(userId, now);
+    }
+
+    /**
+     * As {@link #resolve(UUID)}, for a token issued at {@code credentialVersion}: empty when the user's credentials
+     * have changed since. A token newer than the cached principal means the cache missed a change, so the
+     * principal is re-read once before deciding.
+     */
+    public Optional<UserPrincipal> resolve(UUID userId, long credentialVersion) {
+        Optional<UserPrincipal> principal = resolve(userId);
+        if (principal.isPresent() && principal.get().credentialVersion() < credentialVersion) {
+            evict(userId);
+            principal = resolve(userId);
+        }
+        return principal.filter(resolved -> resolved.credentialVersion() == credentialVersion);
+    }
+
+    public void evict(UUID userId) {
+        evictions.incrementAndGet();
+        principals.remove(userId);
+        missing.remove(userId);
+    }
+
+    @Override
+    public void onInvalidations(List<Invalidation> invalidations) {
+        for (Invalidation invalidation : invalidations) {
+            if (USER.equals(invalidation.entityType())) {
+                evict(invalidation.userId());
+            }
+        }
+    }
+
+    private Optional<UserPrincipal> load(UUID userId, long now) {
+        long generation = evictions.get();
+        List<UserPrincipal> rows = jdbcTemplate.query(LOAD_SQL, (rs, row) -> new UserPrincipal(userId,
+                rs.getString(1), UserRole.valueOf(rs.getString(2)), rs.getString(3) != null, rs.getLong(4)), userId);
+        if (rows.isEmpty()) {
+            principals.remove(userId);
+            if (missing.size() >= maxEntries) {
+                missing.clear();
+            }
+            missing.put(userId, now);
+            if (evictions.get() != generation) {
+                missing.remove(userId);
+            }
+            return Optional.empty();
+        }
+        Optional<UserPrincipal> principal = Optional.of(rows.get(0));
+        missing.remove(userId);
+        if (principals.size() >= maxEntries) {
+            principals.clear();
+        }
+        principals.put(userId, new Cached(principal, now));
+        if (evictions.get() != generation) {
+            principals.remove(userId);
+        }
+        return principal;
+    }
+
+    private record Cached(Optional<UserPrincipal> principal, long loadedAt) {
+    }
+}
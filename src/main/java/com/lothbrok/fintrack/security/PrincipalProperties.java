@@ -0,0 +1,23 @@
+package com.lothbrok.fintrack.security;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param maxAge        how long a cached principal is trusted before it is re-read; bounds how long a change on
+ *                      another instance goes unnoticed if its invalidation is lost
+ * @param maxEntries    cached principals kept before the cache is dropped and refilled on demand; unknown ids are
+ *                      counted separately, so a flood of them cannot push out real users
+ * @param missingMaxAge how long an id without a user is remembered as unknown; a user created with that id is
+ *                      evicted through the change journal, so this only matters when that invalidation is lost
+ */
+@ConfigurationProperties(prefix = "fintrack.principal")
+public record PrincipalProperties(Duration maxAge, int maxEntries, Duration missingMaxAge) {
+
+    public PrincipalProperties {
+        maxAge = maxAge == null ? Duration.ofMinutes(5) : maxAge;
+        maxEntries = maxEntries > 0 ? maxEntries : 100_000;
+        missingMaxAge = missingMaxAge == null ? Duration.ofSeconds(30) : missingMaxAge;
+    }
+}
@@ -0,0 +1,176 @@
+package com.lothbrok.fintrack.security;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.entity.RefreshToken;
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link RefreshToken Refresh tokens}, stored hashed in {@code refresh_tokens} on the first shard. A token is used
+ * once: {@link #rotate} revokes it and issues its replacement. Presenting a token that was already rotated means
+ * it leaked, so all of the user's refresh tokens are revoked. Expired rows are deleted on
+ * {@code fintrack.tokens.clean-up-cron}.
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private static final String INSERT_SQL = "insert into refresh_tokens (id, user_id, token_hash, created_at, "
+            + "expires_at) values (?, ?, ?, ?, ?)";
+    private static final String FIND_SQL = "select id, user_id, expires_at, revoked_at, replaced_by "
+            + "from refresh_tokens where token_hash = ?";
+    private static final String CLAIM_SQL = "update refresh_tokens set revoked_at = ?, replaced_by = ? "
+            + "where id = ? and revoked_at is null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final TokenProperties properties;
+    private final Counter reused;
+
+    public RefreshTokenStore(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter,
+            TokenProperties properties,
+            MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.reused = Counter.builder(TokenRevocations.PREFIX + "refresh.reused")
+                .description("Rotated refresh tokens presented again, revoking all of the user's tokens")
+                .register(registry);
+    }
+
+    /** The user's new token and who it belongs to, after a {@link #rotate}. */
+    public record Rotation(UUID userId, UUID refreshToken) {
+    }
+
+    private record Stored(UUID id, UUID userId, Instant expiresAt, Instant revokedAt, UUID replacedBy) {
+    }
+
+    /** A new refresh token for {@code userId}; only its hash is kept. */
+    public UUID issue(UUID userId) {
+        UUID token = UUID.randomUUID();
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            insert(UUID.randomUUID(), userId, token, Instant.now());
+        }
+        return token;
+    }
+
+    /** Exchanges a refresh token for a new one. */
+    public Rotation rotate(UUID refreshToken) {
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            Instant now = Instant.now();
+            Stored stored = find(refreshToken);
+            if (stored == null || !stored.expiresAt().isAfter(now)) {
+                throw new IllegalArgumentException("Refresh token is not valid");
+            }
+            UUID token = UUID.randomUUID();
+            if (stored.revokedAt() == null && claim(stored, token, now)) {
+                return new Rotation(stored.userId(), token);
+            }
+            // Rotated already, earlier or by a racing request: the token was presented twice.
+            Stored latest = stored.revokedAt() == null ? find(refreshToken) : stored;
+            if (latest != null && latest.replacedBy() != null) {
+                reused.increment();
+                log.warn("Rotated refresh token presented again; revoking all refresh tokens of user {}",
+                        stored.userId());
+                revokeAll(stored.userId());
+            }
+            throw new IllegalArgumentException("Refresh token is not valid");
+        }
+    }
+
+    /** Revokes one token, as on logout; unknown and already revoked tokens are ignored. */
+    public void revoke(UUID refreshToken) {
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            jdbcTemplate.update("update refresh_tokens set revoked_at = ? where token_hash = ? and revoked_at is null",
+                    Timestamp.from(Instant.now()), hash(refreshToken));
+        }
+    }
+
+    /** Revokes every token the user holds, as after a password change; returns how many. */
+    public int revokeAll(UUID userId) {
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            return jdbcTemplate.update("update refresh_tokens set revoked_at = ? where user_id = ? "
+                    + "and revoked_at is null", Timestamp.from(Instant.now()), userId);
+        }
+    }
+
+    /** Deletes the user's tokens, for the account purge. */
+    public void forget(UUID userId) {
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            jdbcTemplate.update("delete from refresh_tokens where user_id = ?", userId);
+        }
+    }
+
+    @Scheduled(cron = "${fintrack.tokens.clean-up-cron:0 15 * * * *}")
+    public void deleteExpired() {
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            int deleted = jdbcTemplate.update("delete from refresh_tokens where expires_at < ?",
+                    Timestamp.from(Instant.now()));
+            log.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    /** Revokes {@code stored} in favour of {@code token}, unless it was revoked in the meantime. */
+    private boolean claim(Stored stored, UUID token, Instant now) {
+        UUID id = UUID.randomUUID();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(CLAIM_SQL, Timestamp.from(now), id, stored.id()) == 0) {
+                return false;
+            }
+            insert(id, stored.userId(), token, now);
+            return true;
+        }));
+    }
+
+    private void insert(UUID id, UUID userId, UUID token, Instant now) {
+        jdbcTemplate.update(INSERT_SQL, id, userId, hash(token), Timestamp.from(now),
+                Timestamp.from(now.plus(properties.refreshTokenTtl())));
+    }
+
+    private Stored find(UUID refreshToken) {
+        List<Stored> rows = jdbcTemplate.query(FIND_SQL, (rs, row) -> new Stored(rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class), rs.getTimestamp(3).toInstant(), instant(rs.getTimestamp(4)),
+                rs.getObject(5, UUID.class)), hash(refreshToken));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    static String hash(UUID token) {
+        ByteBuffer bytes = ByteBuffer.allocate(16)
+                .putLong(token.getMostSignificantBits())
+                .putLong(token.getLeastSignificantBits());
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes.array()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.lothbrok.fintrack.security;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Revoked token ids, held until the tokens expire. Ids are spread over a ring of time buckets by expiry, each
+ * covering {@code ttl / (buckets - 1)}, so every token that can still be alive falls in one of the ring's buckets
+ * and a bucket is dropped whole, Bloom filter and all, once the last of its tokens has expired. Memory is therefore
+ * bounded by the revocations of tokens still in flight.
+ * <p>
+ * Each bucket pairs a Bloom filter with the exact set of its ids. A check takes its probe positions from the id's
+ * own bits and tests every live bucket's filter; only a hit is confirmed against the set, which rules out false
+ * positives. A check is constant time, takes no locks and allocates nothing.
+ */
+final class RevokedTokenFilter {
+
+    private static final int PROBES = 4;
+    private static final int BITS_PER_ID = 10;
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int words;
+    private final int mask;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    RevokedTokenFilter(Duration ttl, int bucketCount, int expectedPerBucket) {
+        if (bucketCount < 2) {
+            throw new IllegalArgumentException("At least two buckets are needed");
+        }
+        this.bucketMillis = Math.max(1, (ttl.toMillis() + bucketCount - 2) / (bucketCount - 1));
+        this.bucketCount = bucketCount;
+        long wanted = Math.min(1L << 30, Math.max(64, (long) expectedPerBucket * BITS_PER_ID));
+        int bits = Integer.highestOneBit((int) wanted - 1) << 1;
+        this.words = bits >>> 6;
+        this.mask = bits - 1;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    /**
+     * Records a revocation. Returns false, keeping nothing, when the token has already expired or expires further
+     * out than the ring reaches.
+     */
+    boolean add(UUID tokenId, long expiresAtMillis, long nowMillis) {
+        long epoch = Math.floorDiv(expiresAtMillis, bucketMillis);
+        if (expiresAtMillis <= nowMillis || epoch - Math.floorDiv(nowMillis, bucketMillis) >= bucketCount) {
+            return false;
+        }
+        int slot = (int) Math.floorMod(epoch, (long) bucketCount);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.epoch == epoch) {
+                bucket.add(tokenId, first(tokenId), second(tokenId), mask);
+                return true;
+            }
+            if (bucket != null && bucket.epoch > epoch) {
+                return false;
+            }
+            buckets.compareAndSet(slot, bucket, new Bucket(epoch, words));
+        }
+    }
+
+    boolean contains(UUID tokenId, long nowMillis) {
+        long now = Math.floorDiv(nowMillis, bucketMillis);
+        long first = first(tokenId);
+        long second = second(tokenId);
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch >= now && bucket.mightContain(first, second, mask)
+                    && bucket.ids.contains(tokenId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Drops the buckets whose tokens have all expired. */
+    void prune(long nowMillis) {
+        long now = Math.floorDiv(nowMillis, bucketMillis);
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch < now) {
+                buckets.compareAndSet(i, bucket, null);
+            }
+        }
+    }
+
+    /** Revocations held, including those of tokens that expired since the last {@link #prune}. */
+    int size() {
+        int size = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null) {
+                size += bucket.ids.size();
+            }
+        }
+        return size;
+    }
+
+    private static long first(UUID tokenId) {
+        return mix(tokenId.getMostSignificantBits() ^ Long.rotateLeft(tokenId.getLeastSignificantBits(), 32));
+    }
+
+    private static long second(UUID tokenId) {
+        return mix(tokenId.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    /** The MurmurHash3 finalizer; token ids are not necessarily random (time-ordered UUIDs, for one). */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static final class Bucket {
+
+        final long epoch;
+        final AtomicLongArray bits;
+        final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        Bucket(long epoch, int words) {
+            this.epoch = epoch;
+            this.bits = new AtomicLongArray(words);
+        }
+
+        void add(UUID tokenId, long first, long second, int mask) {
+            ids.add(tokenId);
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (int) (first + i * second) & mask;
+                long word;
+                do {
+                    word = bits.get(bit >>> 6);
+                } while ((word & (1L << bit)) == 0 && !bits.compareAndSet(bit >>> 6, word, word | (1L << bit)));
+            }
+        }
+
+        boolean mightContain(long first, long second, int mask) {
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (int) (first + i * second) & mask;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.lothbrok.fintrack.security;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param accessTokenTtl      lifetime of access tokens; revocations are kept in memory for at most this long
+ * @param refreshTokenTtl     lifetime of refresh tokens, restarted on every rotation
+ * @param revocationBuckets   time buckets the in-memory revocations are spread over by token expiry; a bucket is
+ *                            dropped whole once its tokens have expired
+ * @param expectedRevocations revocations per bucket the Bloom filters are sized for; more still work, with more
+ *                            checks falling through to the exact set
+ * @param syncInterval        how often revocations made on other nodes are read from the database
+ * @param syncOverlap         how far back each read reaches past the previous one, covering revocations committed
+ *                            late and clock skew between nodes
+ */
+@ConfigurationProperties(prefix = "fintrack.tokens")
+public record TokenProperties(Duration accessTokenTtl,
+        Duration refreshTokenTtl,
+        int revocationBuckets,
+        int expectedRevocations,
+        Duration syncInterval,
+        Duration syncOverlap) {
+
+    public TokenProperties {
+        accessTokenTtl = accessTokenTtl == null ? Duration.ofMinutes(15) : accessTokenTtl;
+        refreshTokenTtl = refreshTokenTtl == null ? Duration.ofDays(30) : refreshTokenTtl;
+        revocationBuckets = revocationBuckets > 1 ? revocationBuckets : 8;
+        expectedRevocations = expectedRevocations > 0 ? expectedRevocations : 4096;
+        syncInterval = syncInterval == null ? Duration.ofSeconds(1) : syncInterval;
+        syncOverlap = syncOverlap == null ? Duration.ofSeconds(10) : syncOverlap;
+    }
+}
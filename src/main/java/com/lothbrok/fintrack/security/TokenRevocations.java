@@ -0,0 +1,172 @@
+package com.lothbrok.fintrack.security;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.lothbrok.fintrack.entity.RevokedAccessToken;
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Access tokens revoked before they expire, checked on every request by {@link #isRevoked} against an in-memory
+ * {@link RevokedTokenFilter}. A revocation is written to {@link RevokedAccessToken revoked_access_tokens} on the
+ * first shard and applied locally at once; every {@code sync-interval} each node reads the rows revoked since its
+ * previous read, reaching {@code sync-overlap} further back to catch rows committed late or stamped by a node whose
+ * clock runs behind. Rows are deleted once their token has expired.
+ */
+@Component
+public class TokenRevocations implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocations.class);
+
+    static final String PREFIX = "fintrack.tokens.";
+    private static final String INSERT_SQL = "insert into revoked_access_tokens (token_id, user_id, expires_at, "
+            + "revoked_at) values (?, ?, ?, ?)";
+    private static final String SINCE_SQL = "select token_id, expires_at from revoked_access_tokens "
+            + "where revoked_at >= ? and expires_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final RefreshTokenStore refreshTokens;
+    private final PrincipalCache principalCache;
+    private final TokenProperties properties;
+    private final RevokedTokenFilter filter;
+    private final Counter revoked;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private Instant lastSync;
+    private long nextCleanUp;
+
+    public TokenRevocations(JdbcTemplate jdbcTemplate,
+            ShardRouter shardRouter,
+            RefreshTokenStore refreshTokens,
+            PrincipalCache principalCache,
+            TokenProperties properties,
+            MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.refreshTokens = refreshTokens;
+        this.principalCache = principalCache;
+        this.properties = properties;
+        this.filter = new RevokedTokenFilter(properties.accessTokenTtl(), properties.revocationBuckets(),
+                properties.expectedRevocations());
+        this.nextCleanUp = System.nanoTime();
+        this.revoked = Counter.builder(PREFIX + "revoked")
+                .description("Access tokens revoked on this node")
+                .register(registry);
+        Gauge.builder(PREFIX + "revocations.live", filter, RevokedTokenFilter::size)
+                .description("Revoked access tokens held in memory")
+                .register(registry);
+    }
+
+    /** Whether the access token with this id was revoked. Cheap enough to call on every request. */
+    public boolean isRevoked(UUID tokenId) {
+        return filter.contains(tokenId, System.currentTimeMillis());
+    }
+
+    /** Revokes an access token on every node until it expires. */
+    public void revoke(UUID tokenId, UUID userId, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (!expiresAt.isAfter(now)) {
+            return;
+        }
+        if (Duration.between(now, expiresAt).compareTo(properties.accessTokenTtl()) > 0) {
+            throw new IllegalArgumentException("Access tokens live at most " + properties.accessTokenTtl());
+        }
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            jdbcTemplate.update(INSERT_SQL, tokenId, userId, Timestamp.from(expiresAt), Timestamp.from(now));
+        } catch (DuplicateKeyException e) {
+            // Revoked already.
+        }
+        filter.add(tokenId, expiresAt.toEpochMilli(), now.toEpochMilli());
+        revoked.increment();
+    }
+
+    /**
+     * Ends a session: revokes the access token it was made with and the refresh token of the
+     * {@link com.lothbrok.fintrack.dto.auth.LogoutRequest}, and drops the user's cached principal.
+     */
+    public void logout(UUID userId, UUID accessTokenId, Instant accessTokenExpiresAt, UUID refreshToken) {
+        revoke(accessTokenId, userId, accessTokenExpiresAt);
+        if (refreshToken != null) {
+            refreshTokens.revoke(refreshToken);
+        }
+        principalCache.evict(userId);
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        // Load what is already revoked before the first request is checked.
+        sync();
+        running = true;
+        Thread thread = new Thread(this::run, "token-revocations");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, properties.syncInterval().toNanos());
+            sync();
+        }
+    }
+
+    synchronized void sync() {
+        Instant now = Instant.now();
+        Instant since = lastSync == null ? Instant.EPOCH : lastSync.minus(properties.syncOverlap());
+        try (ShardRouter.Scope scope = shardRouter.forShard(0)) {
+            jdbcTemplate.query(SINCE_SQL, rs -> {
+                filter.add(rs.getObject(1, UUID.class), rs.getTimestamp(2).getTime(), now.toEpochMilli());
+            }, Timestamp.from(since), Timestamp.from(now));
+            lastSync = now;
+            if (System.nanoTime() - nextCleanUp >= 0) {
+                jdbcTemplate.update("delete from revoked_access_tokens where expires_at < ?", Timestamp.from(now));
+                nextCleanUp = System.nanoTime() + properties.accessTokenTtl().toNanos() / 2;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not read revoked access tokens", e);
+        }
+        filter.prune(now.toEpochMilli());
+    }
+}
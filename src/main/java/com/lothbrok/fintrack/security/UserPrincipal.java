@@ -0,0 +1,13 @@
+package com.lothbrok.fintrack.security;
+
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.enums.UserRole;
+
+/**
+ * What a request needs to know about its caller, without loading the {@link com.lothbrok.fintrack.entity.User}
+ * entity. {@code credentialVersion} changes whenever the password, role or two-factor secret does; a token records
+ * the version it was issued at, so tokens from before such a change stop resolving.
+ */
+public record UserPrincipal(UUID id, String email, UserRole role, boolean twoFactorEnabled, long credentialVersion) {
+}
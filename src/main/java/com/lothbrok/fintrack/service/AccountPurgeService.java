@@ -0,0 +1,18 @@
+package com.lothbrok.fintrack.service;
+
+import java.util.UUID;
+
+import com.lothbrok.fintrack.dto.user.AccountPurgeResponse;
+
+public interface AccountPurgeService {
+
+    /**
+     * Queues the deletion of the user's account and all of its data; it runs on the purge worker pool after the
+     * request commits. Returns the purge already under way if there is one. Throws {@link IllegalStateException}
+     * immediately when the queue is full.
+     */
+    AccountPurgeResponse requestPurge(UUID userId);
+
+    /** Progress of a purge; readable after the account itself is gone. */
+    AccountPurgeResponse getPurge(UUID userId, UUID purgeId);
+}
@@ -0,0 +1,16 @@
+package com.lothbrok.fintrack.service;
+
+import java.util.UUID;
+
+import com.lothbrok.fintrack.dto.analytics.TimeBucket;
+import com.lothbrok.fintrack.dto.analytics.TimeSeriesResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+
+public interface AnalyticsService {
+
+    /**
+     * Income/expense totals per category, bucketed by {@code bucket} over the filter's date range.
+     * Aggregation happens in the database; the result is packed into dense parallel arrays.
+     */
+    TimeSeriesResponse getTimeSeries(UUID userId, TransactionFilter filter, TimeBucket bucket);
+}
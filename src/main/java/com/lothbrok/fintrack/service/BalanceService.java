@@ -0,0 +1,23 @@
+package com.lothbrok.fintrack.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.dto.balance.BalanceResponse;
+import com.lothbrok.fintrack.dto.balance.MonthlyBalanceResponse;
+
+public interface BalanceService {
+
+    /**
+     * Net balance (income minus expenses) of the user, or of the shared wallet when {@code walletId} is given, at the
+     * end of {@code date}. Reads one checkpoint and at most one month of transactions.
+     */
+    BalanceResponse getBalance(UUID userId, LocalDate date, UUID walletId);
+
+    /**
+     * Opening, net and closing balance for every month from {@code from} to {@code to}, read from checkpoints only.
+     */
+    List<MonthlyBalanceResponse> getMonthlyBalances(UUID userId, YearMonth from, YearMonth to, UUID walletId);
+}
@@ -0,0 +1,23 @@
+package com.lothbrok.fintrack.service;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.lothbrok.fintrack.dto.journal.ChangeEntryResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+
+public interface ChangeJournalService {
+
+    /**
+     * Hands every journal entry of the user with a sequence number above {@code afterSeq} to {@code sink}, in
+     * sequence order, while reading them from a database cursor.
+     */
+    void streamChanges(UUID userId, long afterSeq, Consumer<ChangeEntryResponse> sink);
+
+    /**
+     * The transaction as it stood at {@code asOf}, replayed from its journal entries. Transactions created before
+     * the journal existed, or deleted at that time, are reported as not found.
+     */
+    TransactionResponse getTransactionAsOf(UUID userId, UUID transactionId, Instant asOf);
+}
@@ -0,0 +1,15 @@
+package com.lothbrok.fintrack.service;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.dto.insight.BudgetSuggestionResponse;
+
+public interface InsightService {
+
+    /**
+     * Per-category budget suggestions for {@code month}, derived from the incrementally maintained spending models.
+     */
+    List<BudgetSuggestionResponse> getBudgetSuggestions(UUID userId, YearMonth month);
+}
@@ -0,0 +1,27 @@
+package com.lothbrok.fintrack.service;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.dto.report.CreateReportRequest;
+import com.lothbrok.fintrack.dto.report.ReportJobResponse;
+
+public interface ReportService {
+
+    /**
+     * Queues a report job; generation happens on the report worker pool once the job is committed.
+     * Answers 429 when the pool's queue is full.
+     */
+    ReportJobResponse requestReport(UUID userId, CreateReportRequest request);
+
+    ReportJobResponse getReport(UUID userId, UUID reportId);
+
+    List<ReportJobResponse> getRecentReports(UUID userId);
+
+    /**
+     * Location of a completed report file owned by {@code userId}; 409 while the report is not ready, 410 once its
+     * file is gone.
+     */
+    Path resolveReportFile(UUID userId, UUID reportId);
+}
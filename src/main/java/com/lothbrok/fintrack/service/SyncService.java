@@ -0,0 +1,18 @@
+package com.lothbrok.fintrack.service;
+
+import java.util.UUID;
+
+import com.lothbrok.fintrack.dto.sync.SyncResponse;
+
+public interface SyncService {
+
+    /**
+     * Transactions, budgets, notifications and recurring jobs of the user changed since {@code token}, read from
+     * the change journal. A page covers at most {@code limit} journal entries; several changes to one record
+     * collapse into its current state. Without a token the response only carries the current position.
+     * <p>
+     * A malformed token or limit is a 400; a token whose journal entry is gone, so that changes since may be missing,
+     * is a 410 and the client has to start over without one.
+     */
+    SyncResponse sync(UUID userId, String token, Integer limit);
+}
@@ -0,0 +1,34 @@
+package com.lothbrok.fintrack.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.IngestTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionOperation;
+import com.lothbrok.fintrack.dto.transaction.TransactionOperationResult;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.dto.transaction.UpdateTransactionRequest;
+
+public interface TransactionService {
+
+    TransactionResponse createTransaction(UUID userId, CreateTransactionRequest request);
+
+    TransactionResponse updateTransaction(UUID userId, UUID transactionId, UpdateTransactionRequest request);
+
+    void deleteTransaction(UUID userId, UUID transactionId);
+
+    /**
+     * Applies the operations in order as one unit of work: either all of them are stored or, when one is invalid,
+     * none. Rows are written in JDBC batches, and balance checkpoints, budgets and notifications are brought up to
+     * date once for the whole batch. Results are returned in operation order.
+     */
+    List<TransactionOperationResult> applyBatch(UUID userId, List<TransactionOperation> operations);
+
+    /**
+     * Creates transactions for any number of users in one database transaction, with the same single pass over
+     * checkpoints, budgets and notifications as {@link #applyBatch}. Fails as a whole if any create is invalid.
+     * Responses are returned in request order.
+     */
+    List<TransactionResponse> createTransactions(List<IngestTransactionRequest> requests);
+}
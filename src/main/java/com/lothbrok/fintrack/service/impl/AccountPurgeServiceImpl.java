@@ -0,0 +1,118 @@
+package com.lothbrok.fintrack.service.impl;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.lothbrok.fintrack.dto.mapper.AccountPurgeMapper;
+import com.lothbrok.fintrack.dto.user.AccountPurgeResponse;
+import com.lothbrok.fintrack.entity.AccountPurgeJob;
+import com.lothbrok.fintrack.entity.enums.AccountPurgeStatus;
+import com.lothbrok.fintrack.purge.AccountPurgeExecutorConfig;
+import com.lothbrok.fintrack.purge.AccountPurger;
+import com.lothbrok.fintrack.repository.AccountPurgeJobRepository;
+import com.lothbrok.fintrack.repository.UserRepository;
+import com.lothbrok.fintrack.service.AccountPurgeService;
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+@Service
+@Transactional
+public class AccountPurgeServiceImpl implements AccountPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountPurgeServiceImpl.class);
+
+    private static final List<AccountPurgeStatus> ACTIVE = List.of(AccountPurgeStatus.QUEUED,
+            AccountPurgeStatus.RUNNING);
+
+    private final AccountPurgeJobRepository purgeJobRepository;
+    private final UserRepository userRepository;
+    private final AccountPurger accountPurger;
+    private final ThreadPoolExecutor purgeExecutor;
+    private final ShardRouter shardRouter;
+
+    public AccountPurgeServiceImpl(AccountPurgeJobRepository purgeJobRepository,
+            UserRepository userRepository,
+            AccountPurger accountPurger,
+            @Qualifier(AccountPurgeExecutorConfig.PURGE_EXECUTOR) ThreadPoolExecutor purgeExecutor,
+            ShardRouter shardRouter) {
+        this.purgeJobRepository = purgeJobRepository;
+        this.userRepository = userRepository;
+        this.accountPurger = accountPurger;
+        this.purgeExecutor = purgeExecutor;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public AccountPurgeResponse requestPurge(UUID userId) {
+        AccountPurgeJob active = purgeJobRepository.findFirstByUserIdAndStatusIn(userId, ACTIVE).orElse(null);
+        if (active != null) {
+            return AccountPurgeMapper.toResponse(active);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        if (purgeExecutor.getQueue().remainingCapacity() == 0) {
+            throw new IllegalStateException("Account deletion queue is full, try again later");
+        }
+        AccountPurgeJob job = new AccountPurgeJob();
+        job.setUserId(userId);
+        job = purgeJobRepository.save(job);
+        submitAfterCommit(job.getId(), userId);
+        return AccountPurgeMapper.toResponse(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AccountPurgeResponse getPurge(UUID userId, UUID purgeId) {
+        return AccountPurgeMapper.toResponse(purgeJobRepository.findByIdAndUserId(purgeId, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Account deletion not found")));
+    }
+
+    /** Purges are idempotent, so ones cut short by a restart are run again from the start. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void resumePendingPurges() {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                for (AccountPurgeJob job : purgeJobRepository.findByStatusIn(ACTIVE)) {
+                    submit(job.getId(), job.getUserId());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not resume pending account deletions on shard {}", shard, e);
+            }
+        }
+    }
+
+    private void submitAfterCommit(UUID jobId, UUID userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(jobId, userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(jobId, userId);
+            }
+        });
+    }
+
+    private void submit(UUID jobId, UUID userId) {
+        try {
+            purgeExecutor.execute(shardRouter.propagate(() -> accountPurger.run(jobId, userId)));
+        } catch (RejectedExecutionException ex) {
+            accountPurger.fail(jobId, "Account deletion queue is full");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.lothbrok.fintrack.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.analytics.MinorUnits;
+import com.lothbrok.fintrack.analytics.columnar.ColumnarSnapshot;
+import com.lothbrok.fintrack.analytics.columnar.ColumnarSnapshotCache;
+import com.lothbrok.fintrack.dto.analytics.CategorySeries;
+import com.lothbrok.fintrack.dto.analytics.TimeBucket;
+import com.lothbrok.fintrack.dto.analytics.TimeSeriesResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.repository.projection.TimeSeriesRow;
+import com.lothbrok.fintrack.service.AnalyticsService;
+
+@Service
+@Transactional(readOnly = true)
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    static final int MAX_BUCKETS = 3660;
+
+    private final TransactionRepository transactionRepository;
+    private final ColumnarSnapshotCache columnarCache;
+
+    public AnalyticsServiceImpl(TransactionRepository transactionRepository, ColumnarSnapshotCache columnarCache) {
+        this.transactionRepository = transactionRepository;
+        this.columnarCache = columnarCache;
+    }
+
+    @Override
+    public TimeSeriesResponse getTimeSeries(UUID userId, TransactionFilter filter, TimeBucket bucket) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId must not be null");
+        }
+        if (filter == null || filter.from() == null || filter.to() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "from and to are required for time-series queries");
+        }
+        if (filter.from().isAfter(filter.to())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        TimeBucket resolved = bucket != null ? bucket : TimeBucket.DAY;
+        int bucketCount = resolved.count(filter.from(), filter.to());
+        if (bucketCount > MAX_BUCKETS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range spans " + bucketCount + " buckets, max is " + MAX_BUCKETS);
+        }
+
+        LocalDate firstBucket = resolved.truncate(filter.from());
+        LocalDate[] bucketStarts = new LocalDate[bucketCount];
+        LocalDate cursor = firstBucket;
+        for (int i = 0; i < bucketCount; i++) {
+            bucketStarts[i] = cursor;
+            cursor = resolved.next(cursor);
+        }
+
+        Map<String, long[][]> byCategory = columnarCache.isEnabled()
+                ? aggregateFromSnapshot(userId, filter, bucketStarts)
+                : aggregateInDatabase(userId, filter, resolved, firstBucket, bucketCount);
+
+        List<CategorySeries> series = new ArrayList<>(byCategory.size());
+        byCategory.forEach((category, columns) -> series.add(new CategorySeries(category, columns[0], columns[1])));
+        return new TimeSeriesResponse(resolved, filter.from(), filter.to(), MinorUnits.SCALE, bucketStarts, series);
+    }
+
+    private Map<String, long[][]> aggregateInDatabase(UUID userId, TransactionFilter filter, TimeBucket resolved,
+            LocalDate firstBucket, int bucketCount) {
+        Set<String> categories = filter.categories();
+        boolean allCategories = categories == null || categories.isEmpty();
+        Map<String, long[][]> byCategory = new LinkedHashMap<>();
+        try (Stream<TimeSeriesRow> rows = transactionRepository.streamTimeSeries(
+                userId,
+                resolved.sqlUnit(),
+                filter.from(),
+                filter.to(),
+                filter.sharedWalletId(),
+                filter.type() != null ? filter.type().name() : null,
+                filter.minAmount(),
+                filter.maxAmount(),
+                allCategories,
+                allCategories ? Set.of("") : categories)) {
+            rows.forEach(row -> {
+                long[][] series = byCategory.computeIfAbsent(row.getCategory(),
+                        key -> new long[][] { new long[bucketCount], new long[bucketCount] });
+                int index = resolved.indexOf(firstBucket, LocalDate.ofEpochDay(row.getBucketEpochDay()));
+                int column = TransactionType.INCOME.name().equals(row.getType()) ? 0 : 1;
+                series[column][index] += MinorUnits.toMinor(row.getTotal());
+            });
+        }
+        return byCategory;
+    }
+
+    private Map<String, long[][]> aggregateFromSnapshot(UUID userId, TransactionFilter filter, LocalDate[] bucketStarts) {
+        int[] bounds = new int[bucketStarts.length + 1];
+        bounds[0] = (int) filter.from().toEpochDay();
+        for (int i = 1; i < bucketStarts.length; i++) {
+            bounds[i] = (int) bucketStarts[i].toEpochDay();
+        }
+        bounds[bucketStarts.length] = (int) filter.to().toEpochDay() + 1;
+        byte type = filter.type() == null ? ColumnarSnapshot.TYPE_DELETED
+                : filter.type() == TransactionType.INCOME ? ColumnarSnapshot.TYPE_INCOME : ColumnarSnapshot.TYPE_EXPENSE;
+        Set<String> categories = filter.categories();
+        ColumnarSnapshot snapshot = columnarCache.getOrLoad(userId);
+        return new TreeMap<>(snapshot.groupByCategoryAndBucket(bounds,
+                type,
+                filter.sharedWalletId(),
+                categories == null || categories.isEmpty() ? null : List.copyOf(categories),
+                filter.minAmount() != null ? MinorUnits.toMinor(filter.minAmount()) : Long.MIN_VALUE,
+                filter.maxAmount() != null ? MinorUnits.toMinor(filter.maxAmount()) : Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,126 @@
+package com.lothbrok.fintrack.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.dto.balance.BalanceResponse;
+import com.lothbrok.fintrack.dto.balance.MonthlyBalanceResponse;
+import com.lothbrok.fintrack.entity.BalanceCheckpoint;
+import com.lothbrok.fintrack.entity.SharedWallet;
+import com.lothbrok.fintrack.repository.BalanceCheckpointRepository;
+import com.lothbrok.fintrack.repository.SharedWalletMemberRepository;
+import com.lothbrok.fintrack.repository.SharedWalletRepository;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.service.BalanceService;
+
+@Service
+@Transactional(readOnly = true)
+public class BalanceServiceImpl implements BalanceService {
+
+    static final int MAX_MONTHS = 1200;
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final TransactionRepository transactionRepository;
+    private final SharedWalletRepository sharedWalletRepository;
+    private final SharedWalletMemberRepository sharedWalletMemberRepository;
+
+    public BalanceServiceImpl(BalanceCheckpointRepository checkpointRepository,
+            TransactionRepository transactionRepository,
+            SharedWalletRepository sharedWalletRepository,
+            SharedWalletMemberRepository sharedWalletMemberRepository) {
+        this.checkpointRepository = checkpointRepository;
+        this.transactionRepository = transactionRepository;
+        this.sharedWalletRepository = sharedWalletRepository;
+        this.sharedWalletMemberRepository = sharedWalletMemberRepository;
+    }
+
+    @Override
+    public BalanceResponse getBalance(UUID userId, LocalDate date, UUID walletId) {
+        if (userId == null || date == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId and date are required");
+        }
+        if (walletId != null) {
+            requireWalletAccess(userId, walletId);
+        }
+        LocalDate monthStart = date.withDayOfMonth(1);
+        Optional<BalanceCheckpoint> latest = walletId != null
+                ? checkpointRepository.findLatestBySharedWalletId(walletId, monthStart)
+                : checkpointRepository.findLatestByUserId(userId, monthStart);
+        BigDecimal balance;
+        if (latest.isEmpty()) {
+            balance = BigDecimal.ZERO;
+        } else if (latest.get().getMonthStart().isBefore(monthStart)) {
+            // No checkpoint for this month means no transactions in it yet.
+            balance = latest.get().getClosingBalance();
+        } else {
+            BigDecimal monthToDate = walletId != null
+                    ? transactionRepository.sumNetBySharedWalletIdAndEventDateBetween(walletId, monthStart, date)
+                    : transactionRepository.sumNetByUserIdAndEventDateBetween(userId, monthStart, date);
+            balance = latest.get().getOpeningBalance().add(monthToDate);
+        }
+        return new BalanceResponse(date, walletId, balance);
+    }
+
+    @Override
+    public List<MonthlyBalanceResponse> getMonthlyBalances(UUID userId, YearMonth from, YearMonth to, UUID walletId) {
+        if (userId == null || from == null || to == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId, from and to are required");
+        }
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        long months = ChronoUnit.MONTHS.between(from, to) + 1;
+        if (months > MAX_MONTHS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range spans " + months + " months, max is " + MAX_MONTHS);
+        }
+        if (walletId != null) {
+            requireWalletAccess(userId, walletId);
+        }
+        LocalDate first = from.atDay(1);
+        LocalDate last = to.atDay(1);
+        Optional<BalanceCheckpoint> carried = walletId != null
+                ? checkpointRepository.findLatestBySharedWalletId(walletId, first.minusMonths(1))
+                : checkpointRepository.findLatestByUserId(userId, first.minusMonths(1));
+        List<BalanceCheckpoint> checkpoints = walletId != null
+                ? checkpointRepository.findBySharedWalletIdAndMonthStartBetween(walletId, first, last)
+                : checkpointRepository.findByUserIdAndMonthStartBetween(userId, first, last);
+
+        BigDecimal closing = carried.map(BalanceCheckpoint::getClosingBalance).orElse(BigDecimal.ZERO);
+        Iterator<BalanceCheckpoint> iterator = checkpoints.iterator();
+        BalanceCheckpoint next = iterator.hasNext() ? iterator.next() : null;
+        List<MonthlyBalanceResponse> result = new ArrayList<>((int) months);
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (next != null && YearMonth.from(next.getMonthStart()).equals(month)) {
+                closing = next.getClosingBalance();
+                result.add(new MonthlyBalanceResponse(month.toString(), next.getOpeningBalance(), next.getNetChange(),
+                        closing));
+                next = iterator.hasNext() ? iterator.next() : null;
+            } else {
+                result.add(new MonthlyBalanceResponse(month.toString(), closing, BigDecimal.ZERO, closing));
+            }
+        }
+        return result;
+    }
+
+    private void requireWalletAccess(UUID userId, UUID walletId) {
+        SharedWallet wallet = sharedWalletRepository.findById(walletId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shared wallet not found"));
+        if (!wallet.getOwner().getId().equals(userId)
+                && sharedWalletMemberRepository.findByWalletIdAndMemberId(walletId, userId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a member of this shared wallet");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.lothbrok.fintrack.service.impl;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.lothbrok.fintrack.dto.journal.ChangeEntryResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.journal.JournalCodec;
+import com.lothbrok.fintrack.repository.ChangeJournalRepository;
+import com.lothbrok.fintrack.repository.projection.ChangeJournalRow;
+import com.lothbrok.fintrack.service.ChangeJournalService;
+
+@Service
+@Transactional(readOnly = true)
+public class ChangeJournalServiceImpl implements ChangeJournalService {
+
+    private final ChangeJournalRepository changeJournalRepository;
+
+    public ChangeJournalServiceImpl(ChangeJournalRepository changeJournalRepository) {
+        this.changeJournalRepository = changeJournalRepository;
+    }
+
+    @Override
+    public void streamChanges(UUID userId, long afterSeq, Consumer<ChangeEntryResponse> sink) {
+        if (userId == null || sink == null) {
+            throw new IllegalArgumentException("userId and sink are required");
+        }
+        if (afterSeq < 0) {
+            throw new IllegalArgumentException("afterSeq must not be negative");
+        }
+        try (Stream<ChangeJournalRow> rows = changeJournalRepository.streamByUserIdAfter(userId, afterSeq)) {
+            rows.forEach(row -> sink.accept(new ChangeEntryResponse(row.getSeq(), row.getEntityType(),
+                    row.getEntityId(), row.getOperation(), row.getChangedAt(), JournalCodec.decode(row.getPayload()))));
+        }
+    }
+
+    @Override
+    public TransactionResponse getTransactionAsOf(UUID userId, UUID transactionId, Instant asOf) {
+        if (userId == null || transactionId == null || asOf == null) {
+            throw new IllegalArgumentException("userId, transactionId and asOf are required");
+        }
+        List<ChangeJournalRow> history = changeJournalRepository.findEntityHistory(userId,
+                Transaction.class.getSimpleName(), transactionId, asOf);
+        Map<String, Object> state = null;
+        for (ChangeJournalRow row : history) {
+            switch (row.getOperation()) {
+                case INSERT -> state = new HashMap<>(JournalCodec.decode(row.getPayload()));
+                case UPDATE -> {
+                    // Without the insert there is no baseline to apply the change to.
+                    if (state != null) {
+                        state.putAll(JournalCodec.decode(row.getPayload()));
+                    }
+                }
+                case DELETE -> state = null;
+            }
+        }
+        if (state == null) {
+            throw new IllegalArgumentException("Transaction not found as of " + asOf);
+        }
+        Object type = state.get("type");
+        return new TransactionResponse(transactionId,
+                (UUID) state.get("user"),
+                (UUID) state.get("sharedWallet"),
+                (String) state.get("title"),
+                (BigDecimal) state.get("amount"),
+                (String) state.get("currency"),
+                (String) state.get("category"),
+                type != null ? TransactionType.valueOf((String) type) : null,
+                (LocalDate) state.get("eventDate"),
+                (String) state.get("note"),
+                (String) state.get("attachmentUrl"),
+                (Instant) state.get("createdAt"),
+                (Instant) state.get("updatedAt"));
+    }
+}
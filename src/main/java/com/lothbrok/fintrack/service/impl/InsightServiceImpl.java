@@ -0,0 +1,67 @@
+package com.lothbrok.fintrack.service.impl;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.lothbrok.fintrack.analytics.MinorUnits;
+import com.lothbrok.fintrack.dto.insight.BudgetSuggestionResponse;
+import com.lothbrok.fintrack.entity.SpendingInsightState;
+import com.lothbrok.fintrack.insights.SpendingInsightEngine;
+import com.lothbrok.fintrack.insights.SpendingModel;
+import com.lothbrok.fintrack.repository.SpendingInsightStateRepository;
+import com.lothbrok.fintrack.service.InsightService;
+
+@Service
+@Transactional(readOnly = true)
+public class InsightServiceImpl implements InsightService {
+
+    private final SpendingInsightStateRepository stateRepository;
+
+    public InsightServiceImpl(SpendingInsightStateRepository stateRepository) {
+        this.stateRepository = stateRepository;
+    }
+
+    @Override
+    public List<BudgetSuggestionResponse> getBudgetSuggestions(UUID userId, YearMonth month) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId must not be null");
+        }
+        YearMonth target = month != null ? month : YearMonth.now().plusMonths(1);
+        int epochMonth = SpendingInsightEngine.epochMonth(target.atDay(1));
+        SpendingModel model = new SpendingModel();
+        List<BudgetSuggestionResponse> suggestions = new ArrayList<>();
+        for (SpendingInsightState state : stateRepository.findByUserId(userId)) {
+            model.decode(state.getState());
+            if (model.months() == 0) {
+                continue;
+            }
+            double forecast = model.forecast(epochMonth);
+            double spread = model.forecastStdDev(epochMonth);
+            suggestions.add(new BudgetSuggestionResponse(
+                    target.toString(),
+                    state.getCategory(),
+                    roundUp(forecast + spread),
+                    round(Math.max(0, forecast - spread)),
+                    round(forecast + 2 * spread),
+                    model.months()));
+        }
+        suggestions.sort(Comparator.comparing(BudgetSuggestionResponse::suggestedAmount).reversed());
+        return suggestions;
+    }
+
+    private static BigDecimal round(double minor) {
+        return MinorUnits.fromMinor(Math.round(minor));
+    }
+
+    private static BigDecimal roundUp(double minor) {
+        // Suggested budgets are rounded up to whole currency units.
+        return BigDecimal.valueOf((long) Math.ceil(minor / 100.0)).setScale(MinorUnits.SCALE);
+    }
+}
@@ -0,0 +1,178 @@
+package com.lothbrok.fintrack.service.impl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.dto.mapper.ReportJobMapper;
+import com.lothbrok.fintrack.dto.report.CreateReportRequest;
+import com.lothbrok.fintrack.dto.report.ReportJobResponse;
+import com.lothbrok.fintrack.entity.ReportJob;
+import com.lothbrok.fintrack.entity.enums.ReportStatus;
+import com.lothbrok.fintrack.report.ReportExecutorConfig;
+import com.lothbrok.fintrack.report.ReportGenerator;
+import com.lothbrok.fintrack.report.ReportProperties;
+import com.lothbrok.fintrack.repository.ReportJobRepository;
+import com.lothbrok.fintrack.repository.UserRepository;
+import com.lothbrok.fintrack.service.ReportService;
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+@Service
+@Transactional
+public class ReportServiceImpl implements ReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportServiceImpl.class);
+
+    static final long MAX_RANGE_DAYS = 3660;
+
+    private final ReportJobRepository reportJobRepository;
+    private final UserRepository userRepository;
+    private final ReportGenerator reportGenerator;
+    private final ThreadPoolExecutor reportExecutor;
+    private final ShardRouter shardRouter;
+    private final ReportProperties properties;
+
+    public ReportServiceImpl(ReportJobRepository reportJobRepository,
+            UserRepository userRepository,
+            ReportGenerator reportGenerator,
+            @Qualifier(ReportExecutorConfig.REPORT_EXECUTOR) ThreadPoolExecutor reportExecutor,
+            ShardRouter shardRouter,
+            ReportProperties properties) {
+        this.reportJobRepository = reportJobRepository;
+        this.userRepository = userRepository;
+        this.reportGenerator = reportGenerator;
+        this.reportExecutor = reportExecutor;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+    }
+
+    /**
+     * Commits the job before handing it to the pool, so the worker finds it; a job the full pool rejects is
+     * deleted again.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReportJobResponse requestReport(UUID userId, CreateReportRequest request) {
+        if (request == null || request.format() == null || request.from() == null || request.to() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format, from and to are required");
+        }
+        if (request.from().isAfter(request.to())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(request.from(), request.to()) > MAX_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Report range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+        ReportJob job = new ReportJob();
+        job.setUser(userRepository.getReferenceById(userId));
+        job.setFormat(request.format());
+        job.setFromDate(request.from());
+        job.setToDate(request.to());
+        job = reportJobRepository.save(job);
+        if (!submit(job.getId())) {
+            reportJobRepository.deleteById(job.getId());
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Report queue is full, try again later");
+        }
+        return ReportJobMapper.toResponse(job, ReportGenerator.downloadUrl(job.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReportJobResponse getReport(UUID userId, UUID reportId) {
+        return ReportJobMapper.toResponse(findOwned(userId, reportId), ReportGenerator.downloadUrl(reportId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReportJobResponse> getRecentReports(UUID userId) {
+        return reportJobRepository.findTop20ByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(job -> ReportJobMapper.toResponse(job, ReportGenerator.downloadUrl(job.getId())))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Path resolveReportFile(UUID userId, UUID reportId) {
+        ReportJob job = findOwned(userId, reportId);
+        if (job.getStatus() != ReportStatus.COMPLETED || job.getFilePath() == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report is not ready");
+        }
+        Path file = Path.of(job.getFilePath());
+        if (!Files.isReadable(file)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Report file is no longer available");
+        }
+        return file;
+    }
+
+    /**
+     * Re-submits jobs left queued by a previous shutdown, and running jobs whose worker stopped renewing its claim.
+     * A running job that is still claimed may be in progress on another instance and is left to it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void resumePendingReports() {
+        resume(Instant.now());
+    }
+
+    /**
+     * Picks up jobs abandoned since startup: running jobs whose claim lapsed, and jobs queued for longer than a
+     * lease on an instance that went away.
+     */
+    @Scheduled(fixedDelayString = "${fintrack.reports.lease:5m}", initialDelayString = "${fintrack.reports.lease:5m}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void resumeAbandonedReports() {
+        resume(Instant.now().minus(properties.lease()));
+    }
+
+    private void resume(Instant queuedBefore) {
+        Instant staleBefore = Instant.now().minus(properties.lease());
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardRouter.Scope scope = shardRouter.forShard(shard)) {
+                for (ReportJob job : reportJobRepository.findByStatusIn(
+                        List.of(ReportStatus.QUEUED, ReportStatus.RUNNING))) {
+                    Instant before = job.getStatus() == ReportStatus.QUEUED ? queuedBefore : staleBefore;
+                    // Workers claim jobs conditionally, so a job submitted here and elsewhere still runs once.
+                    if (job.getUpdatedAt().isBefore(before) && !submit(job.getId())) {
+                        log.debug("Report queue is full; report {} is left for the next pass", job.getId());
+                    }
+                }
+            } catch (RuntimeException e) {
+                // One unreachable shard should not keep the others' reports from resuming.
+                log.warn("Could not resume pending reports on shard {}", shard, e);
+            }
+        }
+    }
+
+    private ReportJob findOwned(UUID userId, UUID reportId) {
+        return reportJobRepository.findByIdAndUserId(reportId, userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report not found"));
+    }
+
+    /** False when the pool and its queue are full. */
+    private boolean submit(UUID jobId) {
+        try {
+            // The job runs on the requesting user's shard.
+            reportExecutor.execute(shardRouter.propagate(() -> reportGenerator.run(jobId)));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+}
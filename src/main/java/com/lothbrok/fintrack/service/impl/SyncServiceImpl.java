@@ -0,0 +1,171 @@
+package com.lothbrok.fintrack.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.dto.budget.BudgetResponse;
+import com.lothbrok.fintrack.dto.mapper.BudgetMapper;
+import com.lothbrok.fintrack.dto.mapper.NotificationMapper;
+import com.lothbrok.fintrack.dto.mapper.RecurringJobMapper;
+import com.lothbrok.fintrack.dto.mapper.TransactionMapper;
+import com.lothbrok.fintrack.dto.notification.NotificationResponse;
+import com.lothbrok.fintrack.dto.recurring.RecurringJobResponse;
+import com.lothbrok.fintrack.dto.sync.SyncResponse;
+import com.lothbrok.fintrack.dto.sync.SyncTombstone;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.entity.Budget;
+import com.lothbrok.fintrack.entity.Notification;
+import com.lothbrok.fintrack.entity.RecurringJob;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+import com.lothbrok.fintrack.repository.BudgetRepository;
+import com.lothbrok.fintrack.repository.ChangeJournalRepository;
+import com.lothbrok.fintrack.repository.NotificationRepository;
+import com.lothbrok.fintrack.repository.RecurringJobRepository;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.repository.projection.ChangeJournalRef;
+import com.lothbrok.fintrack.service.SyncService;
+
+@Service
+@Transactional(readOnly = true)
+public class SyncServiceImpl implements SyncService {
+
+    static final int DEFAULT_LIMIT = 500;
+    static final int MAX_LIMIT = 1000;
+
+    private static final String TOKEN_PREFIX = "j1:";
+    private static final String TRANSACTION = Transaction.class.getSimpleName();
+    private static final String BUDGET = Budget.class.getSimpleName();
+    private static final String NOTIFICATION = Notification.class.getSimpleName();
+    private static final String RECURRING_JOB = RecurringJob.class.getSimpleName();
+    private static final List<String> SYNCED_TYPES = List.of(TRANSACTION, BUDGET, NOTIFICATION, RECURRING_JOB);
+
+    private final ChangeJournalRepository changeJournalRepository;
+    private final TransactionRepository transactionRepository;
+    private final BudgetRepository budgetRepository;
+    private final NotificationRepository notificationRepository;
+    private final RecurringJobRepository recurringJobRepository;
+
+    public SyncServiceImpl(ChangeJournalRepository changeJournalRepository,
+            TransactionRepository transactionRepository,
+            BudgetRepository budgetRepository,
+            NotificationRepository notificationRepository,
+            RecurringJobRepository recurringJobRepository) {
+        this.changeJournalRepository = changeJournalRepository;
+        this.transactionRepository = transactionRepository;
+        this.budgetRepository = budgetRepository;
+        this.notificationRepository = notificationRepository;
+        this.recurringJobRepository = recurringJobRepository;
+    }
+
+    @Override
+    public SyncResponse sync(UUID userId, String token, Integer limit) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        int pageSize = limit != null ? limit : DEFAULT_LIMIT;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (token == null || token.isBlank()) {
+            return new SyncResponse(encodeToken(changeJournalRepository.findLastSeq(userId)), false, true,
+                    List.of(), List.of(), List.of(), List.of(), List.of());
+        }
+        long afterSeq = decodeToken(token);
+        // A token past the first entry also reads the entry it stopped at, which has to still be there: once it is
+        // gone, so may be the changes after it.
+        int stoppedAt = afterSeq > 0 ? 1 : 0;
+        List<ChangeJournalRef> refs = changeJournalRepository.findRefsFrom(userId, afterSeq, SYNCED_TYPES,
+                PageRequest.of(0, pageSize + 1 + stoppedAt));
+        if (stoppedAt > 0) {
+            if (refs.isEmpty() || refs.get(0).getSeq() != afterSeq) {
+                throw new ResponseStatusException(HttpStatus.GONE, "Sync token has expired; sync again without one");
+            }
+            refs = refs.subList(1, refs.size());
+        }
+        boolean hasMore = refs.size() > pageSize;
+        if (hasMore) {
+            refs = refs.subList(0, pageSize);
+        }
+
+        // Only the last change to each record matters: it is either still there or gone.
+        Map<String, Set<UUID>> live = new LinkedHashMap<>();
+        Map<String, Set<UUID>> deleted = new LinkedHashMap<>();
+        for (ChangeJournalRef ref : refs) {
+            boolean gone = ref.getOperation() == ChangeOperation.DELETE;
+            Set<UUID> previous = (gone ? live : deleted).get(ref.getEntityType());
+            if (previous != null) {
+                previous.remove(ref.getEntityId());
+            }
+            (gone ? deleted : live).computeIfAbsent(ref.getEntityType(), key -> new HashSet<>())
+                    .add(ref.getEntityId());
+        }
+
+        List<SyncTombstone> tombstones = new ArrayList<>();
+        deleted.forEach((type, ids) -> ids.forEach(id -> tombstones.add(new SyncTombstone(type, id))));
+        List<TransactionResponse> transactions = load(TRANSACTION, live, transactionRepository, Transaction::getId,
+                TransactionMapper::toResponse, tombstones);
+        List<BudgetResponse> budgets = load(BUDGET, live, budgetRepository, Budget::getId,
+                BudgetMapper::toResponse, tombstones);
+        List<NotificationResponse> notifications = load(NOTIFICATION, live, notificationRepository,
+                Notification::getId, NotificationMapper::toResponse, tombstones);
+        List<RecurringJobResponse> recurringJobs = load(RECURRING_JOB, live, recurringJobRepository,
+                RecurringJob::getId, RecurringJobMapper::toResponse, tombstones);
+
+        long nextSeq = refs.isEmpty() ? afterSeq : refs.get(refs.size() - 1).getSeq();
+        return new SyncResponse(encodeToken(nextSeq), hasMore, false, transactions, budgets, notifications,
+                recurringJobs, tombstones);
+    }
+
+    /** Current state of the changed records, one query per type; records already gone become tombstones. */
+    private static <E, R> List<R> load(String type, Map<String, Set<UUID>> live, JpaRepository<E, UUID> repository,
+            Function<E, UUID> id, Function<E, R> mapper, List<SyncTombstone> tombstones) {
+        Set<UUID> ids = live.get(type);
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<R> responses = new ArrayList<>(ids.size());
+        Set<UUID> missing = new HashSet<>(ids);
+        for (E entity : repository.findAllById(ids)) {
+            missing.remove(id.apply(entity));
+            responses.add(mapper.apply(entity));
+        }
+        missing.forEach(gone -> tombstones.add(new SyncTombstone(type, gone)));
+        return responses;
+    }
+
+    static String encodeToken(long seq) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TOKEN_PREFIX + seq).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decodeToken(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (decoded.startsWith(TOKEN_PREFIX)) {
+                long seq = Long.parseLong(decoded.substring(TOKEN_PREFIX.length()));
+                if (seq >= 0) {
+                    return seq;
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // Not base64 or not a number; reported below.
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+    }
+}
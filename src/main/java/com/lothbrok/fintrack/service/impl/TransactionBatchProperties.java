@@ -0,0 +1,15 @@
+package com.lothbrok.fintrack.service.impl;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param maxOperations operations accepted in one batch; larger batches are rejected rather than split, since the
+ *                      batch is a single database transaction
+ */
+@ConfigurationProperties(prefix = "fintrack.transactions.batch")
+public record TransactionBatchProperties(int maxOperations) {
+
+    public TransactionBatchProperties {
+        maxOperations = maxOperations > 0 ? maxOperations : 500;
+    }
+}
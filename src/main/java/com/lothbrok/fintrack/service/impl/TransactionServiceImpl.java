@@ -0,0 +1,298 @@
+package com.lothbrok.fintrack.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.dto.mapper.TransactionMapper;
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.IngestTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionOperation;
+import com.lothbrok.fintrack.dto.transaction.TransactionOperationResult;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.dto.transaction.UpdateTransactionRequest;
+import com.lothbrok.fintrack.entity.SharedWallet;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.event.TransactionBatchChangedEvent;
+import com.lothbrok.fintrack.event.TransactionChangeBatch;
+import com.lothbrok.fintrack.event.TransactionChangedEvent;
+import com.lothbrok.fintrack.repository.SharedWalletMemberRepository;
+import com.lothbrok.fintrack.repository.SharedWalletRepository;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.repository.UserRepository;
+import com.lothbrok.fintrack.security.PrincipalCache;
+import com.lothbrok.fintrack.service.TransactionService;
+
+@Service
+@Transactional(readOnly = true)
+public class TransactionServiceImpl implements TransactionService {
+
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final SharedWalletRepository sharedWalletRepository;
+    private final SharedWalletMemberRepository sharedWalletMemberRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionBatchProperties batchProperties;
+    private final PrincipalCache principalCache;
+
+    public TransactionServiceImpl(TransactionRepository transactionRepository,
+            UserRepository userRepository,
+            SharedWalletRepository sharedWalletRepository,
+            SharedWalletMemberRepository sharedWalletMemberRepository,
+            ApplicationEventPublisher eventPublisher,
+            TransactionBatchProperties batchProperties,
+            PrincipalCache principalCache) {
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.sharedWalletRepository = sharedWalletRepository;
+        this.sharedWalletMemberRepository = sharedWalletMemberRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchProperties = batchProperties;
+        this.principalCache = principalCache;
+    }
+
+    @Override
+    @Transactional
+    public TransactionResponse createTransaction(UUID userId, CreateTransactionRequest request) {
+        User user = requireUser(userId);
+        Transaction transaction = transactionRepository.save(newTransaction(user, request, new HashMap<>()));
+        return TransactionMapper.toResponse(transaction);
+    }
+
+    @Override
+    @Transactional
+    public TransactionResponse updateTransaction(UUID userId, UUID transactionId, UpdateTransactionRequest request) {
+        Transaction transaction = requireOwned(userId, transactionId);
+        applyUpdate(userId, transaction, request, new HashMap<>());
+        // Flushed here so the response carries the new updatedAt.
+        transactionRepository.flush();
+        return TransactionMapper.toResponse(transaction);
+    }
+
+    @Override
+    @Transactional
+    public void deleteTransaction(UUID userId, UUID transactionId) {
+        Transaction transaction = requireOwned(userId, transactionId);
+        transactionRepository.delete(transaction);
+    }
+
+    /**
+     * Rows touched by updates and deletes are loaded with one query up front; see {@link #writeBatch} for the rest.
+     */
+    @Override
+    @Transactional
+    public List<TransactionOperationResult> applyBatch(UUID userId, List<TransactionOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "operations must not be empty");
+        }
+        if (operations.size() > batchProperties.maxOperations()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "A batch holds at most "
+                    + batchProperties.maxOperations() + " operations");
+        }
+        User user = requireUser(userId);
+        Map<UUID, Transaction> existing = loadOwned(userId, operations);
+        Map<UUID, SharedWallet> wallets = new HashMap<>();
+        Transaction[] written = new Transaction[operations.size()];
+        writeBatch(() -> {
+            for (int i = 0; i < operations.size(); i++) {
+                try {
+                    written[i] = apply(user, operations.get(i), existing, wallets);
+                } catch (ResponseStatusException e) {
+                    throw new ResponseStatusException(e.getStatusCode(), "Operation " + i + ": " + e.getReason(), e);
+                }
+            }
+        });
+
+        List<TransactionOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            TransactionOperation operation = operations.get(i);
+            TransactionResponse response = operation.type() == TransactionOperation.Type.DELETE
+                    ? null
+                    : TransactionMapper.toResponse(written[i]);
+            results.add(new TransactionOperationResult(i, operation.type(), written[i].getId(), response));
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<TransactionResponse> createTransactions(List<IngestTransactionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> userIds = new HashSet<>();
+        for (IngestTransactionRequest request : requests) {
+            if (request == null || request.userId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId is required");
+            }
+            userIds.add(request.userId());
+        }
+        Map<UUID, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            users.put(user.getId(), user);
+        }
+        // Wallet access is checked per user, so the cache is too.
+        Map<UUID, Map<UUID, SharedWallet>> wallets = new HashMap<>();
+        List<Transaction> created = new ArrayList<>(requests.size());
+        writeBatch(() -> {
+            for (IngestTransactionRequest request : requests) {
+                User user = users.get(request.userId());
+                if (user == null) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+                }
+                created.add(transactionRepository.save(newTransaction(user, request.transaction(),
+                        wallets.computeIfAbsent(user.getId(), key -> new HashMap<>()))));
+            }
+        });
+        return created.stream().map(TransactionMapper::toResponse).toList();
+    }
+
+    /**
+     * Runs the writes with their row events collected in a {@link TransactionChangeBatch}, flushes and publishes the
+     * events as one {@link TransactionBatchChangedEvent}, so checkpoints and the outbox are written once per batch
+     * rather than once per row.
+     */
+    private void writeBatch(Runnable writes) {
+        List<TransactionChangedEvent> changes;
+        try (TransactionChangeBatch batch = TransactionChangeBatch.open()) {
+            writes.run();
+            transactionRepository.flush();
+            changes = batch.changes();
+        }
+        eventPublisher.publishEvent(new TransactionBatchChangedEvent(changes));
+    }
+
+    private Transaction apply(User user, TransactionOperation operation, Map<UUID, Transaction> existing,
+            Map<UUID, SharedWallet> wallets) {
+        if (operation == null || operation.type() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "type is required");
+        }
+        return switch (operation.type()) {
+            case CREATE -> transactionRepository.save(newTransaction(user, operation.create(), wallets));
+            case UPDATE -> {
+                Transaction transaction = requireLoaded(existing, operation.id());
+                applyUpdate(user.getId(), transaction, operation.update(), wallets);
+                yield transaction;
+            }
+            case DELETE -> {
+                Transaction transaction = requireLoaded(existing, operation.id());
+                transactionRepository.delete(transaction);
+                existing.remove(operation.id());
+                yield transaction;
+            }
+        };
+    }
+
+    private Map<UUID, Transaction> loadOwned(UUID userId, List<TransactionOperation> operations) {
+        Set<UUID> ids = new HashSet<>();
+        for (TransactionOperation operation : operations) {
+            if (operation != null && operation.type() != TransactionOperation.Type.CREATE && operation.id() != null) {
+                ids.add(operation.id());
+            }
+        }
+        Map<UUID, Transaction> owned = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Transaction transaction : transactionRepository.findAllById(ids)) {
+                if (transaction.getUser().getId().equals(userId)) {
+                    owned.put(transaction.getId(), transaction);
+                }
+            }
+        }
+        return owned;
+    }
+
+    private static Transaction requireLoaded(Map<UUID, Transaction> existing, UUID transactionId) {
+        if (transactionId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "id is required");
+        }
+        Transaction transaction = existing.get(transactionId);
+        if (transaction == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found");
+        }
+        return transaction;
+    }
+
+    private Transaction newTransaction(User user, CreateTransactionRequest request, Map<UUID, SharedWallet> wallets) {
+        if (request == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "request must not be null");
+        }
+        if (request.title() == null || request.title().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "title is required");
+        }
+        if (request.category() == null || request.category().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "category is required");
+        }
+        if (request.type() == null || request.eventDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "type and eventDate are required");
+        }
+        requirePositive(request.amount());
+        SharedWallet wallet = resolveWallet(user.getId(), request.sharedWalletId(), wallets);
+        return TransactionMapper.toEntity(request, user, wallet);
+    }
+
+    private void applyUpdate(UUID userId, Transaction transaction, UpdateTransactionRequest request,
+            Map<UUID, SharedWallet> wallets) {
+        if (request == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "request must not be null");
+        }
+        if (request.amount() != null) {
+            requirePositive(request.amount());
+        }
+        TransactionMapper.updateEntity(transaction, request, resolveWallet(userId, request.sharedWalletId(), wallets));
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "amount must be positive");
+        }
+    }
+
+    private SharedWallet resolveWallet(UUID userId, UUID walletId, Map<UUID, SharedWallet> wallets) {
+        if (walletId == null) {
+            return null;
+        }
+        SharedWallet cached = wallets.get(walletId);
+        if (cached != null) {
+            return cached;
+        }
+        SharedWallet wallet = sharedWalletRepository.findById(walletId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shared wallet not found"));
+        if (!wallet.getOwner().getId().equals(userId)
+                && sharedWalletMemberRepository.findByWalletIdAndMemberId(walletId, userId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Shared wallet not found");
+        }
+        wallets.put(walletId, wallet);
+        return wallet;
+    }
+
+    private User requireUser(UUID userId) {
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId is required");
+        }
+        // Checked against the cached principal; the transaction only needs the reference.
+        principalCache.resolve(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        return userRepository.getReferenceById(userId);
+    }
+
+    private Transaction requireOwned(UUID userId, UUID transactionId) {
+        if (userId == null || transactionId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId and transactionId are required");
+        }
+        return transactionRepository.findById(transactionId)
+                .filter(transaction -> transaction.getUser().getId().equals(userId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found"));
+    }
+}
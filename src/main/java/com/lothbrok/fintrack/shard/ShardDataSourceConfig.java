@@ -0,0 +1,110 @@
+package com.lothbrok.fintrack.shard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.lothbrok.fintrack.cache.InvalidationBus;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the auto-configured pool with one pool per shard behind a routing {@link DataSource}, once
+ * {@code fintrack.sharding.shards[0].url} is set. The first shard is configured as before through
+ * {@code spring.datasource.*}; Flyway migrates every shard. Cannot be combined with a read replica.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fintrack.sharding", name = "shards[0].url")
+public class ShardDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource shard0DataSource(DataSourceProperties properties, Environment environment) {
+        if (environment.containsProperty("fintrack.datasource.replica.url")) {
+            throw new IllegalStateException("fintrack.sharding and fintrack.datasource.replica cannot be combined");
+        }
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shard-0");
+        return dataSource;
+    }
+
+    @Bean
+    ShardDataSources shardDataSources(HikariDataSource shard0DataSource, ShardProperties properties) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(shard0DataSource);
+        for (ShardProperties.Shard shard : properties.shards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            dataSource.setPoolName("shard-" + pools.size());
+            dataSource.setMaximumPoolSize(shard.maximumPoolSize());
+            pools.add(dataSource);
+        }
+        return new ShardDataSources(pools);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ShardDataSources shards, ShardRouter router) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.count(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(router);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shards.get(0));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    FlywayMigrationStrategy shardMigrations(ShardDataSources shards) {
+        return flyway -> {
+            for (int shard = 0; shard < shards.count(); shard++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shards.get(shard))
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+
+    @Bean
+    ShardDirectory shardDirectory(ShardDataSources shards, ShardRouter router,
+            ObjectProvider<InvalidationBus> invalidationBus) {
+        return new ShardDirectory(new JdbcTemplate(shards.get(0)), router, invalidationBus);
+    }
+
+    @Bean
+    ShardMover shardMover(ShardDataSources shards, ShardDirectory directory, ShardRouter router,
+            ShardProperties properties, MeterRegistry registry) {
+        return new ShardMover(shards, directory, router, properties, registry);
+    }
+
+    @Bean
+    ShardEndpoint shardEndpoint(ShardRouter router, ShardMover mover) {
+        return new ShardEndpoint(router, mover);
+    }
+}
@@ -0,0 +1,28 @@
+package com.lothbrok.fintrack.shard;
+
+import java.util.List;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/** One pool per shard, by shard number; closed with the context. */
+public final class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> pools;
+
+    ShardDataSources(List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+    }
+
+    public HikariDataSource get(int shard) {
+        return pools.get(shard);
+    }
+
+    public int count() {
+        return pools.size();
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
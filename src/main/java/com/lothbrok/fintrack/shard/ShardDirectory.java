@@ -0,0 +1,153 @@
+package com.lothbrok.fintrack.shard;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.cache.InvalidationBus;
+import com.lothbrok.fintrack.cache.InvalidationListener;
+import com.lothbrok.fintrack.entity.ShardPlacement;
+import com.lothbrok.fintrack.entity.ShardWalletMembership;
+
+/**
+ * The small tables on the first shard that say where users live when the hash ring does not:
+ * {@link ShardPlacement placements} for users that were moved or share a wallet, and the
+ * {@link ShardWalletMembership wallet memberships} that tie users together, so the users that have to move as one
+ * group are found without asking every shard. Placements are held in memory by the {@link ShardRouter}; changes
+ * reach the other nodes through the {@link InvalidationBus}, which makes them reload.
+ */
+public class ShardDirectory implements InvalidationListener, SmartInitializingSingleton {
+
+    static final String PLACEMENT = "ShardPlacement";
+
+    private static final String UPDATE_SQL = "update shard_placements set shard = ?, moving = ?, updated_at = ? "
+            + "where user_id = ?";
+    private static final String INSERT_SQL = "insert into shard_placements (user_id, shard, moving, updated_at) "
+            + "values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter router;
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+
+    ShardDirectory(JdbcTemplate jdbcTemplate, ShardRouter router, ObjectProvider<InvalidationBus> invalidationBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.router = router;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    public void reload() {
+        Map<UUID, ShardRouter.Placement> placements = new HashMap<>();
+        jdbcTemplate.query("select user_id, shard, moving from shard_placements", rs -> {
+            placements.put(rs.getObject(1, UUID.class), new ShardRouter.Placement(rs.getInt(2), rs.getBoolean(3)));
+        });
+        router.placements(placements);
+    }
+
+    @Override
+    public void onInvalidations(List<Invalidation> invalidations) {
+        if (invalidations.stream().anyMatch(invalidation -> PLACEMENT.equals(invalidation.entityType()))) {
+            reload();
+        }
+    }
+
+    /** Pins {@code userIds} to {@code shard}, marked as moving or not, on every node. */
+    void place(Collection<UUID> userIds, int shard, boolean moving) {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (UUID userId : userIds) {
+            if (jdbcTemplate.update(UPDATE_SQL, shard, moving, now, userId) == 0) {
+                jdbcTemplate.update(INSERT_SQL, userId, shard, moving, now);
+            }
+        }
+        changed(userIds);
+    }
+
+    /** Hands {@code userIds} back to the hash ring. */
+    void unplace(Collection<UUID> userIds) {
+        for (UUID userId : userIds) {
+            jdbcTemplate.update("delete from shard_placements where user_id = ?", userId);
+        }
+        changed(userIds);
+    }
+
+    void addMembership(UUID walletId, UUID ownerId, UUID memberId) {
+        if (jdbcTemplate.update("update shard_wallet_members set owner_id = ? where wallet_id = ? and member_id = ?",
+                ownerId, walletId, memberId) == 0) {
+            jdbcTemplate.update("insert into shard_wallet_members (wallet_id, member_id, owner_id) values (?, ?, ?)",
+                    walletId, memberId, ownerId);
+        }
+    }
+
+    /** Forgets a membership; the users stay placed together until one of them is moved. */
+    public void removeMembership(UUID walletId, UUID memberId) {
+        jdbcTemplate.update("delete from shard_wallet_members where wallet_id = ? and member_id = ?", walletId,
+                memberId);
+    }
+
+    /** Drops everything the directory knows about a deleted user. */
+    public void forget(UUID userId) {
+        jdbcTemplate.update("delete from shard_wallet_members where owner_id = ? or member_id = ?", userId, userId);
+        if (router.placements().containsKey(userId)) {
+            unplace(List.of(userId));
+        }
+    }
+
+    /** Wallets {@code memberId} belongs to, with their owners, wherever those live. */
+    public Map<UUID, UUID> walletOwners(UUID memberId) {
+        Map<UUID, UUID> owners = new HashMap<>();
+        jdbcTemplate.query("select wallet_id, owner_id from shard_wallet_members where member_id = ?",
+                rs -> {
+                    owners.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+                }, memberId);
+        return owners;
+    }
+
+    /** {@code userId} and everyone sharing a wallet with them, directly or through others. */
+    public Set<UUID> group(UUID userId) {
+        Set<UUID> group = new LinkedHashSet<>();
+        Deque<UUID> pending = new ArrayDeque<>();
+        group.add(userId);
+        pending.add(userId);
+        while (!pending.isEmpty()) {
+            UUID next = pending.poll();
+            jdbcTemplate.query("""
+                    select owner_id, member_id from shard_wallet_members where wallet_id in (
+                        select wallet_id from shard_wallet_members where owner_id = ? or member_id = ?)
+                    """, rs -> {
+                for (int column = 1; column <= 2; column++) {
+                    UUID related = rs.getObject(column, UUID.class);
+                    if (group.add(related)) {
+                        pending.add(related);
+                    }
+                }
+            }, next, next);
+        }
+        return group;
+    }
+
+    private void changed(Collection<UUID> userIds) {
+        reload();
+        InvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus != null) {
+            long version = System.currentTimeMillis();
+            userIds.forEach(userId -> bus.publish(PLACEMENT, userId, version));
+        }
+    }
+}
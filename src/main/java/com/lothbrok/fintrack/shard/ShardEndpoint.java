@@ -0,0 +1,64 @@
+package com.lothbrok.fintrack.shard;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Resharding from the outside: {@code POST /actuator/shards/move} with {@code userId} and {@code shard},
+ * {@code /rebalance} with {@code ringShards}, and {@code /compact}. Registered with sharding only.
+ */
+@Endpoint(id = "shards")
+public class ShardEndpoint {
+
+    public record Summary(int shards, int placed, int moving) {
+    }
+
+    private final ShardRouter router;
+    private final ShardMover mover;
+
+    ShardEndpoint(ShardRouter router, ShardMover mover) {
+        this.router = router;
+        this.mover = mover;
+    }
+
+    @ReadOperation
+    public Summary shards() {
+        Map<UUID, ShardRouter.Placement> placements = router.placements();
+        int moving = (int) placements.values().stream().filter(ShardRouter.Placement::moving).count();
+        return new Summary(router.shardCount(), placements.size(), moving);
+    }
+
+    @ReadOperation
+    public Map<String, Object> user(@Selector UUID userId) {
+        Map<String, Object> user = new TreeMap<>();
+        ShardRouter.Placement placement = router.placements().get(userId);
+        user.put("shard", router.shardOf(userId));
+        user.put("ringShard", router.ringShardOf(userId));
+        user.put("placed", placement != null);
+        user.put("moving", placement != null && placement.moving());
+        return user;
+    }
+
+    @WriteOperation
+    public Map<String, Integer> run(@Selector String action, @Nullable UUID userId, @Nullable Integer shard,
+            @Nullable Integer ringShards) {
+        return switch (action) {
+            case "move" -> {
+                if (userId == null || shard == null) {
+                    throw new IllegalArgumentException("move needs userId and shard");
+                }
+                yield Map.of("moved", mover.move(userId, shard));
+            }
+            case "rebalance" -> Map.of("moved", mover.rebalance(ringShards != null ? ringShards : router.shardCount()));
+            case "compact" -> Map.of("unplaced", mover.compact());
+            default -> throw new IllegalArgumentException("Unknown action " + action);
+        };
+    }
+}
@@ -0,0 +1,383 @@
+package com.lothbrok.fintrack.shard;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.partition.ArchivedWriteRelease;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Moves users' rows between shards while the application keeps serving. A user is always moved together with
+ * everyone sharing a wallet with them ({@link ShardDirectory#group}), so wallets, memberships and the members'
+ * transactions stay on one shard.
+ * <p>
+ * A move marks the users as moving, which blocks their writes on every node, waits {@code move-grace} for writes
+ * already under way and for their pending transaction events to be delivered, then copies their rows to the target
+ * shard in one transaction, table by table in foreign key order and {@value #BATCH_ROWS} rows at a time. If the
+ * users' change journal heads moved during the copy, a write slipped through and the move is undone. Otherwise the
+ * users are pointed at the target and their rows are deleted from the source in chunks. Reads keep going to the
+ * source until the switch.
+ */
+public class ShardMover {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardMover.class);
+
+    static final String PREFIX = "fintrack.sharding.";
+    static final int BATCH_ROWS = 500;
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final String WALLETS = "select id from shared_wallets where owner_id in (%s)";
+
+    /** User tables in foreign key order; {@code %s} stands for the moved users and {@code %w} for their wallets. */
+    private static final List<Table> TABLES = List.of(
+            new Table("users", "id", "id in (%s)"),
+            new Table("shared_wallets", "id", "owner_id in (%s)"),
+            new Table("shared_wallet_members", "id", "wallet_id in (%w)"),
+            new Table("transactions", "id", "user_id in (%s)"),
+            new Table("recurring_jobs", "id", "user_id in (%s)"),
+            new Table("budgets", "id", "user_id in (%s)"),
+            new Table("notifications", "id", "user_id in (%s)"),
+            new Table("spending_insight_states", "id", "user_id in (%s)"),
+            new Table("report_jobs", "id", "user_id in (%s)"),
+            new Table("balance_checkpoints", "id", "user_id in (%s) or wallet_id in (%w)"),
+            new Table("change_journal", "id", "user_id in (%s)"),
+            new Table("change_journal_heads", "user_id", "user_id in (%s)"));
+
+    record Table(String name, String key, String condition) {
+
+        String where(int users) {
+            StringJoiner placeholders = new StringJoiner(", ");
+            for (int i = 0; i < users; i++) {
+                placeholders.add("?");
+            }
+            return condition.replace("%w", WALLETS).replace("%s", placeholders.toString());
+        }
+
+        /** Bind values for {@link #where}: the users once per placeholder group. */
+        Object[] arguments(List<UUID> users) {
+            int groups = condition.split("%s", -1).length - 1 + (condition.split("%w", -1).length - 1);
+            Object[] arguments = new Object[groups * users.size()];
+            for (int group = 0; group < groups; group++) {
+                for (int i = 0; i < users.size(); i++) {
+                    arguments[group * users.size() + i] = users.get(i);
+                }
+            }
+            return arguments;
+        }
+    }
+
+    private final ShardDataSources shards;
+    private final ShardDirectory directory;
+    private final ShardRouter router;
+    private final ShardProperties properties;
+    private final Counter movedUsers;
+    private final Counter copiedRows;
+    private final Counter aborted;
+    private final Timer moveDuration;
+
+    ShardMover(ShardDataSources shards, ShardDirectory directory, ShardRouter router, ShardProperties properties,
+            MeterRegistry registry) {
+        this.shards = shards;
+        this.directory = directory;
+        this.router = router;
+        this.properties = properties;
+        this.movedUsers = Counter.builder(PREFIX + "moved.users")
+                .description("Users moved to another shard")
+                .register(registry);
+        this.copiedRows = Counter.builder(PREFIX + "moved.rows")
+                .description("Rows copied to another shard by moves")
+                .register(registry);
+        this.aborted = Counter.builder(PREFIX + "moves.aborted")
+                .description("Moves undone because the users' data changed or their events did not drain")
+                .register(registry);
+        this.moveDuration = Timer.builder(PREFIX + "move.duration")
+                .description("Time a group of users could not write while being moved")
+                .register(registry);
+    }
+
+    /**
+     * Moves {@code userId}, and everyone sharing a wallet with them, to {@code target}. Returns how many users were
+     * moved; none when they already live there.
+     */
+    public int move(UUID userId, int target) {
+        if (target < 0 || target >= shards.count()) {
+            throw new IllegalArgumentException("No shard " + target);
+        }
+        List<UUID> group = List.copyOf(directory.group(userId));
+        int source = router.shardOf(userId);
+        if (source == target) {
+            return 0;
+        }
+        Map<UUID, ShardRouter.Placement> previous = new HashMap<>();
+        group.forEach(member -> {
+            ShardRouter.Placement placement = router.placements().get(member);
+            if (placement != null) {
+                previous.put(member, placement);
+            }
+        });
+        long start = System.nanoTime();
+        directory.place(group, source, true);
+        long rows;
+        try {
+            LockSupport.parkNanos(properties.moveGrace().toNanos());
+            awaitEventsDelivered(source, group);
+            rows = copy(source, target, group);
+        } catch (RuntimeException e) {
+            aborted.increment();
+            restore(group, previous);
+            throw e;
+        }
+        if (group.size() == 1 && router.ringShardOf(userId) == target) {
+            directory.unplace(group);
+        } else {
+            directory.place(group, target, false);
+        }
+        moveDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        delete(source, group);
+        movedUsers.increment(group.size());
+        copiedRows.increment(rows);
+        log.info("Moved {} users ({} rows) from shard {} to shard {}", group.size(), rows, source, target);
+        return group.size();
+    }
+
+    /**
+     * Records that {@code memberId} joined {@code walletId}, owned by {@code ownerId}, and moves the member, with
+     * everyone sharing a wallet with them, to the owner's shard. Call it before writing the membership row, which
+     * then goes to the owner's shard like the rest of the wallet.
+     */
+    public void colocate(UUID walletId, UUID ownerId, UUID memberId) {
+        int shard = router.shardOf(ownerId);
+        move(memberId, shard);
+        directory.addMembership(walletId, ownerId, memberId);
+        directory.place(directory.group(ownerId), shard, false);
+    }
+
+    /**
+     * Moves every user who lives elsewhere than a ring of {@code ringShards} shards would put them, except users
+     * sharing a wallet, who stay with their group. To add a shard: configure it with {@code ring-shards} at the old
+     * count, run this with the new count, raise {@code ring-shards} on every node, then run {@link #compact}.
+     * Returns the number of users moved.
+     */
+    public int rebalance(int ringShards) {
+        if (ringShards < 1 || ringShards > shards.count()) {
+            throw new IllegalArgumentException("ringShards must be between 1 and " + shards.count());
+        }
+        ShardRing ring = new ShardRing(ringShards, properties.virtualNodes());
+        int moved = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            JdbcTemplate source = new JdbcTemplate(shards.get(shard));
+            UUID after = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+            List<UUID> page;
+            do {
+                page = source.queryForList("select id from users where id > ? order by id fetch first "
+                        + BATCH_ROWS + " rows only", UUID.class, after);
+                for (UUID userId : page) {
+                    int target = ring.shardOf(userId);
+                    if (target != shard && router.shardOf(userId) == shard && directory.group(userId).size() == 1) {
+                        moved += move(userId, target);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == BATCH_ROWS);
+        }
+        return moved;
+    }
+
+    /** Drops placements the hash ring now agrees with, for users not sharing a wallet. Returns how many. */
+    public int compact() {
+        List<UUID> redundant = new ArrayList<>();
+        router.placements().forEach((userId, placement) -> {
+            if (!placement.moving() && router.ringShardOf(userId) == placement.shard()
+                    && directory.group(userId).size() == 1) {
+                redundant.add(userId);
+            }
+        });
+        if (!redundant.isEmpty()) {
+            directory.unplace(redundant);
+        }
+        return redundant.size();
+    }
+
+    private void awaitEventsDelivered(int source, List<UUID> group) {
+        JdbcTemplate jdbc = new JdbcTemplate(shards.get(source));
+        Table outbox = new Table("transaction_outbox", "id", "user_id in (%s)");
+        String sql = "select count(*) from transaction_outbox where " + outbox.where(group.size());
+        long deadline = System.nanoTime() + properties.moveTimeout().toNanos();
+        while (true) {
+            Long pending = jdbc.queryForObject(sql, Long.class, outbox.arguments(group));
+            if (pending == null || pending == 0) {
+                return;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new IllegalStateException(pending + " transaction events still pending after "
+                        + properties.moveTimeout());
+            }
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+    }
+
+    private long copy(int source, int target, List<UUID> group) {
+        JdbcTemplate from = new JdbcTemplate(shards.get(source));
+        JdbcTemplate to = new JdbcTemplate(shards.get(target));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(shards.get(target)));
+        Table heads = TABLES.get(TABLES.size() - 1);
+        String headsSql = "select user_id, last_seq from change_journal_heads where " + heads.where(group.size());
+        Map<UUID, Long> before = journalHeads(from, headsSql, heads.arguments(group));
+        try (ArchivedWriteRelease release = ArchivedWriteRelease.open(to, group)) {
+            Long rows = transaction.execute(status -> {
+                long copied = 0;
+                for (Table table : TABLES) {
+                    copied += copyTable(from, to, table, group);
+                }
+                if (!before.equals(journalHeads(from, headsSql, heads.arguments(group)))) {
+                    throw new IllegalStateException("Data changed on shard " + source + " while it was being copied");
+                }
+                return copied;
+            });
+            return rows != null ? rows : 0;
+        }
+    }
+
+    private static Map<UUID, Long> journalHeads(JdbcTemplate jdbc, String sql, Object[] arguments) {
+        Map<UUID, Long> heads = new HashMap<>();
+        jdbc.query(sql, rs -> {
+            heads.put(rs.getObject(1, UUID.class), rs.getLong(2));
+        }, arguments);
+        return heads;
+    }
+
+    private static long copyTable(JdbcTemplate from, JdbcTemplate to, Table table, List<UUID> group) {
+        RowCopier copier = new RowCopier(to, table.name());
+        Object[] arguments = table.arguments(group);
+        from.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("select * from " + table.name() + " where "
+                    + table.where(group.size()));
+            statement.setFetchSize(BATCH_ROWS);
+            for (int i = 0; i < arguments.length; i++) {
+                statement.setObject(i + 1, arguments[i]);
+            }
+            return statement;
+        }, copier);
+        copier.flush();
+        return copier.copied;
+    }
+
+    /**
+     * Deletes the moved rows from the source, children first, a chunk per statement. Rows in archived partitions go
+     * too, under an {@link ArchivedWriteRelease}; the copy holds one on the target for the same reason.
+     */
+    private void delete(int source, List<UUID> group) {
+        JdbcTemplate jdbc = new JdbcTemplate(shards.get(source));
+        String current = null;
+        try (ArchivedWriteRelease release = ArchivedWriteRelease.open(jdbc, group)) {
+            for (int i = TABLES.size() - 1; i >= 0; i--) {
+                Table table = TABLES.get(i);
+                String sql = "delete from " + table.name() + " where " + table.key() + " in (select " + table.key()
+                        + " from " + table.name() + " where " + table.where(group.size()) + " fetch first "
+                        + BATCH_ROWS + " rows only)";
+                Object[] arguments = table.arguments(group);
+                current = table.name();
+                while (jdbc.update(sql, arguments) > 0) {
+                    // Next chunk.
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not delete moved rows of {} users from {} on shard {}; they are unreachable and "
+                    + "can be deleted later", group.size(), current, source, e);
+        }
+    }
+
+    private void restore(List<UUID> group, Map<UUID, ShardRouter.Placement> previous) {
+        List<UUID> unplaced = new ArrayList<>();
+        for (UUID userId : group) {
+            ShardRouter.Placement placement = previous.get(userId);
+            if (placement == null) {
+                unplaced.add(userId);
+            } else {
+                directory.place(List.of(userId), placement.shard(), false);
+            }
+        }
+        if (!unplaced.isEmpty()) {
+            directory.unplace(unplaced);
+        }
+    }
+
+    /** Streams rows into batched inserts with the same columns. */
+    private static final class RowCopier implements RowCallbackHandler {
+
+        private final JdbcTemplate target;
+        private final String table;
+        private final List<Object[]> batch = new ArrayList<>(BATCH_ROWS);
+        private String insertSql;
+        private int[] types;
+        private long copied;
+
+        RowCopier(JdbcTemplate target, String table) {
+            this.target = target;
+            this.table = table;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (insertSql == null) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                StringJoiner columns = new StringJoiner(", ");
+                StringJoiner values = new StringJoiner(", ");
+                types = new int[metaData.getColumnCount()];
+                for (int i = 1; i <= types.length; i++) {
+                    columns.add(metaData.getColumnName(i));
+                    values.add("?");
+                    types[i - 1] = metaData.getColumnType(i);
+                }
+                insertSql = "insert into " + table + " (" + columns + ") values (" + values + ")";
+            }
+            Object[] row = new Object[types.length];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            batch.add(row);
+            if (batch.size() == BATCH_ROWS) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            target.batchUpdate(insertSql, batch, batch.size(), (ps, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i] == null) {
+                        ps.setNull(i + 1, types[i]);
+                    } else {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                }
+            });
+            copied += batch.size();
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.lothbrok.fintrack.shard;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param shards       the shards after the first; the first is the {@code spring.datasource} database, which also
+ *                     holds the shard directory. Empty, the default, keeps everything in that one database
+ * @param ringShards   how many shards, counted from the first, the hash ring places users on; defaults to all of
+ *                     them. Lower while a new shard is being filled, see {@link ShardMover#rebalance}
+ * @param virtualNodes points per shard on the hash ring; more points spread users more evenly
+ * @param moveGrace    how long a move waits after blocking the users' writes, for the other nodes to hear of it
+ *                     over the invalidation bus and for writes already under way to commit
+ * @param moveTimeout  how long a move waits for the users' undelivered transaction events before giving up
+ */
+@ConfigurationProperties(prefix = "fintrack.sharding")
+public record ShardProperties(List<Shard> shards,
+        int ringShards,
+        int virtualNodes,
+        Duration moveGrace,
+        Duration moveTimeout) {
+
+    /**
+     * @param maximumPoolSize connections kept to the shard
+     */
+    public record Shard(String url, String username, String password, int maximumPoolSize) {
+
+        public Shard {
+            if (url == null || url.isBlank()) {
+                throw new IllegalArgumentException("fintrack.sharding.shards[*].url is required");
+            }
+            maximumPoolSize = maximumPoolSize > 0 ? maximumPoolSize : 10;
+        }
+    }
+
+    public ShardProperties {
+        shards = shards == null ? List.of() : List.copyOf(shards);
+        ringShards = ringShards > 0 ? ringShards : shards.size() + 1;
+        virtualNodes = virtualNodes > 0 ? virtualNodes : 128;
+        moveGrace = moveGrace == null ? Duration.ofSeconds(2) : moveGrace;
+        moveTimeout = moveTimeout == null ? Duration.ofSeconds(30) : moveTimeout;
+        if (ringShards > shards.size() + 1) {
+            throw new IllegalArgumentException("fintrack.sharding.ring-shards exceeds the configured shards");
+        }
+    }
+
+    /** All shards, the {@code spring.datasource} one included. */
+    public int count() {
+        return shards.size() + 1;
+    }
+
+    public boolean enabled() {
+        return !shards.isEmpty();
+    }
+}
@@ -0,0 +1,58 @@
+package com.lothbrok.fintrack.shard;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Consistent hash ring: every shard owns {@code virtualNodes} pseudo-random points, and a user belongs to the shard
+ * owning the first point at or after the user's hash, wrapping around. Adding a shard takes over roughly
+ * {@code 1 / shards} of the users, all from the existing shards, and leaves everyone else where they were. Points
+ * are kept in a sorted array so a lookup is one binary search without boxing.
+ */
+final class ShardRing {
+
+    private final long[] points;
+    private final int[] owners;
+
+    ShardRing(int shards, int virtualNodes) {
+        long[] hashes = new long[shards * virtualNodes];
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                hashes[shard * virtualNodes + node] = mix(((long) shard << 32) | node);
+            }
+        }
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        this.points = sorted;
+        this.owners = new int[sorted.length];
+        for (int i = 0; i < hashes.length; i++) {
+            owners[Arrays.binarySearch(sorted, hashes[i])] = i / virtualNodes;
+        }
+    }
+
+    int shardOf(UUID userId) {
+        if (points.length == 0) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(points, hash(userId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    static long hash(UUID userId) {
+        return mix(userId.getMostSignificantBits() ^ Long.rotateLeft(userId.getLeastSignificantBits(), 32));
+    }
+
+    /** MurmurHash3's 64-bit finalizer. */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,140 @@
+package com.lothbrok.fintrack.shard;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Says which shard a user's rows live on and routes the calling thread's connections there. A user's shard is the
+ * one recorded in the {@link ShardDirectory} if there is an entry (users that were moved, and everyone sharing a
+ * wallet) and otherwise the one the {@link ShardRing} assigns.
+ * <p>
+ * Work is routed per thread: {@link #forUser} around a request or job, {@link #forShard} for background work that
+ * walks every shard. Without a scope connections go to the first shard. A transaction must stay on one shard, so the
+ * scope is opened before it starts. While a user is being moved their read-only transactions keep going to the old
+ * shard and read-write ones fail with {@link IllegalStateException}.
+ */
+@Component
+public class ShardRouter {
+
+    /** Restores the previous scope when closed. */
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    record Placement(int shard, boolean moving) {
+    }
+
+    private record Target(int shard, Collection<UUID> users) {
+    }
+
+    private final boolean enabled;
+    private final int shardCount;
+    private final ShardRing ring;
+    private final ThreadLocal<Target> current = new ThreadLocal<>();
+    private volatile Map<UUID, Placement> placements = Map.of();
+
+    public ShardRouter(ShardProperties properties) {
+        this.enabled = properties.enabled();
+        this.shardCount = properties.count();
+        this.ring = new ShardRing(properties.ringShards(), properties.virtualNodes());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(UUID userId) {
+        Placement placement = placements.get(userId);
+        return placement != null ? placement.shard() : ring.shardOf(userId);
+    }
+
+    /** The shard the hash ring alone assigns, ignoring the directory. */
+    public int ringShardOf(UUID userId) {
+        return ring.shardOf(userId);
+    }
+
+    public Scope forUser(UUID userId) {
+        return open(new Target(shardOf(userId), List.of(userId)));
+    }
+
+    /** Scope for work on several users' rows at once; they have to live on the same shard. */
+    public Scope forUsers(Collection<UUID> userIds) {
+        int shard = -1;
+        for (UUID userId : userIds) {
+            int userShard = shardOf(userId);
+            if (shard >= 0 && userShard != shard) {
+                throw new IllegalArgumentException("Users live on different shards");
+            }
+            shard = userShard;
+        }
+        return open(new Target(Math.max(shard, 0), List.copyOf(userIds)));
+    }
+
+    public Scope forShard(int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("No shard " + shard);
+        }
+        return open(new Target(shard, List.of()));
+    }
+
+    /** Wraps {@code task} to run in the calling thread's current scope, for handing work to another thread. */
+    public Runnable propagate(Runnable task) {
+        Target target = current.get();
+        if (target == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = open(target)) {
+                task.run();
+            }
+        };
+    }
+
+    private Scope open(Target target) {
+        Target previous = current.get();
+        current.set(target);
+        return () -> {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        };
+    }
+
+    int route() {
+        Target target = current.get();
+        if (target == null) {
+            return 0;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Map<UUID, Placement> known = placements;
+            for (UUID userId : target.users()) {
+                Placement placement = known.get(userId);
+                if (placement != null && placement.moving()) {
+                    throw new IllegalStateException("Account is being moved between shards; retry shortly");
+                }
+            }
+        }
+        return target.shard();
+    }
+
+    Map<UUID, Placement> placements() {
+        return placements;
+    }
+
+    void placements(Map<UUID, Placement> placements) {
+        this.placements = Map.copyOf(placements);
+    }
+}
@@ -0,0 +1,22 @@
+package com.lothbrok.fintrack.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Picks the shard per connection through the {@link ShardRouter}. Sits behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the router knows whether the
+ * transaction is read-only, which it only is once the connection is first used.
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardRouter router;
+
+    ShardRoutingDataSource(ShardRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.route();
+    }
+}
@@ -0,0 +1,38 @@
+package com.lothbrok.fintrack.shard;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.lothbrok.fintrack.web.UserIdHeader;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/** Routes the request's database work to the shard of the user it is made for. */
+@Component
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    private final ShardRouter router;
+
+    public ShardRoutingFilter(ShardRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        UUID userId = router.isEnabled() ? UserIdHeader.read(request) : null;
+        if (userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (ShardRouter.Scope scope = router.forUser(userId)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
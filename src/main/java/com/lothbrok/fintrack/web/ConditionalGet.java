@@ -0,0 +1,27 @@
+package com.lothbrok.fintrack.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET handler whose response depends only on the caller's own data and the request parameters.
+ * {@link ConditionalGetInterceptor} tags such responses with a weak ETag built from the caller's data version and
+ * answers a matching {@code If-None-Match} with 304 before the handler runs.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+
+    /**
+     * Request parameters that pull in other users' data (such as a shared wallet); requests carrying any of them
+     * are always served in full.
+     */
+    String[] unlessParams() default {};
+
+    /** Set when omitted parameters default to the current date; the ETag then also changes every day. */
+    boolean dateDependent() default false;
+}
@@ -0,0 +1,150 @@
+package com.lothbrok.fintrack.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.lothbrok.fintrack.journal.DataVersionProperties;
+import com.lothbrok.fintrack.journal.DataVersions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conditional GET for {@link ConditionalGet} handlers. The weak ETag is {@code W/"<version>-<digest>"}, where the
+ * digest covers the caller, the path, the sorted query parameters and, for date-dependent handlers, today's date. The version is read before the handler runs,
+ * so a write racing with the request can only make the ETag older than the body, never newer.
+ *
+ * <p>Outcomes are counted in {@code fintrack.http.conditional.requests} (tags {@code uri}, {@code outcome=hit|miss});
+ * {@code fintrack.http.conditional.hit.ratio} is the share of hits since startup. The counters for a route are
+ * registered on its first request and reused after that.
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    static final String REQUESTS = "fintrack.http.conditional.requests";
+
+    private final DataVersions dataVersions;
+    private final boolean enabled;
+    private record Outcomes(Counter hit, Counter miss) {
+    }
+
+    private final MeterRegistry registry;
+    private final Map<String, Outcomes> counters = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ConditionalGetInterceptor(DataVersions dataVersions, DataVersionProperties properties,
+            MeterRegistry registry) {
+        this.dataVersions = dataVersions;
+        this.enabled = properties.conditionalGet();
+        this.registry = registry;
+        Gauge.builder("fintrack.http.conditional.hit.ratio", this, ConditionalGetInterceptor::hitRatio)
+                .description("Share of conditional GETs answered with 304")
+                .register(registry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !(handler instanceof HandlerMethod method) || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        ConditionalGet conditional = method.getMethodAnnotation(ConditionalGet.class);
+        if (conditional == null
+                || Arrays.stream(conditional.unlessParams()).anyMatch(name -> request.getParameter(name) != null)) {
+            return true;
+        }
+        UUID userId = UserIdHeader.read(request);
+        if (userId == null) {
+            // Let the handler reject the request.
+            return true;
+        }
+        String etag = etag(userId, dataVersions.current(userId), request,
+                conditional.dateDependent() ? LocalDate.now() : null);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        boolean hit = matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag);
+        (hit ? hits : misses).incrementAndGet();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Outcomes outcomes = counters.computeIfAbsent(pattern == null ? "UNKNOWN" : pattern.toString(),
+                this::createCounters);
+        (hit ? outcomes.hit() : outcomes.miss()).increment();
+        if (hit) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return false;
+        }
+        return true;
+    }
+
+    private Outcomes createCounters(String uri) {
+        return new Outcomes(Counter.builder(REQUESTS).tags("uri", uri, "outcome", "hit").register(registry),
+                Counter.builder(REQUESTS).tags("uri", uri, "outcome", "miss").register(registry));
+    }
+
+    double hitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    static String etag(UUID userId, long version, HttpServletRequest request, LocalDate today) {
+        StringBuilder key = new StringBuilder(userId.toString()).append('\n').append(request.getRequestURI());
+        if (today != null) {
+            key.append('\n').append(today);
+        }
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        parameters.forEach((name, values) -> {
+            String[] sorted = values.clone();
+            Arrays.sort(sorted);
+            key.append('\n').append(name).append('=').append(String.join(",", sorted));
+        });
+        byte[] digest = sha256(key.toString().getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + version + "-" + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Arrays.copyOf(digest, 12)) + "\"";
+    }
+
+    /** Weak comparison against a comma-separated {@code If-None-Match} list, or {@code *}. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || stripWeak(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
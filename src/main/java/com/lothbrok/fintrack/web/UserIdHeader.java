@@ -0,0 +1,29 @@
+package com.lothbrok.fintrack.web;
+
+import java.util.UUID;
+
+import com.lothbrok.fintrack.controller.ApiHeaders;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Reads the caller's {@link ApiHeaders#USER_ID} for the filters and interceptors that act on it before a handler
+ * runs. A missing or malformed header reads as no user, leaving the rejection to the handler.
+ */
+public final class UserIdHeader {
+
+    private UserIdHeader() {
+    }
+
+    public static UUID read(HttpServletRequest request) {
+        String header = request.getHeader(ApiHeaders.USER_ID);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(header.trim());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
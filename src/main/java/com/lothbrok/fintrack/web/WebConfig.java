@@ -0,0 +1,26 @@
+package com.lothbrok.fintrack.web;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.lothbrok.fintrack.ratelimit.RateLimitInterceptor;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+
+    public WebConfig(RateLimitInterceptor rateLimitInterceptor, ConditionalGetInterceptor conditionalGetInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.conditionalGetInterceptor = conditionalGetInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Limited before anything else, so requests over the limit cost as little as possible.
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(conditionalGetInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,18 @@
+-- Background account deletions (see AccountPurger). user_id does not reference users: the job, with its progress,
+-- has to outlive the account it deletes.
+
+create table account_purge_jobs (
+    id            uuid        not null primary key,
+    user_id       uuid        not null,
+    status        varchar(20) not null check (status in ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED')),
+    step          varchar(40),
+    rows_deleted  bigint      not null,
+    created_at    timestamp(6) with time zone not null,
+    updated_at    timestamp(6) with time zone not null,
+    started_at    timestamp(6) with time zone,
+    finished_at   timestamp(6) with time zone,
+    error_message varchar(1024)
+);
+
+create index idx_account_purge_user on account_purge_jobs (user_id);
+create index idx_account_purge_pending on account_purge_jobs (status);
@@ -0,0 +1,12 @@
+-- normalized_email is the trimmed, lower-cased email (User#normalizeEmail). Case-insensitive lookups compare it
+-- through a unique index, which also keeps emails differing only in case from being registered twice; the
+-- upper(email) expression index from V2 has no readers left. Emails differing only in case must be merged before
+-- this runs. credential_version is advanced whenever the password, role or two-factor secret changes.
+
+alter table users add column normalized_email varchar(255);
+update users set normalized_email = lower(trim(email));
+alter table users alter column normalized_email set not null;
+create unique index uk_user_normalized_email on users (normalized_email);
+drop index idx_user_email_upper;
+
+alter table users add column credential_version bigint not null default 0;
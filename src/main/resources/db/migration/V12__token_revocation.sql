@@ -0,0 +1,27 @@
+-- Refresh tokens (see RefreshTokenStore), stored as the hex SHA-256 of the token, and access tokens revoked before
+-- they expire (see TokenRevocations). Both live on the first shard and are removed by the account purge rather
+-- than through a foreign key to users.
+
+create table refresh_tokens (
+    id          uuid        not null primary key,
+    user_id     uuid        not null,
+    token_hash  varchar(64) not null,
+    created_at  timestamp(6) with time zone not null,
+    expires_at  timestamp(6) with time zone not null,
+    revoked_at  timestamp(6) with time zone,
+    replaced_by uuid,
+    constraint uk_refresh_token_hash unique (token_hash)
+);
+
+create index idx_refresh_token_user on refresh_tokens (user_id);
+create index idx_refresh_token_expires on refresh_tokens (expires_at);
+
+create table revoked_access_tokens (
+    token_id   uuid not null primary key,
+    user_id    uuid not null,
+    expires_at timestamp(6) with time zone not null,
+    revoked_at timestamp(6) with time zone not null
+);
+
+create index idx_revoked_access_token_revoked on revoked_access_tokens (revoked_at);
+create index idx_revoked_access_token_expires on revoked_access_tokens (expires_at);
@@ -0,0 +1,13 @@
+-- Tokens taken per rate limit key on one node, reported in coarse steps for the other nodes to drain from their
+-- buckets (see RateLimiter). Lives on the first shard; rows are deleted once older than the sync retention.
+
+create table rate_limit_usage (
+    id         bigint generated by default as identity primary key,
+    node_id    uuid         not null,
+    policy     varchar(64)  not null,
+    limit_key  varchar(255) not null,
+    tokens     bigint       not null,
+    created_at timestamp(6) with time zone not null
+);
+
+create index idx_rate_limit_usage_created_at on rate_limit_usage (created_at);
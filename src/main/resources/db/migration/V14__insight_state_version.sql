@@ -0,0 +1,4 @@
+-- Optimistic lock for the spending model rows: insights can be delivered on several instances at once, and each
+-- delivery rewrites the whole encoded state (see SpendingInsightEngine).
+
+alter table spending_insight_states add column version bigint not null default 0;
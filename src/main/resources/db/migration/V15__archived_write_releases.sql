@@ -0,0 +1,31 @@
+-- Archived transaction partitions reject every write (V3), but deleting an account or moving it to another shard
+-- has to delete or copy its old rows too. While a purge or move runs it lists its users here (see
+-- ArchivedWriteRelease), and the trigger lets through writes to their rows and to rows in wallets they own. user_id
+-- does not reference users: the release has to outlive the users row the purge deletes.
+
+create table archived_write_releases (
+    user_id    uuid not null primary key,
+    created_at timestamp(6) with time zone not null
+);
+
+create or replace function fintrack_reject_archived_write() returns trigger
+    language plpgsql as $$
+begin
+    if tg_op = 'INSERT' then
+        if exists (select 1 from archived_write_releases where user_id = new.user_id) then
+            return new;
+        end if;
+    elsif exists (select 1 from archived_write_releases where user_id = old.user_id)
+            or exists (select 1
+                       from archived_write_releases r
+                       join shared_wallets w on w.owner_id = r.user_id
+                       where w.id = old.wallet_id) then
+        if tg_op = 'DELETE' then
+            return old;
+        end if;
+        return new;
+    end if;
+    raise exception 'Transactions in archived partition % are read-only', tg_table_name
+        using errcode = 'read_only_sql_transaction';
+end;
+$$;
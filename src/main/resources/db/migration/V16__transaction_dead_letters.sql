@@ -0,0 +1,18 @@
+-- Events an after-commit consumer kept failing on (see TransactionEventBus). The outbox row is shared by every
+-- consumer and goes once they have all moved past it, so the failed consumer's copy is kept here, one row per
+-- event, and retried with a growing delay until it goes through.
+
+create table transaction_dead_letters (
+    id             bigint generated by default as identity primary key,
+    consumer       varchar(100) not null,
+    transaction_id uuid         not null,
+    user_id        uuid         not null,
+    before_state   bytea,
+    after_state    bytea,
+    created_at     timestamp(6) with time zone not null,
+    attempts       integer      not null,
+    available_at   timestamp(6) with time zone not null,
+    last_error     varchar(1024)
+);
+
+create index idx_dead_letter_consumer_available on transaction_dead_letters (consumer, available_at);
@@ -0,0 +1,127 @@
+-- Schema as mapped by the JPA entities at the time migrations were introduced.
+
+create table users (
+    id                uuid         not null primary key,
+    email             varchar(255) not null,
+    password_hash     varchar(255) not null,
+    full_name         varchar(150) not null,
+    role              varchar(20)  not null check (role in ('USER', 'ADMIN')),
+    avatar_url        varchar(255),
+    two_factor_secret varchar(32),
+    created_at        timestamp(6) with time zone not null,
+    updated_at        timestamp(6) with time zone not null,
+    constraint uk_user_email unique (email)
+);
+
+create table shared_wallets (
+    id         uuid         not null primary key,
+    name       varchar(120) not null,
+    owner_id   uuid         not null references users,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null
+);
+
+create index idx_shared_wallet_owner on shared_wallets (owner_id);
+
+create table shared_wallet_members (
+    id              uuid          not null primary key,
+    wallet_id       uuid          not null references shared_wallets,
+    member_id       uuid          not null references users,
+    share_ratio     numeric(5, 4) not null,
+    running_balance numeric(14, 2) not null,
+    is_admin        boolean       not null,
+    created_at      timestamp(6) with time zone not null,
+    updated_at      timestamp(6) with time zone not null,
+    constraint idx_wallet_member unique (wallet_id, member_id)
+);
+
+create table transactions (
+    id             uuid           not null primary key,
+    user_id        uuid           not null references users,
+    wallet_id      uuid references shared_wallets,
+    title          varchar(120)   not null,
+    amount         numeric(14, 2) not null,
+    currency       varchar(3)     not null,
+    category       varchar(60)    not null,
+    type           varchar(20)    not null check (type in ('INCOME', 'EXPENSE')),
+    event_date     date           not null,
+    note           varchar(1024),
+    attachment_url varchar(255),
+    created_at     timestamp(6) with time zone not null,
+    updated_at     timestamp(6) with time zone not null
+);
+
+create index idx_transaction_user_date on transactions (user_id, event_date);
+
+create table budgets (
+    id              uuid           not null primary key,
+    user_id         uuid           not null references users,
+    month           varchar(7)     not null,
+    category        varchar(60),
+    amount          numeric(14, 2) not null,
+    used_amount     numeric(14, 2) not null,
+    alert_threshold numeric(3, 2)  not null,
+    created_at      timestamp(6) with time zone not null,
+    updated_at      timestamp(6) with time zone not null
+);
+
+create index idx_budget_user_month on budgets (user_id, month);
+
+create table notifications (
+    id         uuid          not null primary key,
+    user_id    uuid          not null references users,
+    type       varchar(40)   not null check (type in ('BUDGET_LIMIT', 'RECURRING_REMINDER', 'SECURITY',
+                                                      'SPENDING_INSIGHT', 'REPORT_READY', 'SYSTEM')),
+    title      varchar(120)  not null,
+    message    varchar(1024) not null,
+    metadata   varchar(2048),
+    is_read    boolean       not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null
+);
+
+create index idx_notification_user_read on notifications (user_id, is_read);
+
+create table recurring_jobs (
+    id                      uuid        not null primary key,
+    user_id                 uuid        not null references users,
+    template_transaction_id uuid        not null references transactions,
+    frequency               varchar(20) not null check (frequency in ('DAILY', 'WEEKLY', 'MONTHLY', 'YEARLY')),
+    next_run_at             timestamp(6) with time zone not null,
+    last_run_at             timestamp(6) with time zone,
+    active                  boolean     not null,
+    created_at              timestamp(6) with time zone not null,
+    updated_at              timestamp(6) with time zone not null
+);
+
+create index idx_recurring_next_run on recurring_jobs (next_run_at);
+
+create table spending_insight_states (
+    id         uuid        not null primary key,
+    user_id    uuid        not null references users,
+    category   varchar(60) not null,
+    state      bytea       not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    constraint uk_insight_user_category unique (user_id, category)
+);
+
+create table report_jobs (
+    id              uuid        not null primary key,
+    user_id         uuid        not null references users,
+    format          varchar(10) not null check (format in ('XLSX', 'PDF')),
+    status          varchar(20) not null check (status in ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED')),
+    from_date       date        not null,
+    to_date         date        not null,
+    file_path       varchar(255),
+    row_count       bigint      not null,
+    file_size       bigint      not null,
+    allocated_bytes bigint      not null,
+    started_at      timestamp(6) with time zone,
+    finished_at     timestamp(6) with time zone,
+    error_message   varchar(1024),
+    created_at      timestamp(6) with time zone not null,
+    updated_at      timestamp(6) with time zone not null
+);
+
+create index idx_report_user_created on report_jobs (user_id, created_at);
@@ -0,0 +1,35 @@
+-- Indexes backed by the EXPLAIN plans of the repository queries (see IndexAdvisorTests).
+
+-- Per-user history, counts and aggregates read only the index.
+drop index idx_transaction_user_date;
+create index idx_transaction_user_date on transactions (user_id, event_date)
+    include (type, category, amount, wallet_id);
+
+-- findBySharedWalletId pages newest first; most transactions have no wallet. Also serves the wallet foreign key.
+create index idx_transaction_wallet_date on transactions (wallet_id, event_date desc)
+    where wallet_id is not null;
+
+-- findByUserId / findTop20ByUserIdOrderByCreatedAtDesc sort on created_at; unread lookups only touch unread rows.
+drop index idx_notification_user_read;
+create index idx_notification_user_created on notifications (user_id, created_at desc);
+create index idx_notification_user_unread on notifications (user_id, created_at desc)
+    where is_read = false;
+
+-- findByMemberId; the unique (wallet_id, member_id) constraint cannot serve member-first lookups.
+create index idx_wallet_member_member on shared_wallet_members (member_id);
+
+-- findByEmailIgnoreCase / existsByEmailIgnoreCase compare upper(email).
+create index idx_user_email_upper on users (upper(email));
+
+-- The scheduler only polls active jobs.
+drop index idx_recurring_next_run;
+create index idx_recurring_next_run on recurring_jobs (next_run_at)
+    where active;
+
+-- findByUserId, findByUserIdAndTemplateTransactionId and the template foreign key.
+create index idx_recurring_user on recurring_jobs (user_id);
+create index idx_recurring_template on recurring_jobs (template_transaction_id);
+
+-- Startup resume of unfinished report jobs.
+create index idx_report_pending on report_jobs (status)
+    where status in ('QUEUED', 'RUNNING');
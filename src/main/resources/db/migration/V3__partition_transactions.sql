@@ -0,0 +1,146 @@
+-- Range-partitions transactions by calendar month of event_date. Reads that bound event_date (TransactionFilter
+-- from/to, reports, time series) are pruned to the partitions they touch; rows outside every monthly partition land
+-- in transactions_default until maintenance carves a partition out for them (see TransactionPartitionMaintenance).
+--
+-- Unique constraints on a partitioned table must contain the partition key, so the primary key becomes
+-- (id, event_date) and recurring_jobs.template_transaction_id can no longer be a foreign key.
+
+alter table recurring_jobs drop constraint recurring_jobs_template_transaction_id_fkey;
+
+alter table transactions rename to transactions_unpartitioned;
+alter table transactions_unpartitioned rename constraint transactions_pkey to transactions_unpartitioned_pkey;
+drop index idx_transaction_user_date;
+drop index idx_transaction_wallet_date;
+
+create table transactions (
+    id             uuid           not null,
+    user_id        uuid           not null references users,
+    wallet_id      uuid references shared_wallets,
+    title          varchar(120)   not null,
+    amount         numeric(14, 2) not null,
+    currency       varchar(3)     not null,
+    category       varchar(60)    not null,
+    type           varchar(20)    not null check (type in ('INCOME', 'EXPENSE')),
+    event_date     date           not null,
+    note           varchar(1024),
+    attachment_url varchar(255),
+    created_at     timestamp(6) with time zone not null,
+    updated_at     timestamp(6) with time zone not null,
+    constraint transactions_pkey primary key (id, event_date)
+) partition by range (event_date);
+
+create table transactions_default partition of transactions default;
+
+-- One row per monthly partition; archived_at is set once the partition has moved to the archive store.
+create table transaction_partitions (
+    partition_name varchar(63) not null primary key,
+    range_start    date        not null,
+    range_end      date        not null,
+    archived_at    timestamp(6) with time zone
+);
+
+-- Creates the partition holding month_start's month, moving any rows for it out of the default partition first.
+-- Returns the partition name, or null when it already exists.
+create function fintrack_create_transaction_partition(month_start date) returns text
+    language plpgsql as $$
+declare
+    part_start date := date_trunc('month', month_start)::date;
+    part_end   date := (date_trunc('month', month_start) + interval '1 month')::date;
+    part_name  text := 'transactions_' || to_char(part_start, 'YYYY_MM');
+begin
+    if to_regclass(part_name) is not null then
+        return null;
+    end if;
+    execute format('create table %I (like transactions including defaults including constraints)', part_name);
+    execute format('with moved as (delete from transactions_default where event_date >= %L and event_date < %L '
+                   'returning *) insert into %I select * from moved', part_start, part_end, part_name);
+    execute format('alter table transactions attach partition %I for values from (%L) to (%L)',
+                   part_name, part_start, part_end);
+    insert into transaction_partitions (partition_name, range_start, range_end)
+    values (part_name, part_start, part_end);
+    return part_name;
+end;
+$$;
+
+-- Creates partitions for the current month and months_ahead months after it, plus every earlier month that has
+-- rows sitting in the default partition. Returns the partitions created.
+create function fintrack_ensure_transaction_partitions(months_ahead integer) returns setof text
+    language plpgsql as $$
+declare
+    first_month date := date_trunc('month', current_date)::date;
+    last_month  date := (date_trunc('month', current_date) + make_interval(months => months_ahead))::date;
+    month_start date;
+    created     text;
+begin
+    for month_start in
+        select distinct date_trunc('month', event_date)::date
+        from transactions_default
+        where event_date < first_month
+        union
+        select generate_series(first_month, last_month, interval '1 month')::date
+        order by 1
+    loop
+        created := fintrack_create_transaction_partition(month_start);
+        if created is not null then
+            return next created;
+        end if;
+    end loop;
+end;
+$$;
+
+create function fintrack_reject_archived_write() returns trigger
+    language plpgsql as $$
+begin
+    raise exception 'Transactions in archived partition % are read-only', tg_table_name
+        using errcode = 'read_only_sql_transaction';
+end;
+$$;
+
+-- Moves every partition whose range ends on or before cutoff to the archive store: writes are rejected by trigger
+-- and, when archive_tablespace is given, the table and its indexes move to that (cheaper, compressed) tablespace.
+-- Archived partitions stay attached, so the same queries still reach them. Returns the partitions archived.
+create function fintrack_archive_transaction_partitions(cutoff date, archive_tablespace text) returns setof text
+    language plpgsql as $$
+declare
+    part_name  text;
+    index_name text;
+begin
+    for part_name in
+        select partition_name
+        from transaction_partitions
+        where archived_at is null and range_end <= cutoff
+        order by range_start
+    loop
+        execute format('create trigger trg_transactions_archived before insert or update or delete on %I '
+                       'for each row execute function fintrack_reject_archived_write()', part_name);
+        execute format('alter table %I set (fillfactor = 100)', part_name);
+        if archive_tablespace is not null then
+            execute format('alter table %I set tablespace %I', part_name, archive_tablespace);
+            for index_name in
+                select indexrelid::regclass::text from pg_index where indrelid = part_name::regclass
+            loop
+                execute format('alter index %s set tablespace %I', index_name, archive_tablespace);
+            end loop;
+        end if;
+        update transaction_partitions set archived_at = now() where partition_name = part_name;
+        return next part_name;
+    end loop;
+end;
+$$;
+
+select fintrack_create_transaction_partition(month_start)
+from (select distinct date_trunc('month', event_date)::date as month_start from transactions_unpartitioned) months;
+select fintrack_ensure_transaction_partitions(3);
+
+insert into transactions (id, user_id, wallet_id, title, amount, currency, category, type, event_date, note,
+                          attachment_url, created_at, updated_at)
+select id, user_id, wallet_id, title, amount, currency, category, type, event_date, note,
+       attachment_url, created_at, updated_at
+from transactions_unpartitioned;
+
+drop table transactions_unpartitioned;
+
+create index idx_transaction_user_date on transactions (user_id, event_date)
+    include (type, category, amount, wallet_id);
+create index idx_transaction_wallet_date on transactions (wallet_id, event_date desc)
+    where wallet_id is not null;
@@ -0,0 +1,44 @@
+-- Monthly balance checkpoints per user and per shared wallet (see BalanceCheckpointWriter). opening_balance is the
+-- running balance at the start of month_start, net_change the month's income minus expenses.
+
+create table balance_checkpoints (
+    id              uuid           not null primary key,
+    user_id         uuid references users,
+    wallet_id       uuid references shared_wallets,
+    month_start     date           not null,
+    opening_balance numeric(16, 2) not null,
+    net_change      numeric(16, 2) not null,
+    created_at      timestamp(6) with time zone not null,
+    updated_at      timestamp(6) with time zone not null,
+    constraint ck_balance_checkpoint_owner check ((user_id is null) <> (wallet_id is null))
+);
+
+-- Latest-checkpoint lookups and monthly ranges read only the index.
+create unique index idx_balance_checkpoint_user on balance_checkpoints (user_id, month_start)
+    include (opening_balance, net_change) where user_id is not null;
+create unique index idx_balance_checkpoint_wallet on balance_checkpoints (wallet_id, month_start)
+    include (opening_balance, net_change) where wallet_id is not null;
+
+-- Backfill from existing transactions.
+insert into balance_checkpoints (id, user_id, wallet_id, month_start, opening_balance, net_change, created_at,
+                                 updated_at)
+select gen_random_uuid(), user_id, null, month_start,
+       coalesce(sum(net_change) over (partition by user_id order by month_start
+                                      rows between unbounded preceding and 1 preceding), 0),
+       net_change, now(), now()
+from (select user_id, date_trunc('month', event_date)::date as month_start,
+             sum(case when type = 'INCOME' then amount else -amount end) as net_change
+      from transactions
+      group by 1, 2) monthly;
+
+insert into balance_checkpoints (id, user_id, wallet_id, month_start, opening_balance, net_change, created_at,
+                                 updated_at)
+select gen_random_uuid(), null, wallet_id, month_start,
+       coalesce(sum(net_change) over (partition by wallet_id order by month_start
+                                      rows between unbounded preceding and 1 preceding), 0),
+       net_change, now(), now()
+from (select wallet_id, date_trunc('month', event_date)::date as month_start,
+             sum(case when type = 'INCOME' then amount else -amount end) as net_change
+      from transactions
+      where wallet_id is not null
+      group by 1, 2) monthly;
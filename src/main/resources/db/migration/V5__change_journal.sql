@@ -0,0 +1,27 @@
+-- Append-only change journal of every AuditableEntity write (see ChangeJournalListener). Entries are numbered per
+-- user; change_journal_heads holds the last number handed out. Neither table references users, so the history
+-- outlives the rows it describes.
+
+create table change_journal (
+    id          uuid        not null primary key,
+    user_id     uuid        not null,
+    seq         bigint      not null,
+    entity_type varchar(40) not null,
+    entity_id   uuid        not null,
+    operation   varchar(10) not null,
+    changed_at  timestamp(6) with time zone not null,
+    payload     bytea       not null
+);
+
+-- Feed reads walk one user's sequence; time travel reads one entity's entries in order.
+create unique index idx_change_journal_user_seq on change_journal (user_id, seq);
+create index idx_change_journal_entity on change_journal (entity_id, seq);
+
+create table change_journal_heads (
+    user_id  uuid   not null primary key,
+    last_seq bigint not null
+);
+
+-- Existing users start at zero, so only users created from now on take the insert path.
+insert into change_journal_heads (user_id, last_seq)
+select id, 0 from users;
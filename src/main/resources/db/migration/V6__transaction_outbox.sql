@@ -0,0 +1,14 @@
+-- Transactional outbox for TransactionChangedEvents (see TransactionOutbox). Rows are written in the transaction
+-- that changes the transaction row, claimed by one application instance's event bus after commit, and deleted once
+-- every after-commit consumer has seen them.
+
+create table transaction_outbox (
+    id             bigint generated by default as identity primary key,
+    transaction_id uuid   not null,
+    user_id        uuid   not null,
+    before_state   bytea,
+    after_state    bytea,
+    created_at     timestamp(6) with time zone not null,
+    claimed_by     uuid,
+    claimed_at     timestamp(6) with time zone
+);
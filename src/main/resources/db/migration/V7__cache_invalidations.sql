@@ -0,0 +1,10 @@
+-- Cache invalidation messages for nodes using the polled transport (see TableInvalidationTransport). Each node
+-- reads the rows past the highest id it has seen; rows are deleted once older than fintrack.invalidation.retention.
+
+create table cache_invalidations (
+    id         bigint generated by default as identity primary key,
+    payload    bytea  not null,
+    created_at timestamp(6) with time zone not null
+);
+
+create index idx_cache_invalidations_created_at on cache_invalidations (created_at);
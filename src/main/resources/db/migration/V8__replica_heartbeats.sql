@@ -0,0 +1,9 @@
+-- Heartbeat row for measuring read replica lag (see ReplicaLagMonitor). Nodes stamp it on the primary and read it
+-- back from the replica; the age of the replica's copy is the lag.
+
+create table replica_heartbeats (
+    id      integer primary key,
+    beat_at timestamp(6) with time zone not null
+);
+
+insert into replica_heartbeats (id, beat_at) values (1, now());
@@ -0,0 +1,20 @@
+-- Shard directory (see ShardDirectory), used on the first shard only; the other shards carry the tables empty.
+-- shard_placements pins users the hash ring would put elsewhere, shard_wallet_members records which users share a
+-- wallet and so have to live on the wallet owner's shard.
+
+create table shard_placements (
+    user_id    uuid    not null primary key,
+    shard      integer not null,
+    moving     boolean not null,
+    updated_at timestamp(6) with time zone not null
+);
+
+create table shard_wallet_members (
+    wallet_id uuid not null,
+    member_id uuid not null,
+    owner_id  uuid not null,
+    constraint shard_wallet_members_pkey primary key (wallet_id, member_id)
+);
+
+create index idx_shard_wallet_members_member on shard_wallet_members (member_id);
+create index idx_shard_wallet_members_owner on shard_wallet_members (owner_id);
@@ -0,0 +1,162 @@
+package com.lothbrok.fintrack.analytics.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionChangedEvent;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.repository.projection.TransactionColumnsRow;
+
+/**
+ * Runs the cache over an in-memory stand-in for the two repository queries it uses, so loads can be held mid-stream
+ * while changes arrive.
+ */
+class ColumnarSnapshotCacheTests {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 6);
+
+    private final UUID userId = UUID.randomUUID();
+    private final List<Row> rows = new CopyOnWriteArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private volatile Runnable duringLoad = () -> { };
+
+    record Row(UUID getId, LocalDate getEventDate, BigDecimal getAmount, String getCategory, TransactionType getType,
+            UUID getWalletId) implements TransactionColumnsRow {
+    }
+
+    @Test
+    void appliesCommittedChangesToResidentSnapshots() {
+        ColumnarSnapshotCache cache = cache(Long.MAX_VALUE);
+        UUID first = add("12.50");
+        ColumnarSnapshot snapshot = cache.getOrLoad(userId);
+        assertThat(cache.getOrLoad(userId)).isSameAs(snapshot);
+        assertThat(loads).hasValue(1);
+
+        UUID second = UUID.randomUUID();
+        cache.onTransactionChanged(new TransactionChangedEvent(null, snapshot(second, "4.00")));
+        // A change the snapshot already streamed in is applied without counting twice.
+        cache.onTransactionChanged(new TransactionChangedEvent(null, snapshot(first, "12.50")));
+        cache.onTransactionChanged(new TransactionChangedEvent(snapshot(first, "12.50"), snapshot(first, "20.00")));
+        assertThat(expenses(snapshot)).isEqualTo(2400);
+
+        cache.onTransactionChanged(new TransactionChangedEvent(snapshot(second, "4.00"), null));
+        assertThat(expenses(snapshot)).isEqualTo(2000);
+        assertThat(snapshot.liveRows()).isEqualTo(1);
+        assertThat(cache.residentBytes()).isEqualTo(snapshot.estimatedBytes());
+    }
+
+    @Test
+    void invalidationFromAnotherNodeDropsTheSnapshot() {
+        ColumnarSnapshotCache cache = cache(Long.MAX_VALUE);
+        add("1.00");
+        cache.getOrLoad(userId);
+
+        cache.onInvalidations(List.of(new Invalidation("Budget", userId, 3)));
+        assertThat(cache.peek(userId)).isPresent();
+        cache.onInvalidations(List.of(new Invalidation("Transaction", userId, 4)));
+        assertThat(cache.peek(userId)).isEmpty();
+        assertThat(cache.residentBytes()).isZero();
+    }
+
+    @Test
+    void snapshotsOverTheBudgetAreEvictedLeastRecentlyUsedFirst() {
+        ColumnarSnapshotCache cache = cache(1);
+        UUID other = UUID.randomUUID();
+
+        cache.getOrLoad(other);
+        cache.getOrLoad(userId);
+
+        assertThat(cache.peek(userId)).isPresent();
+        assertThat(cache.peek(other)).isEmpty();
+    }
+
+    @Test
+    void changeDuringConcurrentLoadsKeepsEitherFromBeingCached() throws Exception {
+        ColumnarSnapshotCache cache = cache(Long.MAX_VALUE);
+        add("1.00");
+        CountDownLatch bothStreaming = new CountDownLatch(2);
+        CountDownLatch changed = new CountDownLatch(1);
+        duringLoad = () -> {
+            bothStreaming.countDown();
+            await(changed);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<ColumnarSnapshot> first = executor.submit(() -> cache.getOrLoad(userId));
+        Future<ColumnarSnapshot> second = executor.submit(() -> cache.getOrLoad(userId));
+        executor.shutdown();
+        await(bothStreaming);
+        duringLoad = () -> { };
+        UUID added = add("2.00");
+        cache.onTransactionChanged(new TransactionChangedEvent(null, snapshot(added, "2.00")));
+        changed.countDown();
+
+        assertThat(expenses(first.get(10, TimeUnit.SECONDS))).isEqualTo(300);
+        assertThat(expenses(second.get(10, TimeUnit.SECONDS))).isEqualTo(300);
+        assertThat(cache.peek(userId)).isEmpty();
+        assertThat(expenses(cache.getOrLoad(userId))).isEqualTo(300);
+        assertThat(cache.peek(userId)).isPresent();
+    }
+
+    private ColumnarSnapshotCache cache(long maxBytes) {
+        TransactionRepository repository = (TransactionRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { TransactionRepository.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "countByUserId" -> args[0].equals(userId) ? (long) rows.size() : 0L;
+                    case "streamColumnsByUserId" -> {
+                        loads.incrementAndGet();
+                        List<Row> streamed = args[0].equals(userId) ? List.copyOf(rows) : List.of();
+                        duringLoad.run();
+                        yield streamed.stream().map(TransactionColumnsRow.class::cast);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new ColumnarSnapshotCache(repository, new ColumnarCacheProperties(true, maxBytes));
+    }
+
+    private UUID add(String amount) {
+        UUID id = UUID.randomUUID();
+        rows.add(new Row(id, DAY, new BigDecimal(amount), "Food", TransactionType.EXPENSE, null));
+        return id;
+    }
+
+    private TransactionSnapshot snapshot(UUID id, String amount) {
+        return new TransactionSnapshot(id, userId, null, new BigDecimal(amount), "USD", "Food",
+                TransactionType.EXPENSE, DAY);
+    }
+
+    private static long expenses(ColumnarSnapshot snapshot) {
+        int day = (int) DAY.toEpochDay();
+        Map<String, long[][]> totals = snapshot.groupByCategoryAndBucket(new int[] { day, day + 1 },
+                ColumnarSnapshot.TYPE_EXPENSE, null, null, Long.MIN_VALUE, Long.MAX_VALUE);
+        return totals.isEmpty() ? 0 : totals.get("Food")[1][0];
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.lothbrok.fintrack.analytics.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+
+class ColumnarSnapshotTests {
+
+    private static final int DAY = 19_800;
+    private static final int[] WEEKS = { DAY, DAY + 7, DAY + 14 };
+
+    @Test
+    void bucketsCoverTheirFirstDayButNotTheNextBound() {
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(0);
+        snapshot.append(UUID.randomUUID(), DAY - 1, 1, "Food", TransactionType.EXPENSE, null);
+        snapshot.append(UUID.randomUUID(), DAY, 10, "Food", TransactionType.EXPENSE, null);
+        snapshot.append(UUID.randomUUID(), DAY + 6, 20, "Food", TransactionType.EXPENSE, null);
+        snapshot.append(UUID.randomUUID(), DAY + 7, 40, "Food", TransactionType.EXPENSE, null);
+        snapshot.append(UUID.randomUUID(), DAY + 13, 500, "Salary", TransactionType.INCOME, null);
+        snapshot.append(UUID.randomUUID(), DAY + 14, 80, "Food", TransactionType.EXPENSE, null);
+
+        Map<String, long[][]> totals = all(snapshot, WEEKS);
+
+        assertThat(totals).containsOnlyKeys("Food", "Salary");
+        assertThat(totals.get("Food")[0]).containsExactly(0, 0);
+        assertThat(totals.get("Food")[1]).containsExactly(30, 40);
+        assertThat(totals.get("Salary")[0]).containsExactly(0, 500);
+        assertThat(totals.get("Salary")[1]).containsExactly(0, 0);
+    }
+
+    @Test
+    void boundsTooFarApartForTheLookupTableAreSearched() {
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(0);
+        snapshot.append(UUID.randomUUID(), 5, 3, "Food", TransactionType.EXPENSE, null);
+        snapshot.append(UUID.randomUUID(), DAY, 7, "Food", TransactionType.EXPENSE, null);
+
+        Map<String, long[][]> totals = all(snapshot, new int[] { 0, DAY, DAY + 2_000_000 });
+
+        assertThat(totals.get("Food")[1]).containsExactly(3, 7);
+    }
+
+    @Test
+    void filtersByTypeWalletCategoryAndAmount() {
+        UUID wallet = UUID.randomUUID();
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(0);
+        snapshot.append(UUID.randomUUID(), DAY, 100, "Food", TransactionType.EXPENSE, wallet);
+        snapshot.append(UUID.randomUUID(), DAY, 200, "Food", TransactionType.EXPENSE, null);
+        snapshot.append(UUID.randomUUID(), DAY, 300, "Rent", TransactionType.EXPENSE, null);
+        snapshot.append(UUID.randomUUID(), DAY, 400, "Salary", TransactionType.INCOME, wallet);
+
+        assertThat(snapshot.groupByCategoryAndBucket(WEEKS, ColumnarSnapshot.TYPE_INCOME, null, null,
+                Long.MIN_VALUE, Long.MAX_VALUE)).containsOnlyKeys("Salary");
+        assertThat(snapshot.groupByCategoryAndBucket(WEEKS, ColumnarSnapshot.TYPE_DELETED, wallet, null,
+                Long.MIN_VALUE, Long.MAX_VALUE)).containsOnlyKeys("Food", "Salary")
+                .hasEntrySatisfying("Food", food -> assertThat(food[1]).containsExactly(100, 0));
+        assertThat(snapshot.groupByCategoryAndBucket(WEEKS, ColumnarSnapshot.TYPE_DELETED, UUID.randomUUID(), null,
+                Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+        assertThat(snapshot.groupByCategoryAndBucket(WEEKS, ColumnarSnapshot.TYPE_DELETED, null,
+                List.of("Rent", "Unknown"), Long.MIN_VALUE, Long.MAX_VALUE)).containsOnlyKeys("Rent");
+        // Amount bounds are inclusive.
+        assertThat(snapshot.groupByCategoryAndBucket(WEEKS, ColumnarSnapshot.TYPE_EXPENSE, null, null, 200, 300))
+                .containsOnlyKeys("Food", "Rent")
+                .hasEntrySatisfying("Food", food -> assertThat(food[1]).containsExactly(200, 0));
+    }
+
+    @Test
+    void replaceMovesARowAndAppendsWhenAbsent() {
+        UUID id = UUID.randomUUID();
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(0);
+        snapshot.append(id, DAY, 10, "Food", TransactionType.EXPENSE, null);
+
+        snapshot.replace(id, DAY + 7, 25, "Rent", TransactionType.EXPENSE, null);
+        snapshot.replace(id, DAY + 8, 30, "Rent", TransactionType.EXPENSE, null);
+        snapshot.replace(UUID.randomUUID(), DAY, 5, "Food", TransactionType.EXPENSE, null);
+
+        assertThat(snapshot.liveRows()).isEqualTo(2);
+        Map<String, long[][]> totals = all(snapshot, WEEKS);
+        assertThat(totals.get("Food")[1]).containsExactly(5, 0);
+        assertThat(totals.get("Rent")[1]).containsExactly(0, 30);
+    }
+
+    @Test
+    void removeTombstonesOnceAndCompactsPastAQuarter() {
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(0);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            snapshot.append(id, DAY + i, 1L << i, "Food", TransactionType.EXPENSE, null);
+        }
+
+        assertThat(snapshot.remove(ids.get(0))).isTrue();
+        assertThat(snapshot.remove(ids.get(0))).isFalse();
+        assertThat(snapshot.remove(UUID.randomUUID())).isFalse();
+        assertThat(snapshot.remove(ids.get(3))).isTrue();
+        // The third tombstone passes a quarter of the rows and compacts.
+        assertThat(snapshot.remove(ids.get(5))).isTrue();
+        assertThat(snapshot.liveRows()).isEqualTo(5);
+
+        // Rows moved by the compaction are still found by id.
+        snapshot.replace(ids.get(7), DAY + 7, 1000, "Food", TransactionType.EXPENSE, null);
+        assertThat(snapshot.remove(ids.get(6))).isTrue();
+        assertThat(snapshot.liveRows()).isEqualTo(4);
+        assertThat(all(snapshot, WEEKS).get("Food")[1]).containsExactly(2 + 4 + 16, 1000);
+    }
+
+    @Test
+    void findsEveryRowAfterGrowing() {
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(0);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = new UUID(i >>> 3, i);
+            ids.add(id);
+            snapshot.append(id, DAY + i % 14, 1, "Food", TransactionType.EXPENSE, null);
+        }
+        long bytes = snapshot.estimatedBytes();
+
+        for (int i = 0; i < ids.size(); i += 2) {
+            assertThat(snapshot.remove(ids.get(i))).isTrue();
+        }
+        for (int i = 1; i < ids.size(); i += 2) {
+            snapshot.replace(ids.get(i), DAY, 3, "Food", TransactionType.EXPENSE, null);
+        }
+
+        assertThat(snapshot.liveRows()).isEqualTo(5_000);
+        assertThat(all(snapshot, WEEKS).get("Food")[1]).containsExactly(15_000, 0);
+        assertThat(snapshot.estimatedBytes()).isLessThanOrEqualTo(bytes);
+    }
+
+    private static Map<String, long[][]> all(ColumnarSnapshot snapshot, int[] bounds) {
+        return snapshot.groupByCategoryAndBucket(bounds, ColumnarSnapshot.TYPE_DELETED, null, null, Long.MIN_VALUE,
+                Long.MAX_VALUE);
+    }
+}
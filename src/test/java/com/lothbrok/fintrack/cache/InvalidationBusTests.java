@@ -0,0 +1,181 @@
+package com.lothbrok.fintrack.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.metrics.MetricsProperties;
+import com.lothbrok.fintrack.support.TestData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Each test starts extra buses next to the application's own, standing in for other nodes on the same database,
+ * over whichever transport the application picked for it.
+ */
+@SpringBootTest
+class InvalidationBusTests {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private InvalidationProperties properties;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    private final List<InvalidationBus> nodes = new ArrayList<>();
+    private UUID userId;
+
+    static class RecordingListener implements InvalidationListener {
+
+        private final List<Invalidation> received = new ArrayList<>();
+
+        @Override
+        public synchronized void onInvalidations(List<Invalidation> invalidations) {
+            received.addAll(invalidations);
+        }
+
+        synchronized List<Invalidation> received() {
+            return List.copyOf(received);
+        }
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(InvalidationBus::stop);
+        if (userId == null) {
+            return;
+        }
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints",
+                "transactions")) {
+            jdbc.update("delete from " + table + " where user_id = ?", userId);
+        }
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void coalescesAndReachesOnlyOtherNodes() {
+        RecordingListener senderListener = new RecordingListener();
+        RecordingListener receiverListener = new RecordingListener();
+        InvalidationBus sender = node(senderListener);
+        node(receiverListener);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        sender.publish("Transaction", first, 3);
+        sender.publish("Transaction", first, 5);
+        sender.publish("Budget", first, 4);
+        sender.publish("Transaction", second, 7);
+
+        awaitTrue(() -> receiverListener.received().size() >= 3);
+        assertThat(receiverListener.received()).containsExactlyInAnyOrder(
+                new Invalidation("Transaction", first, 5),
+                new Invalidation("Budget", first, 4),
+                new Invalidation("Transaction", second, 7));
+        assertThat(senderListener.received()).isEmpty();
+    }
+
+    @Test
+    void commitOnOneNodeInvalidatesTheOthers() {
+        RecordingListener listener = new RecordingListener();
+        node(listener);
+
+        userId = transactionTemplate.execute(status -> {
+            TestData data = new TestData(entityManager);
+            return data.transaction(data.user("Invalidation"), null, "Food", "9.00", LocalDate.of(2024, 8, 1))
+                    .getUser().getId();
+        });
+        long head = jdbc.queryForObject("select last_seq from change_journal_heads where user_id = ?", Long.class,
+                userId);
+
+        awaitTrue(() -> listener.received().stream()
+                .anyMatch(invalidation -> invalidation.userId().equals(userId)
+                        && invalidation.entityType().equals("Transaction")));
+        assertThat(listener.received()).filteredOn(invalidation -> invalidation.userId().equals(userId))
+                .extracting(Invalidation::entityType)
+                .contains("User", "Transaction");
+        assertThat(listener.received()).filteredOn(invalidation -> invalidation.entityType().equals("Transaction")
+                && invalidation.userId().equals(userId))
+                .extracting(Invalidation::version)
+                .allSatisfy(version -> assertThat(version).isLessThanOrEqualTo(head));
+    }
+
+    @Test
+    void largeFlushesAreSplitWithinTheTransportLimit() {
+        Map<InvalidationBus.Key, Long> invalidations = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            invalidations.put(new InvalidationBus.Key(i % 2 == 0 ? "Transaction" : "Notification", UUID.randomUUID()),
+                    (long) i);
+        }
+        UUID nodeId = UUID.randomUUID();
+        Instant sentAt = Instant.parse("2024-08-01T10:15:30.123456Z");
+
+        List<byte[]> messages = InvalidationBus.encode(nodeId, sentAt, invalidations, 512);
+
+        assertThat(messages).hasSizeGreaterThan(1)
+                .allSatisfy(message -> assertThat(message).hasSizeLessThanOrEqualTo(512));
+        List<Invalidation> decoded = new ArrayList<>();
+        for (byte[] message : messages) {
+            InvalidationBus.Message parsed = InvalidationBus.decode(message);
+            assertThat(parsed.nodeId()).isEqualTo(nodeId);
+            assertThat(parsed.sentAt()).isEqualTo(sentAt);
+            decoded.addAll(parsed.invalidations());
+        }
+        assertThat(decoded).containsExactlyElementsOf(invalidations.entrySet().stream()
+                .map(entry -> new Invalidation(entry.getKey().entityType(), entry.getKey().userId(), entry.getValue()))
+                .toList());
+    }
+
+    private InvalidationBus node(InvalidationListener listener) {
+        InvalidationTransport transport = new InvalidationConfig().invalidationTransport(properties, jdbc,
+                dataSourceProperties);
+        InvalidationBus bus = new InvalidationBus(transport, List.of(listener), properties,
+                new MetricsProperties(null, 0, null, false), new SimpleMeterRegistry());
+        bus.start();
+        nodes.add(bus);
+        // Let the node connect, or read its starting position, before anything is sent.
+        LockSupport.parkNanos(properties.pollInterval().multipliedBy(2).toNanos());
+        return bus;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 10s").isLessThan(deadline);
+            LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.lothbrok.fintrack.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.support.TestData;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Runs against two local databases: a primary and a replica that starts as a copy of the primary's schema and is
+ * never replicated to afterwards, so a row written during a test is visible only where the read went to the
+ * primary. The replica's heartbeat row is set by hand to stand in for replication lag, and the lag is re-measured
+ * on demand instead of on the monitor's schedule.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "fintrack.datasource.replica.url=" + ReplicaRoutingTests.REPLICA_URL,
+        "fintrack.datasource.replica.username=sa",
+        "fintrack.datasource.replica.password=",
+        "fintrack.datasource.replica.max-lag=200ms",
+        "fintrack.datasource.replica.stickiness=300ms",
+        "fintrack.datasource.replica.lag-check-interval=1h"
+})
+class ReplicaRoutingTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:fintrack-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;NON_KEYWORDS=MONTH,YEAR,VALUE";
+    static final String REPLICA_URL = "jdbc:h2:mem:fintrack-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;NON_KEYWORDS=MONTH,YEAR,VALUE";
+
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private static boolean replicaCreated;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    @Autowired
+    private ReplicaRouter router;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private UUID userId;
+
+    @BeforeEach
+    void createReplica() {
+        if (!replicaCreated) {
+            jdbc.queryForList("script", String.class).forEach(REPLICA::execute);
+            replicaCreated = true;
+        }
+    }
+
+    @AfterEach
+    void removeCommittedRows() {
+        if (userId == null) {
+            return;
+        }
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints",
+                "transactions")) {
+            jdbc.update("delete from " + table + " where user_id = ?", userId);
+        }
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void readOnlyTransactionsReadTheReplica() {
+        replicaBehindBy(Duration.ZERO);
+        UUID transactionId = createTransaction();
+
+        assertThat(transactionRepository.findById(transactionId)).isEmpty();
+        assertThat(foundInTransaction(transactionId, true)).isFalse();
+        assertThat(foundInTransaction(transactionId, false)).isTrue();
+    }
+
+    @Test
+    void laggingOrUnreadableReplicaFallsBackToPrimary() {
+        UUID transactionId = createTransaction();
+        double fallbacksBefore = routed("primary", "lag");
+
+        replicaBehindBy(Duration.ofSeconds(5));
+        assertThat(transactionRepository.findById(transactionId)).isPresent();
+
+        REPLICA.execute("alter table replica_heartbeats rename to replica_heartbeats_paused");
+        try {
+            monitor.check();
+            assertThat(transactionRepository.findById(transactionId)).isPresent();
+        } finally {
+            REPLICA.execute("alter table replica_heartbeats_paused rename to replica_heartbeats");
+        }
+        assertThat(routed("primary", "lag")).isGreaterThanOrEqualTo(fallbacksBefore + 2);
+
+        replicaBehindBy(Duration.ZERO);
+        assertThat(transactionRepository.findById(transactionId)).isEmpty();
+    }
+
+    @Test
+    void usersReadTheirOwnWritesUntilTheReplicaHasCaughtUp() {
+        replicaBehindBy(Duration.ZERO);
+        UUID transactionId = createTransaction();
+
+        try (ReplicaRouter.Scope scope = router.forUser(userId)) {
+            assertThat(transactionRepository.findById(transactionId)).isPresent();
+        }
+        try (ReplicaRouter.Scope scope = router.forUser(UUID.randomUUID())) {
+            assertThat(transactionRepository.findById(transactionId)).isEmpty();
+        }
+
+        LockSupport.parkNanos(Duration.ofMillis(400).toNanos());
+        try (ReplicaRouter.Scope scope = router.forUser(userId)) {
+            assertThat(transactionRepository.findById(transactionId)).isEmpty();
+
+            // A write on another node, announced through the invalidation bus.
+            router.onInvalidations(List.of(new Invalidation("Transaction", userId, 2)));
+            assertThat(transactionRepository.findById(transactionId)).isPresent();
+        }
+    }
+
+    private UUID createTransaction() {
+        Transaction transaction = transactionTemplate.execute(status -> {
+            TestData data = new TestData(entityManager);
+            return data.transaction(data.user("Replica"), null, "Food", "12.00", LocalDate.of(2024, 9, 1));
+        });
+        userId = transaction.getUser().getId();
+        return transaction.getId();
+    }
+
+    private boolean foundInTransaction(UUID transactionId, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+        return Boolean.TRUE.equals(template.execute(status -> transactionRepository.findById(transactionId)
+                .isPresent()));
+    }
+
+    /** Stamps the replica's heartbeat as if replication were {@code lag} behind, and re-measures. */
+    private void replicaBehindBy(Duration lag) {
+        REPLICA.update("merge into replica_heartbeats (id, beat_at) key (id) values (1, ?)",
+                Timestamp.from(Instant.now().minus(lag)));
+        monitor.check();
+    }
+
+    private double routed(String target, String reason) {
+        return registry.get(ReplicaRouter.PREFIX + "route").tags("target", target, "reason", reason).counter()
+                .count();
+    }
+}
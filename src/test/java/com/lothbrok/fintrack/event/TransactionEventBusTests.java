@@ -0,0 +1,236 @@
+package com.lothbrok.fintrack.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.support.TestData;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Delivery happens after commit on the bus threads, so these tests commit and clean up after themselves. They run
+ * on a database of their own: every other test context has a bus polling the shared one, and whichever claims an
+ * entry first delivers it to its own consumers.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fintrack-events;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;NON_KEYWORDS=MONTH,YEAR,VALUE",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "fintrack.events.ring-size=8",
+        "fintrack.events.max-batch=4",
+        "fintrack.events.poll-interval=20ms",
+        "fintrack.events.dead-letter-retry=100ms"
+})
+class TransactionEventBusTests {
+
+    @TestConfiguration
+    static class RecordingConsumerConfig {
+
+        @Bean
+        RecordingConsumer recordingConsumer() {
+            return new RecordingConsumer();
+        }
+    }
+
+    static class RecordingConsumer implements TransactionEventConsumer {
+
+        private final List<List<TransactionChangedEvent>> batches = new ArrayList<>();
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public synchronized void accept(List<TransactionChangedEvent> events) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Failing on purpose");
+            }
+            batches.add(List.copyOf(events));
+        }
+
+        synchronized List<TransactionChangedEvent> events(UUID userId) {
+            return batches.stream().flatMap(List::stream).filter(event -> event.userId().equals(userId)).toList();
+        }
+
+        synchronized int largestBatch() {
+            return batches.stream().mapToInt(List::size).max().orElse(0);
+        }
+
+        synchronized void reset() {
+            batches.clear();
+            failuresLeft.set(0);
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    @Autowired
+    private RecordingConsumer consumer;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        consumer.reset();
+        inTransaction(em -> userId = new TestData(em).user("Events").getId());
+    }
+
+    @AfterEach
+    void removeCommittedRows() {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints",
+                "transactions", "transaction_dead_letters")) {
+            jdbc.update("delete from " + table + " where user_id = ?", userId);
+        }
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void deliversCommittedChangesInOrderWithSnapshots() {
+        UUID[] ids = new UUID[2];
+        inTransaction(em -> {
+            TestData data = new TestData(em);
+            User user = em.find(User.class, userId);
+            // More than the ring holds, so the relay has to wait for the consumers to free slots.
+            for (int i = 0; i < 20; i++) {
+                Transaction transaction = data.transaction(user, null, "Food", (i + 1) + ".00",
+                        LocalDate.of(2024, 7, 1));
+                if (i < 2) {
+                    ids[i] = transaction.getId();
+                }
+            }
+        });
+        inTransaction(em -> em.find(Transaction.class, ids[0]).setAmount(new BigDecimal("99.00")));
+        inTransaction(em -> em.remove(em.find(Transaction.class, ids[1])));
+
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        List<TransactionChangedEvent> events = consumer.events(userId);
+        assertThat(events).hasSize(22);
+        assertThat(events.subList(0, 20)).allSatisfy(event -> {
+            assertThat(event.kind()).isEqualTo(TransactionChangedEvent.Kind.CREATED);
+            assertThat(event.after().category()).isEqualTo("Food");
+            assertThat(event.after().eventDate()).isEqualTo(LocalDate.of(2024, 7, 1));
+        });
+        assertThat(events.get(0).after().amount()).isEqualByComparingTo("1.00");
+
+        TransactionChangedEvent updated = events.get(20);
+        assertThat(updated.kind()).isEqualTo(TransactionChangedEvent.Kind.UPDATED);
+        assertThat(updated.transactionId()).isEqualTo(ids[0]);
+        assertThat(updated.before().amount()).isEqualByComparingTo("1.00");
+        assertThat(updated.after().amount()).isEqualByComparingTo("99.00");
+        TransactionChangedEvent deleted = events.get(21);
+        assertThat(deleted.kind()).isEqualTo(TransactionChangedEvent.Kind.DELETED);
+        assertThat(deleted.before().amount()).isEqualByComparingTo("2.00");
+
+        assertThat(consumer.largestBatch()).isBetween(1, 4);
+        assertThat(jdbc.queryForObject("select count(*) from transaction_outbox", Integer.class)).isZero();
+        assertThat(registry.get(TransactionEventBus.PREFIX + "consumer.lag").tag("consumer", "recording").gauge()
+                .value()).isZero();
+    }
+
+    @Test
+    void failingBatchIsDeliveredAgain() {
+        double failuresBefore = registry.get(TransactionEventBus.PREFIX + "consumer.failures")
+                .tag("consumer", "recording").counter().count();
+        consumer.failuresLeft.set(1);
+
+        inTransaction(em -> new TestData(em).transaction(em.find(User.class, userId), null, "Food", "5.00",
+                LocalDate.of(2024, 7, 2)));
+
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        assertThat(consumer.events(userId)).hasSize(1);
+        assertThat(registry.get(TransactionEventBus.PREFIX + "consumer.failures").tag("consumer", "recording")
+                .counter().count()).isEqualTo(failuresBefore + 1);
+    }
+
+    @Test
+    void eventsAConsumerKeepsFailingOnAreKeptUntilTheyGoThrough() {
+        consumer.failuresLeft.set(Integer.MAX_VALUE);
+
+        UUID transactionId = transactionTemplate.execute(status -> new TestData(entityManager).transaction(
+                entityManager.find(User.class, userId), null, "Food", "5.00", LocalDate.of(2024, 7, 4)).getId());
+
+        awaitDeadLetters(1);
+        // The other consumers are done with the outbox row, so it is gone; the failed consumer's copy is not.
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        assertThat(jdbc.queryForObject("select count(*) from transaction_outbox", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("select transaction_id from transaction_dead_letters where consumer = ?",
+                UUID.class, "recording")).isEqualTo(transactionId);
+        assertThat(consumer.events(userId)).isEmpty();
+
+        consumer.failuresLeft.set(0);
+
+        awaitDeadLetters(0);
+        assertThat(consumer.events(userId)).singleElement().satisfies(event -> {
+            assertThat(event.transactionId()).isEqualTo(transactionId);
+            assertThat(event.after().amount()).isEqualByComparingTo("5.00");
+        });
+    }
+
+    @Test
+    void rolledBackWritesAreNeverDelivered() {
+        transactionTemplate.executeWithoutResult(status -> {
+            new TestData(entityManager).transaction(entityManager.find(User.class, userId), null, "Food", "5.00",
+                    LocalDate.of(2024, 7, 3));
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        assertThat(consumer.events(userId)).isEmpty();
+        assertThat(jdbc.queryForObject("select count(*) from transaction_outbox", Integer.class)).isZero();
+    }
+
+    private void awaitDeadLetters(int expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (jdbc.queryForObject("select count(*) from transaction_dead_letters where user_id = ?", Integer.class,
+                userId) != expected) {
+            assertThat(System.nanoTime()).as("dead letters of %s", userId).isLessThan(deadline);
+            LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+        }
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        transactionTemplate.executeWithoutResult(status -> work.accept(entityManager));
+    }
+}
@@ -0,0 +1,184 @@
+package com.lothbrok.fintrack.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.metrics.MetricsProperties;
+import com.lothbrok.fintrack.support.TestData;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Group commits run on the flusher thread in their own transactions, so these tests commit and clean up after
+ * themselves.
+ */
+@SpringBootTest(properties = {
+        "fintrack.ingest.enabled=true",
+        "fintrack.ingest.stripes=4",
+        "fintrack.ingest.max-batch-rows=64",
+        "fintrack.ingest.max-delay=20ms"
+})
+class TransactionIngestBufferTests {
+
+    @Autowired
+    private TransactionIngestBuffer buffer;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    private final List<UUID> users = new ArrayList<>();
+
+    @AfterEach
+    void removeCommittedRows() {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        for (UUID userId : users) {
+            jdbc.update("delete from change_journal where user_id = ?", userId);
+            jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+            for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints",
+                    "transactions")) {
+                jdbc.update("delete from " + table + " where user_id = ?", userId);
+            }
+            jdbc.update("delete from users where id = ?", userId);
+        }
+    }
+
+    @Test
+    void concurrentCreatesShareCommitsAndCompleteAfterThem() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            users.add(transactionTemplate.execute(status -> new TestData(entityManager).user("Ingest").getId()));
+        }
+        DistributionSummary batchSize = registry.get(TransactionIngestBuffer.PREFIX + "batch.size").summary();
+        long commitsBefore = batchSize.count();
+
+        ExecutorService producers = Executors.newFixedThreadPool(6);
+        List<Future<CompletableFuture<TransactionResponse>>> submitted = new ArrayList<>();
+        try {
+            for (int i = 0; i < 150; i++) {
+                UUID userId = users.get(i % users.size());
+                submitted.add(producers.submit(() -> buffer.submit(userId, request("4.00"))));
+            }
+            List<TransactionResponse> created = new ArrayList<>();
+            for (Future<CompletableFuture<TransactionResponse>> future : submitted) {
+                created.add(future.get().get(10, TimeUnit.SECONDS));
+            }
+            assertThat(created).extracting(TransactionResponse::id).doesNotHaveDuplicates().doesNotContainNull();
+        } finally {
+            producers.shutdown();
+        }
+
+        for (UUID userId : users) {
+            assertThat(jdbc.queryForObject("select count(*) from transactions where user_id = ?", Integer.class,
+                    userId)).isEqualTo(50);
+            assertThat(jdbc.queryForObject("select net_change from balance_checkpoints where user_id = ?",
+                    BigDecimal.class, userId)).isEqualByComparingTo("-200.00");
+        }
+        assertThat(batchSize.count() - commitsBefore).isLessThan(150);
+        assertThat(batchSize.max()).isGreaterThan(1);
+    }
+
+    @Test
+    void invalidCreateFailsOnlyItsOwnCaller() throws Exception {
+        UUID userId = transactionTemplate.execute(status -> new TestData(entityManager).user("Ingest").getId());
+        users.add(userId);
+
+        CompletableFuture<TransactionResponse> valid = buffer.submit(userId, request("4.00"));
+        CompletableFuture<TransactionResponse> invalid = buffer.submit(userId, request("-1.00"));
+        CompletableFuture<TransactionResponse> unknownUser = buffer.submit(UUID.randomUUID(), request("4.00"));
+
+        assertThat(valid.get(10, TimeUnit.SECONDS).amount()).isEqualByComparingTo("4.00");
+        assertThatThrownBy(() -> invalid.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> unknownUser.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThat(jdbc.queryForObject("select count(*) from transactions where user_id = ?", Integer.class,
+                userId)).isEqualTo(1);
+    }
+
+    @Test
+    void fullBufferPushesBack() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        // Never started, so nothing drains the single two-slot stripe.
+        TransactionIngestBuffer stalled = new TransactionIngestBuffer(null, null,
+                new IngestProperties(true, 1, 2, 64, Duration.ofMillis(20), Duration.ofMillis(10)),
+                new MetricsProperties(null, 0, null, false), meters);
+        UUID userId = UUID.randomUUID();
+        stalled.submit(userId, request("1.00"));
+        stalled.submit(userId, request("1.00"));
+
+        assertThatThrownBy(() -> stalled.submit(userId, request("1.00")))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+                });
+        assertThat(meters.get(TransactionIngestBuffer.PREFIX + "rejected").counter().count()).isEqualTo(1);
+        assertThat(meters.get(TransactionIngestBuffer.PREFIX + "buffered").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void unavailableIngestionAnswers503() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        UUID userId = UUID.randomUUID();
+        TransactionIngestBuffer disabled = new TransactionIngestBuffer(null, null,
+                new IngestProperties(false, 1, 2, 64, null, null), new MetricsProperties(null, 0, null, false), meters);
+        TransactionIngestBuffer stopped = new TransactionIngestBuffer(null, null,
+                new IngestProperties(true, 1, 2, 64, null, null), new MetricsProperties(null, 0, null, false), meters);
+        stopped.stop();
+
+        for (TransactionIngestBuffer unavailable : List.of(disabled, stopped)) {
+            assertThatThrownBy(() -> unavailable.submit(userId, request("1.00")))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        }
+    }
+
+    private static CreateTransactionRequest request(String amount) {
+        return new CreateTransactionRequest("Card purchase", new BigDecimal(amount), "USD", "Food",
+                TransactionType.EXPENSE, LocalDate.of(2024, 6, 3), null, null, null);
+    }
+}
@@ -0,0 +1,162 @@
+package com.lothbrok.fintrack.insights;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionChangedEvent;
+import com.lothbrok.fintrack.event.TransactionSnapshot;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Feeds the engine hand-made events, as the bus would after the writes committed. The engine writes in
+ * transactions of its own, so these tests commit and clean up after themselves.
+ */
+@SpringBootTest
+class SpendingInsightEngineTests {
+
+    private static final String CATEGORY = "Food \"out\" \\ in";
+
+    @Autowired
+    private SpendingInsightEngine engine;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = transactionTemplate.execute(status -> new TestData(entityManager).user("Insights").getId());
+    }
+
+    @AfterEach
+    void removeCommittedRows() {
+        jdbc.update("delete from notifications where user_id = ?", userId);
+        jdbc.update("delete from spending_insight_states where user_id = ?", userId);
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void unusualMonthRaisesANotificationWithJsonMetadata() throws Exception {
+        List<TransactionChangedEvent> events = new ArrayList<>();
+        for (int month = 1; month <= 3; month++) {
+            events.add(created(expense("100.00", LocalDate.of(2025, month, 5))));
+        }
+        TransactionSnapshot large = expense("900.00", LocalDate.of(2025, 4, 5));
+        events.add(created(large));
+
+        engine.accept(events);
+
+        List<String> metadata = jdbc.queryForList(
+                "select metadata from notifications where user_id = ? and type = 'SPENDING_INSIGHT'", String.class,
+                userId);
+        assertThat(metadata).hasSize(1);
+        JsonNode json = objectMapper.readTree(metadata.get(0));
+        assertThat(json.get("transactionId").asText()).isEqualTo(large.id().toString());
+        assertThat(json.get("category").asText()).isEqualTo(CATEGORY);
+        assertThat(json.get("flags").asInt()).isEqualTo(SpendingModel.FLAG_UNUSUAL_MONTH);
+        assertThat(json.get("monthTotal").decimalValue()).isEqualByComparingTo("900.00");
+        assertThat(json.get("expectedMonthly").decimalValue()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void editsAndDeletesCorrectTheOpenMonth() {
+        LocalDate date = LocalDate.of(2025, 6, 10);
+        TransactionSnapshot first = expense("50.00", date);
+        TransactionSnapshot second = expense("20.00", date);
+        TransactionSnapshot edited = withAmount(first, "80.00");
+        TransactionSnapshot income = new TransactionSnapshot(second.id(), userId, null, second.amount(), "USD",
+                CATEGORY, TransactionType.INCOME, date);
+
+        engine.accept(List.of(created(first), created(second)));
+        assertThat(model().currentTotal()).isEqualTo(7_000);
+        engine.accept(List.of(new TransactionChangedEvent(first, edited)));
+        assertThat(model().currentTotal()).isEqualTo(10_000);
+        engine.accept(List.of(new TransactionChangedEvent(second, income)));
+        assertThat(model().currentTotal()).isEqualTo(8_000);
+        engine.accept(List.of(new TransactionChangedEvent(edited, null)));
+
+        assertThat(model().currentTotal()).isZero();
+    }
+
+    @Test
+    void concurrentDeliveriesForOnePairLoseNoUpdates() throws Exception {
+        int threads = 2;
+        int batches = 20;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> deliveries = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                deliveries.add(executor.submit(() -> {
+                    for (int i = 0; i < batches; i++) {
+                        barrier.await();
+                        engine.accept(List.of(created(expense("1.00", LocalDate.of(2025, 6, 1)))));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> delivery : deliveries) {
+                delivery.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbc.queryForObject("select count(*) from spending_insight_states where user_id = ?",
+                Integer.class, userId)).isEqualTo(1);
+        assertThat(model().currentTotal()).isEqualTo(threads * batches * 100L);
+    }
+
+    private SpendingModel model() {
+        SpendingModel model = new SpendingModel();
+        model.decode(jdbc.queryForObject("select state from spending_insight_states where user_id = ?",
+                byte[].class, userId));
+        return model;
+    }
+
+    private TransactionSnapshot expense(String amount, LocalDate date) {
+        return new TransactionSnapshot(UUID.randomUUID(), userId, null, new BigDecimal(amount), "USD", CATEGORY,
+                TransactionType.EXPENSE, date);
+    }
+
+    private static TransactionSnapshot withAmount(TransactionSnapshot snapshot, String amount) {
+        return new TransactionSnapshot(snapshot.id(), snapshot.userId(), snapshot.walletId(), new BigDecimal(amount),
+                snapshot.currency(), snapshot.category(), snapshot.type(), snapshot.eventDate());
+    }
+
+    private static TransactionChangedEvent created(TransactionSnapshot snapshot) {
+        return new TransactionChangedEvent(null, snapshot);
+    }
+}
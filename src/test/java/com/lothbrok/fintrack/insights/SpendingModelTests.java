@@ -0,0 +1,138 @@
+package com.lothbrok.fintrack.insights;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class SpendingModelTests {
+
+    private static final int JANUARY = 2025 * 12;
+
+    private final SpendingModel model = new SpendingModel();
+
+    @Test
+    void steadyMonthsForecastTheirTotal() {
+        for (int month = 0; month < 4; month++) {
+            model.observe(JANUARY + month, 6_000);
+            model.observe(JANUARY + month, 4_000);
+        }
+
+        assertThat(model.months()).isEqualTo(3);
+        assertThat(model.currentTotal()).isEqualTo(10_000);
+        assertThat(model.forecast(JANUARY + 3)).isCloseTo(10_000, within(1.0));
+        assertThat(model.forecastStdDev(JANUARY + 3)).isCloseTo(0, within(1.0));
+    }
+
+    @Test
+    void skippedMonthsCountAsEmpty() {
+        model.observe(JANUARY, 10_000);
+        model.observe(JANUARY + 3, 10_000);
+
+        assertThat(model.months()).isEqualTo(3);
+        assertThat(model.forecast(JANUARY + 3)).isLessThan(10_000);
+    }
+
+    @Test
+    void flagsTheExpenseThatTakesTheMonthOverItsUpperBound() {
+        for (int month = 0; month < 3; month++) {
+            model.observe(JANUARY + month, 10_000);
+        }
+        double ceiling = model.upperBound(JANUARY + 3);
+
+        assertThat(model.observe(JANUARY + 3, 6_000)).isZero();
+        assertThat(model.observe(JANUARY + 3, 6_000)).isEqualTo(SpendingModel.FLAG_UNUSUAL_MONTH);
+        assertThat(model.currentTotal()).isGreaterThan((long) ceiling);
+        assertThat(model.observe(JANUARY + 3, 6_000)).isZero();
+    }
+
+    @Test
+    void monthsAreNotFlaggedBeforeEnoughHistory() {
+        model.observe(JANUARY, 100);
+        model.observe(JANUARY + 1, 100);
+
+        assertThat(model.observe(JANUARY + 2, 1_000_000)).isZero();
+    }
+
+    @Test
+    void flagsAmountsWellAboveTheRecentOnes() {
+        for (int i = 0; i < 16; i++) {
+            assertThat(model.observe(JANUARY, 1_000 + i) & SpendingModel.FLAG_UNUSUAL_AMOUNT).isZero();
+        }
+
+        assertThat(model.observe(JANUARY, 2_000) & SpendingModel.FLAG_UNUSUAL_AMOUNT).isZero();
+        assertThat(model.observe(JANUARY, 5_000) & SpendingModel.FLAG_UNUSUAL_AMOUNT)
+                .isEqualTo(SpendingModel.FLAG_UNUSUAL_AMOUNT);
+    }
+
+    @Test
+    void backDatedExpensesLeaveClosedMonthsAlone() {
+        model.observe(JANUARY, 10_000);
+        model.observe(JANUARY + 1, 5_000);
+
+        model.observe(JANUARY, 50_000);
+
+        assertThat(model.months()).isEqualTo(1);
+        assertThat(model.currentTotal()).isEqualTo(5_000);
+    }
+
+    @Test
+    void adjustCorrectsOnlyTheOpenMonth() {
+        model.observe(JANUARY, 10_000);
+        model.observe(JANUARY + 1, 5_000);
+
+        assertThat(model.adjust(JANUARY + 1, -2_000)).isZero();
+        assertThat(model.currentTotal()).isEqualTo(3_000);
+        assertThat(model.adjust(JANUARY, -10_000)).isZero();
+        assertThat(model.currentTotal()).isEqualTo(3_000);
+        model.adjust(JANUARY + 1, -9_000);
+        assertThat(model.currentTotal()).isZero();
+        model.adjust(JANUARY + 2, -1_000);
+        assertThat(model.months()).isEqualTo(1);
+
+        model.adjust(JANUARY + 2, 4_000);
+
+        assertThat(model.months()).isEqualTo(2);
+        assertThat(model.currentTotal()).isEqualTo(4_000);
+    }
+
+    @Test
+    void adjustFlagsAnEditThatTakesTheMonthOverItsUpperBound() {
+        for (int month = 0; month < 4; month++) {
+            model.observe(JANUARY + month, 10_000);
+        }
+
+        assertThat(model.adjust(JANUARY + 3, 20_000)).isEqualTo(SpendingModel.FLAG_UNUSUAL_MONTH);
+    }
+
+    @Test
+    void encodedStateRoundTrips() {
+        for (int i = 0; i < 40; i++) {
+            model.observe(JANUARY + i / 5, 1_000 + 37L * i);
+        }
+        byte[] encoded = new byte[SpendingModel.ENCODED_BYTES];
+        model.encode(encoded);
+        SpendingModel decoded = new SpendingModel();
+
+        decoded.decode(encoded);
+
+        assertThat(decoded.months()).isEqualTo(model.months());
+        assertThat(decoded.currentTotal()).isEqualTo(model.currentTotal());
+        assertThat(decoded.forecast(JANUARY + 8)).isEqualTo(model.forecast(JANUARY + 8));
+        assertThat(decoded.upperBound(JANUARY + 8)).isEqualTo(model.upperBound(JANUARY + 8));
+        assertThat(decoded.observe(JANUARY + 7, 9_000)).isEqualTo(model.observe(JANUARY + 7, 9_000));
+    }
+
+    @Test
+    void emptyOrForeignStateDecodesAsNew() {
+        model.observe(JANUARY, 10_000);
+
+        model.decode(new byte[SpendingModel.ENCODED_BYTES]);
+
+        assertThat(model.months()).isZero();
+        assertThat(model.currentTotal()).isZero();
+        model.observe(JANUARY, 10_000);
+        model.decode(null);
+        assertThat(model.currentTotal()).isZero();
+    }
+}
@@ -0,0 +1,245 @@
+package com.lothbrok.fintrack.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.dto.journal.ChangeEntryResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.ChangeOperation;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.service.ChangeJournalService;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * The journal is written at commit, so these tests commit for real and remove their rows afterwards.
+ */
+@SpringBootTest
+class ChangeJournalTests {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ChangeJournalService changeJournalService;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    private final List<UUID> users = new ArrayList<>();
+
+    @AfterEach
+    void removeCommittedRows() {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        for (UUID userId : users) {
+            jdbc.update("delete from change_journal where user_id = ?", userId);
+            jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+            for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints",
+                    "transactions")) {
+                jdbc.update("delete from " + table + " where user_id = ?", userId);
+            }
+            jdbc.update("delete from users where id = ?", userId);
+        }
+    }
+
+    @Test
+    void journalsChangedColumnsInPerUserSequence() {
+        UUID[] ids = createUserWithTransaction();
+        UUID userId = ids[0];
+        UUID transactionId = ids[1];
+        inTransaction(em -> {
+            Transaction transaction = em.find(Transaction.class, transactionId);
+            transaction.setAmount(new BigDecimal("95.00"));
+            transaction.setNote("Split with Sam");
+        });
+        inTransaction(em -> em.remove(em.find(Transaction.class, transactionId)));
+
+        List<ChangeEntryResponse> entries = changes(userId, 0);
+        assertThat(entries).extracting(ChangeEntryResponse::seq)
+                .containsExactlyElementsOf(sequence(1, entries.size()));
+        assertThat(entries.get(0).entityType()).isEqualTo("User");
+        assertThat(entries.get(0).operation()).isEqualTo(ChangeOperation.INSERT);
+
+        List<ChangeEntryResponse> history = entries.stream()
+                .filter(entry -> entry.entityId().equals(transactionId))
+                .toList();
+        assertThat(history).extracting(ChangeEntryResponse::operation)
+                .containsExactly(ChangeOperation.INSERT, ChangeOperation.UPDATE, ChangeOperation.DELETE);
+        assertThat(history.get(0).changes())
+                .containsEntry("user", userId)
+                .containsEntry("amount", new BigDecimal("80.50"))
+                .containsEntry("eventDate", LocalDate.of(2024, 3, 5))
+                .containsEntry("type", "EXPENSE")
+                .doesNotContainKeys("sharedWallet", "note");
+        assertThat(history.get(1).changes()).containsOnlyKeys("amount", "note", "updatedAt")
+                .containsEntry("amount", new BigDecimal("95.00"))
+                .containsEntry("note", "Split with Sam");
+        assertThat(history.get(2).changes()).isEmpty();
+
+        long insertSeq = history.get(0).seq();
+        assertThat(changes(userId, insertSeq)).extracting(ChangeEntryResponse::seq)
+                .containsExactlyElementsOf(sequence(insertSeq + 1, entries.size() - insertSeq));
+    }
+
+    @Test
+    void reconstructsTransactionAsOfTimestamp() throws InterruptedException {
+        Instant beforeInsert = tick();
+        UUID[] ids = createUserWithTransaction();
+        UUID userId = ids[0];
+        UUID transactionId = ids[1];
+        Instant afterInsert = tick();
+        inTransaction(em -> em.find(Transaction.class, transactionId).setAmount(new BigDecimal("12.34")));
+        Instant afterUpdate = tick();
+        inTransaction(em -> em.remove(em.find(Transaction.class, transactionId)));
+
+        TransactionResponse original = changeJournalService.getTransactionAsOf(userId, transactionId, afterInsert);
+        assertThat(original.amount()).isEqualByComparingTo("80.50");
+        assertThat(original.userId()).isEqualTo(userId);
+        assertThat(original.category()).isEqualTo("Food");
+        assertThat(original.eventDate()).isEqualTo(LocalDate.of(2024, 3, 5));
+
+        TransactionResponse updated = changeJournalService.getTransactionAsOf(userId, transactionId, afterUpdate);
+        assertThat(updated.amount()).isEqualByComparingTo("12.34");
+        assertThat(updated.title()).isEqualTo(original.title());
+        assertThat(updated.updatedAt()).isAfter(original.updatedAt());
+
+        assertThatThrownBy(() -> changeJournalService.getTransactionAsOf(userId, transactionId, beforeInsert))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> changeJournalService.getTransactionAsOf(userId, transactionId, Instant.now()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> changeJournalService.getTransactionAsOf(UUID.randomUUID(), transactionId,
+                afterInsert)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void credentialsNeverReachTheJournal() {
+        UUID userId = createUserWithTransaction()[0];
+        String hash = "$2a$12$zyxwvutsrqponmlkjihgfedcba0123456789ABCDEFGHIJKLMNOPQ";
+        String secret = "JBSWY3DPEHPK3PXPJBSWY3DPEHPK3PXP";
+        int before = changes(userId, 0).size();
+
+        inTransaction(em -> {
+            User user = em.find(User.class, userId);
+            user.setPasswordHash(hash);
+            user.setTwoFactorSecret(secret);
+        });
+
+        List<ChangeEntryResponse> entries = changes(userId, 0);
+        assertThat(entries).hasSize(before + 1);
+        assertThat(entries.get(before).entityType()).isEqualTo("User");
+        assertThat(entries.get(before).changes()).containsOnlyKeys("updatedAt");
+        assertThat(entries).allSatisfy(entry -> assertThat(entry.changes())
+                .doesNotContainKeys("passwordHash", "twoFactorSecret", "credentialVersion", "normalizedEmail"));
+        for (byte[] payload : jdbc.queryForList("select payload from change_journal where user_id = ?",
+                byte[].class, userId)) {
+            String text = new String(payload, StandardCharsets.ISO_8859_1);
+            assertThat(text).doesNotContain(hash, secret, "$2a$10$");
+        }
+    }
+
+    @Test
+    void rolledBackWritesLeaveNoEntries() {
+        UUID userId = createUserWithTransaction()[0];
+        int before = changes(userId, 0).size();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            new TestData(entityManager).transaction(entityManager.find(User.class, userId), null, "Food", "5.00",
+                    LocalDate.of(2024, 3, 6));
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(changes(userId, 0)).hasSize(before);
+    }
+
+    @Test
+    void codecRoundTripsColumnValues() {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("title", "Café ☕");
+        columns.put("amount", new BigDecimal("-1234.56"));
+        columns.put("huge", new BigDecimal("123456789012345678901234567890.12"));
+        columns.put("eventDate", LocalDate.of(1969, 12, 31));
+        columns.put("createdAt", Instant.parse("2024-03-05T10:15:30.123456Z"));
+        columns.put("user", UUID.randomUUID());
+        columns.put("active", true);
+        columns.put("count", -42L);
+        columns.put("state", new byte[] { 1, 2, 3 });
+        columns.put("note", null);
+
+        Map<String, Object> decoded = JournalCodec.decode(JournalCodec.encode(columns));
+
+        assertThat(decoded).containsOnlyKeys(columns.keySet());
+        columns.forEach((name, value) -> assertThat(decoded.get(name)).as(name).isEqualTo(value));
+        assertThat(JournalCodec.encode(Map.of("amount", new BigDecimal("80.50")))).hasSizeLessThan(16);
+    }
+
+    private UUID[] createUserWithTransaction() {
+        UUID[] ids = new UUID[2];
+        inTransaction(em -> {
+            TestData data = new TestData(em);
+            User user = data.user("Journal");
+            ids[0] = user.getId();
+            ids[1] = data.transaction(user, null, "Food", "80.50", LocalDate.of(2024, 3, 5)).getId();
+        });
+        users.add(ids[0]);
+        // The insight state written after commit is journalled too.
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        return ids;
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        transactionTemplate.executeWithoutResult(status -> work.accept(entityManager));
+    }
+
+    /** Waits for the event bus first: its consumers write after the commit, and their writes are journaled too. */
+    private List<ChangeEntryResponse> changes(UUID userId, long afterSeq) {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        List<ChangeEntryResponse> entries = new ArrayList<>();
+        changeJournalService.streamChanges(userId, afterSeq, entries::add);
+        return entries;
+    }
+
+    private static List<Long> sequence(long first, long count) {
+        List<Long> values = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            values.add(first + i);
+        }
+        return values;
+    }
+
+    /** A timestamp strictly between the changes around it. */
+    private static Instant tick() throws InterruptedException {
+        Thread.sleep(5);
+        Instant now = Instant.now();
+        Thread.sleep(5);
+        return now;
+    }
+}
@@ -0,0 +1,133 @@
+package com.lothbrok.fintrack.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.lothbrok.fintrack.controller.ApiHeaders;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.repository.NotificationRepository;
+import com.lothbrok.fintrack.repository.UserRepository;
+import com.lothbrok.fintrack.support.TestData;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/** A zero threshold makes every repository call slow, so each one reaches the slow-query log. */
+@SpringBootTest(properties = "fintrack.metrics.slow-query-threshold=0ms")
+@AutoConfigureMockMvc
+@Transactional
+class RepositoryMetricsTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private SlowQueryEndpoint slowQueryEndpoint;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        TestData data = new TestData(entityManager);
+        User user = data.user("Metrics");
+        data.notification(user, false);
+        data.notification(user, true);
+        entityManager.flush();
+        entityManager.clear();
+        userId = user.getId();
+    }
+
+    @Test
+    void repositoryCallsAreTimedWithTheirResultSize() {
+        long before = invocations("UserRepository", "findById", "success");
+
+        assertThat(userRepository.findById(userId)).isPresent();
+        assertThat(notificationRepository.findTop20ByUserIdOrderByCreatedAtDesc(userId)).hasSize(2);
+
+        assertThat(invocations("UserRepository", "findById", "success")).isEqualTo(before + 1);
+        DistributionSummary rows = registry.get(RepositoryMetricsInterceptor.RESULT_SIZE)
+                .tags("repository", "NotificationRepository", "method", "findTop20ByUserIdOrderByCreatedAtDesc")
+                .summary();
+        assertThat(rows.max()).isEqualTo(2);
+    }
+
+    @Test
+    void failedCallsAreTimedAsErrors() {
+        long before = invocations("UserRepository", "findById", "error");
+
+        assertThatThrownBy(() -> userRepository.findById(null))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class);
+
+        assertThat(invocations("UserRepository", "findById", "error")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void slowCallsAreListedWithTheirSql() {
+        userRepository.findById(userId);
+
+        assertThat(slowQueryEndpoint.slowQueries())
+                .filteredOn(entry -> entry.repository().equals("UserRepository") && entry.method().equals("findById"))
+                .first()
+                .satisfies(entry -> assertThat(entry.statements()).singleElement().asString()
+                        .containsIgnoringCase("from users"));
+    }
+
+    @Test
+    void requestsRecordTheirHibernateWorkPerRoute() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/v1/reports").header(ApiHeaders.USER_ID, userId.toString()))
+                    .andExpect(status().isOk());
+        }
+
+        DistributionSummary statements = registry.get(HibernateRequestMetricsFilter.PREFIX + "statements")
+                .tags("uri", "/api/v1/reports", "method", "GET")
+                .summary();
+        assertThat(statements.count()).isGreaterThanOrEqualTo(2);
+        assertThat(statements.max()).isPositive();
+        assertThat(registry.find(HibernateRequestMetricsFilter.PREFIX + "flushes")
+                .tags("uri", "/api/v1/reports").summaries()).hasSize(1);
+    }
+
+    @Test
+    void hibernateStatisticsAreOffByDefault() {
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled()).isFalse();
+    }
+
+    private long invocations(String repository, String method, String outcome) {
+        return registry.find(RepositoryMetricsInterceptor.INVOCATIONS)
+                .tags("repository", repository, "method", method, "outcome", outcome)
+                .timers().stream().mapToLong(Timer::count).sum();
+    }
+}
@@ -0,0 +1,37 @@
+package com.lothbrok.fintrack.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+class SlowQueryLogTests {
+
+    @Test
+    void keepsTheNewestEntriesUpToItsCapacity() {
+        SlowQueryLog log = new SlowQueryLog(new MetricsProperties(null, 2, null, false));
+
+        for (int i = 1; i <= 3; i++) {
+            log.record("UserRepository", "call" + i, i * 1_000_000L, List.of("select " + i));
+        }
+
+        assertThat(log.recent()).extracting(SlowQueryLog.Entry::method).containsExactly("call3", "call2");
+        assertThat(log.recent().get(0).durationMillis()).isEqualTo(3);
+        assertThat(new SlowQueryEndpoint(log).slowQueries()).isEqualTo(log.recent());
+    }
+
+    @Test
+    void resultSizeCountsRowsOnlyForCollectionLikeResults() {
+        assertThat(RepositoryMetricsInterceptor.resultSize(null)).isZero();
+        assertThat(RepositoryMetricsInterceptor.resultSize(List.of(1, 2, 3))).isEqualTo(3);
+        assertThat(RepositoryMetricsInterceptor.resultSize(Optional.of(1))).isEqualTo(1);
+        assertThat(RepositoryMetricsInterceptor.resultSize(Optional.empty())).isZero();
+        assertThat(RepositoryMetricsInterceptor.resultSize(new SliceImpl<>(List.of(1, 2), PageRequest.of(0, 5), true)))
+                .isEqualTo(2);
+        assertThat(RepositoryMetricsInterceptor.resultSize(42L)).isEqualTo(-1);
+    }
+}
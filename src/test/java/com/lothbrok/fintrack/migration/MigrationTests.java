@@ -0,0 +1,250 @@
+package com.lothbrok.fintrack.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.lothbrok.fintrack.dto.analytics.CategorySeries;
+import com.lothbrok.fintrack.dto.analytics.TimeBucket;
+import com.lothbrok.fintrack.dto.analytics.TimeSeriesResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+import com.lothbrok.fintrack.dto.user.AccountPurgeResponse;
+import com.lothbrok.fintrack.entity.SharedWallet;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.AccountPurgeStatus;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.partition.TransactionPartitionMaintenance;
+import com.lothbrok.fintrack.service.AccountPurgeService;
+import com.lothbrok.fintrack.service.AnalyticsService;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Builds the schema from the Flyway migrations on an empty PostgreSQL database and starts the application against
+ * it with {@code ddl-auto=validate}, as production does, so an entity that drifts from the SQL fails the context.
+ * The rest of the suite runs on H2 with a Hibernate-generated schema and never sees the migrations.
+ * <p>
+ * Starts a PostgreSQL container unless {@code -Dit.datasource.url} points at a server; there the database
+ * {@value #DATABASE} is dropped and created again for every run.
+ */
+@Tag("integration")
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class MigrationTests {
+
+    static final String DATABASE = "fintrack_migrations";
+
+    private static PostgreSQLContainer<?> container;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionPartitionMaintenance maintenance;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private AccountPurgeService purgeService;
+
+    @DynamicPropertySource
+    static void emptyDatabase(DynamicPropertyRegistry registry) {
+        String url = System.getProperty("it.datasource.url");
+        if (url == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine").withDatabaseName(DATABASE);
+            container.start();
+            registry.add("spring.datasource.url", container::getJdbcUrl);
+            registry.add("spring.datasource.username", container::getUsername);
+            registry.add("spring.datasource.password", container::getPassword);
+            return;
+        }
+        String username = System.getProperty("it.datasource.username", "postgres");
+        String password = System.getProperty("it.datasource.password", "");
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+                Statement statement = connection.createStatement()) {
+            statement.execute("drop database if exists " + DATABASE + " with (force)");
+            statement.execute("create database " + DATABASE);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create " + DATABASE + " on " + url, e);
+        }
+        registry.add("spring.datasource.url", () -> url.replaceFirst("/[^/?]+(\\?|$)", "/" + DATABASE + "$1"));
+        registry.add("spring.datasource.username", () -> username);
+        registry.add("spring.datasource.password", () -> password);
+    }
+
+    @Test
+    void everyMigrationAppliesAndTheEntitiesValidate() {
+        MigrationInfo[] migrations = flyway.info().all();
+
+        assertThat(migrations).isNotEmpty();
+        assertThat(migrations).allSatisfy(migration -> assertThat(migration.getState())
+                .as(migration.getScript()).isEqualTo(MigrationState.SUCCESS));
+        assertThat(Arrays.stream(migrations).map(migration -> migration.getVersion().getMajor().intValue()))
+                .as("versions without gaps from V1")
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, migrations.length)
+                        .boxed().toList());
+    }
+
+    /** {@code V3}: monthly partitions, the widened primary key and the maintenance functions. */
+    @Test
+    void transactionsArePartitionedByMonthAndOldMonthsArchived() {
+        assertThat(jdbc.queryForList("select a.attname from pg_index i join pg_attribute a on a.attrelid = i.indrelid"
+                + " and a.attnum = any(i.indkey) where i.indrelid = 'transactions'::regclass and i.indisprimary",
+                String.class)).containsExactlyInAnyOrder("id", "event_date");
+        assertThat(jdbc.queryForObject("select count(*) from pg_constraint where conrelid = 'recurring_jobs'::regclass"
+                + " and confrelid = 'transactions'::regclass", Integer.class)).isZero();
+        LocalDate today = LocalDate.now();
+        LocalDate old = LocalDate.of(2001, 2, 10);
+        UUID[] ids = transactionTemplate.execute(status -> {
+            TestData data = new TestData(entityManager);
+            User user = data.user("Partition");
+            return new UUID[] {
+                data.transaction(user, null, "Food", "10.00", today).getId(),
+                data.transaction(user, null, "Food", "20.00", old).getId()
+            };
+        });
+
+        assertThat(partitionOf(ids[0])).isEqualTo(partitionName(today));
+        assertThat(partitionOf(ids[1])).isEqualTo("transactions_default");
+
+        assertThat(maintenance.ensurePartitions()).containsExactly("transactions_2001_02");
+        assertThat(partitionOf(ids[1])).isEqualTo("transactions_2001_02");
+
+        assertThat(maintenance.archiveExpired(today)).containsExactly("transactions_2001_02");
+        assertThat(jdbc.queryForObject("select archived_at is not null from transaction_partitions"
+                + " where partition_name = 'transactions_2001_02'", Boolean.class)).isTrue();
+        assertThatThrownBy(() -> jdbc.update("update transactions set note = 'late' where id = ?", ids[1]))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("read-only");
+        assertThat(jdbc.update("update transactions set note = 'fine' where id = ?", ids[0])).isEqualTo(1);
+        assertThat(maintenance.archiveExpired(today)).isEmpty();
+    }
+
+    /** {@code V15}: a purge deletes and detaches the account's archived rows; other users' stay read-only. */
+    @Test
+    void purgesAccountsWithArchivedRows() {
+        LocalDate old = LocalDate.of(2001, 3, 10);
+        UUID[] ids = transactionTemplate.execute(status -> {
+            TestData data = new TestData(entityManager);
+            User leaving = data.user("Archived");
+            User member = data.user("Archived member");
+            SharedWallet owned = data.wallet(leaving, "Old house", member);
+            data.transaction(leaving, null, "Food", "10.00", old);
+            data.transaction(leaving, owned, "Food", "30.00", old);
+            Transaction kept = data.transaction(member, owned, "Food", "20.00", old);
+            return new UUID[] {leaving.getId(), kept.getId()};
+        });
+        maintenance.ensurePartitions();
+        maintenance.archiveExpired(LocalDate.now());
+        assertThat(partitionOf(ids[1])).isEqualTo("transactions_2001_03");
+
+        AccountPurgeResponse requested = purgeService.requestPurge(ids[0]);
+        AccountPurgeResponse done = awaitPurged(ids[0], requested.id());
+
+        assertThat(done.status()).as(done.errorMessage()).isEqualTo(AccountPurgeStatus.COMPLETED);
+        assertThat(jdbc.queryForObject("select count(*) from transactions where user_id = ?", Long.class, ids[0]))
+                .isZero();
+        assertThat(jdbc.queryForList("select wallet_id from transactions where id = ?", UUID.class, ids[1]))
+                .containsExactly((UUID) null);
+        assertThat(jdbc.queryForObject("select count(*) from archived_write_releases", Long.class)).isZero();
+        assertThatThrownBy(() -> jdbc.update("delete from transactions where id = ?", ids[1]))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("read-only");
+    }
+
+    /** The trends query is native {@code date_trunc} SQL that H2 cannot run, so only this suite executes it. */
+    @Test
+    void trendsAreBucketedInTheDatabase() {
+        UUID userId = transactionTemplate.execute(status -> {
+            TestData data = new TestData(entityManager);
+            User user = data.user("Trends");
+            data.transaction(user, null, "Food", "10.00", LocalDate.of(2025, 1, 6));
+            data.transaction(user, null, "Food", "2.50", LocalDate.of(2025, 1, 12));
+            data.transaction(user, null, "Food", "15.00", LocalDate.of(2025, 1, 20));
+            data.transaction(user, null, "Rent", "700.00", LocalDate.of(2025, 1, 2));
+            data.transaction(user, null, "Salary", "1000.00", LocalDate.of(2025, 1, 31))
+                    .setType(TransactionType.INCOME);
+            return user.getId();
+        });
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+
+        TimeSeriesResponse weekly = analyticsService.getTimeSeries(userId,
+                new TransactionFilter(from, to, null, null, null, null, null), TimeBucket.WEEK);
+        TimeSeriesResponse filtered = analyticsService.getTimeSeries(userId, new TransactionFilter(from, to,
+                Set.of("Food", "Rent"), TransactionType.EXPENSE, null, new BigDecimal("100.00"), null),
+                TimeBucket.MONTH);
+
+        assertThat(weekly.bucketStarts()).containsExactly(LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 6),
+                LocalDate.of(2025, 1, 13), LocalDate.of(2025, 1, 20), LocalDate.of(2025, 1, 27));
+        assertThat(weekly.series()).extracting(CategorySeries::category).containsExactly("Food", "Rent", "Salary");
+        assertThat(weekly.series().get(0).expense()).containsExactly(0, 1_250, 0, 1_500, 0);
+        assertThat(weekly.series().get(1).expense()).containsExactly(70_000, 0, 0, 0, 0);
+        assertThat(weekly.series().get(2).income()).containsExactly(0, 0, 0, 0, 100_000);
+        assertThat(filtered.series()).singleElement().satisfies(series -> {
+            assertThat(series.category()).isEqualTo("Food");
+            assertThat(series.expense()).containsExactly(2_750);
+        });
+    }
+
+    private AccountPurgeResponse awaitPurged(UUID userId, UUID purgeId) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            AccountPurgeResponse purge = purgeService.getPurge(userId, purgeId);
+            if (purge.status() == AccountPurgeStatus.COMPLETED || purge.status() == AccountPurgeStatus.FAILED) {
+                return purge;
+            }
+            assertThat(System.nanoTime()).as("purge finished within 10s").isLessThan(deadline);
+            LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+        }
+    }
+
+    private String partitionOf(UUID transactionId) {
+        return jdbc.queryForObject("select tableoid::regclass::text from transactions where id = ?", String.class,
+                transactionId);
+    }
+
+    private static String partitionName(LocalDate day) {
+        return String.format("transactions_%d_%02d", day.getYear(), day.getMonthValue());
+    }
+}
@@ -0,0 +1,31 @@
+package com.lothbrok.fintrack.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class TransactionPartitionMaintenanceTests {
+
+    @Autowired
+    private TransactionPartitionMaintenance maintenance;
+
+    @Test
+    void keepsCurrentMonthAndRetainedMonthsHot() {
+        assertThat(TransactionPartitionMaintenance.archiveCutoff(LocalDate.of(2025, 10, 19), 24))
+                .isEqualTo(LocalDate.of(2023, 10, 1));
+        assertThat(TransactionPartitionMaintenance.archiveCutoff(LocalDate.of(2025, 1, 1), 1))
+                .isEqualTo(LocalDate.of(2024, 12, 1));
+    }
+
+    @Test
+    void skipsUnpartitionedDatabases() {
+        assertThat(maintenance.ensurePartitions()).isEmpty();
+        assertThat(maintenance.archiveExpired(LocalDate.now())).isEmpty();
+        maintenance.maintain();
+    }
+}
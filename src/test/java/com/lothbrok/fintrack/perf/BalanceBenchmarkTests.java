@@ -0,0 +1,125 @@
+package com.lothbrok.fintrack.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lothbrok.fintrack.partition.TransactionPartitionMaintenance;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.service.BalanceService;
+
+/**
+ * Point-in-time balance from checkpoints against the O(history) sum it replaces, for sampled users, the heaviest
+ * user and shared wallets. Meant for a long history:
+ * {@code ./mvnw -Pperf test -Dtest=BalanceBenchmarkTests -Dperf.years=10 [-Dperf.scale=1.0]}. Before measuring,
+ * checkpoint answers are checked against the full sums; results go to {@code target/perf/balance-latency.json}.
+ */
+@PerfTest
+class BalanceBenchmarkTests {
+
+    private static final Path REPORT = Path.of("target", "perf", "balance-latency.json");
+    private static final int WALLETS = 50;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final int warmup = Integer.getInteger("perf.warmup", 20);
+    private final int samples = Integer.getInteger("perf.samples", 200);
+
+    @Test
+    void measureBalanceQueries() throws IOException {
+        SeedDataGenerator generator = SeedDataGenerator.fromSystemProperties();
+        SeedDataset dataset = generator.seedIfNeeded(jdbc);
+        context.getBean(TransactionPartitionMaintenance.class).ensurePartitions();
+
+        LocalDate first = dataset.firstDate();
+        int days = (int) ChronoUnit.DAYS.between(first, dataset.lastDate()) + 1;
+        UUID heaviest = dataset.heaviestUser();
+        List<UUID[]> wallets = new ArrayList<>();
+        for (int i = 0; i < Math.min(WALLETS, dataset.walletCount()); i++) {
+            UUID walletId = dataset.walletAt(i);
+            UUID ownerId = jdbc.queryForObject("select owner_id from shared_wallets where id = ?", UUID.class,
+                    walletId);
+            wallets.add(new UUID[] { ownerId, walletId });
+        }
+
+        Random check = new Random(generator.seed());
+        for (int i = 0; i < 100; i++) {
+            UUID userId = i == 0 ? heaviest : dataset.sampleUser(check);
+            LocalDate date = first.plusDays(check.nextInt(days));
+            assertThat(balanceService.getBalance(userId, date, null).balance())
+                    .as("balance of %s on %s", userId, date)
+                    .isEqualByComparingTo(transactionRepository.sumNetByUserIdAndEventDateBetween(userId, first, date));
+            UUID[] wallet = wallets.get(check.nextInt(wallets.size()));
+            assertThat(balanceService.getBalance(wallet[0], date, wallet[1]).balance())
+                    .as("balance of wallet %s on %s", wallet[1], date)
+                    .isEqualByComparingTo(transactionRepository.sumNetBySharedWalletIdAndEventDateBetween(wallet[1],
+                            first, date));
+        }
+
+        Map<String, Consumer<Random>> cases = new LinkedHashMap<>();
+        cases.put("balance.checkpoint[user]", random -> balanceService.getBalance(dataset.sampleUser(random),
+                first.plusDays(random.nextInt(days)), null));
+        cases.put("balance.fullSum[user]", random -> transactionRepository.sumNetByUserIdAndEventDateBetween(
+                dataset.sampleUser(random), first, first.plusDays(random.nextInt(days))));
+        cases.put("balance.checkpoint[heaviest]", random -> balanceService.getBalance(heaviest,
+                first.plusDays(random.nextInt(days)), null));
+        cases.put("balance.fullSum[heaviest]", random -> transactionRepository.sumNetByUserIdAndEventDateBetween(
+                heaviest, first, first.plusDays(random.nextInt(days))));
+        cases.put("balance.checkpoint[wallet]", random -> {
+            UUID[] wallet = wallets.get(random.nextInt(wallets.size()));
+            balanceService.getBalance(wallet[0], first.plusDays(random.nextInt(days)), wallet[1]);
+        });
+        cases.put("balance.fullSum[wallet]", random -> {
+            UUID[] wallet = wallets.get(random.nextInt(wallets.size()));
+            BigDecimal ignored = transactionRepository.sumNetBySharedWalletIdAndEventDateBetween(wallet[1], first,
+                    first.plusDays(random.nextInt(days)));
+        });
+        cases.put("balance.monthly[heaviest, all months]", random -> balanceService.getMonthlyBalances(heaviest,
+                YearMonth.from(first), YearMonth.from(dataset.lastDate()), null));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, Consumer<Random>> entry : cases.entrySet()) {
+            results.add(Latencies.measure(entry.getKey(), entry.getValue(), warmup, samples));
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("database", RepositoryWorkload.databaseProduct(jdbc));
+        report.put("scale", generator.scale());
+        report.put("years", generator.years());
+        report.put("users", dataset.userCount());
+        report.put("transactions", dataset.transactionCount());
+        report.put("samples", samples);
+        report.put("results", results);
+        Files.createDirectories(REPORT.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), report);
+    }
+}
@@ -0,0 +1,226 @@
+package com.lothbrok.fintrack.perf;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lothbrok.fintrack.partition.TransactionPartitionMaintenance;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Runs every {@link RepositoryWorkload} case once against the seeded perf database, captures the SQL and bound
+ * parameters it sends through a datasource proxy, and EXPLAINs each statement with the same parameters. Sequential
+ * (table) scans and explicit sorts are flagged per case in {@code target/perf/index-advice.json}.
+ * <p>
+ * Plans are only meaningful on a realistically sized data set; at small scales PostgreSQL rightly prefers sequential
+ * scans. Partial and expression indexes from the migrations only exist on PostgreSQL, so H2 runs still flag the
+ * case-insensitive email lookups. {@code -Dperf.failOnFindings=true} turns findings into a test failure.
+ */
+@PerfTest
+class IndexAdvisorTests {
+
+    private static final Path REPORT = Path.of("target", "perf", "index-advice.json");
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\* ([\\w.]+)\\.tableScan");
+    private static final QueryCapture CAPTURE = new QueryCapture();
+
+    @TestConfiguration
+    static class CapturingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource).name("index-advisor").listener(CAPTURE).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    private record CapturedQuery(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    private static final class QueryCapture implements QueryExecutionListener {
+
+        private volatile boolean recording;
+        private final List<CapturedQuery> queries = new ArrayList<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (!recording) {
+                return;
+            }
+            for (QueryInfo query : queryInfoList) {
+                String sql = query.getQuery().strip();
+                if (!sql.toLowerCase(Locale.ROOT).startsWith("select")) {
+                    continue;
+                }
+                List<List<ParameterSetOperation>> parameters = query.getParametersList();
+                queries.add(new CapturedQuery(sql, parameters.isEmpty() ? List.of() : parameters.get(0)));
+            }
+        }
+
+        List<CapturedQuery> record(Runnable work) {
+            queries.clear();
+            recording = true;
+            try {
+                work.run();
+            } finally {
+                recording = false;
+            }
+            return new ArrayList<>(queries);
+        }
+    }
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void explainRepositoryQueries() throws Exception {
+        SeedDataset dataset = SeedDataGenerator.fromSystemProperties().seedIfNeeded(jdbc);
+        context.getBean(TransactionPartitionMaintenance.class).ensurePartitions();
+        boolean postgres = "PostgreSQL".equals(RepositoryWorkload.databaseProduct(jdbc));
+        Map<String, Consumer<Random>> cases = new RepositoryWorkload(context, dataset).cases();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<String> flagged = new ArrayList<>();
+        for (Map.Entry<String, Consumer<Random>> entry : cases.entrySet()) {
+            Random random = new Random(entry.getKey().hashCode());
+            List<CapturedQuery> captured = CAPTURE.record(() -> entry.getValue().accept(random));
+            Set<String> seen = new LinkedHashSet<>();
+            List<Map<String, Object>> queries = new ArrayList<>();
+            for (CapturedQuery query : captured) {
+                if (!seen.add(query.sql())) {
+                    continue;
+                }
+                String plan = explain(query, postgres);
+                List<String> findings = postgres ? postgresFindings(plan) : h2Findings(plan);
+                findings.forEach(finding -> flagged.add(entry.getKey() + ": " + finding));
+                Map<String, Object> explained = new LinkedHashMap<>();
+                explained.put("sql", query.sql());
+                explained.put("findings", findings);
+                explained.put("plan", plan);
+                queries.add(explained);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("name", entry.getKey());
+            result.put("queries", queries);
+            results.add(result);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("database", RepositoryWorkload.databaseProduct(jdbc));
+        report.put("users", dataset.userCount());
+        report.put("transactions", dataset.transactionCount());
+        report.put("flagged", flagged);
+        report.put("cases", results);
+        Files.createDirectories(REPORT.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), report);
+
+        boolean failOnFindings = Boolean.getBoolean("perf.failOnFindings");
+        assertTrue(!failOnFindings || flagged.isEmpty(), () -> "Queries without a usable index: " + flagged);
+    }
+
+    private String explain(CapturedQuery query, boolean postgres) throws SQLException {
+        String prefix = postgres ? "explain (format json) " : "explain ";
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(prefix + query.sql())) {
+            for (ParameterSetOperation parameter : query.parameters()) {
+                try {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                } catch (IllegalAccessException | InvocationTargetException ex) {
+                    throw new SQLException("Could not replay parameter " + parameter.getMethod().getName(), ex);
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString().strip();
+        }
+    }
+
+    static List<String> h2Findings(String plan) {
+        List<String> findings = new ArrayList<>();
+        Matcher scan = H2_TABLE_SCAN.matcher(plan);
+        while (scan.find()) {
+            findings.add("table scan on " + scan.group(1));
+        }
+        if (plan.contains("ORDER BY") && !plan.contains("/* index sorted */")) {
+            findings.add("sort");
+        }
+        return findings;
+    }
+
+    static List<String> postgresFindings(String plan) throws IOException {
+        List<String> findings = new ArrayList<>();
+        for (JsonNode root : new ObjectMapper().readTree(plan)) {
+            collectPostgresFindings(root.path("Plan"), findings);
+        }
+        return findings;
+    }
+
+    private static void collectPostgresFindings(JsonNode node, List<String> findings) {
+        String type = node.path("Node Type").asText();
+        if ("Seq Scan".equals(type)) {
+            findings.add("seq scan on " + node.path("Relation Name").asText());
+        } else if ("Sort".equals(type) || "Incremental Sort".equals(type)) {
+            findings.add(type.toLowerCase(Locale.ROOT) + " on " + node.path("Sort Key"));
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectPostgresFindings(child, findings);
+        }
+    }
+}
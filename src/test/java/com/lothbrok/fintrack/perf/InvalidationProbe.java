@@ -0,0 +1,64 @@
+package com.lothbrok.fintrack.perf;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.lothbrok.fintrack.cache.InvalidationBus;
+import com.lothbrok.fintrack.cache.InvalidationProperties;
+import com.lothbrok.fintrack.cache.InvalidationTransport;
+import com.lothbrok.fintrack.cache.NotifyInvalidationTransport;
+import com.lothbrok.fintrack.cache.TableInvalidationTransport;
+import com.lothbrok.fintrack.metrics.MetricsProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The other node of {@link InvalidationPropagationBenchmarkTests}, run in a JVM of its own. Publishes
+ * {@code count} {@value #ENTITY_TYPE} invalidations, one every {@code intervalMicros}, each carrying its publish
+ * time in epoch microseconds as the version, then flushes and exits.
+ * <p>
+ * Arguments: {@code url username password NOTIFY|TABLE count intervalMicros}.
+ */
+public final class InvalidationProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationProbe.class);
+
+    static final String ENTITY_TYPE = "Probe";
+
+    private InvalidationProbe() {
+    }
+
+    public static void main(String[] args) {
+        String url = args[0];
+        String username = args[1];
+        String password = args[2].equals("-") ? "" : args[2];
+        InvalidationProperties.Transport kind = InvalidationProperties.Transport.valueOf(args[3]);
+        int count = Integer.parseInt(args[4]);
+        long intervalNanos = Long.parseLong(args[5]) * 1_000;
+
+        InvalidationProperties properties = new InvalidationProperties(true, kind, null, null, null);
+        InvalidationTransport transport = kind == InvalidationProperties.Transport.NOTIFY
+                ? new NotifyInvalidationTransport(url, username, password)
+                : new TableInvalidationTransport(new JdbcTemplate(new DriverManagerDataSource(url, username,
+                        password)), properties);
+        InvalidationBus bus = new InvalidationBus(transport, List.of(), properties,
+                new MetricsProperties(null, 0, null, false), new SimpleMeterRegistry());
+        bus.start();
+        LockSupport.parkNanos(Duration.ofMillis(500).toNanos());
+        for (int i = 0; i < count; i++) {
+            bus.publish(ENTITY_TYPE, UUID.randomUUID(), ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()));
+            LockSupport.parkNanos(intervalNanos);
+        }
+        bus.stop();
+        log.info("Sent {} invalidations over {}", count, kind);
+    }
+}
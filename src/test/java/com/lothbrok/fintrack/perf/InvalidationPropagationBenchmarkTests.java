@@ -0,0 +1,151 @@
+package com.lothbrok.fintrack.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.cache.InvalidationBus;
+import com.lothbrok.fintrack.cache.InvalidationProperties;
+import com.lothbrok.fintrack.cache.InvalidationTransport;
+import com.lothbrok.fintrack.cache.NotifyInvalidationTransport;
+import com.lothbrok.fintrack.cache.TableInvalidationTransport;
+import com.lothbrok.fintrack.metrics.MetricsProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Propagation delay of cache invalidations between two JVMs sharing the perf database: an {@link InvalidationProbe}
+ * process publishes {@code perf.invalidation.count} invalidations and this one measures how long each took from
+ * {@code publish} to reaching a listener, coalescing and transport included. PostgreSQL uses LISTEN/NOTIFY; on H2
+ * the probe reaches the database through a TCP server and both sides poll the table. Run with
+ * {@code ./mvnw -Pperf test -Dtest=InvalidationPropagationBenchmarkTests}; results go to
+ * {@code target/perf/invalidation-propagation.json}.
+ */
+@PerfTest
+class InvalidationPropagationBenchmarkTests {
+
+    private static final Path REPORT = Path.of("target", "perf", "invalidation-propagation.json");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private final int count = Integer.getInteger("perf.invalidation.count", 500);
+    private final int intervalMicros = Integer.getInteger("perf.invalidation.intervalMicros", 2_000);
+
+    @Test
+    void measurePropagationBetweenProcesses() throws Exception {
+        String database = RepositoryWorkload.databaseProduct(jdbc);
+        boolean postgres = "PostgreSQL".equals(database);
+        InvalidationProperties.Transport kind = postgres
+                ? InvalidationProperties.Transport.NOTIFY
+                : InvalidationProperties.Transport.TABLE;
+        InvalidationProperties properties = new InvalidationProperties(true, kind, null, null, null);
+
+        List<Long> delays = new ArrayList<>();
+        InvalidationTransport transport = postgres
+                ? new NotifyInvalidationTransport(dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())
+                : new TableInvalidationTransport(jdbc, properties);
+        InvalidationBus receiver = new InvalidationBus(transport, List.of(invalidations -> {
+            long now = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+            synchronized (delays) {
+                for (Invalidation invalidation : invalidations) {
+                    if (InvalidationProbe.ENTITY_TYPE.equals(invalidation.entityType())) {
+                        delays.add(now - invalidation.version());
+                    }
+                }
+            }
+        }), properties, new MetricsProperties(null, 0, null, false), new SimpleMeterRegistry());
+
+        Files.createDirectories(REPORT.getParent());
+        Server h2 = postgres ? null : Server.createTcpServer("-tcpPort", Integer.toString(freePort())).start();
+        receiver.start();
+        try {
+            String url = postgres
+                    ? dataSourceProperties.determineUrl()
+                    : dataSourceProperties.determineUrl().replace("jdbc:h2:file:",
+                            "jdbc:h2:tcp://localhost:" + h2.getPort() + "/");
+            String password = dataSourceProperties.determinePassword();
+            Process probe = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), InvalidationProbe.class.getName(),
+                    url, dataSourceProperties.determineUsername(),
+                    password == null || password.isEmpty() ? "-" : password,
+                    kind.name(), Integer.toString(count), Integer.toString(intervalMicros))
+                    .redirectErrorStream(true)
+                    .redirectOutput(REPORT.resolveSibling("invalidation-probe.log").toFile())
+                    .start();
+            assertThat(probe.waitFor(2, TimeUnit.MINUTES)).isTrue();
+            assertThat(probe.exitValue()).isZero();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (received(delays) < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            receiver.stop();
+            if (h2 != null) {
+                h2.stop();
+            }
+        }
+
+        long[] sorted;
+        synchronized (delays) {
+            sorted = delays.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        assertThat(sorted).hasSize(count);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", "invalidation.propagation[" + kind.name().toLowerCase() + "]");
+        result.put("p50Micros", percentile(sorted, 0.50));
+        result.put("p95Micros", percentile(sorted, 0.95));
+        result.put("p99Micros", percentile(sorted, 0.99));
+        result.put("maxMicros", sorted[sorted.length - 1]);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("database", database);
+        report.put("count", count);
+        report.put("intervalMicros", intervalMicros);
+        report.put("flushIntervalMillis", properties.flushInterval().toMillis());
+        report.put("pollIntervalMillis", properties.pollInterval().toMillis());
+        report.put("results", List.of(result));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), report);
+    }
+
+    private static int received(List<Long> delays) {
+        synchronized (delays) {
+            return delays.size();
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.lothbrok.fintrack.perf;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Runs one operation {@code warmup + samples} times with a random source seeded from its name and reports
+ * p50/p95/p99/max latency in microseconds.
+ */
+final class Latencies {
+
+    private Latencies() {
+    }
+
+    static Map<String, Object> measure(String name, Consumer<Random> operation, int warmup, int samples) {
+        Random random = new Random(name.hashCode());
+        for (int i = 0; i < warmup; i++) {
+            operation.accept(random);
+        }
+        long[] nanos = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            operation.accept(random);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", name);
+        result.put("p50Micros", percentile(nanos, 0.50));
+        result.put("p95Micros", percentile(nanos, 0.95));
+        result.put("p99Micros", percentile(nanos, 0.99));
+        result.put("maxMicros", nanos[nanos.length - 1] / 1_000);
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000;
+    }
+}
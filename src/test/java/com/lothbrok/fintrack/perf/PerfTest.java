@@ -0,0 +1,31 @@
+package com.lothbrok.fintrack.perf;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Full application context against the seeded perf database, tagged {@code perf} so it only runs under
+ * {@code -Pperf}. Defaults to a file-backed H2 database in PostgreSQL mode under {@code target/perf-db} with a
+ * Hibernate-managed schema. For PostgreSQL, pass {@code -Dperf.datasource.url/username/password} and
+ * {@code -Dperf.flyway.enabled=true -Dperf.ddl-auto=validate} so the schema comes from the migrations.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("perf")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${perf.datasource.url:jdbc:h2:file:./target/perf-db/fintrack;MODE=PostgreSQL;"
+                + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=MONTH,YEAR,VALUE;CACHE_SIZE=262144}",
+        "spring.datasource.username=${perf.datasource.username:sa}",
+        "spring.datasource.password=${perf.datasource.password:}",
+        "spring.flyway.enabled=${perf.flyway.enabled:false}",
+        "spring.jpa.hibernate.ddl-auto=${perf.ddl-auto:update}"
+})
+public @interface PerfTest {
+}
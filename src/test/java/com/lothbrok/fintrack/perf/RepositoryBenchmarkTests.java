@@ -0,0 +1,107 @@
+package com.lothbrok.fintrack.perf;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+import com.lothbrok.fintrack.partition.TransactionPartitionMaintenance;
+
+/**
+ * Latency percentiles for every repository method and every {@link TransactionFilter} shape against the seeded perf
+ * database (see {@link PerfTest}). Run with
+ * {@code ./mvnw -Pperf test -Dtest=RepositoryBenchmarkTests [-Dperf.scale=1.0] [-Dperf.baseline=previous.json]}.
+ * <p>
+ * The database survives between runs and is only re-seeded when the seed or scale changes. Results go to
+ * {@code target/perf/repository-latency.json}; when a baseline report is given each case also carries its p95 ratio
+ * against it, and {@code -Dperf.maxRegression=1.5} turns larger ratios into a failure.
+ */
+@PerfTest
+class RepositoryBenchmarkTests {
+
+    private static final Path REPORT = Path.of("target", "perf", "repository-latency.json");
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final int warmup = Integer.getInteger("perf.warmup", 20);
+    private final int samples = Integer.getInteger("perf.samples", 200);
+
+    @Test
+    void measureRepositoryLatencies() throws IOException {
+        SeedDataGenerator generator = SeedDataGenerator.fromSystemProperties();
+        long seedStart = System.nanoTime();
+        SeedDataset dataset = generator.seedIfNeeded(jdbc);
+        context.getBean(TransactionPartitionMaintenance.class).ensurePartitions();
+        long seedMillis = (System.nanoTime() - seedStart) / 1_000_000;
+
+        Map<String, Consumer<Random>> cases = new RepositoryWorkload(context, dataset).cases();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, Consumer<Random>> entry : cases.entrySet()) {
+            results.add(Latencies.measure(entry.getKey(), entry.getValue(), warmup, samples));
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("database", RepositoryWorkload.databaseProduct(jdbc));
+        report.put("seed", generator.seed());
+        report.put("scale", generator.scale());
+        report.put("years", generator.years());
+        report.put("users", dataset.userCount());
+        report.put("transactions", dataset.transactionCount());
+        report.put("seedMillis", seedMillis);
+        report.put("samples", samples);
+        report.put("results", results);
+        List<String> regressions = compareWithBaseline(results);
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Files.createDirectories(REPORT.getParent());
+        mapper.writeValue(REPORT.toFile(), report);
+        assertTrue(regressions.isEmpty(), () -> "p95 regressions over baseline: " + regressions);
+    }
+
+    private List<String> compareWithBaseline(List<Map<String, Object>> results) throws IOException {
+        String baselinePath = System.getProperty("perf.baseline");
+        if (baselinePath == null || baselinePath.isBlank()) {
+            return List.of();
+        }
+        Map<String, Long> baseline = new HashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(Path.of(baselinePath).toFile()).path("results")) {
+            baseline.put(node.path("name").asText(), node.path("p95Micros").asLong());
+        }
+        String maxRegression = System.getProperty("perf.maxRegression");
+        List<String> regressions = new ArrayList<>();
+        for (Map<String, Object> result : results) {
+            Long previous = baseline.get((String) result.get("name"));
+            if (previous == null || previous == 0) {
+                continue;
+            }
+            double ratio = ((Long) result.get("p95Micros")) / (double) previous;
+            result.put("baselineP95Micros", previous);
+            result.put("p95Ratio", Math.round(ratio * 100) / 100.0);
+            if (maxRegression != null && ratio > Double.parseDouble(maxRegression)) {
+                regressions.add(result.get("name") + " x" + result.get("p95Ratio"));
+            }
+        }
+        return regressions;
+    }
+}
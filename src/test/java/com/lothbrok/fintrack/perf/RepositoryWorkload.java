@@ -0,0 +1,190 @@
+package com.lothbrok.fintrack.perf;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.repository.BudgetRepository;
+import com.lothbrok.fintrack.repository.NotificationRepository;
+import com.lothbrok.fintrack.repository.RecurringJobRepository;
+import com.lothbrok.fintrack.repository.SharedWalletMemberRepository;
+import com.lothbrok.fintrack.repository.SharedWalletRepository;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.repository.UserRepository;
+import com.lothbrok.fintrack.repository.specification.TransactionSpecifications;
+
+/**
+ * One named case per repository method and {@link TransactionFilter} shape, each drawing its arguments from a
+ * {@link SeedDataset} with the data set's skew. Shared by the latency suite and the index advisor so both look at
+ * the same queries.
+ */
+final class RepositoryWorkload {
+
+    private final SeedDataset dataset;
+    private final JdbcTemplate jdbc;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionRepository transactions;
+    private final BudgetRepository budgets;
+    private final NotificationRepository notifications;
+    private final RecurringJobRepository recurringJobs;
+    private final UserRepository users;
+    private final SharedWalletRepository wallets;
+    private final SharedWalletMemberRepository walletMembers;
+
+    RepositoryWorkload(ApplicationContext context, SeedDataset dataset) {
+        this.dataset = dataset;
+        this.jdbc = context.getBean(JdbcTemplate.class);
+        this.transactionManager = context.getBean(PlatformTransactionManager.class);
+        this.transactions = context.getBean(TransactionRepository.class);
+        this.budgets = context.getBean(BudgetRepository.class);
+        this.notifications = context.getBean(NotificationRepository.class);
+        this.recurringJobs = context.getBean(RecurringJobRepository.class);
+        this.users = context.getBean(UserRepository.class);
+        this.wallets = context.getBean(SharedWalletRepository.class);
+        this.walletMembers = context.getBean(SharedWalletMemberRepository.class);
+    }
+
+    static String databaseProduct(JdbcTemplate jdbc) {
+        return jdbc.execute((ConnectionCallback<String>) connection -> connection.getMetaData()
+                .getDatabaseProductName());
+    }
+
+    Map<String, Consumer<Random>> cases() {
+        Map<String, Consumer<Random>> cases = new LinkedHashMap<>();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Object[]> templates = jdbc.query("select user_id, template_transaction_id from recurring_jobs limit 1000",
+                (rs, row) -> new Object[] { rs.getObject(1, UUID.class), rs.getObject(2, UUID.class) });
+
+        PageRequest page = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "eventDate"));
+        LocalDate last = dataset.lastDate();
+
+        cases.put("transactions.findById", r -> transactions.findById(UUID.randomUUID()));
+        cases.put("transactions.findByUserId", r -> transactions.findByUserId(dataset.sampleUser(r), page));
+        cases.put("transactions.findByUserIdAndEventDateBetween", r -> transactions
+                .findByUserIdAndEventDateBetween(dataset.sampleUser(r), last.minusDays(90), last, page));
+        cases.put("transactions.findBySharedWalletId", r -> transactions
+                .findBySharedWalletId(dataset.sampleWallet(r), page));
+        cases.put("transactions.countByUserIdAndEventDateBetween", r -> transactions
+                .countByUserIdAndEventDateBetween(dataset.sampleUser(r), last.minusYears(1), last));
+        cases.put("transactions.countByUserId", r -> transactions.countByUserId(dataset.sampleUser(r)));
+        cases.put("transactions.streamColumnsByUserId", r -> readOnly.executeWithoutResult(status -> {
+            try (var rows = transactions.streamColumnsByUserId(dataset.sampleUser(r))) {
+                rows.count();
+            }
+        }));
+        cases.put("transactions.streamReportRows", r -> readOnly.executeWithoutResult(status -> {
+            try (var rows = transactions.streamReportRows(dataset.sampleUser(r), last.minusYears(1), last)) {
+                rows.count();
+            }
+        }));
+        if ("PostgreSQL".equals(databaseProduct(jdbc))) {
+            cases.put("transactions.streamTimeSeries", r -> readOnly.executeWithoutResult(status -> {
+                try (var rows = transactions.streamTimeSeries(dataset.sampleUser(r), "month", last.minusYears(1),
+                        last, null, null, null, null, true, List.of(""))) {
+                    rows.count();
+                }
+            }));
+        }
+        for (Map.Entry<String, Consumer<Random>> shape : filterShapes().entrySet()) {
+            cases.put("transactions.findAll[" + shape.getKey() + "]", shape.getValue());
+        }
+
+        cases.put("budgets.findByUserId", r -> budgets.findByUserId(dataset.sampleUser(r)));
+        cases.put("budgets.findByUserIdAndMonth", r -> budgets
+                .findByUserIdAndMonth(dataset.sampleUser(r), YearMonth.from(last).toString()));
+        cases.put("budgets.findByUserIdAndMonthAndCategory", r -> budgets.findByUserIdAndMonthAndCategory(
+                dataset.sampleUser(r), YearMonth.from(last).toString(), dataset.sampleCategory(r)));
+        cases.put("budgets.existsByUserIdAndMonthAndCategory", r -> budgets.existsByUserIdAndMonthAndCategory(
+                dataset.sampleUser(r), YearMonth.from(last).toString(), dataset.sampleCategory(r)));
+
+        cases.put("notifications.findByUserId", r -> notifications.findByUserId(dataset.sampleUser(r),
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"))));
+        cases.put("notifications.findByUserIdAndReadFalse", r -> notifications
+                .findByUserIdAndReadFalse(dataset.sampleUser(r), PageRequest.of(0, 20)));
+        cases.put("notifications.findTop20ByUserIdOrderByCreatedAtDesc", r -> notifications
+                .findTop20ByUserIdOrderByCreatedAtDesc(dataset.sampleUser(r)));
+
+        cases.put("recurringJobs.findByActiveTrueAndNextRunAtBefore", r -> recurringJobs
+                .findByActiveTrueAndNextRunAtBefore(Instant.parse("2025-11-01T00:00:00Z")
+                        .minusSeconds(r.nextInt(86_400))));
+        cases.put("recurringJobs.findByUserId", r -> recurringJobs.findByUserId(dataset.sampleUser(r)));
+        cases.put("recurringJobs.findByUserIdAndTemplateTransactionId", r -> {
+            Object[] template = templates.get(r.nextInt(templates.size()));
+            recurringJobs.findByUserIdAndTemplateTransactionId((UUID) template[0], (UUID) template[1]);
+        });
+
+        cases.put("users.findByEmailIgnoreCase", r -> users
+                .findByEmailIgnoreCase("USER" + dataset.sampleUserIndex(r) + "@example.com"));
+        cases.put("users.existsByEmailIgnoreCase", r -> users
+                .existsByEmailIgnoreCase("user" + dataset.sampleUserIndex(r) + "@example.com"));
+        cases.put("sharedWallets.findByOwnerId", r -> wallets.findByOwnerId(dataset.sampleWalletMember(r)));
+        cases.put("sharedWallets.existsByOwnerIdAndNameIgnoreCase", r -> wallets
+                .existsByOwnerIdAndNameIgnoreCase(dataset.sampleWalletMember(r), "wallet " + r.nextInt(100)));
+        cases.put("sharedWalletMembers.findByWalletId", r -> walletMembers.findByWalletId(dataset.sampleWallet(r)));
+        cases.put("sharedWalletMembers.findByMemberId", r -> walletMembers
+                .findByMemberId(dataset.sampleWalletMember(r)));
+        cases.put("sharedWalletMembers.findByWalletIdAndMemberId", r -> walletMembers
+                .findByWalletIdAndMemberId(dataset.sampleWallet(r), dataset.sampleWalletMember(r)));
+
+        return cases;
+    }
+
+    /**
+     * One case per combination of the optional {@link TransactionFilter} fields, from user-only to everything set.
+     */
+    private Map<String, Consumer<Random>> filterShapes() {
+        String[] fields = { "range", "categories", "type", "minAmount", "maxAmount", "wallet" };
+        Map<String, Consumer<Random>> shapes = new LinkedHashMap<>();
+        PageRequest page = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "eventDate"));
+        for (int mask = 0; mask < 1 << fields.length; mask++) {
+            int shape = mask;
+            List<String> name = new ArrayList<>();
+            for (int i = 0; i < fields.length; i++) {
+                if ((shape & 1 << i) != 0) {
+                    name.add(fields[i]);
+                }
+            }
+            shapes.put(name.isEmpty() ? "user" : String.join("+", name), r -> {
+                int userIndex = dataset.sampleUserIndex(r);
+                LocalDate to = dataset.lastDate().minusDays(r.nextInt(365));
+                Set<String> categories = new LinkedHashSet<>();
+                categories.add(dataset.sampleCategory(r));
+                categories.add(dataset.sampleCategory(r));
+                UUID wallet = userIndex < dataset.walletCount() * 2
+                        ? dataset.walletAt(userIndex % dataset.walletCount())
+                        : dataset.sampleWallet(r);
+                TransactionFilter filter = new TransactionFilter(
+                        (shape & 1) != 0 ? to.minusDays(90) : null,
+                        (shape & 1) != 0 ? to : null,
+                        (shape & 2) != 0 ? categories : null,
+                        (shape & 4) != 0 ? TransactionType.EXPENSE : null,
+                        (shape & 8) != 0 ? new BigDecimal("10.00") : null,
+                        (shape & 16) != 0 ? new BigDecimal("250.00") : null,
+                        (shape & 32) != 0 ? wallet : null);
+                transactions.findAll(TransactionSpecifications.forUser(dataset.userAt(userIndex), filter), page);
+            });
+        }
+        return shapes;
+    }
+}
@@ -0,0 +1,101 @@
+package com.lothbrok.fintrack.perf;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Handle on a seeded database: the generated keys plus samplers that follow the same skew the data was generated
+ * with, so benchmarks hit hot users as often as production traffic would.
+ */
+public final class SeedDataset {
+
+    private final UUID[] userIds;
+    private final double[] userCdf;
+    private final int[] userTransactionCounts;
+    private final UUID[] walletIds;
+    private final UUID[] walletMemberIds;
+    private final List<String> categories;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final long transactionCount;
+
+    SeedDataset(UUID[] userIds, double[] userCdf, int[] userTransactionCounts, UUID[] walletIds,
+            UUID[] walletMemberIds, List<String> categories, LocalDate firstDate, LocalDate lastDate,
+            long transactionCount) {
+        this.userIds = userIds;
+        this.userCdf = userCdf;
+        this.userTransactionCounts = userTransactionCounts;
+        this.walletIds = walletIds;
+        this.walletMemberIds = walletMemberIds;
+        this.categories = categories;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.transactionCount = transactionCount;
+    }
+
+    /** User drawn with probability proportional to their transaction volume. */
+    public UUID sampleUser(Random random) {
+        return userIds[sampleUserIndex(random)];
+    }
+
+    public int sampleUserIndex(Random random) {
+        int index = Arrays.binarySearch(userCdf, random.nextDouble());
+        return Math.min(userIds.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    /** The user with the largest history. */
+    public UUID heaviestUser() {
+        return userIds[0];
+    }
+
+    public UUID userAt(int index) {
+        return userIds[index];
+    }
+
+    public int transactionCountOf(int userIndex) {
+        return userTransactionCounts[userIndex];
+    }
+
+    public UUID sampleWallet(Random random) {
+        return walletIds[random.nextInt(walletIds.length)];
+    }
+
+    public UUID walletAt(int index) {
+        return walletIds[index];
+    }
+
+    public UUID sampleWalletMember(Random random) {
+        return walletMemberIds[random.nextInt(walletMemberIds.length)];
+    }
+
+    public String sampleCategory(Random random) {
+        return categories.get(SeedDataGenerator.zipfIndex(random, categories.size()));
+    }
+
+    public List<String> categories() {
+        return categories;
+    }
+
+    public LocalDate firstDate() {
+        return firstDate;
+    }
+
+    public LocalDate lastDate() {
+        return lastDate;
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int walletCount() {
+        return walletIds.length;
+    }
+
+    public long transactionCount() {
+        return transactionCount;
+    }
+}
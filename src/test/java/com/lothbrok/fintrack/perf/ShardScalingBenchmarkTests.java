@@ -0,0 +1,178 @@
+package com.lothbrok.fintrack.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.service.TransactionService;
+import com.lothbrok.fintrack.shard.ShardDataSources;
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+/**
+ * Transaction create throughput as the same load is spread over 1 to 4 shards. {@code perf.shards.threads} threads
+ * each write {@code perf.shards.creates} transactions for a user of their own; in round {@code k} the users are
+ * picked so they live on the first {@code k} shards only. Shards are file-backed H2 databases under
+ * {@code target/perf-db}, rebuilt on every run. Run with
+ * {@code ./mvnw -Pperf test -Dtest=ShardScalingBenchmarkTests [-Dperf.shards.threads=8]}; results go to
+ * {@code target/perf/shard-scaling.json}.
+ */
+@PerfTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=" + ShardScalingBenchmarkTests.SHARD_URL + "0" + ShardScalingBenchmarkTests.OPTIONS,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "fintrack.sharding.shards[0].url=" + ShardScalingBenchmarkTests.SHARD_URL + "1"
+                + ShardScalingBenchmarkTests.OPTIONS,
+        "fintrack.sharding.shards[0].username=sa",
+        "fintrack.sharding.shards[1].url=" + ShardScalingBenchmarkTests.SHARD_URL + "2"
+                + ShardScalingBenchmarkTests.OPTIONS,
+        "fintrack.sharding.shards[1].username=sa",
+        "fintrack.sharding.shards[2].url=" + ShardScalingBenchmarkTests.SHARD_URL + "3"
+                + ShardScalingBenchmarkTests.OPTIONS,
+        "fintrack.sharding.shards[2].username=sa"
+})
+class ShardScalingBenchmarkTests {
+
+    static final String SHARD_URL = "jdbc:h2:file:./target/perf-db/fintrack-shard";
+    static final String OPTIONS = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;"
+            + "NON_KEYWORDS=MONTH,YEAR,VALUE;CACHE_SIZE=65536";
+
+    private static final Path REPORT = Path.of("target", "perf", "shard-scaling.json");
+
+    @Autowired
+    private ShardDataSources shards;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    private final int threads = Integer.getInteger("perf.shards.threads", 8);
+    private final int creates = Integer.getInteger("perf.shards.creates", 300);
+
+    @Test
+    void measureThroughputAcrossShards() throws Exception {
+        List<String> schema = new JdbcTemplate(shards.get(0)).queryForList("script", String.class);
+        for (int shard = 1; shard < shards.count(); shard++) {
+            JdbcTemplate jdbc = new JdbcTemplate(shards.get(shard));
+            jdbc.execute("drop all objects");
+            schema.forEach(jdbc::execute);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        double baseline = 0;
+        for (int used = 1; used <= shards.count(); used++) {
+            List<UUID> users = new ArrayList<>(threads);
+            for (int thread = 0; thread < threads; thread++) {
+                users.add(user(thread % used));
+            }
+            // Untimed pass so every shard's pool and caches are warm.
+            run(users, Math.max(1, creates / 10));
+            assertThat(eventBus.awaitIdle(Duration.ofMinutes(1))).isTrue();
+
+            long elapsed = run(users, creates);
+            assertThat(eventBus.awaitIdle(Duration.ofMinutes(1))).isTrue();
+            double throughput = threads * (double) creates / (elapsed / 1e9);
+            if (used == 1) {
+                baseline = throughput;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("shards", used);
+            result.put("creates", threads * creates);
+            result.put("millis", elapsed / 1_000_000);
+            result.put("createsPerSecond", Math.round(throughput));
+            result.put("speedup", Math.round(throughput / baseline * 100) / 100.0);
+            results.add(result);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("database", "H2");
+        report.put("threads", threads);
+        report.put("createsPerThread", creates);
+        report.put("results", results);
+        Files.createDirectories(REPORT.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), report);
+    }
+
+    /** Runs {@code count} creates on each thread, one thread per user, and returns the wall time in nanoseconds. */
+    private long run(List<UUID> users, int count) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(users.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> done = new ArrayList<>();
+            for (UUID userId : users) {
+                done.add(pool.submit(() -> {
+                    start.await();
+                    Random random = new Random(userId.hashCode());
+                    try (ShardRouter.Scope scope = router.forUser(userId)) {
+                        for (int i = 0; i < count; i++) {
+                            transactionService.createTransaction(userId, request(random));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : done) {
+                future.get();
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** A new user the ring places on {@code shard}, inserted there. */
+    private UUID user(int shard) {
+        UUID userId;
+        do {
+            userId = UUID.randomUUID();
+        } while (router.shardOf(userId) != shard);
+        Timestamp now = Timestamp.from(Instant.now());
+        new JdbcTemplate(shards.get(shard)).update("""
+                insert into users (id, email, normalized_email, password_hash, full_name, role, created_at, updated_at)
+                values (?, ?, ?, '$2a$10$abcdefghijklmnopqrstuv', 'Shard benchmark', 'USER', ?, ?)
+                """, userId, "shard-" + userId + "@example.com", "shard-" + userId + "@example.com", now, now);
+        return userId;
+    }
+
+    private static CreateTransactionRequest request(Random random) {
+        BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(9_900), 2);
+        return new CreateTransactionRequest("Food expense", amount, "USD", "Food", TransactionType.EXPENSE,
+                LocalDate.now().minusDays(random.nextInt(60)), null, null, null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.lothbrok.fintrack.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionOperation;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.service.TransactionService;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Writing {@code perf.batch.size} transactions through one batch call against one create call per transaction, for
+ * a user with budgets in every category written to. Run with
+ * {@code ./mvnw -Pperf test -Dtest=TransactionBatchBenchmarkTests [-Dperf.batch.size=100]}; results go to
+ * {@code target/perf/transaction-batch.json}.
+ */
+@PerfTest
+class TransactionBatchBenchmarkTests {
+
+    private static final Path REPORT = Path.of("target", "perf", "transaction-batch.json");
+    private static final List<String> CATEGORIES = List.of("Food", "Transport", "Shopping", "Utilities");
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    private final int warmup = Integer.getInteger("perf.warmup", 3);
+    private final int samples = Integer.getInteger("perf.samples", 20);
+    private final int batchSize = Integer.getInteger("perf.batch.size", 100);
+
+    private UUID userId;
+
+    @AfterEach
+    void removeBenchmarkUser() {
+        if (userId == null) {
+            return;
+        }
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints", "budgets",
+                "transactions")) {
+            jdbc.update("delete from " + table + " where user_id = ?", userId);
+        }
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void measureBatchAgainstPerOperationWrites() throws IOException {
+        LocalDate today = LocalDate.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            TestData data = new TestData(entityManager);
+            User user = data.user("Batch benchmark");
+            userId = user.getId();
+            for (String category : CATEGORIES) {
+                data.budget(user, YearMonth.from(today).toString(), category, "1000000.00");
+            }
+        });
+
+        Map<String, Object> perOperation = Latencies.measure("transactions.create x" + batchSize, random -> {
+            for (CreateTransactionRequest request : requests(random, today)) {
+                transactionService.createTransaction(userId, request);
+            }
+        }, warmup, samples);
+        Map<String, Object> batch = Latencies.measure("transactions.batch[" + batchSize + "]", random -> {
+            List<TransactionOperation> operations = new ArrayList<>(batchSize);
+            for (CreateTransactionRequest request : requests(random, today)) {
+                operations.add(new TransactionOperation(TransactionOperation.Type.CREATE, null, request, null));
+            }
+            transactionService.applyBatch(userId, operations);
+        }, warmup, samples);
+
+        assertThat(eventBus.awaitIdle(Duration.ofMinutes(1))).isTrue();
+        int written = 2 * (warmup + samples) * batchSize;
+        assertThat(jdbc.queryForObject("select count(*) from transactions where user_id = ?", Integer.class,
+                userId)).isEqualTo(written);
+        assertThat(jdbc.queryForObject("select sum(used_amount) from budgets where user_id = ?", BigDecimal.class,
+                userId)).isEqualByComparingTo(jdbc.queryForObject(
+                        "select sum(amount) from transactions where user_id = ?", BigDecimal.class, userId));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("database", RepositoryWorkload.databaseProduct(jdbc));
+        report.put("batchSize", batchSize);
+        report.put("samples", samples);
+        report.put("results", List.of(perOperation, batch));
+        Files.createDirectories(REPORT.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), report);
+    }
+
+    private List<CreateTransactionRequest> requests(Random random, LocalDate date) {
+        List<CreateTransactionRequest> requests = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            String category = CATEGORIES.get(random.nextInt(CATEGORIES.size()));
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(9_900), 2);
+            requests.add(new CreateTransactionRequest(category + " expense", amount, "USD", category,
+                    TransactionType.EXPENSE, date, null, null, null));
+        }
+        return requests;
+    }
+}
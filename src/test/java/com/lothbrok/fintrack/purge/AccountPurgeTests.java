@@ -0,0 +1,203 @@
+package com.lothbrok.fintrack.purge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.dto.balance.MonthlyBalanceResponse;
+import com.lothbrok.fintrack.dto.user.AccountPurgeResponse;
+import com.lothbrok.fintrack.entity.SharedWallet;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.AccountPurgeStatus;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.service.AccountPurgeService;
+import com.lothbrok.fintrack.service.BalanceService;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/** Small chunks, so every step takes several statements. */
+@SpringBootTest(properties = "fintrack.purge.chunk-rows=3")
+class AccountPurgeTests {
+
+    private static final List<String> USER_TABLES = List.of("transactions", "budgets", "notifications",
+            "recurring_jobs", "spending_insight_states", "balance_checkpoints", "change_journal",
+            "change_journal_heads", "transaction_outbox", "transaction_dead_letters");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    @Autowired
+    private AccountPurgeService purgeService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    private final List<UUID> users = new ArrayList<>();
+
+    @AfterEach
+    void removeCommittedRows() {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        for (UUID userId : users) {
+            jdbc.update("delete from account_purge_jobs where user_id = ?", userId);
+            jdbc.update("delete from change_journal where user_id = ?", userId);
+            jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+            jdbc.update("delete from shared_wallet_members where member_id = ?", userId);
+            for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints",
+                    "transactions")) {
+                jdbc.update("delete from " + table + " where user_id = ?", userId);
+            }
+        }
+        for (UUID userId : users) {
+            jdbc.update("delete from balance_checkpoints where wallet_id in "
+                    + "(select id from shared_wallets where owner_id = ?)", userId);
+            jdbc.update("delete from shared_wallet_members where wallet_id in "
+                    + "(select id from shared_wallets where owner_id = ?)", userId);
+            jdbc.update("delete from shared_wallets where owner_id = ?", userId);
+        }
+        for (UUID userId : users) {
+            jdbc.update("delete from users where id = ?", userId);
+        }
+    }
+
+    @Test
+    void deletesTheAccountInChunksAndKeepsOtherUsersData() {
+        UUID[] ids = transactionTemplate.execute(status -> {
+            TestData data = new TestData(entityManager);
+            User leaving = data.user("Leaving");
+            User member = data.user("Member");
+            User other = data.user("Other");
+            SharedWallet owned = data.wallet(leaving, "House", member);
+            SharedWallet joined = data.wallet(other, "Trip", leaving);
+            Transaction template = null;
+            for (int day = 1; day <= 10; day++) {
+                template = data.transaction(leaving, day % 3 == 0 ? owned : null, "Food", "10.00",
+                        LocalDate.of(2024, 5, day));
+            }
+            data.transaction(leaving, joined, "Travel", "40.00", LocalDate.of(2024, 5, 20));
+            data.recurringJob(leaving, template, Instant.parse("2024-07-01T00:00:00Z"));
+            data.budget(leaving, "2024-05", "Food", "300.00");
+            data.notification(leaving, false);
+            Transaction kept = data.transaction(member, owned, "Food", "25.00", LocalDate.of(2024, 5, 4));
+            data.transaction(other, joined, "Travel", "60.00", LocalDate.of(2024, 5, 21));
+            return new UUID[] {leaving.getId(), member.getId(), other.getId(), owned.getId(), joined.getId(),
+                    kept.getId()};
+        });
+        UUID leaving = ids[0];
+        users.addAll(List.of(ids[0], ids[1], ids[2]));
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        long rows = 0;
+        for (String table : USER_TABLES) {
+            rows += count(table, "user_id", leaving);
+        }
+
+        AccountPurgeResponse requested = purgeService.requestPurge(leaving);
+        AccountPurgeResponse done = awaitFinished(leaving, requested.id());
+
+        assertThat(done.status()).isEqualTo(AccountPurgeStatus.COMPLETED);
+        assertThat(done.step()).isEqualTo("users");
+        assertThat(done.rowsDeleted()).isGreaterThan(rows);
+        for (String table : USER_TABLES) {
+            assertThat(count(table, "user_id", leaving)).as(table).isZero();
+        }
+        assertThat(count("users", "id", leaving)).isZero();
+        assertThat(count("shared_wallets", "id", ids[3])).isZero();
+        assertThat(count("shared_wallet_members", "member_id", leaving)).isZero();
+        assertThat(count("balance_checkpoints", "wallet_id", ids[3])).isZero();
+
+        // The member keeps their transaction, without the deleted wallet; the other wallet is untouched.
+        assertThat(jdbc.queryForList("select wallet_id from transactions where id = ?", UUID.class, ids[5]))
+                .containsExactly((UUID) null);
+        assertThat(count("shared_wallets", "id", ids[4])).isEqualTo(1);
+        assertThat(count("transactions", "wallet_id", ids[4])).isEqualTo(1);
+        assertThat(count("users", "id", ids[1]) + count("users", "id", ids[2])).isEqualTo(2);
+
+        // Progress stays readable after the account is gone.
+        assertThat(purgeService.getPurge(leaving, requested.id()).status()).isEqualTo(AccountPurgeStatus.COMPLETED);
+        assertThatThrownBy(() -> purgeService.requestPurge(leaving)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rowsInOtherUsersWalletsLeaveTheirBalances() {
+        UUID[] ids = transactionTemplate.execute(status -> {
+            TestData data = new TestData(entityManager);
+            User leaving = data.user("Leaving");
+            User owner = data.user("Owner");
+            SharedWallet joined = data.wallet(owner, "Trip", leaving);
+            Transaction removed = null;
+            for (int day = 1; day <= 4; day++) {
+                removed = data.transaction(leaving, joined, "Travel", "10.00", LocalDate.of(2024, 5, day));
+            }
+            data.transaction(owner, joined, "Travel", "60.00", LocalDate.of(2024, 5, 21));
+            data.transaction(owner, joined, "Travel", "5.00", LocalDate.of(2024, 6, 2));
+            return new UUID[] {leaving.getId(), owner.getId(), joined.getId(), removed.getId()};
+        });
+        users.addAll(List.of(ids[0], ids[1]));
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        assertThat(monthlyBalances(ids[1], ids[2])).extracting(MonthlyBalanceResponse::closingBalance)
+                .containsExactly(new BigDecimal("-100.00"), new BigDecimal("-105.00"));
+
+        AccountPurgeResponse done = awaitFinished(ids[0], purgeService.requestPurge(ids[0]).id());
+
+        assertThat(done.status()).isEqualTo(AccountPurgeStatus.COMPLETED);
+        assertThat(monthlyBalances(ids[1], ids[2])).satisfiesExactly(
+                may -> assertThat(may.closingBalance()).isEqualByComparingTo("-60.00"),
+                june -> {
+                    assertThat(june.openingBalance()).isEqualByComparingTo("-60.00");
+                    assertThat(june.closingBalance()).isEqualByComparingTo("-65.00");
+                });
+        assertThat(balanceService.getBalance(ids[1], LocalDate.of(2024, 6, 30), ids[2]).balance())
+                .isEqualByComparingTo("-65.00");
+        // The owner's stream tells their devices the rows are gone.
+        assertThat(jdbc.queryForList("select operation from change_journal where user_id = ? and entity_id = ?",
+                String.class, ids[1], ids[3])).containsExactly("DELETE");
+    }
+
+    private List<MonthlyBalanceResponse> monthlyBalances(UUID ownerId, UUID walletId) {
+        return balanceService.getMonthlyBalances(ownerId, YearMonth.of(2024, 5), YearMonth.of(2024, 6), walletId);
+    }
+
+    private AccountPurgeResponse awaitFinished(UUID userId, UUID purgeId) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            AccountPurgeResponse purge = purgeService.getPurge(userId, purgeId);
+            if (purge.status() == AccountPurgeStatus.COMPLETED || purge.status() == AccountPurgeStatus.FAILED) {
+                return purge;
+            }
+            assertThat(System.nanoTime()).as("purge finished within 10s").isLessThan(deadline);
+            LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+        }
+    }
+
+    private long count(String table, String column, UUID id) {
+        Long count = jdbc.queryForObject("select count(*) from " + table + " where " + column + " = ?", Long.class,
+                id);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,225 @@
+package com.lothbrok.fintrack.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.controller.ApiHeaders;
+import com.lothbrok.fintrack.shard.ShardRouter;
+import com.lothbrok.fintrack.support.TestData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Policies are set up here, since the test configuration has none. The journal gets one with a three-request burst
+ * that barely refills, and the key limit is cut to a hundred. Only {@code issued-key} is an issued API key.
+ * Sync runs on demand rather than on its schedule, between nodes started by the test. Users are committed, since
+ * the limiter only keys a request by a user that exists.
+ */
+@SpringBootTest(properties = {
+        "fintrack.rate-limit.max-keys=100",
+        "fintrack.rate-limit.policies.public.paths=/api/v1/public/**",
+        "fintrack.rate-limit.policies.public.key=api-key",
+        "fintrack.rate-limit.policies.public.capacity=60",
+        "fintrack.rate-limit.policies.public.refill-per-second=1",
+        "fintrack.rate-limit.policies.journal.paths=/api/v1/journal",
+        "fintrack.rate-limit.policies.journal.key=user",
+        "fintrack.rate-limit.policies.journal.capacity=3",
+        "fintrack.rate-limit.policies.journal.refill-per-second=0.0625",
+        "fintrack.rate-limit.api-keys=70B93791334A4D9AA4E2E802434D2CBDA5E29AC493325875C93C596A971C690F",
+        "fintrack.rate-limit.sync.enabled=true",
+        "fintrack.rate-limit.sync.interval=1h",
+        "fintrack.rate-limit.sync.quantum=2"
+})
+@AutoConfigureMockMvc
+class RateLimiterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RateLimiter limiter;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private RateLimitInterceptor interceptor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<RateLimiter> nodes = new ArrayList<>();
+    private final List<UUID> users = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        nodes.forEach(RateLimiter::stop);
+        jdbc.update("delete from rate_limit_usage");
+        users.forEach(userId -> jdbc.update("delete from users where id = ?", userId));
+    }
+
+    @Test
+    void bucketRefillsAtItsRateUpToItsCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 0);
+        double perMilli = 0.001;
+
+        assertThat(bucket.tryAcquire(3, perMilli, 0)).isEqualTo(2);
+        assertThat(bucket.tryAcquire(3, perMilli, 0)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(3, perMilli, 0)).isEqualTo(0);
+        assertThat(bucket.tryAcquire(3, perMilli, 0)).isEqualTo(-1000);
+        assertThat(bucket.tryAcquire(3, perMilli, 400)).isEqualTo(-600);
+        assertThat(bucket.tryAcquire(3, perMilli, 1500)).isEqualTo(0);
+        // The half token left over from the last refill carries over.
+        assertThat(bucket.tryAcquire(3, perMilli, 2000)).isEqualTo(0);
+        assertThat(bucket.isFull(3, perMilli, 4000)).isFalse();
+        assertThat(bucket.isFull(3, perMilli, 5000)).isTrue();
+        assertThat(bucket.tryAcquire(3, perMilli, 60_000)).isEqualTo(2);
+    }
+
+    @Test
+    void requestsOverTheLimitAreRejectedWithRetryAfter() throws Exception {
+        String userId = user();
+
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            mockMvc.perform(journal(userId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(RateLimitInterceptor.LIMIT, "3"))
+                    .andExpect(header().string(RateLimitInterceptor.REMAINING, Integer.toString(remaining)));
+        }
+        mockMvc.perform(journal(userId))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(RateLimitInterceptor.REMAINING, "0"))
+                .andExpect(header().string(RateLimitInterceptor.RESET, "48"))
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error.code").value("RATE_LIMITED"))
+                .andExpect(jsonPath("$.meta.requestId").value("limited"));
+
+        mockMvc.perform(journal(user()))
+                .andExpect(header().string(RateLimitInterceptor.REMAINING, "2"));
+    }
+
+    @Test
+    void unknownUserIdsShareTheirAddressBucket() throws Exception {
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            mockMvc.perform(journal(UUID.randomUUID().toString()).with(fromAddress("10.0.0.7")))
+                    .andExpect(header().string(RateLimitInterceptor.REMAINING, Integer.toString(remaining)));
+        }
+        mockMvc.perform(journal("not-a-user").with(fromAddress("10.0.0.7")))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(journal(UUID.randomUUID().toString()).with(fromAddress("10.0.0.8")))
+                .andExpect(header().string(RateLimitInterceptor.REMAINING, "2"));
+    }
+
+    @Test
+    void onlyIssuedApiKeysKeyTheirCallers() {
+        RateLimiter.Limit limit = limiter.limit("public");
+
+        assertThat(interceptor.key(limit, apiRequest("issued-key")))
+                .isEqualTo("key:" + RateLimitInterceptor.sha256("issued-key"));
+        assertThat(interceptor.key(limit, apiRequest("made-up-key"))).isEqualTo("10.0.0.9");
+        assertThat(interceptor.key(limit, apiRequest(null))).isEqualTo("10.0.0.9");
+    }
+
+    @Test
+    void routesWithoutAPolicyAreNotLimited() throws Exception {
+        mockMvc.perform(get("/api/v1/sync").header(ApiHeaders.USER_ID, UUID.randomUUID().toString()))
+                .andExpect(header().doesNotExist(RateLimitInterceptor.LIMIT));
+    }
+
+    @Test
+    void bucketsStayWithinTheKeyLimit() {
+        // A node of its own, so the evictions leave the other tests' buckets alone.
+        RateLimiter node = node();
+        RateLimiter.Limit limit = node.limit("public");
+        for (int i = 0; i < 1000; i++) {
+            assertThat(node.tryAcquire(limit, "key-" + i)).isEqualTo(59);
+        }
+
+        assertThat(node.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void usageOnOtherNodesDrainsTheLocalBuckets() {
+        RateLimiter here = node();
+        RateLimiter there = node();
+        String key = "shared-" + UUID.randomUUID();
+        assertThat(here.tryAcquire(here.limit("public"), key)).isEqualTo(59);
+        here.sync();
+
+        for (int i = 0; i < 5; i++) {
+            there.tryAcquire(there.limit("public"), key);
+        }
+        there.sync();
+        here.sync();
+
+        // Reaching the quantum queues the key; everything taken by the time of the sync is reported.
+        assertThat(here.tryAcquire(here.limit("public"), key)).isEqualTo(53);
+    }
+
+    private RateLimiter node() {
+        RateLimiter node = new RateLimiter(properties, jdbc, shardRouter, new SimpleMeterRegistry());
+        node.start();
+        nodes.add(node);
+        return node;
+    }
+
+    private String user() {
+        UUID userId = transactionTemplate.execute(status -> new TestData(entityManager).user("Limited").getId());
+        users.add(userId);
+        return userId.toString();
+    }
+
+    private static RequestPostProcessor fromAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private static MockHttpServletRequest apiRequest(String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/public/stats");
+        request.setRemoteAddr("10.0.0.9");
+        if (apiKey != null) {
+            request.addHeader(ApiHeaders.API_KEY, apiKey);
+        }
+        return request;
+    }
+
+    private static MockHttpServletRequestBuilder journal(String userId) {
+        return get("/api/v1/journal")
+                .header(ApiHeaders.USER_ID, userId)
+                .header(ApiHeaders.REQUEST_ID, "limited");
+    }
+}
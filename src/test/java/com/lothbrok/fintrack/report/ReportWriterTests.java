@@ -0,0 +1,139 @@
+package com.lothbrok.fintrack.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.repository.projection.ReportRow;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+
+/** More rows than the writers keep in memory, so both flush several times. */
+class ReportWriterTests {
+
+    private static final int ROWS = 25;
+
+    @Test
+    void spreadsheetHoldsAHeaderAndEveryRow() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportWriter writer = new XlsxReportWriter(10)) {
+            writeRows(writer, out);
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Transactions");
+            assertThat(sheet.getLastRowNum()).isEqualTo(ROWS);
+            assertThat(sheet.getRow(0).getCell(0).getStringCellValue()).isEqualTo("Date");
+            Row first = sheet.getRow(1);
+            assertThat(first.getCell(0).getLocalDateTimeCellValue().toLocalDate())
+                    .isEqualTo(LocalDate.of(2025, 1, 1));
+            assertThat(first.getCell(1).getStringCellValue()).isEqualTo("Purchase 0");
+            assertThat(first.getCell(3).getStringCellValue()).isEqualTo("EXPENSE");
+            assertThat(first.getCell(4).getNumericCellValue()).isEqualTo(10.5);
+            assertThat(first.getCell(6)).isNull();
+            Row last = sheet.getRow(ROWS);
+            assertThat(last.getCell(1).getStringCellValue()).isEqualTo("Purchase " + (ROWS - 1));
+            assertThat(last.getCell(6).getStringCellValue()).isEqualTo("Note " + (ROWS - 1));
+        }
+    }
+
+    @Test
+    void pdfHoldsTheTitleAndEveryRow() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportWriter writer = new PdfReportWriter(10)) {
+            writeRows(writer, out);
+        }
+
+        PdfReader reader = new PdfReader(out.toByteArray());
+        try {
+            StringBuilder text = new StringBuilder();
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                text.append(extractor.getTextFromPage(page));
+            }
+            assertThat(text).contains("Transactions", "Purchase 0", "Purchase " + (ROWS - 1), "34.50");
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void emptyReportsAreStillValidFiles() throws IOException {
+        ByteArrayOutputStream xlsx = new ByteArrayOutputStream();
+        try (ReportWriter writer = new XlsxReportWriter(10)) {
+            writer.begin(xlsx, "Empty");
+            writer.finish();
+        }
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (ReportWriter writer = new PdfReportWriter(10)) {
+            writer.begin(pdf, "Empty");
+            writer.finish();
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx.toByteArray()))) {
+            assertThat(workbook.getSheet("Empty").getLastRowNum()).isZero();
+        }
+        PdfReader reader = new PdfReader(pdf.toByteArray());
+        assertThat(reader.getNumberOfPages()).isEqualTo(1);
+        reader.close();
+    }
+
+    private static void writeRows(ReportWriter writer, ByteArrayOutputStream out) throws IOException {
+        writer.begin(out, "Transactions");
+        for (int i = 0; i < ROWS; i++) {
+            writer.write(new SampleRow(LocalDate.of(2025, 1, 1).plusDays(i), "Purchase " + i, "Food",
+                    TransactionType.EXPENSE, new BigDecimal("10.50").add(BigDecimal.valueOf(i)), "USD",
+                    i == 0 ? null : "Note " + i));
+        }
+        writer.finish();
+    }
+
+    private record SampleRow(LocalDate eventDate, String title, String category, TransactionType type,
+            BigDecimal amount, String currency, String note) implements ReportRow {
+
+        @Override
+        public LocalDate getEventDate() {
+            return eventDate;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String getCategory() {
+            return category;
+        }
+
+        @Override
+        public TransactionType getType() {
+            return type;
+        }
+
+        @Override
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        @Override
+        public String getCurrency() {
+            return currency;
+        }
+
+        @Override
+        public String getNote() {
+            return note;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.lothbrok.fintrack.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.lothbrok.fintrack.dto.budget.BudgetResponse;
+import com.lothbrok.fintrack.dto.mapper.BudgetMapper;
+import com.lothbrok.fintrack.dto.mapper.NotificationMapper;
+import com.lothbrok.fintrack.dto.mapper.RecurringJobMapper;
+import com.lothbrok.fintrack.dto.mapper.SharedWalletMapper;
+import com.lothbrok.fintrack.dto.mapper.TransactionMapper;
+import com.lothbrok.fintrack.dto.notification.NotificationResponse;
+import com.lothbrok.fintrack.dto.recurring.RecurringJobResponse;
+import com.lothbrok.fintrack.dto.sharedwallet.SharedWalletMemberResponse;
+import com.lothbrok.fintrack.dto.sharedwallet.SharedWalletResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.entity.SharedWallet;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.repository.specification.TransactionSpecifications;
+import com.lothbrok.fintrack.support.MaxStatements;
+import com.lothbrok.fintrack.support.SqlStatements;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Statement budgets for the read paths behind the transaction, budget, wallet, notification and recurring job
+ * screens: load a page or list and map it to responses the way a service would, inside one transaction.
+ */
+@SpringBootTest
+@Transactional
+class RepositoryQueryCountTests {
+
+    private static final int ROWS = 12;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private RecurringJobRepository recurringJobRepository;
+
+    @Autowired
+    private SharedWalletRepository sharedWalletRepository;
+
+    @Autowired
+    private SharedWalletMemberRepository sharedWalletMemberRepository;
+
+    private UUID ownerId;
+    private UUID walletId;
+
+    @BeforeEach
+    void seed() {
+        TestData data = new TestData(entityManager);
+        User owner = data.user("Owner");
+        ownerId = owner.getId();
+        SharedWallet firstWallet = null;
+        for (int w = 0; w < 3; w++) {
+            SharedWallet wallet = data.wallet(owner, "Wallet " + w, owner, data.user("Member" + w + "a"),
+                    data.user("Member" + w + "b"));
+            firstWallet = firstWallet == null ? wallet : firstWallet;
+        }
+        walletId = firstWallet.getId();
+        for (int i = 0; i < ROWS; i++) {
+            Transaction transaction = data.transaction(owner, i % 2 == 0 ? firstWallet : null,
+                    i % 3 == 0 ? "Food" : "Rent", "12.50", LocalDate.of(2025, 1, 1).plusDays(i));
+            data.budget(owner, "2025-01", "Category " + i, "100.00");
+            data.notification(owner, i % 2 == 0);
+            data.recurringJob(owner, transaction, Instant.parse("2025-01-01T00:00:00Z").plusSeconds(i));
+        }
+        data.flushAndClear();
+    }
+
+    @Test
+    @MaxStatements(2)
+    void transactionPageMapsWithoutLoadingAssociations() {
+        List<TransactionResponse> page = transactionRepository
+                .findByUserId(ownerId, PageRequest.of(0, 10, Sort.by("eventDate")))
+                .map(TransactionMapper::toResponse)
+                .getContent();
+
+        assertThat(page).hasSize(10);
+    }
+
+    @Test
+    void filteredTransactionPageUsesSelectAndCount() {
+        TransactionFilter filter = new TransactionFilter(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+                Set.of("Food", "Rent"), TransactionType.EXPENSE, null, null, walletId);
+
+        List<TransactionResponse> page = SqlStatements.assertAtMost(2, () -> transactionRepository
+                .findAll(TransactionSpecifications.forUser(ownerId, filter), PageRequest.of(0, 5))
+                .map(TransactionMapper::toResponse)
+                .getContent());
+
+        assertThat(page).hasSize(5);
+    }
+
+    @Test
+    @MaxStatements(1)
+    void monthlyBudgetsMapInOneQuery() {
+        List<BudgetResponse> budgets = budgetRepository.findByUserIdAndMonth(ownerId, "2025-01").stream()
+                .map(BudgetMapper::toResponse)
+                .toList();
+
+        assertThat(budgets).hasSize(ROWS);
+    }
+
+    @Test
+    @MaxStatements(1)
+    void recentNotificationsMapInOneQuery() {
+        List<NotificationResponse> notifications = notificationRepository
+                .findTop20ByUserIdOrderByCreatedAtDesc(ownerId).stream()
+                .map(NotificationMapper::toResponse)
+                .toList();
+
+        assertThat(notifications).hasSize(ROWS);
+    }
+
+    @Test
+    @MaxStatements(2)
+    void unreadNotificationPageUsesSelectAndCount() {
+        List<NotificationResponse> unread = notificationRepository
+                .findByUserIdAndReadFalse(ownerId, PageRequest.of(0, 5))
+                .map(NotificationMapper::toResponse)
+                .getContent();
+
+        assertThat(unread).hasSize(5);
+    }
+
+    @Test
+    @MaxStatements(1)
+    void recurringJobsMapWithoutLoadingTemplates() {
+        List<RecurringJobResponse> jobs = recurringJobRepository.findByUserId(ownerId).stream()
+                .map(RecurringJobMapper::toResponse)
+                .toList();
+
+        assertThat(jobs).hasSize(ROWS);
+    }
+
+    @Test
+    @MaxStatements(1)
+    void dueRecurringJobsLoadInOneQuery() {
+        List<RecurringJobResponse> due = recurringJobRepository
+                .findByActiveTrueAndNextRunAtBefore(Instant.parse("2025-02-01T00:00:00Z")).stream()
+                .map(RecurringJobMapper::toResponse)
+                .toList();
+
+        assertThat(due).hasSize(ROWS);
+    }
+
+    @Test
+    @MaxStatements(1)
+    void ownedWalletsMapWithMembersInOneQuery() {
+        List<SharedWalletResponse> wallets = sharedWalletRepository.findByOwnerId(ownerId).stream()
+                .map(SharedWalletMapper::toResponse)
+                .toList();
+
+        assertThat(wallets).hasSize(3);
+        assertThat(wallets).allSatisfy(wallet -> assertThat(wallet.members()).hasSize(3));
+    }
+
+    @Test
+    @MaxStatements(1)
+    void walletMembersMapWithNamesInOneQuery() {
+        List<SharedWalletMemberResponse> members = sharedWalletMemberRepository.findByWalletId(walletId).stream()
+                .map(SharedWalletMapper::toMemberResponse)
+                .toList();
+
+        assertThat(members).hasSize(3).allSatisfy(member -> assertThat(member.memberName()).isNotNull());
+    }
+
+    @Test
+    @MaxStatements(2)
+    void membershipsMapWithMemberInTwoQueries() {
+        List<SharedWalletMemberResponse> memberships = sharedWalletMemberRepository.findByMemberId(ownerId).stream()
+                .map(SharedWalletMapper::toMemberResponse)
+                .toList();
+
+        assertThat(memberships).hasSize(3);
+    }
+}
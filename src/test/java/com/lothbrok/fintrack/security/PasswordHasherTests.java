@@ -0,0 +1,92 @@
+package com.lothbrok.fintrack.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHasherTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void stopExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void passwordsCheckedAgainstAnotherCostAreRehashed() {
+        PasswordHasher hasher = hasher(new PasswordHashingProperties(2, 8, null, 4, 8, 5));
+
+        String hash = hasher.hash("correct horse").join();
+        assertThat(PasswordHasher.costOf(hash)).isEqualTo(5);
+        assertThat(hasher.verify("correct horse", hash).join()).isEqualTo(new PasswordHasher.Verification(true, null));
+        assertThat(hasher.verify("wrong horse", hash).join().matches()).isFalse();
+
+        String older = BCrypt.hashpw("correct horse", BCrypt.gensalt(4));
+        PasswordHasher.Verification upgraded = hasher.verify("correct horse", older).join();
+        assertThat(upgraded.matches()).isTrue();
+        assertThat(upgraded.needsUpgrade()).isTrue();
+        assertThat(PasswordHasher.costOf(upgraded.upgradedHash())).isEqualTo(5);
+        assertThat(BCrypt.checkpw("correct horse", upgraded.upgradedHash())).isTrue();
+        assertThat(registry.get(PasswordHasher.PREFIX + "duration").tag("operation", "verify").timer().count())
+                .isEqualTo(3);
+        assertThat(registry.get(PasswordHasher.PREFIX + "queue.wait").timer().count()).isEqualTo(4);
+    }
+
+    @Test
+    void fullQueueIsRejectedAtOnce() throws InterruptedException {
+        PasswordHasher hasher = hasher(new PasswordHashingProperties(1, 1, null, 4, 8, 4));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        busy.await();
+        CompletableFuture<String> queued = hasher.hash("queued");
+
+        assertThatThrownBy(() -> hasher.hash("rejected"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(registry.get(PasswordHasher.PREFIX + "rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(PasswordHasher.costOf(queued.join())).isEqualTo(4);
+    }
+
+    @Test
+    void calibrationStaysWithinTheConfiguredCosts() {
+        assertThat(hasher(new PasswordHashingProperties(1, 1, Duration.ofNanos(1), 5, 9, 0)).cost()).isEqualTo(5);
+        assertThat(hasher(new PasswordHashingProperties(1, 1, Duration.ofHours(1), 5, 9, 0)).cost()).isEqualTo(9);
+        assertThat(PasswordHasher.costOf("$2a$12$abcdefghijklmnopqrstuv")).isEqualTo(12);
+        assertThat(PasswordHasher.costOf("plain")).isEqualTo(-1);
+    }
+
+    private PasswordHasher hasher(PasswordHashingProperties properties) {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        executor = new PasswordHashingExecutorConfig().passwordHashingExecutor(properties);
+        registry.clear();
+        return new PasswordHasher(executor, properties, registry);
+    }
+}
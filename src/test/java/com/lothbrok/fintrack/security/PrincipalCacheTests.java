@@ -0,0 +1,181 @@
+package com.lothbrok.fintrack.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.cache.Invalidation;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.UserRole;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.repository.UserRepository;
+import com.lothbrok.fintrack.support.TestData;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+class PrincipalCacheTests {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrincipalCache principals;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    private UUID userId;
+
+    @AfterEach
+    void removeCommittedRows() {
+        if (userId == null) {
+            return;
+        }
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void cachedPrincipalIsReplacedWhenCredentialsChange() {
+        userId = transactionTemplate.execute(status -> new TestData(entityManager).user("Principal").getId());
+        UserPrincipal first = principals.resolve(userId).orElseThrow();
+        double hitsBefore = lookups("hit");
+
+        assertThat(principals.resolve(userId)).containsSame(first);
+        assertThat(lookups("hit")).isEqualTo(hitsBefore + 1);
+        assertThat(first.role()).isEqualTo(UserRole.USER);
+        assertThat(first.twoFactorEnabled()).isFalse();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = entityManager.find(User.class, userId);
+            user.changePassword("$2a$10$zyxwvutsrqponmlkjihgfe");
+            user.setRole(UserRole.ADMIN);
+        });
+
+        UserPrincipal changed = principals.resolve(userId).orElseThrow();
+        assertThat(changed.role()).isEqualTo(UserRole.ADMIN);
+        assertThat(changed.credentialVersion()).isEqualTo(first.credentialVersion() + 2);
+        assertThat(principals.resolve(userId, first.credentialVersion())).isEmpty();
+        assertThat(principals.resolve(userId, changed.credentialVersion())).contains(changed);
+        assertThat(principals.resolve(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void passwordRehashedOnLoginKeepsTokensValid() {
+        String older = BCrypt.hashpw("correct horse", BCrypt.gensalt(4));
+        userId = transactionTemplate.execute(status -> {
+            User user = new TestData(entityManager).user("Rehash");
+            user.setPasswordHash(older);
+            return user.getId();
+        });
+        UserPrincipal issued = principals.resolve(userId).orElseThrow();
+
+        PasswordHasher.Verification login = passwordHasher.verify("correct horse", older).join();
+        assertThat(login.needsUpgrade()).isTrue();
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(User.class, userId).setPasswordHash(login.upgradedHash()));
+
+        assertThat(jdbc.queryForMap("select password_hash, credential_version from users where id = ?", userId))
+                .containsEntry("password_hash", login.upgradedHash())
+                .containsEntry("credential_version", issued.credentialVersion());
+        assertThat(principals.resolve(userId, issued.credentialVersion())).isPresent();
+
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(User.class, userId).changePassword(BCrypt.hashpw("new horse", BCrypt.gensalt(4))));
+        assertThat(principals.resolve(userId, issued.credentialVersion())).isEmpty();
+    }
+
+    @Test
+    void changesFromOtherNodesArriveThroughInvalidationsOrNewerTokens() {
+        userId = transactionTemplate.execute(status -> new TestData(entityManager).user("Remote").getId());
+        UserPrincipal first = principals.resolve(userId).orElseThrow();
+
+        // Written behind this node's back, as another node would.
+        jdbc.update("update users set two_factor_secret = 'JBSWY3DPEHPK3PXP', credential_version = ? where id = ?",
+                first.credentialVersion() + 1, userId);
+        assertThat(principals.resolve(userId)).contains(first);
+        assertThat(principals.resolve(userId, first.credentialVersion() + 1)).hasValueSatisfying(
+                principal -> assertThat(principal.twoFactorEnabled()).isTrue());
+
+        jdbc.update("update users set role = 'ADMIN' where id = ?", userId);
+        principals.onInvalidations(List.of(new Invalidation("User", userId, 99)));
+        assertThat(principals.resolve(userId)).hasValueSatisfying(
+                principal -> assertThat(principal.role()).isEqualTo(UserRole.ADMIN));
+    }
+
+    @Test
+    void emailLookupsIgnoreCaseAndSurroundingSpace() {
+        User user = transactionTemplate.execute(status -> new TestData(entityManager).user("Mixed"));
+        userId = user.getId();
+
+        assertThat(userRepository.findByEmailIgnoreCase("  " + user.getEmail().toUpperCase() + " "))
+                .hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo(userId));
+        assertThat(userRepository.existsByEmailIgnoreCase(user.getEmail().toUpperCase())).isTrue();
+        assertThat(userRepository.existsByEmailIgnoreCase("nobody@example.com")).isFalse();
+    }
+
+    @Test
+    void unknownIdsAreRememberedUntilTheUserAppears() {
+        AtomicInteger queries = new AtomicInteger();
+        List<UserPrincipal> rows = new ArrayList<>();
+        JdbcTemplate counting = new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                queries.incrementAndGet();
+                return (List<T>) List.copyOf(rows);
+            }
+        };
+        PrincipalCache cache = new PrincipalCache(counting,
+                new PrincipalProperties(null, 0, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+        UUID unknown = UUID.randomUUID();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.resolve(unknown)).isEmpty();
+        }
+        assertThat(queries).hasValue(1);
+
+        // Creating the user evicts the id through the change journal.
+        rows.add(new UserPrincipal(unknown, "new@example.com", UserRole.USER, false, 0));
+        cache.evict(unknown);
+        assertThat(cache.resolve(unknown)).isPresent();
+        assertThat(queries).hasValue(2);
+    }
+
+    private double lookups(String result) {
+        return registry.get(PrincipalCache.PREFIX + "lookups").tag("result", result).counter().count();
+    }
+}
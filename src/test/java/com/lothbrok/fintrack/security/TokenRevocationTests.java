@@ -0,0 +1,143 @@
+package com.lothbrok.fintrack.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.lothbrok.fintrack.shard.ShardRouter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = "fintrack.tokens.sync-interval=50ms")
+class TokenRevocationTests {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenProperties properties;
+
+    @Autowired
+    private TokenRevocations revocations;
+
+    @Autowired
+    private RefreshTokenStore refreshTokens;
+
+    private final UUID userId = UUID.randomUUID();
+    private final List<TokenRevocations> nodes = new ArrayList<>();
+
+    @AfterEach
+    void removeRows() {
+        nodes.forEach(TokenRevocations::stop);
+        jdbc.update("delete from revoked_access_tokens where user_id = ?", userId);
+        jdbc.update("delete from refresh_tokens where user_id = ?", userId);
+    }
+
+    @Test
+    void filterHoldsRevocationsUntilTheTokensExpire() {
+        RevokedTokenFilter filter = new RevokedTokenFilter(Duration.ofMinutes(15), 4, 64);
+        long now = Instant.parse("2024-10-01T12:00:00Z").toEpochMilli();
+        List<UUID> revoked = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID tokenId = UUID.randomUUID();
+            assertThat(filter.add(tokenId, now + 1000 + i * 900L, now)).isTrue();
+            revoked.add(tokenId);
+        }
+
+        assertThat(revoked).allMatch(tokenId -> filter.contains(tokenId, now));
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.contains(UUID.randomUUID(), now)).isFalse();
+        }
+        assertThat(filter.add(UUID.randomUUID(), now, now)).isFalse();
+        assertThat(filter.add(UUID.randomUUID(), now + Duration.ofMinutes(30).toMillis(), now)).isFalse();
+
+        long later = now + Duration.ofMinutes(20).toMillis();
+        filter.prune(later);
+        assertThat(filter.size()).isZero();
+        assertThat(revoked).noneMatch(tokenId -> filter.contains(tokenId, later));
+    }
+
+    @Test
+    void revocationsReachOtherNodes() {
+        UUID before = UUID.randomUUID();
+        revocations.revoke(before, userId, Instant.now().plus(Duration.ofMinutes(10)));
+        TokenRevocations other = node();
+        assertThat(other.isRevoked(before)).isTrue();
+
+        UUID after = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        revocations.revoke(after, userId, Instant.now().plus(Duration.ofMinutes(10)));
+
+        assertThat(revocations.isRevoked(after)).isTrue();
+        awaitTrue(() -> other.isRevoked(after));
+        assertThat(other.isRevoked(untouched)).isFalse();
+        assertThatThrownBy(() -> revocations.revoke(UUID.randomUUID(), userId, Instant.now().plus(Duration.ofDays(1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refreshTokensAreStoredHashedAndRotateOnce() {
+        UUID first = refreshTokens.issue(userId);
+        UUID second = refreshTokens.issue(userId);
+        assertThat(jdbc.queryForList("select token_hash from refresh_tokens where user_id = ?", String.class, userId))
+                .hasSize(2)
+                .doesNotContain(first.toString(), second.toString())
+                .contains(RefreshTokenStore.hash(first));
+
+        RefreshTokenStore.Rotation rotation = refreshTokens.rotate(first);
+        assertThat(rotation.userId()).isEqualTo(userId);
+        assertThat(refreshTokens.rotate(rotation.refreshToken()).userId()).isEqualTo(userId);
+
+        // Reusing a rotated token ends every session of the user.
+        assertThatThrownBy(() -> refreshTokens.rotate(first)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> refreshTokens.rotate(second)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> refreshTokens.rotate(UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void logoutRevokesBothTokens() {
+        UUID refreshToken = refreshTokens.issue(userId);
+        UUID accessToken = UUID.randomUUID();
+
+        revocations.logout(userId, accessToken, Instant.now().plus(Duration.ofMinutes(5)), refreshToken);
+
+        assertThat(revocations.isRevoked(accessToken)).isTrue();
+        assertThatThrownBy(() -> refreshTokens.rotate(refreshToken)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private TokenRevocations node() {
+        TokenRevocations node = new TokenRevocations(jdbc, shardRouter, refreshTokens, principalCache, properties,
+                new SimpleMeterRegistry());
+        node.start();
+        nodes.add(node);
+        return node;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 10s").isLessThan(deadline);
+            LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.lothbrok.fintrack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.controller.ApiHeaders;
+import com.lothbrok.fintrack.dto.analytics.CategorySeries;
+import com.lothbrok.fintrack.dto.analytics.TimeBucket;
+import com.lothbrok.fintrack.dto.analytics.TimeSeriesResponse;
+import com.lothbrok.fintrack.dto.transaction.TransactionFilter;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Aggregates from the columnar snapshot, since H2 has no {@code date_trunc} for the database path;
+ * {@code MigrationTests} runs the same series through PostgreSQL.
+ */
+@SpringBootTest(properties = "fintrack.analytics.columnar.enabled=true")
+@AutoConfigureMockMvc
+@Transactional
+class AnalyticsServiceTests {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        TestData data = new TestData(entityManager);
+        User user = data.user("Trends");
+        data.transaction(user, null, "Food", "10.00", LocalDate.of(2025, 1, 6));
+        data.transaction(user, null, "Food", "2.50", LocalDate.of(2025, 1, 12));
+        data.transaction(user, null, "Food", "15.00", LocalDate.of(2025, 1, 20));
+        data.transaction(user, null, "Food", "99.00", LocalDate.of(2025, 2, 3));
+        data.transaction(user, null, "Salary", "1000.00", LocalDate.of(2025, 1, 31)).setType(TransactionType.INCOME);
+        entityManager.flush();
+        entityManager.clear();
+        userId = user.getId();
+    }
+
+    @Test
+    void everyBucketOfTheRangeIsFilledIncludingEmptyOnes() {
+        TimeSeriesResponse response = analyticsService.getTimeSeries(userId, filter(LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 1, 31)), TimeBucket.WEEK);
+
+        assertThat(response.bucketStarts()).containsExactly(LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 6),
+                LocalDate.of(2025, 1, 13), LocalDate.of(2025, 1, 20), LocalDate.of(2025, 1, 27));
+        assertThat(response.series()).extracting(CategorySeries::category).containsExactly("Food", "Salary");
+        assertThat(response.series().get(0).expense()).containsExactly(0, 1_250, 0, 1_500, 0);
+        assertThat(response.series().get(0).income()).containsExactly(0, 0, 0, 0, 0);
+        assertThat(response.series().get(1).income()).containsExactly(0, 0, 0, 0, 100_000);
+    }
+
+    @Test
+    void filtersNarrowTheSeries() {
+        TimeSeriesResponse response = analyticsService.getTimeSeries(userId, new TransactionFilter(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28), Set.of("Food"), TransactionType.EXPENSE,
+                null, null, null), TimeBucket.MONTH);
+
+        assertThat(response.bucketStarts()).containsExactly(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1));
+        assertThat(response.series()).singleElement().satisfies(series -> {
+            assertThat(series.category()).isEqualTo("Food");
+            assertThat(series.expense()).containsExactly(2_750, 9_900);
+        });
+    }
+
+    @Test
+    void bucketDefaultsToDays() {
+        TimeSeriesResponse response = analyticsService.getTimeSeries(userId, filter(LocalDate.of(2025, 1, 5),
+                LocalDate.of(2025, 1, 7)), null);
+
+        assertThat(response.bucket()).isEqualTo(TimeBucket.DAY);
+        assertThat(response.series().get(0).expense()).containsExactly(0, 1_000, 0);
+    }
+
+    @Test
+    void invalidRangesAreBadRequests() {
+        assertThatThrownBy(() -> analyticsService.getTimeSeries(userId,
+                filter(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)), TimeBucket.DAY))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> analyticsService.getTimeSeries(userId,
+                filter(LocalDate.of(2000, 1, 1), LocalDate.of(2025, 1, 1)), TimeBucket.DAY))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> analyticsService.getTimeSeries(userId, filter(null, null), TimeBucket.DAY))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void trendsEndpointAnswers400ForBadInput() throws Exception {
+        mockMvc.perform(get("/api/v1/dashboard/trends").header(ApiHeaders.USER_ID, userId.toString())
+                        .param("from", "2025-01-01").param("to", "2025-01-31").param("bucket", "WEEK"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.series[0].expense[1]").value(1_250));
+        mockMvc.perform(get("/api/v1/dashboard/trends").header(ApiHeaders.USER_ID, userId.toString())
+                        .param("from", "2025-01-31").param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/dashboard/trends").header(ApiHeaders.USER_ID, userId.toString())
+                        .param("from", "1900-01-01").param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/dashboard/trends").header(ApiHeaders.USER_ID, userId.toString())
+                        .param("from", "2025-01-01").param("to", "2025-01-31").param("bucket", "YEAR"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static TransactionFilter filter(LocalDate from, LocalDate to) {
+        return new TransactionFilter(from, to, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,183 @@
+package com.lothbrok.fintrack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.dto.balance.MonthlyBalanceResponse;
+import com.lothbrok.fintrack.entity.SharedWallet;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.support.SqlStatements;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+class BalanceServiceTests {
+
+    private static final LocalDate EPOCH = LocalDate.of(2000, 1, 1);
+    private static final List<LocalDate> PROBES = List.of(
+            LocalDate.of(2023, 12, 31), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15),
+            LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 10), LocalDate.of(2024, 4, 30),
+            LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30), LocalDate.of(2025, 1, 1));
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private TestData data;
+    private User user;
+    private SharedWallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+        user = data.user("Balance");
+        wallet = data.wallet(user, "Household");
+        income(data.transaction(user, null, "Salary", "3000.00", LocalDate.of(2024, 1, 1)));
+        data.transaction(user, null, "Rent", "1200.00", LocalDate.of(2024, 1, 3));
+        data.transaction(user, wallet, "Food", "80.50", LocalDate.of(2024, 1, 20));
+        data.transaction(user, null, "Food", "42.10", LocalDate.of(2024, 2, 10));
+        income(data.transaction(user, wallet, "Gifts", "200.00", LocalDate.of(2024, 6, 1)));
+        data.flushAndClear();
+    }
+
+    @Test
+    void matchesFullHistorySums() {
+        assertBalancesMatchHistory();
+        assertThat(balanceService.getBalance(user.getId(), LocalDate.of(2024, 1, 31), null).balance())
+                .isEqualByComparingTo("1719.50");
+    }
+
+    @Test
+    void backDatedChangesShiftLaterCheckpoints() {
+        income(data.transaction(user, wallet, "Gifts", "500.00", LocalDate.of(2023, 11, 5)));
+        data.transaction(user, null, "Taxes", "99.99", LocalDate.of(2024, 4, 2));
+        data.flushAndClear();
+        assertBalancesMatchHistory();
+
+        Transaction rent = transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getCategory().equals("Rent"))
+                .findFirst().orElseThrow();
+        rent.setAmount(new BigDecimal("1250.00"));
+        rent.setEventDate(LocalDate.of(2024, 6, 30));
+        rent.setSharedWallet(entityManager.getReference(SharedWallet.class, wallet.getId()));
+        data.flushAndClear();
+        assertBalancesMatchHistory();
+
+        Transaction food = transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getCategory().equals("Food") && transaction.getSharedWallet() != null)
+                .findFirst().orElseThrow();
+        transactionRepository.delete(food);
+        data.flushAndClear();
+        assertBalancesMatchHistory();
+    }
+
+    @Test
+    void updatesThroughDetachedEntitiesShiftCheckpoints() {
+        Transaction rent = transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getCategory().equals("Rent"))
+                .findFirst().orElseThrow();
+        Transaction salary = transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getCategory().equals("Salary"))
+                .findFirst().orElseThrow();
+        data.flushAndClear();
+
+        rent.setAmount(new BigDecimal("1300.00"));
+        rent.setEventDate(LocalDate.of(2024, 3, 5));
+        entityManager.merge(rent);
+        data.flushAndClear();
+        assertBalancesMatchHistory();
+
+        // As after the entity went through serialization: nothing remembers how it was loaded.
+        salary.setLoadedSnapshot(null);
+        salary.setAmount(new BigDecimal("3500.00"));
+        salary.setEventDate(LocalDate.of(2024, 2, 1));
+        entityManager.unwrap(Session.class).update(salary);
+        data.flushAndClear();
+        assertBalancesMatchHistory();
+    }
+
+    @Test
+    void balanceReadsOneCheckpointAndOneMonth() {
+        SqlStatements.assertAtMost(2, () -> balanceService.getBalance(user.getId(), LocalDate.of(2024, 1, 15), null));
+        SqlStatements.assertAtMost(1, () -> balanceService.getBalance(user.getId(), LocalDate.of(2024, 5, 15), null));
+    }
+
+    @Test
+    void monthlyBalancesCarryAcrossEmptyMonths() {
+        List<MonthlyBalanceResponse> months = balanceService.getMonthlyBalances(user.getId(), YearMonth.of(2023, 12),
+                YearMonth.of(2024, 7), null);
+
+        assertThat(months).extracting(MonthlyBalanceResponse::month).containsExactly("2023-12", "2024-01",
+                "2024-02", "2024-03", "2024-04", "2024-05", "2024-06", "2024-07");
+        assertThat(months.get(0).closingBalance()).isEqualByComparingTo("0");
+        assertThat(months.get(1).closingBalance()).isEqualByComparingTo("1719.50");
+        assertThat(months.get(3).openingBalance()).isEqualByComparingTo("1677.40");
+        assertThat(months.get(3).netChange()).isEqualByComparingTo("0");
+        assertThat(months.get(7).closingBalance()).isEqualByComparingTo("1877.40");
+    }
+
+    @Test
+    void rejectsUnknownAndForeignWalletsAndInvertedRanges() {
+        UUID stranger = data.user("Stranger").getId();
+        LocalDate date = LocalDate.of(2024, 1, 31);
+
+        assertThatThrownBy(() -> balanceService.getBalance(user.getId(), date, UUID.randomUUID()))
+                .satisfies(hasStatus(HttpStatus.NOT_FOUND));
+        assertThatThrownBy(() -> balanceService.getBalance(stranger, date, wallet.getId()))
+                .satisfies(hasStatus(HttpStatus.FORBIDDEN));
+        assertThatThrownBy(() -> balanceService.getMonthlyBalances(stranger, YearMonth.of(2024, 1),
+                YearMonth.of(2024, 6), wallet.getId()))
+                .satisfies(hasStatus(HttpStatus.FORBIDDEN));
+        assertThatThrownBy(() -> balanceService.getMonthlyBalances(user.getId(), YearMonth.of(2024, 6),
+                YearMonth.of(2024, 1), null))
+                .satisfies(hasStatus(HttpStatus.BAD_REQUEST));
+    }
+
+    private static Consumer<Throwable> hasStatus(HttpStatus status) {
+        return e -> assertThat(e).isInstanceOfSatisfying(ResponseStatusException.class,
+                error -> assertThat(error.getStatusCode()).isEqualTo(status));
+    }
+
+    private void assertBalancesMatchHistory() {
+        for (LocalDate date : PROBES) {
+            assertThat(balanceService.getBalance(user.getId(), date, null).balance())
+                    .as("user balance on %s", date)
+                    .isEqualByComparingTo(transactionRepository.sumNetByUserIdAndEventDateBetween(user.getId(), EPOCH,
+                            date));
+            assertThat(balanceService.getBalance(user.getId(), date, wallet.getId()).balance())
+                    .as("wallet balance on %s", date)
+                    .isEqualByComparingTo(transactionRepository.sumNetBySharedWalletIdAndEventDateBetween(
+                            wallet.getId(), EPOCH, date));
+        }
+    }
+
+    private static void income(Transaction transaction) {
+        transaction.setType(TransactionType.INCOME);
+    }
+}
@@ -0,0 +1,270 @@
+package com.lothbrok.fintrack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lothbrok.fintrack.controller.ApiHeaders;
+import com.lothbrok.fintrack.entity.ReportJob;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.ReportFormat;
+import com.lothbrok.fintrack.entity.enums.ReportStatus;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.report.ReportExecutorConfig;
+import com.lothbrok.fintrack.report.ReportGenerator;
+import com.lothbrok.fintrack.service.impl.ReportServiceImpl;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Reports are generated on the worker pool after the job committed, so these tests commit and clean up after
+ * themselves. One worker and a two-job queue, so a test can fill the pool.
+ */
+@SpringBootTest(properties = {
+        "fintrack.reports.worker-threads=1",
+        "fintrack.reports.queue-capacity=2"
+})
+@AutoConfigureMockMvc
+class ReportServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReportServiceImpl reportService;
+
+    @Autowired
+    private ReportGenerator reportGenerator;
+
+    @Autowired
+    @Qualifier(ReportExecutorConfig.REPORT_EXECUTOR)
+    private ThreadPoolExecutor reportExecutor;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = transactionTemplate.execute(status -> {
+            TestData data = new TestData(entityManager);
+            User user = data.user("Reporter");
+            for (int day = 1; day <= 3; day++) {
+                data.transaction(user, null, "Food", day + ".50", LocalDate.of(2025, 3, day));
+            }
+            data.transaction(user, null, "Food", "99.00", LocalDate.of(2024, 12, 31));
+            return user.getId();
+        });
+    }
+
+    @AfterEach
+    void removeCommittedRows() {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        for (String table : List.of("report_jobs", "notifications", "spending_insight_states", "balance_checkpoints",
+                "transactions")) {
+            jdbc.update("delete from " + table + " where user_id = ?", userId);
+        }
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void requestedReportIsGeneratedAndDownloadable() throws Exception {
+        String body = mockMvc.perform(post("/api/v1/reports")
+                        .header(ApiHeaders.USER_ID, userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"format\":\"XLSX\",\"from\":\"2025-01-01\",\"to\":\"2025-12-31\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.data.status").value("QUEUED"))
+                .andReturn().getResponse().getContentAsString();
+        UUID reportId = UUID.fromString(objectMapper.readTree(body).at("/data/id").asText());
+
+        awaitStatus(reportId, ReportStatus.COMPLETED);
+
+        assertThat(reportService.getReport(userId, reportId).rowCount()).isEqualTo(3);
+        byte[] file = mockMvc.perform(get("/api/v1/reports/{id}/download", reportId)
+                        .header(ApiHeaders.USER_ID, userId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"" + reportId + ".xlsx\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(file).startsWith('P', 'K');
+        JsonNode metadata = objectMapper.readTree(jdbc.queryForObject(
+                "select metadata from notifications where user_id = ? and type = 'REPORT_READY'", String.class,
+                userId));
+        assertThat(metadata.get("reportId").asText()).isEqualTo(reportId.toString());
+        assertThat(metadata.get("downloadUrl").asText()).isEqualTo(ReportGenerator.downloadUrl(reportId));
+    }
+
+    @Test
+    void invalidRequestsAreRejectedWith400() throws Exception {
+        mockMvc.perform(post("/api/v1/reports")
+                        .header(ApiHeaders.USER_ID, userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"format\":\"PDF\",\"from\":\"2025-02-01\",\"to\":\"2025-01-01\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/reports")
+                        .header(ApiHeaders.USER_ID, userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"format\":\"PDF\"}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(reportCount()).isZero();
+    }
+
+    @Test
+    void downloadsAnswer404Then409Then410() throws Exception {
+        UUID queued = job(ReportStatus.QUEUED, null);
+        UUID gone = job(ReportStatus.COMPLETED, "target/reports/missing.xlsx");
+
+        mockMvc.perform(get("/api/v1/reports/{id}/download", UUID.randomUUID())
+                        .header(ApiHeaders.USER_ID, userId.toString()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/reports/{id}/download", queued).header(ApiHeaders.USER_ID, userId.toString()))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/v1/reports/{id}/download", gone).header(ApiHeaders.USER_ID, userId.toString()))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void fullQueueIsAnswered429WithoutKeepingTheJob() throws Exception {
+        awaitIdlePool();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            reportExecutor.execute(blocker);
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            while (reportExecutor.getQueue().remainingCapacity() > 0) {
+                reportExecutor.execute(blocker);
+            }
+
+            mockMvc.perform(post("/api/v1/reports")
+                            .header(ApiHeaders.USER_ID, userId.toString())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"format\":\"PDF\",\"from\":\"2025-01-01\",\"to\":\"2025-12-31\"}"))
+                    .andExpect(status().isTooManyRequests());
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(reportCount()).isZero();
+    }
+
+    @Test
+    void jobClaimedByAnotherWorkerIsLeftToIt() {
+        UUID running = job(ReportStatus.RUNNING, null);
+
+        reportGenerator.run(running);
+
+        assertThat(reportService.getReport(userId, running).status()).isEqualTo(ReportStatus.RUNNING);
+        jdbc.update("update report_jobs set updated_at = ? where id = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofHours(1))), running);
+        reportGenerator.run(running);
+        assertThat(reportService.getReport(userId, running).status()).isEqualTo(ReportStatus.COMPLETED);
+        assertThat(reportService.getReport(userId, running).rowCount()).isEqualTo(3);
+    }
+
+    @Test
+    void startupResumesQueuedJobsButNotClaimedOnes() {
+        UUID queued = job(ReportStatus.QUEUED, null);
+        UUID running = job(ReportStatus.RUNNING, null);
+
+        reportService.resumePendingReports();
+
+        awaitStatus(queued, ReportStatus.COMPLETED);
+        assertThat(reportService.getReport(userId, running).status()).isEqualTo(ReportStatus.RUNNING);
+    }
+
+    private UUID job(ReportStatus status, String filePath) {
+        return transactionTemplate.execute(tx -> {
+            ReportJob job = new ReportJob();
+            job.setUser(entityManager.getReference(User.class, userId));
+            job.setFormat(ReportFormat.PDF);
+            job.setStatus(status);
+            job.setFromDate(LocalDate.of(2025, 1, 1));
+            job.setToDate(LocalDate.of(2025, 12, 31));
+            job.setFilePath(filePath);
+            if (status == ReportStatus.RUNNING) {
+                job.setStartedAt(Instant.now());
+            }
+            entityManager.persist(job);
+            return job.getId();
+        });
+    }
+
+    private int reportCount() {
+        return jdbc.queryForObject("select count(*) from report_jobs where user_id = ?", Integer.class, userId);
+    }
+
+    /** Jobs left by the other tests may still be queued or finishing. */
+    private void awaitIdlePool() {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (reportExecutor.getActiveCount() > 0 || !reportExecutor.getQueue().isEmpty()) {
+            assertThat(System.nanoTime()).as("report pool idle within 10s").isLessThan(deadline);
+            LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+        }
+    }
+
+    private void awaitStatus(UUID reportId, ReportStatus expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            ReportStatus status = reportService.getReport(userId, reportId).status();
+            if (status == expected) {
+                return;
+            }
+            assertThat(System.nanoTime()).as("report reached %s within 10s, still %s", expected, status)
+                    .isLessThan(deadline);
+            LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lothbrok.fintrack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.lothbrok.fintrack.dto.insight.BudgetSuggestionResponse;
+import com.lothbrok.fintrack.dto.report.ReportJobResponse;
+import com.lothbrok.fintrack.entity.ReportJob;
+import com.lothbrok.fintrack.entity.SpendingInsightState;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.ReportFormat;
+import com.lothbrok.fintrack.entity.enums.ReportStatus;
+import com.lothbrok.fintrack.insights.SpendingInsightEngine;
+import com.lothbrok.fintrack.insights.SpendingModel;
+import com.lothbrok.fintrack.support.MaxStatements;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+class ServiceQueryCountTests {
+
+    private static final List<String> CATEGORIES = List.of("Food", "Rent", "Transport", "Leisure");
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private InsightService insightService;
+
+    @Autowired
+    private ReportService reportService;
+
+    private UUID userId;
+    private UUID reportId;
+
+    @BeforeEach
+    void seed() {
+        TestData data = new TestData(entityManager);
+        User user = data.user("Analyst");
+        userId = user.getId();
+        SpendingModel model = new SpendingModel();
+        for (String category : CATEGORIES) {
+            model.reset();
+            for (int month = 0; month < 6; month++) {
+                model.observe(SpendingInsightEngine.epochMonth(LocalDate.of(2025, 1 + month, 10)), 10_000 + month);
+            }
+            byte[] encoded = new byte[512];
+            model.encode(encoded);
+            SpendingInsightState state = new SpendingInsightState();
+            state.setUser(user);
+            state.setCategory(category);
+            state.setState(encoded);
+            entityManager.persist(state);
+        }
+        for (int i = 0; i < 5; i++) {
+            ReportJob job = new ReportJob();
+            job.setUser(user);
+            job.setFormat(ReportFormat.XLSX);
+            job.setStatus(ReportStatus.COMPLETED);
+            job.setFromDate(LocalDate.of(2025, 1, 1));
+            job.setToDate(LocalDate.of(2025, 6, 30));
+            entityManager.persist(job);
+            reportId = job.getId();
+        }
+        data.flushAndClear();
+    }
+
+    @Test
+    @MaxStatements(1)
+    void budgetSuggestionsReadAllCategoriesInOneQuery() {
+        List<BudgetSuggestionResponse> suggestions = insightService.getBudgetSuggestions(userId, YearMonth.of(2025, 8));
+
+        assertThat(suggestions).hasSize(CATEGORIES.size());
+    }
+
+    @Test
+    @MaxStatements(1)
+    void recentReportsLoadInOneQuery() {
+        List<ReportJobResponse> reports = reportService.getRecentReports(userId);
+
+        assertThat(reports).hasSize(5);
+    }
+
+    @Test
+    @MaxStatements(1)
+    void ownedReportLoadsInOneQuery() {
+        ReportJobResponse report = reportService.getReport(userId, reportId);
+
+        assertThat(report.downloadUrl()).isNotNull();
+    }
+}
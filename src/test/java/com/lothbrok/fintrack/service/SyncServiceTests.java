@@ -0,0 +1,201 @@
+package com.lothbrok.fintrack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lothbrok.fintrack.dto.budget.BudgetResponse;
+import com.lothbrok.fintrack.dto.notification.NotificationResponse;
+import com.lothbrok.fintrack.dto.recurring.RecurringJobResponse;
+import com.lothbrok.fintrack.dto.sync.SyncResponse;
+import com.lothbrok.fintrack.dto.sync.SyncTombstone;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.entity.Notification;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.support.SqlStatements;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Sync reads the change journal, which is written at commit, so these tests commit and clean up after themselves.
+ */
+@SpringBootTest
+class SyncServiceTests {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        inTransaction(em -> userId = new TestData(em).user("Sync").getId());
+    }
+
+    @AfterEach
+    void removeCommittedRows() {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        for (String table : List.of("recurring_jobs", "notifications", "budgets", "spending_insight_states",
+                "balance_checkpoints", "transactions")) {
+            jdbc.update("delete from " + table + " where user_id = ?", userId);
+        }
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void returnsChangedRecordsAndTombstonesSinceToken() {
+        SyncResponse initial = syncService.sync(userId, null, null);
+        assertThat(initial.reset()).isTrue();
+        assertThat(initial.hasMore()).isFalse();
+
+        UUID[] ids = new UUID[3];
+        inTransaction(em -> {
+            TestData data = new TestData(em);
+            User user = em.find(User.class, userId);
+            Transaction rent = data.transaction(user, null, "Rent", "1200.00", LocalDate.of(2024, 5, 1));
+            ids[0] = rent.getId();
+            ids[1] = data.notification(user, false).getId();
+            ids[2] = data.budget(user, "2024-05", "Food", "300.00").getId();
+            data.recurringJob(user, rent, Instant.parse("2024-06-01T00:00:00Z"));
+        });
+        inTransaction(em -> {
+            em.find(Transaction.class, ids[0]).setAmount(new BigDecimal("1250.00"));
+            em.remove(em.find(Notification.class, ids[1]));
+        });
+
+        SyncResponse changes = syncService.sync(userId, initial.token(), null);
+        assertThat(changes.reset()).isFalse();
+        assertThat(changes.hasMore()).isFalse();
+        assertThat(changes.transactions()).singleElement()
+                .satisfies(transaction -> assertThat(transaction.amount()).isEqualByComparingTo("1250.00"));
+        assertThat(changes.budgets()).extracting(BudgetResponse::id).containsExactly(ids[2]);
+        assertThat(changes.recurringJobs()).extracting(RecurringJobResponse::templateTransactionId)
+                .containsExactly(ids[0]);
+        assertThat(changes.notifications()).isEmpty();
+        assertThat(changes.deleted()).containsExactly(new SyncTombstone("Notification", ids[1]));
+
+        SyncResponse upToDate = syncService.sync(userId, changes.token(), null);
+        assertThat(upToDate.token()).isEqualTo(changes.token());
+        assertThat(upToDate.transactions()).isEmpty();
+        assertThat(upToDate.deleted()).isEmpty();
+    }
+
+    @Test
+    void staleClientsCatchUpInBoundedPages() {
+        String token = syncService.sync(userId, null, null).token();
+        Set<UUID> created = new HashSet<>();
+        inTransaction(em -> {
+            TestData data = new TestData(em);
+            User user = em.find(User.class, userId);
+            for (int day = 1; day <= 7; day++) {
+                created.add(data.transaction(user, null, "Food", "10.00", LocalDate.of(2024, 5, day)).getId());
+                created.add(data.notification(user, false).getId());
+            }
+        });
+
+        List<UUID> synced = new ArrayList<>();
+        SyncResponse page;
+        int pages = 0;
+        do {
+            page = syncService.sync(userId, token, 4);
+            assertThat(page.transactions().size() + page.notifications().size()).isLessThanOrEqualTo(4);
+            page.transactions().stream().map(TransactionResponse::id).forEach(synced::add);
+            page.notifications().stream().map(NotificationResponse::id).forEach(synced::add);
+            token = page.token();
+            pages++;
+        } while (page.hasMore());
+
+        assertThat(synced).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(created);
+        assertThat(pages).isEqualTo(4);
+    }
+
+    @Test
+    void pageReadsJournalOnceAndEachTypeOnce() {
+        String token = syncService.sync(userId, null, null).token();
+        inTransaction(em -> {
+            TestData data = new TestData(em);
+            User user = em.find(User.class, userId);
+            for (int i = 0; i < 5; i++) {
+                Transaction transaction = data.transaction(user, null, "Food", "10.00", LocalDate.of(2024, 5, 1));
+                data.recurringJob(user, transaction, Instant.parse("2024-06-01T00:00:00Z"));
+                data.notification(user, false);
+                data.budget(user, "2024-0" + (i + 1), "Food", "100.00");
+            }
+        });
+
+        SqlStatements.assertAtMost(5, () -> syncService.sync(userId, token, null));
+    }
+
+    @Test
+    void rejectsMalformedTokensAndLimits() {
+        assertThatThrownBy(() -> syncService.sync(userId, "not a token", null))
+                .satisfies(hasStatus(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> syncService.sync(userId, "ajE6LTE", null))
+                .satisfies(hasStatus(HttpStatus.BAD_REQUEST));
+        String token = syncService.sync(userId, null, null).token();
+        assertThatThrownBy(() -> syncService.sync(userId, token, 0)).satisfies(hasStatus(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> syncService.sync(userId, token, 5000)).satisfies(hasStatus(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void tokensWhoseJournalEntryIsGoneHaveExpired() {
+        inTransaction(em -> new TestData(em).transaction(em.find(User.class, userId), null, "Food", "10.00",
+                LocalDate.of(2024, 5, 1)));
+        String token = syncService.sync(userId, null, null).token();
+        assertThat(syncService.sync(userId, token, null).transactions()).isEmpty();
+
+        // As if the journal had been trimmed up to the client's position.
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+
+        assertThatThrownBy(() -> syncService.sync(userId, token, null)).satisfies(hasStatus(HttpStatus.GONE));
+        assertThat(syncService.sync(userId, null, null).reset()).isTrue();
+    }
+
+    private static Consumer<Throwable> hasStatus(HttpStatus status) {
+        return e -> assertThat(e).isInstanceOfSatisfying(ResponseStatusException.class,
+                error -> assertThat(error.getStatusCode()).isEqualTo(status));
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        transactionTemplate.executeWithoutResult(status -> work.accept(entityManager));
+        // Insight states written after commit are journalled too; let them land before syncing.
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+    }
+}
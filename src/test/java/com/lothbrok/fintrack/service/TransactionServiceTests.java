@@ -0,0 +1,274 @@
+package com.lothbrok.fintrack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lothbrok.fintrack.controller.ApiHeaders;
+
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionBatchRequest;
+import com.lothbrok.fintrack.dto.transaction.TransactionOperation;
+import com.lothbrok.fintrack.dto.transaction.TransactionOperationResult;
+import com.lothbrok.fintrack.dto.transaction.TransactionResponse;
+import com.lothbrok.fintrack.dto.transaction.UpdateTransactionRequest;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.support.SqlStatements;
+import com.lothbrok.fintrack.support.TestData;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Checkpoints are written with the commit and budgets and insights after it on the event bus, so these tests commit,
+ * wait for the bus and clean up after themselves.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionServiceTests {
+
+    private static final LocalDate MAY = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        inTransaction(em -> {
+            TestData data = new TestData(em);
+            User user = data.user("Batch");
+            userId = user.getId();
+            data.budget(user, "2024-05", "Food", "100.00");
+        });
+    }
+
+    @AfterEach
+    void removeCommittedRows() {
+        awaitEvents();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints", "budgets",
+                "transactions")) {
+            jdbc.update("delete from " + table + " where user_id = ?", userId);
+        }
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void batchAppliesOperationsInOrderAndRollsUpOnce() {
+        UUID[] existing = new UUID[2];
+        inTransaction(em -> {
+            TestData data = new TestData(em);
+            User user = em.find(User.class, userId);
+            existing[0] = data.transaction(user, null, "Food", "10.00", MAY.plusDays(1)).getId();
+            existing[1] = data.transaction(user, null, "Food", "5.00", MAY.plusDays(2)).getId();
+        });
+
+        List<TransactionOperationResult> results = transactionService.applyBatch(userId, List.of(
+                create("Food", "30.00", TransactionType.EXPENSE),
+                create("Food", "45.00", TransactionType.EXPENSE),
+                new TransactionOperation(TransactionOperation.Type.UPDATE, existing[0], null,
+                        new UpdateTransactionRequest(null, new BigDecimal("20.00"), null, null, null, null, null,
+                                null, null)),
+                new TransactionOperation(TransactionOperation.Type.DELETE, existing[1], null, null),
+                create("Salary", "1000.00", TransactionType.INCOME)));
+
+        assertThat(results).extracting(TransactionOperationResult::index).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results.get(0).transaction().id()).isEqualTo(results.get(0).id()).isNotNull();
+        assertThat(results.get(2).id()).isEqualTo(existing[0]);
+        assertThat(results.get(2).transaction().amount()).isEqualByComparingTo("20.00");
+        assertThat(results.get(3).id()).isEqualTo(existing[1]);
+        assertThat(results.get(3).transaction()).isNull();
+
+        // 30 + 45 + 20 crosses the 80% threshold but stays under the amount: one alert, not one per write.
+        assertThat(usedAmount()).isEqualByComparingTo("95.00");
+        assertThat(budgetAlerts()).isEqualTo(1);
+        assertThat(jdbc.queryForObject("select net_change from balance_checkpoints where user_id = ?",
+                BigDecimal.class, userId)).isEqualByComparingTo("905.00");
+        assertThat(jdbc.queryForObject("select count(*) from transactions where user_id = ?", Integer.class,
+                userId)).isEqualTo(4);
+    }
+
+    @Test
+    void singleOperationsKeepBudgetUsage() {
+        TransactionResponse groceries = transactionService.createTransaction(userId,
+                request("Food", "85.00", TransactionType.EXPENSE));
+        assertThat(usedAmount()).isEqualByComparingTo("85.00");
+        assertThat(budgetAlerts()).isEqualTo(1);
+
+        transactionService.createTransaction(userId, request("Food", "20.00", TransactionType.EXPENSE));
+        assertThat(usedAmount()).isEqualByComparingTo("105.00");
+        assertThat(budgetAlerts()).isEqualTo(2);
+
+        TransactionResponse updated = transactionService.updateTransaction(userId, groceries.id(),
+                new UpdateTransactionRequest(null, null, null, "Dining", null, null, null, null, null));
+        assertThat(updated.category()).isEqualTo("Dining");
+        assertThat(updated.updatedAt()).isAfterOrEqualTo(groceries.updatedAt());
+        assertThat(usedAmount()).isEqualByComparingTo("20.00");
+
+        transactionService.deleteTransaction(userId, groceries.id());
+        assertThat(usedAmount()).isEqualByComparingTo("20.00");
+        assertThat(budgetAlerts()).isEqualTo(2);
+        assertThatThrownBy(() -> transactionService.deleteTransaction(userId, groceries.id()))
+                .satisfies(hasStatus(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void failedOperationRollsBackWholeBatch() {
+        assertThatThrownBy(() -> transactionService.applyBatch(userId, List.of(
+                create("Food", "90.00", TransactionType.EXPENSE),
+                new TransactionOperation(TransactionOperation.Type.DELETE, UUID.randomUUID(), null, null))))
+                .satisfies(hasStatus(HttpStatus.NOT_FOUND))
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getReason()).startsWith("Operation 1:"));
+
+        assertThat(jdbc.queryForObject("select count(*) from transactions where user_id = ?", Integer.class,
+                userId)).isZero();
+        assertThat(usedAmount()).isEqualByComparingTo("0.00");
+        assertThat(budgetAlerts()).isZero();
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        assertThatThrownBy(() -> transactionService.applyBatch(userId, List.of()))
+                .satisfies(hasStatus(HttpStatus.BAD_REQUEST));
+        List<TransactionOperation> oversized = Collections.nCopies(501, create("Food", "1.00",
+                TransactionType.EXPENSE));
+        assertThatThrownBy(() -> transactionService.applyBatch(userId, oversized))
+                .satisfies(hasStatus(HttpStatus.PAYLOAD_TOO_LARGE))
+                .hasMessageContaining("500");
+    }
+
+    @Test
+    void endpointsAnswerClientErrorsWithTheirStatus() throws Exception {
+        CreateTransactionRequest negative = request("Food", "-1.00", TransactionType.EXPENSE);
+        CreateTransactionRequest foreignWallet = new CreateTransactionRequest("Card purchase",
+                new BigDecimal("1.00"), "USD", "Food", TransactionType.EXPENSE, MAY, null, UUID.randomUUID(), null);
+
+        mockMvc.perform(post("/api/v1/transactions").header(ApiHeaders.USER_ID, userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(negative)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/transactions").header(ApiHeaders.USER_ID, userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(foreignWallet)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/v1/transactions").header(ApiHeaders.USER_ID, UUID.randomUUID().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("Food", "1.00", TransactionType.EXPENSE))))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/v1/transactions/{id}", UUID.randomUUID())
+                        .header(ApiHeaders.USER_ID, userId.toString()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/v1/transactions/batch").header(ApiHeaders.USER_ID, userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionBatchRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/transactions/batch").header(ApiHeaders.USER_ID, userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionBatchRequest(Collections.nCopies(501,
+                                create("Food", "1.00", TransactionType.EXPENSE))))))
+                .andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(post("/api/v1/transactions/batch").header(ApiHeaders.USER_ID, userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionBatchRequest(List.of(
+                                create("Food", "1.00", TransactionType.EXPENSE),
+                                create("Food", "0.00", TransactionType.EXPENSE))))))
+                .andExpect(status().isBadRequest());
+        assertThat(jdbc.queryForObject("select count(*) from transactions where user_id = ?", Integer.class,
+                userId)).isZero();
+    }
+
+    private static Consumer<Throwable> hasStatus(HttpStatus status) {
+        return e -> assertThat(e).isInstanceOfSatisfying(ResponseStatusException.class,
+                error -> assertThat(error.getStatusCode()).isEqualTo(status));
+    }
+
+    @Test
+    void batchStatementsDoNotGrowWithOperations() {
+        List<TransactionOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            operations.add(create(i % 2 == 0 ? "Food" : "Travel", "1.00", TransactionType.EXPENSE));
+        }
+
+        SqlStatements.assertAtMost(10, () -> transactionService.applyBatch(userId, operations));
+
+        assertThat(usedAmount()).isEqualByComparingTo("20.00");
+        awaitEvents();
+        assertThat(jdbc.queryForObject("select count(*) from spending_insight_states where user_id = ?",
+                Integer.class, userId)).isEqualTo(2);
+    }
+
+    private void awaitEvents() {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+    }
+
+    private BigDecimal usedAmount() {
+        awaitEvents();
+        return jdbc.queryForObject("select used_amount from budgets where user_id = ?", BigDecimal.class, userId);
+    }
+
+    private int budgetAlerts() {
+        awaitEvents();
+        return jdbc.queryForObject("select count(*) from notifications where user_id = ? and type = 'BUDGET_LIMIT'",
+                Integer.class, userId);
+    }
+
+    private static TransactionOperation create(String category, String amount, TransactionType type) {
+        return new TransactionOperation(TransactionOperation.Type.CREATE, null, request(category, amount, type),
+                null);
+    }
+
+    private static CreateTransactionRequest request(String category, String amount, TransactionType type) {
+        return new CreateTransactionRequest(category + " " + amount, new BigDecimal(amount), "USD", category, type,
+                MAY.plusDays(9), null, null, null);
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        transactionTemplate.executeWithoutResult(status -> work.accept(entityManager));
+    }
+}
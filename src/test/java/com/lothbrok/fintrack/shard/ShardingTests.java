@@ -0,0 +1,284 @@
+package com.lothbrok.fintrack.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.dto.transaction.CreateTransactionRequest;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.repository.TransactionRepository;
+import com.lothbrok.fintrack.service.TransactionService;
+
+/**
+ * Runs against four local databases: the first is created by Hibernate and its schema copied to the other three
+ * before the first test. Users are created with ids the hash ring puts on the shard a test wants.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ShardingTests.SHARD_URL + "0" + ShardingTests.SHARD_OPTIONS,
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "fintrack.sharding.shards[0].url=" + ShardingTests.SHARD_URL + "1" + ShardingTests.SHARD_OPTIONS,
+        "fintrack.sharding.shards[0].username=sa",
+        "fintrack.sharding.shards[1].url=" + ShardingTests.SHARD_URL + "2" + ShardingTests.SHARD_OPTIONS,
+        "fintrack.sharding.shards[1].username=sa",
+        "fintrack.sharding.shards[2].url=" + ShardingTests.SHARD_URL + "3" + ShardingTests.SHARD_OPTIONS,
+        "fintrack.sharding.shards[2].username=sa",
+        "fintrack.sharding.move-grace=50ms",
+        "fintrack.sharding.move-timeout=10s"
+})
+class ShardingTests {
+
+    static final String SHARD_URL = "jdbc:h2:mem:fintrack-shard";
+    static final String SHARD_OPTIONS = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;"
+            + "DB_CLOSE_DELAY=-1;NON_KEYWORDS=MONTH,YEAR,VALUE";
+
+    private static boolean shardsCreated;
+
+    @Autowired
+    private ShardDataSources shards;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private ShardDirectory directory;
+
+    @Autowired
+    private ShardMover mover;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    private final List<UUID> users = new ArrayList<>();
+
+    @BeforeEach
+    void createShards() {
+        if (!shardsCreated) {
+            List<String> schema = shard(0).queryForList("script", String.class);
+            for (int shard = 1; shard < shards.count(); shard++) {
+                schema.forEach(shard(shard)::execute);
+            }
+            shardsCreated = true;
+        }
+    }
+
+    @AfterEach
+    void removeCommittedRows() {
+        if (users.isEmpty()) {
+            return;
+        }
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        for (UUID userId : users) {
+            directory.unplace(List.of(userId));
+            shard(0).update("delete from shard_wallet_members where owner_id = ? or member_id = ?", userId, userId);
+        }
+        for (int shard = 0; shard < shards.count(); shard++) {
+            for (UUID userId : users) {
+                shard(shard).update("delete from change_journal where user_id = ?", userId);
+                shard(shard).update("delete from change_journal_heads where user_id = ?", userId);
+                shard(shard).update("delete from shared_wallet_members where member_id = ?", userId);
+                for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints",
+                        "budgets", "transactions")) {
+                    shard(shard).update("delete from " + table + " where user_id = ?", userId);
+                }
+            }
+            for (UUID userId : users) {
+                shard(shard).update("delete from balance_checkpoints where wallet_id in "
+                        + "(select id from shared_wallets where owner_id = ?)", userId);
+                shard(shard).update("delete from shared_wallets where owner_id = ?", userId);
+            }
+            for (UUID userId : users) {
+                shard(shard).update("delete from users where id = ?", userId);
+            }
+        }
+    }
+
+    @Test
+    void eachUsersRowsLiveOnlyOnTheirShard() {
+        UUID first = user(1);
+        UUID second = user(2);
+
+        UUID firstTransaction = createTransaction(first, "12.00");
+        UUID secondTransaction = createTransaction(second, "30.00");
+
+        assertThat(count(1, "transactions", first)).isEqualTo(1);
+        assertThat(count(2, "transactions", second)).isEqualTo(1);
+        for (int shard : List.of(0, 3)) {
+            assertThat(count(shard, "transactions", first) + count(shard, "transactions", second)).isZero();
+        }
+        try (ShardRouter.Scope scope = router.forUser(first)) {
+            assertThat(transactionRepository.findById(firstTransaction)).isPresent();
+            assertThat(transactionRepository.findById(secondTransaction)).isEmpty();
+        }
+        assertThat(transactionRepository.findById(firstTransaction)).isEmpty();
+        assertThatThrownBy(() -> router.forUsers(List.of(first, second)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Event consumers ran on each user's shard.
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        assertThat(count(1, "balance_checkpoints", first)).isPositive();
+        assertThat(count(2, "balance_checkpoints", second)).isPositive();
+    }
+
+    @Test
+    void walletMembersMoveToTheOwnersShardWithTheirRows() {
+        UUID owner = user(1);
+        UUID member = user(3);
+        createTransaction(member, "8.50");
+        createTransaction(member, "4.25");
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        long journal = count(3, "change_journal", member);
+        UUID walletId = createWallet(owner);
+
+        mover.colocate(walletId, owner, member);
+        addMember(walletId, member);
+
+        assertThat(router.shardOf(member)).isEqualTo(1);
+        assertThat(directory.group(owner)).containsExactlyInAnyOrder(owner, member);
+        assertThat(count(1, "transactions", member)).isEqualTo(2);
+        assertThat(count(1, "change_journal", member)).isEqualTo(journal);
+        assertThat(count(1, "users", member)).isEqualTo(1);
+        for (String table : List.of("transactions", "balance_checkpoints", "change_journal", "users")) {
+            assertThat(count(3, table, member)).as(table).isZero();
+        }
+        assertThat(shard(1).queryForObject("select count(*) from shared_wallet_members where wallet_id = ?",
+                Long.class, walletId)).isEqualTo(1);
+
+        // Both keep writing, now on the owner's shard.
+        createTransaction(member, "1.00");
+        assertThat(count(1, "transactions", member)).isEqualTo(3);
+
+        // A group moves as a whole.
+        assertThat(mover.move(member, 2)).isEqualTo(2);
+        assertThat(router.shardOf(owner)).isEqualTo(2);
+        assertThat(count(2, "transactions", member)).isEqualTo(3);
+        assertThat(shard(2).queryForObject("select count(*) from shared_wallets where owner_id = ?", Long.class,
+                owner)).isEqualTo(1);
+        assertThat(count(1, "users", owner) + count(1, "users", member)).isZero();
+    }
+
+    @Test
+    void writesAreRejectedWhileAUserIsBeingMoved() {
+        UUID userId = user(2);
+        UUID transactionId = createTransaction(userId, "5.00");
+        directory.place(List.of(userId), 2, true);
+
+        try (ShardRouter.Scope scope = router.forUser(userId)) {
+            assertThatThrownBy(() -> transactionService.createTransaction(userId, request("1.00")))
+                    .hasRootCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("being moved");
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            Boolean found = readOnly.execute(status -> transactionRepository.findById(transactionId).isPresent());
+            assertThat(found).isTrue();
+        }
+
+        directory.place(List.of(userId), 2, false);
+        createTransaction(userId, "1.00");
+        assertThat(count(2, "transactions", userId)).isEqualTo(2);
+    }
+
+    @Test
+    void addingAShardMovesOnlyItsShareOfUsers() {
+        ShardRing three = new ShardRing(3, 128);
+        ShardRing four = new ShardRing(4, 128);
+        int[] perShard = new int[4];
+        int moved = 0;
+        int users = 40_000;
+        for (int i = 0; i < users; i++) {
+            UUID userId = UUID.randomUUID();
+            int before = three.shardOf(userId);
+            int after = four.shardOf(userId);
+            perShard[after]++;
+            if (before != after) {
+                assertThat(after).isEqualTo(3);
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(users / 4 - users / 10, users / 4 + users / 10);
+        for (int count : perShard) {
+            assertThat(count).isBetween(users / 4 - users / 10, users / 4 + users / 10);
+        }
+    }
+
+    /** A user with an id the ring places on {@code shard}, inserted there. */
+    private UUID user(int shard) {
+        UUID userId;
+        do {
+            userId = UUID.randomUUID();
+        } while (router.shardOf(userId) != shard);
+        Timestamp now = Timestamp.from(Instant.now());
+        shard(shard).update("""
+                insert into users (id, email, normalized_email, password_hash, full_name, role, created_at, updated_at)
+                values (?, ?, ?, '$2a$10$abcdefghijklmnopqrstuv', 'Shard', 'USER', ?, ?)
+                """, userId, "shard-" + userId + "@example.com", "shard-" + userId + "@example.com", now, now);
+        users.add(userId);
+        return userId;
+    }
+
+    private UUID createTransaction(UUID userId, String amount) {
+        try (ShardRouter.Scope scope = router.forUser(userId)) {
+            return transactionService.createTransaction(userId, request(amount)).id();
+        }
+    }
+
+    private UUID createWallet(UUID ownerId) {
+        UUID walletId = UUID.randomUUID();
+        Timestamp now = Timestamp.from(Instant.now());
+        shard(router.shardOf(ownerId)).update("""
+                insert into shared_wallets (id, name, owner_id, created_at, updated_at) values (?, 'Trip', ?, ?, ?)
+                """, walletId, ownerId, now, now);
+        return walletId;
+    }
+
+    private void addMember(UUID walletId, UUID memberId) {
+        Timestamp now = Timestamp.from(Instant.now());
+        shard(router.shardOf(memberId)).update("""
+                insert into shared_wallet_members (id, wallet_id, member_id, share_ratio, running_balance, is_admin,
+                                                   created_at, updated_at)
+                values (?, ?, ?, 0.5, 0, false, ?, ?)
+                """, UUID.randomUUID(), walletId, memberId, now, now);
+    }
+
+    private long count(int shard, String table, UUID userId) {
+        String column = table.equals("users") ? "id" : "user_id";
+        Long count = shard(shard).queryForObject("select count(*) from " + table + " where " + column + " = ?",
+                Long.class, userId);
+        return count != null ? count : 0;
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(shards.get(shard));
+    }
+
+    private static CreateTransactionRequest request(String amount) {
+        return new CreateTransactionRequest("Card purchase", new BigDecimal(amount), "USD", "Food",
+                TransactionType.EXPENSE, LocalDate.of(2024, 6, 3), null, null, null);
+    }
+}
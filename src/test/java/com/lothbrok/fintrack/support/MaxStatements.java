@@ -0,0 +1,22 @@
+package com.lothbrok.fintrack.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Fails the annotated test when its body (excluding {@code @BeforeEach} setup) makes Hibernate prepare more than
+ * {@link #value()} SQL statements.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementBudgetExtension.class)
+public @interface MaxStatements {
+
+    int value();
+}
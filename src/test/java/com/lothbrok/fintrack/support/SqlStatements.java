@@ -0,0 +1,67 @@
+package com.lothbrok.fintrack.support;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.lothbrok.fintrack.metrics.HibernateActivity;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the calling thread while a unit of work runs. Relies on the
+ * statement inspector installed by {@code HibernateActivityListener}, so it needs a full application context.
+ */
+public final class SqlStatements {
+
+    public record Recording(long count, List<String> statements) {
+
+        String describe() {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < statements.size(); i++) {
+                builder.append(System.lineSeparator()).append("  ").append(i + 1).append(". ").append(statements.get(i));
+            }
+            if (statements.size() < count) {
+                builder.append(System.lineSeparator()).append("  (only the last ").append(statements.size())
+                        .append(" statements are shown)");
+            }
+            return builder.toString();
+        }
+    }
+
+    private SqlStatements() {
+    }
+
+    public static long reading() {
+        return HibernateActivity.current().statements();
+    }
+
+    public static Recording since(long reading) {
+        HibernateActivity activity = HibernateActivity.current();
+        return new Recording(activity.statements() - reading, activity.statementsSince(reading));
+    }
+
+    public static Recording record(Runnable work) {
+        long before = reading();
+        work.run();
+        return since(before);
+    }
+
+    public static void assertAtMost(int max, Runnable work) {
+        assertAtMost(max, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static <T> T assertAtMost(int max, Supplier<T> work) {
+        long before = reading();
+        T result = work.get();
+        check(max, since(before));
+        return result;
+    }
+
+    static void check(int max, Recording recording) {
+        if (recording.count() > max) {
+            throw new AssertionError("Expected at most " + max + " SQL statement(s) but " + recording.count()
+                    + " were executed:" + recording.describe());
+        }
+    }
+}
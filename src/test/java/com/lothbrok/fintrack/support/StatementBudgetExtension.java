@@ -0,0 +1,28 @@
+package com.lothbrok.fintrack.support;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+class StatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+            .create(StatementBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), SqlStatements.reading());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        Long before = context.getStore(NAMESPACE).remove(context.getUniqueId(), Long.class);
+        MaxStatements budget = AnnotatedElementUtils.findMergedAnnotation(context.getRequiredTestMethod(),
+                MaxStatements.class);
+        if (before == null || budget == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+        SqlStatements.check(budget.value(), SqlStatements.since(before));
+    }
+}
@@ -0,0 +1,106 @@
+package com.lothbrok.fintrack.support;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.lothbrok.fintrack.entity.Budget;
+import com.lothbrok.fintrack.entity.Notification;
+import com.lothbrok.fintrack.entity.RecurringJob;
+import com.lothbrok.fintrack.entity.SharedWallet;
+import com.lothbrok.fintrack.entity.SharedWalletMember;
+import com.lothbrok.fintrack.entity.Transaction;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.entity.enums.NotificationType;
+import com.lothbrok.fintrack.entity.enums.RecurringFrequency;
+import com.lothbrok.fintrack.entity.enums.TransactionType;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Persists minimal valid entities for integration tests. Callers flush and clear the entity manager before
+ * measuring, so lazy associations are really loaded from the database.
+ */
+public final class TestData {
+
+    private final EntityManager entityManager;
+
+    public TestData(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public User user(String name) {
+        User user = new User();
+        user.setEmail(name.toLowerCase() + "-" + UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("$2a$10$abcdefghijklmnopqrstuv");
+        user.setFullName(name);
+        entityManager.persist(user);
+        return user;
+    }
+
+    public Transaction transaction(User user, SharedWallet wallet, String category, String amount, LocalDate date) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setSharedWallet(wallet);
+        transaction.setTitle(category + " purchase");
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCategory(category);
+        transaction.setType(TransactionType.EXPENSE);
+        transaction.setEventDate(date);
+        entityManager.persist(transaction);
+        return transaction;
+    }
+
+    public Budget budget(User user, String month, String category, String amount) {
+        Budget budget = new Budget();
+        budget.setUser(user);
+        budget.setMonth(month);
+        budget.setCategory(category);
+        budget.setAmount(new BigDecimal(amount));
+        entityManager.persist(budget);
+        return budget;
+    }
+
+    public Notification notification(User user, boolean read) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(NotificationType.SYSTEM);
+        notification.setTitle("Notice");
+        notification.setMessage("Something happened");
+        notification.setRead(read);
+        entityManager.persist(notification);
+        return notification;
+    }
+
+    public RecurringJob recurringJob(User user, Transaction template, Instant nextRunAt) {
+        RecurringJob job = new RecurringJob();
+        job.setUser(user);
+        job.setTemplateTransaction(template);
+        job.setFrequency(RecurringFrequency.MONTHLY);
+        job.setNextRunAt(nextRunAt);
+        entityManager.persist(job);
+        return job;
+    }
+
+    public SharedWallet wallet(User owner, String name, User... members) {
+        SharedWallet wallet = new SharedWallet();
+        wallet.setOwner(owner);
+        wallet.setName(name);
+        entityManager.persist(wallet);
+        for (User user : members) {
+            SharedWalletMember member = new SharedWalletMember();
+            member.setWallet(wallet);
+            member.setMember(user);
+            member.setShareRatio(new BigDecimal("0.5000"));
+            wallet.getMembers().add(member);
+            entityManager.persist(member);
+        }
+        return wallet;
+    }
+
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
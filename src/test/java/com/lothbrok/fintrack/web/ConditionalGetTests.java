@@ -0,0 +1,146 @@
+package com.lothbrok.fintrack.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lothbrok.fintrack.controller.ApiHeaders;
+import com.lothbrok.fintrack.entity.User;
+import com.lothbrok.fintrack.event.TransactionEventBus;
+import com.lothbrok.fintrack.support.SqlStatements;
+import com.lothbrok.fintrack.support.TestData;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Versions advance when writes commit, so these tests commit and clean up after themselves.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private TransactionEventBus eventBus;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            TestData data = new TestData(entityManager);
+            User user = data.user("Etag");
+            userId = user.getId();
+            data.transaction(user, null, "Food", "12.00", LocalDate.of(2024, 2, 3));
+        });
+        // The insight state written after commit bumps the version too.
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+    }
+
+    @AfterEach
+    void removeCommittedRows() {
+        assertThat(eventBus.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        jdbc.update("delete from change_journal where user_id = ?", userId);
+        jdbc.update("delete from change_journal_heads where user_id = ?", userId);
+        for (String table : List.of("notifications", "spending_insight_states", "balance_checkpoints",
+                "transactions")) {
+            jdbc.update("delete from " + table + " where user_id = ?", userId);
+        }
+        jdbc.update("delete from shared_wallets where owner_id = ?", userId);
+        jdbc.update("delete from users where id = ?", userId);
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithoutQuerying() throws Exception {
+        String etag = mockMvc.perform(monthly("2024-01", "2024-03"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+
+        long before = SqlStatements.reading();
+        mockMvc.perform(monthly("2024-01", "2024-03").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        assertThat(SqlStatements.since(before).count()).isZero();
+
+        mockMvc.perform(monthly("2024-01", "2024-04").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertThat(registry.get(ConditionalGetInterceptor.REQUESTS).tag("outcome", "hit").counter().count())
+                .isPositive();
+        assertThat(registry.get("fintrack.http.conditional.hit.ratio").gauge().value()).isPositive();
+    }
+
+    @Test
+    void committedWriteChangesTheEtag() throws Exception {
+        String etag = mockMvc.perform(monthly("2024-01", "2024-03"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        transactionTemplate.executeWithoutResult(status -> new TestData(entityManager)
+                .transaction(entityManager.find(User.class, userId), null, "Food", "5.00", LocalDate.of(2024, 3, 9)));
+
+        String fresh = mockMvc.perform(monthly("2024-01", "2024-03").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(fresh).isNotEqualTo(etag);
+    }
+
+    @Test
+    void walletScopedRequestsAreAlwaysServed() throws Exception {
+        UUID walletId = transactionTemplate.execute(status -> new TestData(entityManager)
+                .wallet(entityManager.find(User.class, userId), "Household").getId());
+
+        mockMvc.perform(monthly("2024-01", "2024-03").param("walletId", walletId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void ifNoneMatchUsesWeakComparison() {
+        assertThat(ConditionalGetInterceptor.matches("W/\"7-abc\"", "W/\"7-abc\"")).isTrue();
+        assertThat(ConditionalGetInterceptor.matches("\"7-abc\"", "W/\"7-abc\"")).isTrue();
+        assertThat(ConditionalGetInterceptor.matches("*", "W/\"7-abc\"")).isTrue();
+        assertThat(ConditionalGetInterceptor.matches("W/\"8-abc\"", "W/\"7-abc\"")).isFalse();
+        assertThat(ConditionalGetInterceptor.matches(null, "W/\"7-abc\"")).isFalse();
+    }
+
+    private MockHttpServletRequestBuilder monthly(String from, String to) {
+        return get("/api/v1/balances/monthly")
+                .header(ApiHeaders.USER_ID, userId.toString())
+                .param("from", from)
+                .param("to", to);
+    }
+}